@@ -161,7 +161,7 @@ public class Create extends InstallAbstract {
    @Option(names = "--max-hops", description = "Number of hops on the cluster configuration.")
    private int maxHops = 0;
 
-   @Option(names = "--message-load-balancing", description = "Message load balancing policy for cluster. Default: ON_DEMAND. Valid values: ON_DEMAND, STRICT, OFF, OFF_WITH_REDISTRIBUTION.")
+   @Option(names = "--message-load-balancing", description = "Message load balancing policy for cluster. Default: ON_DEMAND. Valid values: ON_DEMAND, STRICT, OFF, OFF_WITH_REDISTRIBUTION, ON_DEMAND_WEIGHTED.")
    private MessageLoadBalancingType messageLoadBalancing = MessageLoadBalancingType.ON_DEMAND;
 
    @Option(names = "--replicated", description = "Enable broker replication.")
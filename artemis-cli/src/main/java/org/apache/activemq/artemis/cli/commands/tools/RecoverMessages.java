@@ -107,6 +107,7 @@ public class RecoverMessages extends DBOption {
       userRecordsOfInterest.add(JournalRecordIds.ADD_LARGE_MESSAGE);
       userRecordsOfInterest.add(JournalRecordIds.ADD_MESSAGE);
       userRecordsOfInterest.add(JournalRecordIds.ADD_MESSAGE_PROTOCOL);
+      userRecordsOfInterest.add(JournalRecordIds.ADD_MESSAGE_COMPRESSED);
       userRecordsOfInterest.add(JournalRecordIds.ADD_REF);
       userRecordsOfInterest.add(JournalRecordIds.PAGE_TRANSACTION);
 
@@ -161,7 +162,7 @@ public class RecoverMessages extends DBOption {
             public void onReadAddRecord(RecordInfo info) throws Exception {
                if (userRecordsOfInterest.contains(info.getUserRecordType())) {
 
-                  if (targetJournal.getRecords().get(info.id) != null) {
+                  if (targetJournal.getRecords().contains(info.id)) {
                      // Really meant System.out.. user's information on the CLI
                      context.out.println("RecordID " + info.id + " would been duplicated, ignoring it");
                      return;
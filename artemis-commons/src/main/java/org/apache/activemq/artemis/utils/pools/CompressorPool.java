@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.pools;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A pool of {@link Deflater}s or {@link Inflater}s, which hold native memory until they are ended.
+ * <p>
+ * An instance is reset when it is released, and ended if the pool is already full. {@link #clear()} ends the idle
+ * instances, e.g. on shutdown, while the ones borrowed meanwhile are pooled again when they are released.
+ * @param <T>
+ */
+public final class CompressorPool<T> {
+
+   private final Queue<T> idle;
+
+   private final Supplier<T> supplier;
+
+   private final Consumer<T> reset;
+
+   private final Consumer<T> end;
+
+   public CompressorPool(int maxSize, Supplier<T> supplier, Consumer<T> reset, Consumer<T> end) {
+      this.idle = new ArrayBlockingQueue<>(maxSize);
+      this.supplier = supplier;
+      this.reset = reset;
+      this.end = end;
+   }
+
+   public static CompressorPool<Deflater> deflaters(int maxSize, int level) {
+      return new CompressorPool<>(maxSize, () -> new Deflater(level), Deflater::reset, Deflater::end);
+   }
+
+   public static CompressorPool<Inflater> inflaters(int maxSize) {
+      return new CompressorPool<>(maxSize, Inflater::new, Inflater::reset, Inflater::end);
+   }
+
+   public T borrow() {
+      final T instance = idle.poll();
+      return instance != null ? instance : supplier.get();
+   }
+
+   public void release(T instance) {
+      reset.accept(instance);
+      if (!idle.offer(instance)) {
+         end.accept(instance);
+      }
+   }
+
+   /**
+    * Ends the idle instances.
+    */
+   public void clear() {
+      T instance;
+      while ((instance = idle.poll()) != null) {
+         end.accept(instance);
+      }
+   }
+
+   public int getIdleCount() {
+      return idle.size();
+   }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.pools;
+
+import java.util.zip.Deflater;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressorPoolTest {
+
+   private static boolean isEnded(Deflater deflater) {
+      try {
+         deflater.getAdler();
+         return false;
+      } catch (NullPointerException e) {
+         return true;
+      }
+   }
+
+   @Test
+   public void testReleasedInstancesAreResetAndReused() {
+      CompressorPool<Deflater> pool = CompressorPool.deflaters(1, Deflater.BEST_SPEED);
+
+      Deflater deflater = pool.borrow();
+      deflater.setInput(new byte[100]);
+      deflater.finish();
+      deflater.deflate(new byte[100]);
+      Assert.assertTrue(deflater.finished());
+      pool.release(deflater);
+      Assert.assertEquals(1, pool.getIdleCount());
+
+      Assert.assertSame(deflater, pool.borrow());
+      Assert.assertFalse(deflater.finished());
+      Assert.assertEquals(0, pool.getIdleCount());
+      pool.release(deflater);
+   }
+
+   @Test
+   public void testInstancesAreEnded() {
+      CompressorPool<Deflater> pool = CompressorPool.deflaters(1, Deflater.BEST_SPEED);
+
+      Deflater first = pool.borrow();
+      Deflater second = pool.borrow();
+      Assert.assertNotSame(first, second);
+      pool.release(first);
+      // the pool is full
+      pool.release(second);
+      Assert.assertFalse(isEnded(first));
+      Assert.assertTrue(isEnded(second));
+
+      pool.clear();
+      Assert.assertTrue(isEnded(first));
+      Assert.assertEquals(0, pool.getIdleCount());
+
+      // an instance borrowed while the pool is cleared is pooled again
+      Deflater third = pool.borrow();
+      pool.clear();
+      pool.release(third);
+      Assert.assertFalse(isEnded(third));
+      Assert.assertEquals(1, pool.getIdleCount());
+      pool.clear();
+   }
+}
@@ -111,6 +111,7 @@ public final class ActiveMQDefaultConfiguration {
    // is NIO or AIO.
    private static int DEFAULT_JOURNAL_MAX_IO_AIO = 4096;
    private static int DEFAULT_JOURNAL_POOL_FILES = -1;
+   private static int DEFAULT_JOURNAL_LOAD_THREADS = 1;
    private static int DEFAULT_JOURNAL_BUFFER_TIMEOUT_AIO = ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_AIO;
    private static int DEFAULT_JOURNAL_BUFFER_SIZE_AIO = ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_AIO;
    private static int DEFAULT_JOURNAL_MAX_IO_NIO = 1;
@@ -293,6 +294,27 @@ public final class ActiveMQDefaultConfiguration {
    // The percentage of live data on which we consider compacting the journal
    private static int DEFAULT_JOURNAL_COMPACT_PERCENTAGE = 30;
 
+   // Whether the message journal is compacted on stop when it holds at least a file worth of dead records
+   private static boolean DEFAULT_JOURNAL_COMPACT_ON_STOP = false;
+
+   // How often, in milliseconds, the message journal checks whether it needs compacting, besides when it moves to a new file. -1 disables it
+   private static long DEFAULT_JOURNAL_COMPACT_CHECK_PERIOD = -1;
+
+   // How many bytes per second compacting may read from the journal files, -1 means no limit
+   private static long DEFAULT_JOURNAL_COMPACT_MAX_READ_RATE = -1;
+
+   // Whether the index of the live message journal records is kept in direct memory instead of the heap
+   private static boolean DEFAULT_JOURNAL_OFF_HEAP_RECORD_INDEX = false;
+
+   // The minimal encoded size of a message from which it is deflated on the message journal, -1 means never
+   private static int DEFAULT_JOURNAL_COMPRESSION_MIN_SIZE = -1;
+
+   // Whether the journal buffer adjusts its flush timeout to the measured sync latency and sync requests
+   private static boolean DEFAULT_JOURNAL_BUFFER_TIMEOUT_ADAPTIVE = false;
+
+   // Whether the syncs of the NIO journals on the same device are gathered into group commits
+   private static boolean DEFAULT_JOURNAL_GROUP_COMMIT = false;
+
    // The time to wait when opening a new journal file before failing
    private static int DEFAULT_JOURNAL_FILE_OPEN_TIMEOUT = 5;
 
@@ -424,6 +446,15 @@ public final class ActiveMQDefaultConfiguration {
    // This specifies how many times a replicated backup server can restart after moving its files on start. Once there are this number of backup journal files the server will stop permanently after if fails back.
    private static int DEFAULT_MAX_SAVED_REPLICATED_JOURNALS_SIZE = 2;
 
+   // Whether a replicating primary completes the durable operations once they are persisted locally, without waiting for the backup
+   private static boolean DEFAULT_ASYNC_REPLICATION = false;
+
+   // The bytes of replicated operations an asynchronously replicating primary lets the backup lag behind before waiting for it again, -1 means no bound
+   private static long DEFAULT_MAX_REPLICATION_LAG_SIZE = 10 * 1024 * 1024;
+
+   // The milliseconds an asynchronously replicating primary lets the backup lag behind before waiting for it again, -1 means no bound
+   private static long DEFAULT_MAX_REPLICATION_LAG_TIME = 1000;
+
    // Will this server, if a backup, restart once it has been stopped because of failback or scaling down.
    private static boolean DEFAULT_RESTART_BACKUP = true;
 
@@ -433,6 +464,9 @@ public final class ActiveMQDefaultConfiguration {
    // When a replica comes online this is how long the replicating server will wait for a confirmation from the replica that the replication synchronization process is complete
    private static long DEFAULT_INITIAL_REPLICATION_SYNC_TIMEOUT = 30000;
 
+   // How many files the replicating server sends at once to a replica synchronizing its data
+   private static int DEFAULT_REPLICATION_SYNC_STREAMS = 1;
+
    // Will this backup server come live on a normal server shutdown
    private static boolean DEFAULT_FAILOVER_ON_SERVER_SHUTDOWN = false;
 
@@ -510,6 +544,10 @@ public final class ActiveMQDefaultConfiguration {
 
    public static final long DEFAULT_GLOBAL_MAX_MESSAGES = -1;
 
+   public static final long DEFAULT_GLOBAL_PAGE_CACHE_MAX_SIZE = -1;
+
+   public static final boolean DEFAULT_PAGING_MAPPED_READS = false;
+
    public static final int DEFAULT_MAX_DISK_USAGE;
 
    static {
@@ -1056,6 +1094,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_JOURNAL_POOL_FILES;
    }
 
+   /**
+    * How many journal files are read concurrently when loading the journal
+    */
+   public static int getDefaultJournalLoadThreads() {
+      return DEFAULT_JOURNAL_LOAD_THREADS;
+   }
+
    /**
     * The percentage of live data on which we consider compacting the journal
     */
@@ -1063,6 +1108,55 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_JOURNAL_COMPACT_PERCENTAGE;
    }
 
+   /**
+    * Whether the message journal is compacted on stop when it holds at least a file worth of dead records
+    */
+   public static boolean isDefaultJournalCompactOnStop() {
+      return DEFAULT_JOURNAL_COMPACT_ON_STOP;
+   }
+
+   /**
+    * How often, in milliseconds, the message journal checks whether it needs compacting, besides when it moves to a new file. -1 disables it
+    */
+   public static long getDefaultJournalCompactCheckPeriod() {
+      return DEFAULT_JOURNAL_COMPACT_CHECK_PERIOD;
+   }
+
+   /**
+    * How many bytes per second compacting may read from the journal files, -1 means no limit
+    */
+   public static long getDefaultJournalCompactMaxReadRate() {
+      return DEFAULT_JOURNAL_COMPACT_MAX_READ_RATE;
+   }
+
+   /**
+    * Whether the index of the live message journal records is kept in direct memory instead of the heap
+    */
+   public static boolean isDefaultJournalOffHeapRecordIndex() {
+      return DEFAULT_JOURNAL_OFF_HEAP_RECORD_INDEX;
+   }
+
+   /**
+    * The minimal encoded size of a message from which it is deflated on the message journal, -1 means never
+    */
+   public static int getDefaultJournalCompressionMinSize() {
+      return DEFAULT_JOURNAL_COMPRESSION_MIN_SIZE;
+   }
+
+   /**
+    * Whether the journal buffer adjusts its flush timeout to the measured sync latency and sync requests
+    */
+   public static boolean isDefaultJournalBufferTimeoutAdaptive() {
+      return DEFAULT_JOURNAL_BUFFER_TIMEOUT_ADAPTIVE;
+   }
+
+   /**
+    * Whether the syncs of the NIO journals on the same device are gathered into group commits
+    */
+   public static boolean isDefaultJournalGroupCommit() {
+      return DEFAULT_JOURNAL_GROUP_COMMIT;
+   }
+
    public static int getDefaultJournalFileOpenTimeout() {
       return DEFAULT_JOURNAL_FILE_OPEN_TIMEOUT;
    }
@@ -1365,6 +1459,27 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_MAX_SAVED_REPLICATED_JOURNALS_SIZE;
    }
 
+   /**
+    * Whether a replicating primary completes the durable operations once they are persisted locally, without waiting for the backup
+    */
+   public static boolean isDefaultAsyncReplication() {
+      return DEFAULT_ASYNC_REPLICATION;
+   }
+
+   /**
+    * The bytes of replicated operations an asynchronously replicating primary lets the backup lag behind before waiting for it again, -1 means no bound
+    */
+   public static long getDefaultMaxReplicationLagSize() {
+      return DEFAULT_MAX_REPLICATION_LAG_SIZE;
+   }
+
+   /**
+    * The milliseconds an asynchronously replicating primary lets the backup lag behind before waiting for it again, -1 means no bound
+    */
+   public static long getDefaultMaxReplicationLagTime() {
+      return DEFAULT_MAX_REPLICATION_LAG_TIME;
+   }
+
    /**
     * Will this server, if a backup, restart once it has been stopped because of failback or scaling down.
     */
@@ -1386,6 +1501,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_INITIAL_REPLICATION_SYNC_TIMEOUT;
    }
 
+   /**
+    * How many files the replicating server sends at once to a replica synchronizing its data
+    */
+   public static int getDefaultReplicationSyncStreams() {
+      return DEFAULT_REPLICATION_SYNC_STREAMS;
+   }
+
    /**
     * if we have to start as a replicated server this is the delay to wait before fail-back occurs
     *
@@ -1545,6 +1667,21 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_GLOBAL_MAX_MESSAGES;
    }
 
+   /**
+    * Up to how many bytes of decoded pages in memory across all addresses the pages no longer in use are kept. -1 =
+    * released pages aren't kept.
+    */
+   public static long getDefaultGlobalPageCacheMaxSize() {
+      return DEFAULT_GLOBAL_PAGE_CACHE_MAX_SIZE;
+   }
+
+   /**
+    * Whether the page files no longer being written are read through a memory mapping.
+    */
+   public static boolean isDefaultPagingMappedReads() {
+      return DEFAULT_PAGING_MAPPED_READS;
+   }
+
    public static int getDefaultMaxDiskUsage() {
       return DEFAULT_MAX_DISK_USAGE;
    }
@@ -195,6 +195,11 @@ public final class ChannelImpl implements Channel {
             return version >= PacketImpl.ARTEMIS_2_18_0_VERSION;
          case PacketImpl.SESS_BINDINGQUERY_RESP_V5:
             return version >= PacketImpl.ARTEMIS_2_29_0_VERSION;
+         case PacketImpl.REPLICATION_BATCH:
+         case PacketImpl.REPLICATION_BATCH_RESPONSE:
+         case PacketImpl.REPLICATION_SYNC_FILE_STATE:
+         case PacketImpl.REPLICATION_SYNC_FILE_STATE_RESPONSE:
+            return version >= PacketImpl.ARTEMIS_2_32_0_VERSION;
          default:
             return true;
       }
@@ -53,6 +53,9 @@ public class PacketImpl implements Packet {
    // 2.29.0
    public static final int ARTEMIS_2_29_0_VERSION = 135;
 
+   // 2.32.0
+   public static final int ARTEMIS_2_32_0_VERSION = 136;
+
    public static final SimpleString OLD_QUEUE_PREFIX = new SimpleString("jms.queue.");
    public static final SimpleString OLD_TEMP_QUEUE_PREFIX = new SimpleString("jms.tempqueue.");
    public static final SimpleString OLD_TOPIC_PREFIX = new SimpleString("jms.topic.");
@@ -305,6 +308,14 @@ public class PacketImpl implements Packet {
 
    public static final byte SESS_BINDINGQUERY_RESP_V5 = -22;
 
+   public static final byte REPLICATION_BATCH = -23;
+
+   public static final byte REPLICATION_BATCH_RESPONSE = -24;
+
+   public static final byte REPLICATION_SYNC_FILE_STATE = -25;
+
+   public static final byte REPLICATION_SYNC_FILE_STATE_RESPONSE = -26;
+
    public PacketImpl(final byte type) {
       this.type = type;
    }
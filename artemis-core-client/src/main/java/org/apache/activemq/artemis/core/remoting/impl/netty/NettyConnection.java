@@ -27,9 +27,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelOutboundHandler;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
+import io.netty.channel.socket.SocketChannel;
 import io.netty.util.concurrent.FastThreadLocal;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQInterruptedException;
@@ -290,6 +294,36 @@ public class NettyConnection implements Connection {
       }
    }
 
+   @Override
+   public boolean isFileRegionSupported() {
+      // a file region goes through the pipeline as it is: only a plain socket can write it
+      if (!(channel instanceof SocketChannel)) {
+         return false;
+      }
+      for (Map.Entry<String, ChannelHandler> entry : channel.pipeline()) {
+         final ChannelHandler handler = entry.getValue();
+         if (handler instanceof ChannelOutboundHandler && !(handler instanceof ActiveMQChannelHandler)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public void write(FileRegion fileRegion, boolean requestFlush, ChannelFutureListener futureListener) {
+      final Channel channel = this.channel;
+      final ChannelPromise promise = futureListener == null ? channel.voidPromise() : channel.newPromise();
+      final ChannelFuture future;
+      if (requestFlush) {
+         future = channel.writeAndFlush(fileRegion, promise);
+      } else {
+         future = channel.write(fileRegion, promise);
+      }
+      if (futureListener != null) {
+         future.addListener(futureListener);
+      }
+   }
+
    @Override
    public void flush() {
       checkConnectionState();
@@ -20,6 +20,7 @@ import java.util.concurrent.TimeUnit;
 
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
 import org.apache.activemq.artemis.core.security.ActiveMQPrincipal;
@@ -119,6 +120,35 @@ public interface Connection {
     */
    void write(ActiveMQBuffer buffer);
 
+   /**
+    * Whether {@link #write(FileRegion, boolean, ChannelFutureListener)} is supported, sending file contents without copying them through
+    * the heap. It isn't when the data written is transformed before reaching the wire, e.g. by TLS.
+    * <p>
+    * Callers must check it before using that method, as it depends on the handlers of the connection.
+    */
+   default boolean isFileRegionSupported() {
+      return false;
+   }
+
+   /**
+    * writes the file region to the connection, right after the buffers written before it, and if requestFlush is true
+    * request to flush them into the wire.
+    * <p>
+    * Only connections returning {@code true} from {@link #isFileRegionSupported()} may be written file regions: the
+    * others throw without writing the region or notifying {@code futureListener}, and the region stays the caller's.
+    * <p>
+    * The region doesn't count toward the writability of the connection: {@code futureListener}, if not {@code null},
+    * is notified once it is written.
+    *
+    * @param fileRegion     the file region to write
+    * @param requestFlush   whether to request flush onto the wire
+    * @param futureListener notified once the region is written, or {@code null}
+    * @throws UnsupportedOperationException if {@link #isFileRegionSupported()} is {@code false}
+    */
+   default void write(FileRegion fileRegion, boolean requestFlush, ChannelFutureListener futureListener) {
+      throw new UnsupportedOperationException("File regions aren't supported by " + getClass().getName());
+   }
+
    /**
     * This should close the internal channel without calling any listeners.
     * This is to avoid a situation where the broker is busy writing on an internal thread.
@@ -20,6 +20,7 @@ import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.List;
 
+import org.apache.activemq.artemis.core.io.buffer.TimedBuffer;
 import org.apache.activemq.artemis.utils.critical.CriticalAnalyzer;
 
 /**
@@ -145,6 +146,20 @@ public interface SequentialFileFactory {
 
    long getBufferSize();
 
+   /**
+    * @return the buffer that batches the writes of the files, or {@code null} if writes aren't buffered
+    */
+   default TimedBuffer getTimedBuffer() {
+      return null;
+   }
+
+   /**
+    * @return the group the syncs of the files are gathered in, or {@code null} if each write syncs on its own
+    */
+   default SyncGroup getSyncGroup() {
+      return null;
+   }
+
    /** Only JDBC supports individual context.
     *  Meaning for Files we need to use the Sync scheduler.
     *  for JDBC we need to use a callback from the JDBC completion thread to complete the IOContexts. */
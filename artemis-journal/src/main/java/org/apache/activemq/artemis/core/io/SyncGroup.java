@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
+import org.slf4j.LoggerFactory;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+
+/**
+ * Group commit of the files of a device: the syncs requested on them while a round of syncs is running are gathered
+ * into the next round, which syncs each file once however many records wait on it, and only then completes their
+ * callbacks.
+ * <p>
+ * A round syncs the files in the order of their last request, so a record is never synced before the records
+ * requested on other files before it. The files are synced holding their monitor, the one they are closed with: a file
+ * being closed calls {@link #syncNow(SequentialFile)} to complete the requests still pending on it.
+ */
+public final class SyncGroup {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   // must be an ordered executor: the rounds never overlap
+   private final Executor executor;
+
+   private final AtomicLong requests = new AtomicLong(0);
+
+   private final AtomicLong syncs = new AtomicLong(0);
+
+   // the files to sync on the next round, each in the position of its last request
+   private LinkedHashMap<SequentialFile, List<IOCallback>> pending = new LinkedHashMap<>();
+
+   // the files of the running round not synced yet
+   private Map<SequentialFile, List<IOCallback>> syncing = Collections.emptyMap();
+
+   private boolean scheduled;
+
+   public SyncGroup(Executor executor) {
+      this.executor = executor;
+   }
+
+   /**
+    * Requests a sync of {@code file}, completing {@code callback} once it is done.
+    */
+   public void sync(SequentialFile file, IOCallback callback) {
+      requests.incrementAndGet();
+      synchronized (this) {
+         List<IOCallback> callbacks = pending.remove(file);
+         if (callbacks == null) {
+            callbacks = new ArrayList<>();
+         }
+         callbacks.add(callback);
+         pending.put(file, callbacks);
+         if (!scheduled) {
+            scheduled = true;
+            executor.execute(this::syncPending);
+         }
+      }
+   }
+
+   /**
+    * Syncs right away {@code file}, if any sync is pending on it.
+    */
+   public void syncNow(SequentialFile file) {
+      synchronized (file) {
+         final List<IOCallback> callbacks = take(file, true);
+         if (callbacks != null) {
+            sync(file, callbacks);
+         }
+      }
+   }
+
+   public long getRequests() {
+      return requests.get();
+   }
+
+   public long getSyncs() {
+      return syncs.get();
+   }
+
+   private void syncPending() {
+      final List<SequentialFile> files;
+      synchronized (this) {
+         syncing = pending;
+         pending = new LinkedHashMap<>();
+         // the requests from now on go to the next round, which the executor runs after this one
+         scheduled = false;
+         files = new ArrayList<>(syncing.keySet());
+      }
+      for (SequentialFile file : files) {
+         synchronized (file) {
+            // null if the file has been synced meanwhile on close
+            final List<IOCallback> callbacks = take(file, false);
+            if (callbacks != null) {
+               sync(file, callbacks);
+            }
+         }
+      }
+   }
+
+   /**
+    * @param all whether to take also the requests of the next round, instead of leaving them for it
+    */
+   private synchronized List<IOCallback> take(SequentialFile file, boolean all) {
+      final List<IOCallback> callbacks = syncing.remove(file);
+      if (!all) {
+         return callbacks;
+      }
+      final List<IOCallback> next = pending.remove(file);
+      if (callbacks == null || next == null) {
+         return callbacks != null ? callbacks : next;
+      }
+      callbacks.addAll(next);
+      return callbacks;
+   }
+
+   private void sync(SequentialFile file, List<IOCallback> callbacks) {
+      try {
+         if (file.isOpen()) {
+            file.sync();
+            syncs.incrementAndGet();
+         }
+      } catch (Exception e) {
+         logger.debug("Error syncing {}", file, e);
+         IOCallback.onError(callbacks, ActiveMQExceptionType.IO_ERROR.getCode(), e.getMessage());
+         return;
+      }
+      IOCallback.done(callbacks);
+   }
+}
@@ -58,6 +58,12 @@ public final class TimedBuffer extends CriticalComponentImpl {
    // The number of tries on sleep before switching to spin
    private static final int MAX_CHECKS_ON_SLEEP = 20;
 
+   // When adaptive, the flush timeout can grow up to this factor of the configured timeout
+   static final int MAX_ADAPTIVE_TIMEOUT_FACTOR = 4;
+
+   // The weight of the last sample on the moving averages of the sync latency and of the sync requests interval
+   private static final double SAMPLE_WEIGHT = 0.125;
+
 
    // If the TimedBuffer is idle - i.e. no records are being added, then it's pointless the timer flush thread
    // in spinning and checking the time - and using up CPU in the process - this semaphore is used to
@@ -69,6 +75,15 @@ public final class TimedBuffer extends CriticalComponentImpl {
    private final boolean logRates;
    private final AtomicLong bytesFlushed = new AtomicLong(0);
    private final AtomicLong flushesDone = new AtomicLong(0);
+   private final AtomicLong recordsFlushed = new AtomicLong(0);
+   // moving average of the time a synced flush takes to complete, including the device sync
+   private volatile long syncLatency;
+   // the time the timer waits for more records after a flush, adjusted to the device when adaptive
+   private volatile long flushTimeout;
+   private volatile boolean adaptive;
+   // moving average of the time between two sync requests, updated when adaptive
+   private long syncRequestInterval;
+   private long lastSyncRequest;
    private TimedBufferObserver bufferObserver;
    private CheckTimer timerRunnable;
    private int bufferLimit = 0;
@@ -115,6 +130,51 @@ public final class TimedBuffer extends CriticalComponentImpl {
       callbacks = new ArrayList<>();
 
       this.timeout = timeout;
+
+      this.flushTimeout = timeout;
+   }
+
+   /**
+    * When adaptive, the time the buffer waits for more records after a flush follows the measured latency of the
+    * synced flushes: while sync requests come faster than the device completes a sync it waits about one sync, so
+    * the next flush batches the records sent meanwhile; while they come slower it flushes right away, as waiting
+    * would only add latency. The timeout is kept within {@link #MAX_ADAPTIVE_TIMEOUT_FACTOR} times the configured one.
+    */
+   public TimedBuffer setAdaptive(boolean adaptive) {
+      this.adaptive = adaptive;
+      if (!adaptive) {
+         flushTimeout = timeout;
+      }
+      return this;
+   }
+
+   public boolean isAdaptive() {
+      return adaptive;
+   }
+
+   /**
+    * @return the nanoseconds the buffer currently waits for more records after a flush
+    */
+   public long getFlushTimeout() {
+      return flushTimeout;
+   }
+
+   public long getFlushes() {
+      return flushesDone.get();
+   }
+
+   /**
+    * @return how many records have been flushed, which divided by {@link #getFlushes()} is the average batch size
+    */
+   public long getRecordsFlushed() {
+      return recordsFlushed.get();
+   }
+
+   /**
+    * @return the moving average of the nanoseconds a synced flush takes to complete
+    */
+   public long getSyncLatency() {
+      return syncLatency;
    }
 
    public void start() {
@@ -270,7 +330,7 @@ public final class TimedBuffer extends CriticalComponentImpl {
             callbacks.add(callback);
 
             if (sync) {
-               pendingSync = true;
+               syncRequested();
             }
 
             startSpin();
@@ -293,7 +353,7 @@ public final class TimedBuffer extends CriticalComponentImpl {
             callbacks.add(callback);
 
             if (sync) {
-               pendingSync = true;
+               syncRequested();
             }
 
             startSpin();
@@ -302,6 +362,32 @@ public final class TimedBuffer extends CriticalComponentImpl {
       }
    }
 
+   private void syncRequested() {
+      pendingSync = true;
+      if (adaptive) {
+         final long now = System.nanoTime();
+         if (lastSyncRequest != 0) {
+            syncRequestInterval = average(syncRequestInterval, now - lastSyncRequest);
+         }
+         lastSyncRequest = now;
+      }
+   }
+
+   private static long average(long average, long sample) {
+      return average == 0 ? sample : (long) (average + SAMPLE_WEIGHT * (sample - average));
+   }
+
+   /**
+    * Waits about one sync while syncs are requested faster than the device completes them, not at all otherwise.
+    */
+   private synchronized void adaptFlushTimeout() {
+      final long latency = syncLatency;
+      if (latency == 0 || syncRequestInterval == 0) {
+         return;
+      }
+      flushTimeout = syncRequestInterval < latency ? Math.min(latency, (long) timeout * MAX_ADAPTIVE_TIMEOUT_FACTOR) : 0;
+   }
+
    public void flush() {
       flushBatch();
    }
@@ -325,6 +411,12 @@ public final class TimedBuffer extends CriticalComponentImpl {
                   bytesFlushed.addAndGet(pos);
                }
 
+               recordsFlushed.addAndGet(callbacks.size());
+
+               if (pendingSync) {
+                  callbacks.add(new SyncLatencyCallback(System.nanoTime()));
+               }
+
                bufferObserver.flushBuffer(buffer.byteBuf(), pendingSync, callbacks);
 
                stopSpin();
@@ -385,6 +477,25 @@ public final class TimedBuffer extends CriticalComponentImpl {
       }
    }
 
+   private class SyncLatencyCallback implements IOCallback {
+
+      private final long flushTime;
+
+      SyncLatencyCallback(long flushTime) {
+         this.flushTime = flushTime;
+      }
+
+      @Override
+      public void done() {
+         // the callbacks of a file complete in order, a lost update when two race is harmless
+         syncLatency = average(syncLatency, System.nanoTime() - flushTime);
+      }
+
+      @Override
+      public void onError(int errorCode, String errorMessage) {
+      }
+   }
+
    private class LogRatesTimerTask extends TimerTask {
 
       private boolean closed;
@@ -443,11 +554,14 @@ public final class TimedBuffer extends CriticalComponentImpl {
             // Effectively flushing "resets" the timer
             // On the timeout verification, notice that we ignore the timeout check if we are using sleep
 
-            if (pendingSync || System.nanoTime() - lastFlushTime > timeout) {
+            if (pendingSync || System.nanoTime() - lastFlushTime > flushTimeout) {
                if (useSleep) {
                   // if using sleep, we will always flush
                   lastFlushTime = System.nanoTime();
                   if (flushBatch()) {
+                     if (adaptive) {
+                        adaptFlushTimeout();
+                     }
                      //it could wait until the timeout is expired
                      final long timeFromTheLastFlush = System.nanoTime() - lastFlushTime;
 
@@ -455,7 +569,7 @@ public final class TimedBuffer extends CriticalComponentImpl {
                      //          We only need to wait 80% more..
                      //          timeFromTheLastFlush would be the difference
                      //          And if the device took more than that time, there's no need to wait at all.
-                     final long timeToSleep = timeout - timeFromTheLastFlush;
+                     final long timeToSleep = flushTimeout - timeFromTheLastFlush;
                      if (timeToSleep > 0) {
                         useSleep = sleepIfPossible(timeToSleep);
                      }
@@ -463,7 +577,9 @@ public final class TimedBuffer extends CriticalComponentImpl {
                } else if (bufferObserver != null) {
                   lastFlushTime = System.nanoTime();
                   // if not using flush we will spin and do the time checks manually
-                  flush();
+                  if (flushBatch() && adaptive) {
+                     adaptFlushTimeout();
+                  }
                }
             }
 
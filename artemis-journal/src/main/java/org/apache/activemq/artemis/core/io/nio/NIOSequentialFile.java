@@ -40,6 +40,7 @@ import org.apache.activemq.artemis.core.io.DelegateCallback;
 import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.SyncGroup;
 import org.apache.activemq.artemis.core.io.buffer.TimedBufferObserver;
 import org.apache.activemq.artemis.journal.ActiveMQJournalBundle;
 import org.apache.activemq.artemis.utils.Env;
@@ -215,6 +216,11 @@ public class NIOSequentialFile extends AbstractSequentialFile {
       try {
          try {
             if (channel != null) {
+               final SyncGroup syncGroup = factory.getSyncGroup();
+               if (syncGroup != null) {
+                  // don't leave the writes waiting on the group unsynced
+                  syncGroup.syncNow(this);
+               }
                if (waitSync && factory.isDatasync())
                   channel.force(false);
                channel.close();
@@ -434,6 +440,12 @@ public class NIOSequentialFile extends AbstractSequentialFile {
             channel.write(bytes);
          }
 
+         final SyncGroup syncGroup = factory.getSyncGroup();
+         if (sync && callback != null && syncGroup != null) {
+            syncGroup.sync(this, callback);
+            return;
+         }
+
          if (sync) {
             sync();
          }
@@ -26,6 +26,7 @@ import org.apache.activemq.artemis.ArtemisConstants;
 import org.apache.activemq.artemis.core.io.AbstractSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
 import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.io.SyncGroup;
 import org.apache.activemq.artemis.core.io.util.ByteBufferPool;
 import org.apache.activemq.artemis.utils.PowerOf2Util;
 import org.apache.activemq.artemis.utils.Env;
@@ -39,6 +40,8 @@ public class NIOSequentialFileFactory extends AbstractSequentialFileFactory {
 
    private final ByteBufferPool bytesPool;
 
+   private SyncGroup syncGroup;
+
    public NIOSequentialFileFactory(final File journalDir, final int maxIO) {
       this(journalDir, null, maxIO);
    }
@@ -124,6 +127,19 @@ public class NIOSequentialFileFactory extends AbstractSequentialFileFactory {
       return timedBuffer != null;
    }
 
+   @Override
+   public SyncGroup getSyncGroup() {
+      return syncGroup;
+   }
+
+   /**
+    * Gathers the syncs of the writes completing a callback into {@code syncGroup}, instead of syncing on each write.
+    */
+   public NIOSequentialFileFactory setSyncGroup(SyncGroup syncGroup) {
+      this.syncGroup = syncGroup;
+      return this;
+   }
+
    @Override
    public ByteBuffer allocateDirectBuffer(final int size) {
       final int requiredCapacity = PowerOf2Util.align(size, DEFAULT_CAPACITY_ALIGNMENT);
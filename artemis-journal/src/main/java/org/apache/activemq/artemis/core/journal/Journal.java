@@ -357,6 +357,25 @@ public interface Journal extends ActiveMQComponent {
     */
    void scheduleCompactAndBlock(int timeout) throws Exception;
 
+   /**
+    * Compacts the journal as {@link #scheduleCompactAndBlock(int)} if its data files hold at least a file worth of
+    * deleted or updated records, so the next load only reads the live records. As the compacting checked in the
+    * background, it is skipped while reclaiming is off or if there aren't more data files than the compact min files.
+    *
+    * @param timeout the timeout in seconds or block forever if {@code < 0}
+    * @return true if the journal was compacted
+    */
+   default boolean compactIfReclaimable(int timeout) throws Exception {
+      return false;
+   }
+
+   /**
+    * Checks in the background whether data files can be reclaimed and whether the journal needs compacting, as it
+    * does whenever it moves to a new file.
+    */
+   default void scheduleCompactCheck() {
+   }
+
    /**
     * Stops any operation that may delete or modify old (stale) data.
     * <p>
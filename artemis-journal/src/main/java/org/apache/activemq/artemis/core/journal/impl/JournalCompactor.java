@@ -60,7 +60,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
    // Snapshot of transactions that were pending when the compactor started
    private final ConcurrentLongHashMap<PendingTransaction> pendingTransactions = new ConcurrentLongHashMap<>();
 
-   private final ConcurrentLongHashMap<JournalRecord> newRecords = new ConcurrentLongHashMap<>();
+   private final JournalRecordIndex newRecords;
 
    private final ConcurrentLongHashMap<JournalTransaction> newTransactions = new ConcurrentLongHashMap<>();
 
@@ -75,7 +75,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
       return newDataFiles;
    }
 
-   public ConcurrentLongHashMap<JournalRecord> getNewRecords() {
+   public JournalRecordIndex getNewRecords() {
       return newRecords;
    }
 
@@ -89,6 +89,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
                            final ConcurrentLongHashSet recordsSnapshot,
                            final long firstFileID) {
       super(fileFactory, journal, filesRepository, recordsSnapshot, firstFileID);
+      this.newRecords = journal.createRecordIndex();
    }
 
    /**
@@ -228,7 +229,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
          writeEncoder(addRecord);
 
-         newRecords.put(info.id, new JournalRecord(currentFile, addRecord.getEncodeSize()));
+         newRecords.add(info.id, currentFile, addRecord.getEncodeSize());
       }
    }
 
@@ -289,7 +290,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
          logger.trace("onReadDeleteRecord {}", recordID);
       }
 
-      if (newRecords.get(recordID) != null) {
+      if (newRecords.contains(recordID)) {
          // Sanity check, it should never happen
          ActiveMQJournalLogger.LOGGER.inconsistencyDuringCompactingDelete(recordID);
       }
@@ -439,12 +440,8 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
       checkSizeAndCompactSplit(updateRecord.getEncodeSize(), info.compactCount);
 
-      JournalRecord newRecord = newRecords.get(info.id);
-
-      if (newRecord == null) {
+      if (!newRecords.update(info.id, currentFile, updateRecord.getEncodeSize(), info.replaceableUpdate)) {
          ActiveMQJournalLogger.LOGGER.compactingWithNoAddRecord(info.id);
-      } else {
-         newRecord.addUpdateFile(currentFile, updateRecord.getEncodeSize(), info.replaceableUpdate);
       }
 
       writeEncoder(updateRecord);
@@ -512,11 +509,8 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
       @Override
       void execute() throws Exception {
-         JournalRecord deleteRecord = journal.getRecords().remove(id);
-         if (deleteRecord == null) {
+         if (!journal.getRecords().delete(id, usedFile)) {
             ActiveMQJournalLogger.LOGGER.noRecordDuringCompactReplay(id);
-         } else {
-            deleteRecord.delete(usedFile);
          }
       }
    }
@@ -550,11 +544,8 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
 
       @Override
       void execute() throws Exception {
-         JournalRecord updateRecord = journal.getRecords().get(id);
-         if (updateRecord == null) {
+         if (!journal.getRecords().update(id, usedFile, size, replaceableUpdate)) {
             ActiveMQJournalLogger.LOGGER.noRecordDuringCompactReplay(id);
-         } else {
-            updateRecord.addUpdateFile(usedFile, size, replaceableUpdate);
          }
       }
 
@@ -640,7 +631,7 @@ public class JournalCompactor extends AbstractJournalUpdateTask implements Journ
    }
 
    @Override
-   public ConcurrentLongHashMap<JournalRecord> getRecords() {
+   public JournalRecordIndex getRecords() {
       return newRecords;
    }
 
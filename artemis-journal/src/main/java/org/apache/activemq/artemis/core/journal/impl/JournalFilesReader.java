@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import io.netty.util.collection.ByteObjectHashMap;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+
+/**
+ * Reads and decodes the files of a journal ahead of the load, on several executors.
+ * <p>
+ * The records of a file only depend on the records of the previous files once they are applied to the journal,
+ * not while they are read and decoded. So up to {@code readAhead} files are read concurrently, each into the list
+ * of callbacks it produced, and {@link #read(int, JournalReaderCallback)} replays those callbacks to the loading
+ * thread's reader in file order, which keeps the order of the records of every ID.
+ */
+final class JournalFilesReader {
+
+   @FunctionalInterface
+   private interface ReadEvent {
+
+      void replay(JournalReaderCallback reader) throws Exception;
+   }
+
+   private static final class ReadFile implements JournalReaderCallback {
+
+      final List<ReadEvent> events = new ArrayList<>();
+      int lastDataPos;
+
+      @Override
+      public void onReadEventRecord(RecordInfo info) {
+         events.add(reader -> reader.onReadEventRecord(info));
+      }
+
+      @Override
+      public void onReadAddRecord(RecordInfo info) {
+         events.add(reader -> reader.onReadAddRecord(info));
+      }
+
+      @Override
+      public void onReadUpdateRecord(RecordInfo info) {
+         events.add(reader -> reader.onReadUpdateRecord(info));
+      }
+
+      @Override
+      public void onReadDeleteRecord(long recordID) {
+         events.add(reader -> reader.onReadDeleteRecord(recordID));
+      }
+
+      @Override
+      public void onReadAddRecordTX(long transactionID, RecordInfo info) {
+         events.add(reader -> reader.onReadAddRecordTX(transactionID, info));
+      }
+
+      @Override
+      public void onReadUpdateRecordTX(long transactionID, RecordInfo info) {
+         events.add(reader -> reader.onReadUpdateRecordTX(transactionID, info));
+      }
+
+      @Override
+      public void onReadDeleteRecordTX(long transactionID, RecordInfo info) {
+         events.add(reader -> reader.onReadDeleteRecordTX(transactionID, info));
+      }
+
+      @Override
+      public void onReadPrepareRecord(long transactionID, byte[] extraData, int numberOfRecords) {
+         events.add(reader -> reader.onReadPrepareRecord(transactionID, extraData, numberOfRecords));
+      }
+
+      @Override
+      public void onReadCommitRecord(long transactionID, int numberOfRecords) {
+         events.add(reader -> reader.onReadCommitRecord(transactionID, numberOfRecords));
+      }
+
+      @Override
+      public void onReadRollbackRecord(long transactionID) {
+         events.add(reader -> reader.onReadRollbackRecord(transactionID));
+      }
+
+      @Override
+      public void markAsDataFile(JournalFile file) {
+         events.add(reader -> reader.markAsDataFile(file));
+      }
+
+      @Override
+      public void done() {
+         events.add(reader -> reader.done());
+      }
+   }
+
+   private final SequentialFileFactory fileFactory;
+   private final List<JournalFile> files;
+   private final ByteObjectHashMap<Boolean> replaceableRecords;
+   private final Executor[] executors;
+   private final int readAhead;
+   private final List<CompletableFuture<ReadFile>> reads;
+   private volatile boolean closed;
+
+   /**
+    * @param executors every file is read on one of these executors, they may be ordered executors on a shared pool
+    * @param readAhead the maximum number of files read but not yet replayed
+    */
+   JournalFilesReader(SequentialFileFactory fileFactory,
+                      List<JournalFile> files,
+                      ByteObjectHashMap<Boolean> replaceableRecords,
+                      Executor[] executors,
+                      int readAhead) {
+      this.fileFactory = fileFactory;
+      this.files = files;
+      this.replaceableRecords = replaceableRecords;
+      this.executors = executors;
+      this.readAhead = Math.max(1, readAhead);
+      this.reads = new ArrayList<>(files.size());
+      for (int i = 0; i < files.size(); i++) {
+         reads.add(null);
+      }
+      for (int i = 0; i < Math.min(this.readAhead, files.size()); i++) {
+         submit(i);
+      }
+   }
+
+   private void submit(int index) {
+      final CompletableFuture<ReadFile> read = new CompletableFuture<>();
+      reads.set(index, read);
+      executors[index % executors.length].execute(() -> {
+         if (closed) {
+            read.cancel(false);
+            return;
+         }
+         try {
+            final ReadFile readFile = new ReadFile();
+            // every read allocates its own buffer, there is no single whole file buffer to share
+            readFile.lastDataPos = JournalImpl.readJournalFile(fileFactory, files.get(index), readFile, null, false, replaceableRecords);
+            read.complete(readFile);
+         } catch (Throwable e) {
+            read.completeExceptionally(e);
+         }
+      });
+   }
+
+   /**
+    * Replays the records of the file at {@code index} to the reader, files must be read in order.
+    *
+    * @return the position after the last valid record of the file, as {@link JournalImpl#readJournalFile}
+    */
+   int read(int index, JournalReaderCallback reader) throws Exception {
+      if (index + readAhead < files.size()) {
+         submit(index + readAhead);
+      }
+      try {
+         final ReadFile readFile;
+         try {
+            readFile = reads.get(index).get();
+         } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+               throw (Exception) e.getCause();
+            }
+            throw e;
+         } finally {
+            reads.set(index, null);
+         }
+         for (ReadEvent event : readFile.events) {
+            event.replay(reader);
+         }
+         return readFile.lastDataPos;
+      } catch (Throwable e) {
+         // the load fails: the files not being read yet are skipped
+         closed = true;
+         throw e;
+      }
+   }
+}
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.journal.impl;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
@@ -48,6 +49,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import io.netty.util.collection.ByteObjectHashMap;
@@ -124,6 +126,12 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
    private static final String BKP_EXTENSION = "bkp";
    public static final String BKP = "." + BKP_EXTENSION;
 
+   /**
+    * Suffix of the sidecar files a retention file may have next to it, see {@link #setHistoryFileListener(Consumer)}.
+    * The sidecar of a retention file is removed along with it.
+    */
+   public static final String HISTORY_INDEX_SUFFIX = ".index";
+
 
    static {
       String UPDATE_FACTOR_STR = System.getProperty(JournalImpl.class.getName() + ".UPDATE_FACTOR");
@@ -227,6 +235,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    private int journalRetentionMaxFiles = -1;
 
+   private volatile Consumer<File> historyFileListener;
+
    private final List<JournalFile> historyPendingFiles = Collections.synchronizedList(new LinkedList<>());
 
    // This is to guarantee only one thread is making a copy of a file
@@ -234,6 +244,71 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
    // there are a few exceptions like startup, or during a replica-copy-catch-up in a small possibility
    private final Object processBackupLock = new Object();
 
+   private int loadThreads = 1;
+
+   /**
+    * Sets the number of files read and decoded concurrently while loading, their records are still applied to the
+    * journal in file order by the loading thread. 1 reads the files one after the other on the loading thread.
+    */
+   public JournalImpl setLoadThreads(int loadThreads) {
+      if (loadThreads < 1) {
+         throw new IllegalArgumentException("loadThreads must be > 0, was " + loadThreads);
+      }
+      this.loadThreads = loadThreads;
+      return this;
+   }
+
+   public int getLoadThreads() {
+      return loadThreads;
+   }
+
+   private long compactMaxReadRate = -1;
+
+   /**
+    * Limits how fast compacting reads the data files, in bytes per second, so compacting leaves some of the disk
+    * bandwidth to the appends. -1 doesn't limit it.
+    */
+   public JournalImpl setCompactMaxReadRate(long compactMaxReadRate) {
+      this.compactMaxReadRate = compactMaxReadRate;
+      return this;
+   }
+
+   public long getCompactMaxReadRate() {
+      return compactMaxReadRate;
+   }
+
+   private boolean offHeapRecordIndex = false;
+
+   /**
+    * Keeps the index of the live records in direct memory instead of the heap, see {@link OffHeapJournalRecordIndex}.
+    * It takes effect on the next load.
+    */
+   public JournalImpl setOffHeapRecordIndex(boolean offHeapRecordIndex) {
+      this.offHeapRecordIndex = offHeapRecordIndex;
+      return this;
+   }
+
+   public boolean isOffHeapRecordIndex() {
+      return offHeapRecordIndex;
+   }
+
+   JournalRecordIndex createRecordIndex() {
+      return offHeapRecordIndex ? new OffHeapJournalRecordIndex() : new JournalRecordMap();
+   }
+
+   /**
+    * The listener is called with every file copied into the history folder, once the copy is complete. It is called
+    * from the thread doing the copy, so it should hand any long work over to some other thread.
+    */
+   public JournalImpl setHistoryFileListener(Consumer<File> historyFileListener) {
+      this.historyFileListener = historyFileListener;
+      return this;
+   }
+
+   public Consumer<File> getHistoryFileListener() {
+      return historyFileListener;
+   }
+
    @Override
    public boolean isHistory() {
       return journalRetentionFolder != null;
@@ -274,6 +349,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
             for (File f : repeatFiles) {
                logger.warn("File {} was partially copied before, removing the file", f);
                f.delete();
+               new File(f.getPath() + HISTORY_INDEX_SUFFIX).delete();
             }
          }
 
@@ -289,7 +365,9 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
 
    // Compacting may replace this structure
-   private final ConcurrentLongHashMap<JournalRecord> records = new ConcurrentLongHashMap<>();
+   // Replaced, not cleared, when compacting so the journal lock is held for as short as possible.
+   // It is only replaced while holding the journal write lock.
+   private volatile JournalRecordIndex records = new JournalRecordMap();
 
    // Compacting may replace this structure
    private final ConcurrentLongHashMap<JournalTransaction> transactions = new ConcurrentLongHashMap<>();
@@ -496,7 +574,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
    }
 
    @Override
-   public ConcurrentLongHashMap<JournalRecord> getRecords() {
+   public JournalRecordIndex getRecords() {
       return records;
    }
 
@@ -800,6 +878,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
             boolean replaceableUpdate =  replaceableRecords != null ? replaceableRecords.containsKey(userRecordType) : false;
 
+            reader.onReadRecordPosition(pos);
+
             switch (recordType) {
                case EVENT_RECORD: {
                   reader.onReadEventRecord(new RecordInfo(recordID, userRecordType, record, false, replaceableUpdate, compactCount));
@@ -901,6 +981,63 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return readJournalFile(fileFactory, file, reader, null, false, null);
    }
 
+   /**
+    * Reads the record with a body (add, update, event or their transactional versions) starting at a position given by
+    * {@link JournalReaderCallback#onReadRecordPosition(int)} while reading the same file, without reading the rest of
+    * the file. The file has to be open.
+    *
+    * @return the record, or {@code null} if there isn't a valid record with a body at the position
+    */
+   public static RecordInfo readRecordAt(final SequentialFile file,
+                                         final int journalVersion,
+                                         final int position) throws Exception {
+      final long fileSize = file.size();
+      if (position < JournalImpl.SIZE_HEADER || position >= fileSize) {
+         return null;
+      }
+      // type, file id, compact count, transaction id, record id, variable size and user record type
+      final int maxHeaderSize = DataConstants.SIZE_BYTE + DataConstants.SIZE_INT + DataConstants.SIZE_BYTE +
+         DataConstants.SIZE_LONG + DataConstants.SIZE_LONG + DataConstants.SIZE_INT + DataConstants.SIZE_BYTE;
+      final ByteBuffer header = ByteBuffer.allocate((int) Math.min(maxHeaderSize, fileSize - position));
+      file.position(position);
+      file.read(header);
+      try {
+         final byte recordType = header.get();
+         if (!JournalImpl.isContainsBody(recordType)) {
+            return null;
+         }
+         // the file id: the position was found by reading the file, it is known to be right
+         header.getInt();
+         final short compactCount = journalVersion >= 2 ? header.get() : 0;
+         if (JournalImpl.isTransaction(recordType)) {
+            header.getLong();
+         }
+         final long recordID = header.getLong();
+         final int variableSize = header.getInt();
+         final byte userRecordType = recordType != JournalImpl.DELETE_RECORD_TX ? header.get() : 0;
+         final int recordSize = JournalImpl.getRecordSize(recordType, journalVersion);
+         if (variableSize < 0 || JournalImpl.isInvalidSize((int) fileSize, position, recordSize + variableSize)) {
+            return null;
+         }
+
+         final ByteBuffer body = ByteBuffer.allocate(variableSize + DataConstants.SIZE_INT);
+         file.position(position + header.position());
+         file.read(body);
+         if (body.remaining() != body.capacity()) {
+            return null;
+         }
+         final byte[] record = new byte[variableSize];
+         body.get(record);
+         if (body.getInt() != variableSize + recordSize) {
+            return null;
+         }
+         final boolean update = recordType == JournalImpl.UPDATE_RECORD || recordType == JournalImpl.UPDATE_RECORD_TX;
+         return new RecordInfo(recordID, userRecordType, record, update, false, compactCount);
+      } catch (BufferUnderflowException e) {
+         return null;
+      }
+   }
+
    // Journal implementation
    // ----------------------------------------------------------------
 
@@ -934,7 +1071,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
             journalLock.readLock().lock();
             try {
                JournalFile usedFile = appendRecord(addRecord, false, sync, null, callback);
-               records.put(id, new JournalRecord(usedFile, addRecordEncodeSize));
+               records.add(id, usedFile, addRecordEncodeSize);
 
                if (logger.isTraceEnabled()) {
                   logger.trace("appendAddRecord::id={}, userRecordType={}, record = {}, usedFile = {}",
@@ -1077,8 +1214,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                // compactor will never change while readLock is acquired.
                // but we are doing this since compactor is volatile, to avoid some extra work from JIT
                JournalCompactor compactor = JournalImpl.this.compactor;
-               JournalRecord jrnRecord = records.get(id);
-               if (jrnRecord == null) {
+               final boolean found = records.contains(id);
+               if (!found) {
                   if (compactor == null || (!compactor.containsRecord(id))) {
                      if (updateCallback != null) {
                         updateCallback.onUpdate(id, false);
@@ -1100,14 +1237,14 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   logger.trace("appendUpdateRecord::id={}, userRecordType={}, usedFile = {}", id, recordType, usedFile);
                }
 
-               // record==null here could only mean there is a compactor
-               // computing the delete should be done after compacting is done
-               if (jrnRecord == null) {
+               // !found here could only mean there is a compactor
+               // computing the update should be done after compacting is done
+               if (!found) {
                   if (compactor != null) {
                      compactor.addCommandUpdate(id, usedFile, updateRecord.getEncodeSize(), replaceableUpdate);
                   }
                } else {
-                  jrnRecord.addUpdateFile(usedFile, updateRecord.getEncodeSize(), replaceableUpdate);
+                  records.update(id, usedFile, updateRecord.getEncodeSize(), replaceableUpdate);
                }
 
                if (updateCallback != null) {
@@ -1186,10 +1323,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                // compactor will never change while readLock is acquired.
                // but we are doing this since compactor is volatile, to avoid some extra work from JIT
                JournalCompactor compactor = JournalImpl.this.compactor;
-               JournalRecord record = null;
                if (compactor == null) {
-                  record = records.remove(id);
-                  if (record == null) {
+                  if (!records.contains(id)) {
                      if (updateCallback != null) {
                         updateCallback.onUpdate(id, false);
                      }
@@ -1200,7 +1335,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                      return;
                   }
                } else {
-                  if (!records.containsKey(id) && !compactor.containsRecord(id)) {
+                  if (!records.contains(id) && !compactor.containsRecord(id)) {
                      if (updateCallback != null) {
                         updateCallback.onUpdate(id, false);
                      }
@@ -1218,13 +1353,12 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   logger.trace("appendDeleteRecord::id={}, usedFile = {}", id, usedFile);
                }
 
-               // record==null here could only mean there is a compactor
                // computing the delete should be done after compacting is done
-               if (record == null) {
+               if (compactor != null) {
                   // JournalImplTestUni::testDoubleDelete was written to validate this condition:
                   compactor.addCommandDelete(id, usedFile);
                } else {
-                  record.delete(usedFile);
+                  records.delete(id, usedFile);
                }
                if (updateCallback != null) {
                   updateCallback.onUpdate(id, true);
@@ -1814,6 +1948,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
             // this AtomicReference is not used for thread-safety, but just as a reference
             final AtomicReference<ByteBuffer> wholeFileBufferRef = dataFilesToProcess.isEmpty() ? null : new AtomicReference<>();
             try {
+               final long readStart = System.nanoTime();
+               long readBytes = 0;
                for (final JournalFile file : dataFilesToProcess) {
                   try {
                      JournalImpl.readJournalFile(fileFactory, file, compactor, wholeFileBufferRef, false, this.replaceableRecords);
@@ -1821,6 +1957,8 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                      ActiveMQJournalLogger.LOGGER.compactReadError(file);
                      throw new Exception("Error on reading compacting for " + file, e);
                   }
+                  readBytes += fileSize;
+                  throttleCompactRead(readStart, readBytes);
                }
             } finally {
                ByteBuffer wholeFileBuffer;
@@ -1852,10 +1990,13 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                newDatafiles = localCompactor.getNewDataFiles();
 
-               // Restore newRecords created during compacting
-               localCompactor.getNewRecords().forEach((id, newRecord) -> {
-                  records.put(id, newRecord);
-               });
+               // Restore newRecords created during compacting: the records added while compacting are usually far
+               // fewer than the compacted ones, so they are moved to the new records instead of the other way around
+               final JournalRecordIndex addedRecords = records;
+               final JournalRecordIndex newRecords = localCompactor.getNewRecords();
+               addedRecords.moveAbsentTo(newRecords);
+               records = newRecords;
+               addedRecords.close();
 
                // Restore compacted dataFiles
                for (int i = newDatafiles.size() - 1; i >= 0; i--) {
@@ -1916,6 +2057,25 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
    }
 
+   private void throttleCompactRead(long readStart, long readBytes) {
+      final long maxReadRate = compactMaxReadRate;
+      if (maxReadRate <= 0) {
+         return;
+      }
+      final long pauseNanos = (long) (readBytes * (double) TimeUnit.SECONDS.toNanos(1) / maxReadRate) - (System.nanoTime() - readStart);
+      if (pauseNanos <= 0) {
+         return;
+      }
+      logger.trace("JournalImpl::compact pausing {} ns after reading {} bytes", pauseNanos, readBytes);
+      try {
+         TimeUnit.NANOSECONDS.sleep(pauseNanos);
+      } catch (InterruptedException e) {
+         // not restoring the interrupt on purpose: an interrupted thread would close the NIO channels compacting
+         // still has to write to, just give up this pause
+         logger.debug("JournalImpl::compact interrupted while throttling", e);
+      }
+   }
+
    /** this private method will return a list of data files that need to be cleaned up.
     *  It will get the list, and replace it on the journal structure, while a separate thread would be able
     *  to read it, and append to a new list that will be replaced on the journal. */
@@ -1960,7 +2120,9 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
          // We will calculate the new records during compacting, what will take the position the records will take
          // after compacting
-         records.clear();
+         final JournalRecordIndex compactedRecords = records;
+         records = createRecordIndex();
+         compactedRecords.close();
       } finally {
          journalLock.writeLock().unlock();
       }
@@ -2026,7 +2188,9 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
       checkControlFile(wholeFileBufferRef);
 
-      records.clear();
+      final JournalRecordIndex previousRecords = records;
+      records = createRecordIndex();
+      previousRecords.close();
 
       filesRepository.clear();
 
@@ -2044,12 +2208,15 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       // AtomicLong is used only as a reference, not as an Atomic value
       final AtomicLong maxID = new AtomicLong(-1);
 
-      for (final JournalFile file : orderedFiles) {
+      final JournalFilesReader filesReader = loadThreads > 1 && orderedFiles.size() > 1 ? createFilesReader(orderedFiles) : null;
+
+      for (int fileIndex = 0; fileIndex < orderedFiles.size(); fileIndex++) {
+         final JournalFile file = orderedFiles.get(fileIndex);
          logger.trace("Loading file {}", file.getFile().getFileName());
 
          final AtomicBoolean hasData = new AtomicBoolean(false);
 
-         int resultLastPost = JournalImpl.readJournalFile(fileFactory, file, new JournalReaderCallback() {
+         final JournalReaderCallback reader = new JournalReaderCallback() {
 
             private void checkID(final long id) {
                if (id > maxID.longValue()) {
@@ -2065,7 +2232,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                loadManager.addRecord(info);
 
-               records.put(info.id, new JournalRecord(file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1));
+               records.add(info.id, file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1);
             }
 
             @Override
@@ -2076,16 +2243,11 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                loadManager.updateRecord(info);
 
-               JournalRecord posFiles = records.get(info.id);
-
-               if (posFiles != null) {
-                  // It's legal for this to be null. The file(s) with the may
-                  // have been deleted
-                  // just leaving some updates in this file
-
-                  posFiles.addUpdateFile(file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1, info.replaceableUpdate); // +1 = compact
-                  // count
-               }
+               // It's legal for the record to be missing. The file(s) with the add may
+               // have been deleted
+               // just leaving some updates in this file
+               records.update(info.id, file, info.data.length + JournalImpl.SIZE_ADD_RECORD + 1, info.replaceableUpdate); // +1 = compact
+               // count
             }
 
             @Override
@@ -2094,11 +2256,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
                loadManager.deleteRecord(recordID);
 
-               JournalRecord posFiles = records.remove(recordID);
-
-               if (posFiles != null) {
-                  posFiles.delete(file);
-               }
+               records.delete(recordID, file);
             }
 
             @Override
@@ -2271,7 +2429,14 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                hasData.lazySet(true);
             }
 
-         }, wholeFileBufferRef, false, this.replaceableRecords);
+         };
+
+         final int resultLastPost;
+         if (filesReader != null) {
+            resultLastPost = filesReader.read(fileIndex, reader);
+         } else {
+            resultLastPost = JournalImpl.readJournalFile(fileFactory, file, reader, wholeFileBufferRef, false, this.replaceableRecords);
+         }
 
          if (hasData.get()) {
             lastDataPos = resultLastPost;
@@ -2328,6 +2493,15 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       return new JournalLoadInformation(records.size(), maxID.longValue());
    }
 
+   private JournalFilesReader createFilesReader(List<JournalFile> orderedFiles) {
+      final Executor[] executors = new Executor[loadThreads];
+      for (int i = 0; i < executors.length; i++) {
+         executors[i] = ioExecutorFactory.getExecutor();
+      }
+      // a couple of files per thread keeps every thread busy while the loading thread applies the records
+      return new JournalFilesReader(fileFactory, orderedFiles, replaceableRecords, executors, loadThreads * 2);
+   }
+
    private synchronized JournalLoadInformation load(final LoaderCallback loadManager,
                                                     final boolean changeData,
                                                     final JournalState replicationSync) throws Exception {
@@ -2379,6 +2553,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   if (!fileToRemove.delete()) {
                      logger.debug("Could not remove {}", fileToRemove);
                   }
+                  removeHistoryIndex(fileName);
                } else {
                   break;
                }
@@ -2396,6 +2571,7 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
                   logger.debug("Removing {}", file);
                   File fileToRemove = new File(journalRetentionFolder, file);
                   fileToRemove.delete();
+                  removeHistoryIndex(file);
                   toRemove--;
                   if (toRemove <= 0) {
                      break;
@@ -2408,6 +2584,13 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       }
    }
 
+   private void removeHistoryIndex(String historyFileName) {
+      File index = new File(journalRetentionFolder, historyFileName + HISTORY_INDEX_SUFFIX);
+      if (index.exists() && !index.delete()) {
+         logger.debug("Could not remove {}", index);
+      }
+   }
+
    /** With the exception of initialization, this has to be always called within the compactorExecutor */
    @Override
    public void processBackup() {
@@ -2468,12 +2651,23 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
 
          logger.debug("Copying journal retention from {} to {}", copyFrom, copyTo);
 
+         boolean copied = false;
          try {
             Files.copy(copyFrom.toPath(), copyTo.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            copied = true;
          } catch (IOException e) {
             fileFactory.onIOError(e, e.getMessage(), copyFrom.getName());
          }
 
+         final Consumer<File> listener = historyFileListener;
+         if (copied && listener != null) {
+            try {
+               listener.accept(copyTo);
+            } catch (Throwable e) {
+               logger.warn("Error notifying the copy of {}: {}", copyTo, e.getMessage(), e);
+            }
+         }
+
          try {
             fileToCopy.getFile().renameTo(removeBackupExtension(fileToCopy.getFile().getFileName()));
          } catch (Exception e) {
@@ -3623,6 +3817,45 @@ public class JournalImpl extends JournalBase implements TestableJournal, Journal
       }
    }
 
+   @Override
+   public boolean compactIfReclaimable(int timeout) throws Exception {
+      if (compactMinFiles == 0) {
+         // compacting is disabled
+         return false;
+      }
+
+      if (state != JournalState.LOADED || !isAutoReclaim() || compactorRunning.get()) {
+         return false;
+      }
+
+      final JournalFile[] dataFiles = getDataFiles();
+
+      if (dataFiles.length <= compactMinFiles) {
+         return false;
+      }
+
+      long deadSize = 0;
+
+      for (JournalFile file : dataFiles) {
+         deadSize += fileSize - file.getLiveSize();
+      }
+
+      logger.debug("JournalImpl::compactIfReclaimable deadSize={}, fileSize={}", deadSize, fileSize);
+
+      if (deadSize < fileSize) {
+         return false;
+      }
+
+      scheduleCompactAndBlock(timeout);
+
+      return true;
+   }
+
+   @Override
+   public void scheduleCompactCheck() {
+      scheduleReclaim();
+   }
+
    /**
     * For tests only
     */
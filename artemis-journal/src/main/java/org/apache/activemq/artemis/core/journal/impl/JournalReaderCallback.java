@@ -20,6 +20,13 @@ import org.apache.activemq.artemis.core.journal.RecordInfo;
 
 public interface JournalReaderCallback {
 
+   /**
+    * Called with the position on the file of every valid record, right before the record is passed to the other
+    * methods. The position can be given to {@link JournalImpl#readRecordAt} to read the record again.
+    */
+   default void onReadRecordPosition(int position) {
+   }
+
    default void onReadEventRecord(RecordInfo info) throws Exception {
    }
 
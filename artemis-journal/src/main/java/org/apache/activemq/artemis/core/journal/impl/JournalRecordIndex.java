@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+
+/**
+ * The live records of a journal, indexed by record ID: for every record the file holding its add and the files
+ * holding its updates, so deleting the record can account it on the files for reclaiming, as {@link JournalRecord}.
+ * <p>
+ * Adding, updating and deleting a record update the counters of the files involved.
+ */
+public interface JournalRecordIndex {
+
+   /**
+    * Adds the record, replacing any record with the same ID.
+    */
+   void add(long id, JournalFile addFile, int size);
+
+   /**
+    * @return false if there is no record with this ID
+    */
+   boolean update(long id, JournalFile updateFile, int size, boolean replaceableUpdate);
+
+   /**
+    * Removes the record, accounting its add and updates as deleted by {@code deleteFile}.
+    *
+    * @return false if there is no record with this ID
+    */
+   boolean delete(long id, JournalFile deleteFile);
+
+   boolean contains(long id);
+
+   int size();
+
+   ConcurrentLongHashSet keysLongHashSet();
+
+   /**
+    * Moves the records missing from {@code target} to it, as they are: the counters of their files are left
+    * unchanged. Both indexes must be of the same type and this one can only be closed afterwards.
+    */
+   void moveAbsentTo(JournalRecordIndex target);
+
+   /**
+    * Releases the resources of the index, it must not be used anymore.
+    */
+   default void close() {
+   }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashMap;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+
+/**
+ * The default {@link JournalRecordIndex}, keeping a {@link JournalRecord} per record on the heap.
+ */
+public final class JournalRecordMap implements JournalRecordIndex {
+
+   private final ConcurrentLongHashMap<JournalRecord> records = new ConcurrentLongHashMap<>();
+
+   @Override
+   public void add(long id, JournalFile addFile, int size) {
+      records.put(id, new JournalRecord(addFile, size));
+   }
+
+   @Override
+   public boolean update(long id, JournalFile updateFile, int size, boolean replaceableUpdate) {
+      final JournalRecord record = records.get(id);
+      if (record == null) {
+         return false;
+      }
+      record.addUpdateFile(updateFile, size, replaceableUpdate);
+      return true;
+   }
+
+   @Override
+   public boolean delete(long id, JournalFile deleteFile) {
+      final JournalRecord record = records.remove(id);
+      if (record == null) {
+         return false;
+      }
+      record.delete(deleteFile);
+      return true;
+   }
+
+   @Override
+   public boolean contains(long id) {
+      return records.containsKey(id);
+   }
+
+   @Override
+   public int size() {
+      return records.size();
+   }
+
+   @Override
+   public ConcurrentLongHashSet keysLongHashSet() {
+      return records.keysLongHashSet();
+   }
+
+   @Override
+   public void moveAbsentTo(JournalRecordIndex target) {
+      final ConcurrentLongHashMap<JournalRecord> targetRecords = ((JournalRecordMap) target).records;
+      records.forEach((id, record) -> targetRecords.putIfAbsent(id, record));
+   }
+
+   @Override
+   public String toString() {
+      return "JournalRecordMap(size=" + records.size() + ")";
+   }
+}
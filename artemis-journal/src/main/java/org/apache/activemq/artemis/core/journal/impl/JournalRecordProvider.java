@@ -16,8 +16,6 @@
  */
 package org.apache.activemq.artemis.core.journal.impl;
 
-import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashMap;
-
 /**
  * This is an interface used only internally.
  *
@@ -29,5 +27,5 @@ public interface JournalRecordProvider {
 
    JournalCompactor getCompactor();
 
-   ConcurrentLongHashMap<JournalRecord> getRecords();
+   JournalRecordIndex getRecords();
 }
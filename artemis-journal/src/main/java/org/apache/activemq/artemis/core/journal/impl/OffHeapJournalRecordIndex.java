@@ -0,0 +1,577 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.internal.PlatformDependent;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+
+import static org.apache.activemq.artemis.utils.Preconditions.checkNotNull;
+
+/**
+ * A {@link JournalRecordIndex} keeping its records in direct memory, in an open addressing hash table, so the heap
+ * used by the journal doesn't grow with its number of live records.
+ * <p>
+ * Every record takes a 32 bytes slot holding its ID, the file and size of its add and, when they are all on the same
+ * file as for most records, the file, size and count of its updates. Files are referred to by int handles. The
+ * updates of the records updated on several files are kept on the heap, as {@link JournalRecord} does.
+ * <p>
+ * Growing the table doesn't stop the journal for as long as it takes to copy all the records: the records are
+ * migrated from the old table a few at a time on every access, and the segments of the new table are only allocated
+ * once a record lands in them.
+ * <p>
+ * Access is synchronized: the journal changes its records from a single executor anyway.
+ */
+public final class OffHeapJournalRecordIndex implements JournalRecordIndex {
+
+   private static final int SLOT_SHIFT = 5;
+
+   private static final int KEY = 0;
+   private static final int STATE = 8;
+   private static final int ADD_FILE = 12;
+   private static final int ADD_SIZE = 16;
+   private static final int UPDATE_FILE = 20;
+   private static final int UPDATE_SIZE = 24;
+   private static final int UPDATE_COUNT = 28;
+
+   private static final int FREE = 0;
+   private static final int USED = 1;
+   private static final int REMOVED = 2;
+
+   // UPDATE_FILE values that aren't file handles, which start from 1
+   private static final int NO_UPDATES = 0;
+   private static final int SPILLED = -1;
+
+   // the table is split in segments of 2 MiB at most, allocated (and zeroed) when first written
+   private static final int MAX_SEGMENT_SHIFT = 16;
+
+   private static final int MAX_CAPACITY = 1 << 30;
+
+   private static final float MAX_LOAD_FACTOR = 0.75f;
+
+   private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+   private static final int INITIAL_SPILLED_UPDATES_CAPACITY = 4;
+
+   // slots of the old table migrated on every access while rehashing: the new table must not fill up before the
+   // migration is over, which needs more than 2.7 slots per insert when rehashing at the same capacity
+   private static final int REHASH_STEP = 64;
+
+   private ByteBuffer[] segments;
+   private int segmentShift;
+   private int segmentMask;
+   private int capacity;
+   private int mask;
+
+   // the table being migrated by a rehash, null if there is none
+   private ByteBuffer[] oldSegments;
+   private int oldSegmentShift;
+   private int oldSegmentMask;
+   private int oldCapacity;
+   private int oldMask;
+   // the next slot of the old table to migrate and the records still there
+   private int migratedSlots;
+   private int oldSize;
+
+   private volatile int size;
+   // REMOVED slots of the current table
+   private int removed;
+   private boolean closed;
+
+   private JournalFile[] files = new JournalFile[16];
+   private int[] fileReferences = new int[16];
+   private final Map<JournalFile, Integer> handles = new IdentityHashMap<>();
+   private int[] freeHandles = new int[16];
+   private int freeHandlesCount;
+   private int nextHandle = 1;
+
+   private final LongObjectHashMap<ObjIntIntArrayList<JournalFile>> spilledUpdates = new LongObjectHashMap<>();
+
+   public OffHeapJournalRecordIndex() {
+      this(DEFAULT_INITIAL_CAPACITY);
+   }
+
+   public OffHeapJournalRecordIndex(int initialCapacity) {
+      if (initialCapacity <= 0 || initialCapacity > MAX_CAPACITY) {
+         throw new IllegalArgumentException("initialCapacity must be > 0 and <= " + MAX_CAPACITY + ", was " + initialCapacity);
+      }
+      allocate(Math.max(16, Integer.highestOneBit(initialCapacity - 1) << 1));
+   }
+
+   @Override
+   public synchronized void add(long id, JournalFile addFile, int size) {
+      checkNotNull(addFile);
+      checkOpen();
+
+      addFile.incPosCount();
+      addFile.addSize(size);
+      addFile.incAddRecord();
+
+      int slot = find(id);
+      if (slot >= 0) {
+         // replaced, as a map would: the previous record is just dropped
+         releaseUpdates(id, slot);
+         release(getInt(slot, ADD_FILE));
+      } else {
+         slot = insert(id);
+      }
+      putInt(slot, ADD_FILE, acquire(addFile));
+      putInt(slot, ADD_SIZE, size);
+      putInt(slot, UPDATE_FILE, NO_UPDATES);
+      putInt(slot, UPDATE_SIZE, 0);
+      putInt(slot, UPDATE_COUNT, 0);
+   }
+
+   @Override
+   public synchronized boolean update(long id, JournalFile updateFile, int bytes, boolean replaceableUpdate) {
+      checkOpen();
+
+      final int slot = find(id);
+      if (slot < 0) {
+         return false;
+      }
+      if (bytes == 0) {
+         return true;
+      }
+      final int updateHandle = getInt(slot, UPDATE_FILE);
+      if (updateHandle == NO_UPDATES) {
+         putInt(slot, UPDATE_FILE, acquire(updateFile));
+         putInt(slot, UPDATE_SIZE, bytes);
+         putInt(slot, UPDATE_COUNT, 1);
+      } else if (updateHandle == SPILLED) {
+         final ObjIntIntArrayList<JournalFile> updates = spilledUpdates.get(id);
+         if (updates.addToIntsIfMatch(updates.size() - 1, updateFile, bytes, 1)) {
+            updateFile.incPosCount();
+            updateFile.addSize(bytes);
+            return true;
+         }
+         updates.add(updateFile, bytes, 1);
+      } else {
+         final int updateSize = getInt(slot, UPDATE_SIZE);
+         final int updateCount = getInt(slot, UPDATE_COUNT);
+         if (files[updateHandle] == updateFile && (long) updateSize + bytes <= Integer.MAX_VALUE && updateCount < Integer.MAX_VALUE) {
+            putInt(slot, UPDATE_SIZE, updateSize + bytes);
+            putInt(slot, UPDATE_COUNT, updateCount + 1);
+            updateFile.incPosCount();
+            updateFile.addSize(bytes);
+            return true;
+         }
+         final ObjIntIntArrayList<JournalFile> updates = new ObjIntIntArrayList<>(INITIAL_SPILLED_UPDATES_CAPACITY);
+         updates.add(files[updateHandle], updateSize, updateCount);
+         updates.add(updateFile, bytes, 1);
+         release(updateHandle);
+         putInt(slot, UPDATE_FILE, SPILLED);
+         spilledUpdates.put(id, updates);
+      }
+      updateFile.incPosCount();
+      updateFile.addSize(bytes);
+      if (replaceableUpdate) {
+         updateFile.incReplaceableCount();
+      }
+      return true;
+   }
+
+   @Override
+   public synchronized boolean delete(long id, JournalFile deleteFile) {
+      checkOpen();
+
+      final int slot = find(id);
+      if (slot < 0) {
+         return false;
+      }
+      final int addHandle = getInt(slot, ADD_FILE);
+      final int updateHandle = getInt(slot, UPDATE_FILE);
+      final ObjIntIntArrayList<JournalFile> updates = updateHandle == SPILLED ? spilledUpdates.remove(id) : null;
+      try {
+         final JournalFile addFile = files[addHandle];
+         deleteFile.incNegCount(addFile);
+         addFile.decSize(getInt(slot, ADD_SIZE));
+         if (updates != null) {
+            // not-capturing lambda to save allocation
+            updates.forEach((updateFile, bytes, posCount, f) -> {
+               f.incNegCount(updateFile, posCount);
+               updateFile.decSize(bytes);
+            }, deleteFile);
+         } else if (updateHandle != NO_UPDATES) {
+            final JournalFile updateFile = files[updateHandle];
+            deleteFile.incNegCount(updateFile, getInt(slot, UPDATE_COUNT));
+            updateFile.decSize(getInt(slot, UPDATE_SIZE));
+         }
+      } finally {
+         release(addHandle);
+         if (updateHandle > 0) {
+            release(updateHandle);
+         }
+         putInt(slot, STATE, REMOVED);
+         size--;
+         removed++;
+      }
+      return true;
+   }
+
+   @Override
+   public synchronized boolean contains(long id) {
+      checkOpen();
+      return find(id) >= 0;
+   }
+
+   @Override
+   public int size() {
+      return size;
+   }
+
+   @Override
+   public synchronized ConcurrentLongHashSet keysLongHashSet() {
+      checkOpen();
+      completeRehash();
+      final ConcurrentLongHashSet keys = new ConcurrentLongHashSet(Math.max(16, size));
+      for (int slot = 0; slot < capacity; slot++) {
+         if (getInt(slot, STATE) == USED) {
+            keys.add(getLong(slot, KEY));
+         }
+      }
+      return keys;
+   }
+
+   @Override
+   public synchronized void moveAbsentTo(JournalRecordIndex target) {
+      checkOpen();
+      completeRehash();
+      final OffHeapJournalRecordIndex other = (OffHeapJournalRecordIndex) target;
+      synchronized (other) {
+         other.checkOpen();
+         for (int slot = 0; slot < capacity; slot++) {
+            if (getInt(slot, STATE) != USED) {
+               continue;
+            }
+            final long id = getLong(slot, KEY);
+            if (other.find(id) >= 0) {
+               continue;
+            }
+            final int otherSlot = other.insert(id);
+            other.putInt(otherSlot, ADD_FILE, other.acquire(files[getInt(slot, ADD_FILE)]));
+            other.putInt(otherSlot, ADD_SIZE, getInt(slot, ADD_SIZE));
+            final int updateHandle = getInt(slot, UPDATE_FILE);
+            if (updateHandle == SPILLED) {
+               other.spilledUpdates.put(id, spilledUpdates.get(id));
+               other.putInt(otherSlot, UPDATE_FILE, SPILLED);
+            } else if (updateHandle == NO_UPDATES) {
+               other.putInt(otherSlot, UPDATE_FILE, NO_UPDATES);
+            } else {
+               other.putInt(otherSlot, UPDATE_FILE, other.acquire(files[updateHandle]));
+            }
+            other.putInt(otherSlot, UPDATE_SIZE, getInt(slot, UPDATE_SIZE));
+            other.putInt(otherSlot, UPDATE_COUNT, getInt(slot, UPDATE_COUNT));
+         }
+      }
+   }
+
+   /**
+    * Frees the direct memory of the index now instead of waiting for it to be collected.
+    */
+   @Override
+   public synchronized void close() {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      free(segments);
+      segments = null;
+      if (oldSegments != null) {
+         free(oldSegments);
+         oldSegments = null;
+      }
+      spilledUpdates.clear();
+      handles.clear();
+      Arrays.fill(files, null);
+   }
+
+   /**
+    * @return the direct memory used by the index in bytes
+    */
+   public synchronized long getMemorySize() {
+      if (closed) {
+         return 0;
+      }
+      return allocatedBytes(segments) + (oldSegments == null ? 0 : allocatedBytes(oldSegments));
+   }
+
+   private static long allocatedBytes(ByteBuffer[] segments) {
+      long bytes = 0;
+      for (ByteBuffer segment : segments) {
+         if (segment != null) {
+            bytes += segment.capacity();
+         }
+      }
+      return bytes;
+   }
+
+   private void checkOpen() {
+      if (closed) {
+         throw new IllegalStateException("the index is closed");
+      }
+   }
+
+   private static int hash(long id) {
+      final long h = id * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+   }
+
+   /**
+    * @return the slot of the record or -1 if there is none
+    */
+   private int find(long id) {
+      if (oldSegments != null) {
+         // the record must be in the current table before it is changed
+         migrate(id);
+         migrateSlots(REHASH_STEP);
+      }
+      int slot = hash(id) & mask;
+      while (true) {
+         final int state = getInt(slot, STATE);
+         if (state == FREE) {
+            return -1;
+         }
+         if (state == USED && getLong(slot, KEY) == id) {
+            return slot;
+         }
+         slot = (slot + 1) & mask;
+      }
+   }
+
+   /**
+    * Claims a slot for a record that isn't in the index, growing it if needed.
+    */
+   private int insert(long id) {
+      // there must always be a free slot to end the probes of find
+      if (size - oldSize + removed + 1 > capacity * MAX_LOAD_FACTOR) {
+         rehash();
+      }
+      final int slot = claimSlot(id);
+      putLong(slot, KEY, id);
+      putInt(slot, STATE, USED);
+      size++;
+      return slot;
+   }
+
+   private int claimSlot(long id) {
+      int slot = hash(id) & mask;
+      while (true) {
+         final int state = getInt(slot, STATE);
+         if (state != USED) {
+            if (state == REMOVED) {
+               removed--;
+            }
+            return slot;
+         }
+         slot = (slot + 1) & mask;
+      }
+   }
+
+   /**
+    * Starts migrating the records to a new table, after the end of the current migration if any.
+    */
+   private void rehash() {
+      completeRehash();
+      // if the removed slots are the most of the used ones, rehashing at the same capacity is enough
+      final int newCapacity = size + 1 > capacity * MAX_LOAD_FACTOR / 2 ? capacity << 1 : capacity;
+      if (newCapacity > MAX_CAPACITY) {
+         throw new IllegalStateException("the index can't hold more than " + (int) (MAX_CAPACITY * MAX_LOAD_FACTOR) + " records");
+      }
+      oldSegments = segments;
+      oldCapacity = capacity;
+      oldMask = mask;
+      oldSegmentShift = segmentShift;
+      oldSegmentMask = segmentMask;
+      migratedSlots = 0;
+      oldSize = size;
+      allocate(newCapacity);
+      removed = 0;
+   }
+
+   private void completeRehash() {
+      if (oldSegments != null) {
+         migrateSlots(oldCapacity);
+      }
+   }
+
+   /**
+    * Moves the record to the current table if it is still in the old one.
+    */
+   private void migrate(long id) {
+      int oldSlot = hash(id) & oldMask;
+      while (true) {
+         final ByteBuffer oldSegment = oldSegments[oldSlot >>> oldSegmentShift];
+         if (oldSegment == null) {
+            return;
+         }
+         final int oldOffset = (oldSlot & oldSegmentMask) << SLOT_SHIFT;
+         final int state = oldSegment.getInt(oldOffset + STATE);
+         if (state == FREE) {
+            return;
+         }
+         if (state == USED && oldSegment.getLong(oldOffset + KEY) == id) {
+            moveSlot(oldSegment, oldOffset);
+            endRehashIfMigrated();
+            return;
+         }
+         oldSlot = (oldSlot + 1) & oldMask;
+      }
+   }
+
+   /**
+    * Moves the records of the next {@code count} slots of the old table to the current one.
+    */
+   private void migrateSlots(int count) {
+      if (oldSegments == null) {
+         return;
+      }
+      final int end = migratedSlots + Math.min(count, oldCapacity - migratedSlots);
+      while (migratedSlots < end) {
+         final ByteBuffer oldSegment = oldSegments[migratedSlots >>> oldSegmentShift];
+         if (oldSegment == null) {
+            // never written: skip to the next segment
+            migratedSlots = Math.min(end, ((migratedSlots >>> oldSegmentShift) + 1) << oldSegmentShift);
+            continue;
+         }
+         final int oldOffset = (migratedSlots & oldSegmentMask) << SLOT_SHIFT;
+         if (oldSegment.getInt(oldOffset + STATE) == USED) {
+            moveSlot(oldSegment, oldOffset);
+         }
+         migratedSlots++;
+      }
+      endRehashIfMigrated();
+   }
+
+   private void moveSlot(ByteBuffer oldSegment, int oldOffset) {
+      final int slot = claimSlot(oldSegment.getLong(oldOffset + KEY));
+      final ByteBuffer segment = segment(slot);
+      final int offset = (slot & segmentMask) << SLOT_SHIFT;
+      segment.putLong(offset + KEY, oldSegment.getLong(oldOffset + KEY));
+      for (int field = STATE; field < 1 << SLOT_SHIFT; field += Integer.BYTES) {
+         segment.putInt(offset + field, oldSegment.getInt(oldOffset + field));
+      }
+      // a tombstone, not FREE, so the probes of the records still there don't stop early
+      oldSegment.putInt(oldOffset + STATE, REMOVED);
+      oldSize--;
+   }
+
+   private void endRehashIfMigrated() {
+      if (oldSize == 0) {
+         free(oldSegments);
+         oldSegments = null;
+      }
+   }
+
+   private void allocate(int capacity) {
+      this.capacity = capacity;
+      this.mask = capacity - 1;
+      this.segmentShift = Math.min(Integer.numberOfTrailingZeros(capacity), MAX_SEGMENT_SHIFT);
+      this.segmentMask = (1 << segmentShift) - 1;
+      this.segments = new ByteBuffer[capacity >>> segmentShift];
+   }
+
+   /**
+    * @return the segment of the slot, allocating it if it is the first write there
+    */
+   private ByteBuffer segment(int slot) {
+      final int index = slot >>> segmentShift;
+      ByteBuffer segment = segments[index];
+      if (segment == null) {
+         // allocateDirect zeroes the memory: every slot starts FREE
+         segment = ByteBuffer.allocateDirect((1 << segmentShift) << SLOT_SHIFT).order(ByteOrder.nativeOrder());
+         segments[index] = segment;
+      }
+      return segment;
+   }
+
+   private static void free(ByteBuffer[] segments) {
+      for (ByteBuffer segment : segments) {
+         if (segment != null) {
+            PlatformDependent.freeDirectBuffer(segment);
+         }
+      }
+   }
+
+   private void releaseUpdates(long id, int slot) {
+      final int updateHandle = getInt(slot, UPDATE_FILE);
+      if (updateHandle == SPILLED) {
+         spilledUpdates.remove(id);
+      } else if (updateHandle != NO_UPDATES) {
+         release(updateHandle);
+      }
+   }
+
+   private int acquire(JournalFile file) {
+      final Integer handle = handles.get(file);
+      final int h;
+      if (handle != null) {
+         h = handle;
+      } else {
+         h = freeHandlesCount > 0 ? freeHandles[--freeHandlesCount] : nextHandle++;
+         if (h >= files.length) {
+            files = Arrays.copyOf(files, files.length << 1);
+            fileReferences = Arrays.copyOf(fileReferences, fileReferences.length << 1);
+         }
+         files[h] = file;
+         handles.put(file, h);
+      }
+      fileReferences[h]++;
+      return h;
+   }
+
+   private void release(int h) {
+      if (--fileReferences[h] == 0) {
+         handles.remove(files[h]);
+         files[h] = null;
+         if (freeHandlesCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeHandles.length << 1);
+         }
+         freeHandles[freeHandlesCount++] = h;
+      }
+   }
+
+   private long getLong(int slot, int field) {
+      final ByteBuffer segment = segments[slot >>> segmentShift];
+      return segment == null ? 0 : segment.getLong(((slot & segmentMask) << SLOT_SHIFT) + field);
+   }
+
+   private void putLong(int slot, int field, long value) {
+      segment(slot).putLong(((slot & segmentMask) << SLOT_SHIFT) + field, value);
+   }
+
+   private int getInt(int slot, int field) {
+      // a segment never written only has FREE slots
+      final ByteBuffer segment = segments[slot >>> segmentShift];
+      return segment == null ? 0 : segment.getInt(((slot & segmentMask) << SLOT_SHIFT) + field);
+   }
+
+   private void putInt(int slot, int field, int value) {
+      segment(slot).putInt(((slot & segmentMask) << SLOT_SHIFT) + field, value);
+   }
+
+   @Override
+   public String toString() {
+      return "OffHeapJournalRecordIndex(size=" + size + ", capacity=" + capacity + ")";
+   }
+}
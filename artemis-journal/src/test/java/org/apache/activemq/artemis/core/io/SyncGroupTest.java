@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFile;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SyncGroupTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder;
+
+   private final List<Runnable> rounds = new ArrayList<>();
+
+   private final List<String> synced = new ArrayList<>();
+
+   private SyncGroup syncGroup;
+
+   private NIOSequentialFileFactory factory;
+
+   public SyncGroupTest() {
+      File parent = new File("./target");
+      parent.mkdirs();
+      temporaryFolder = new TemporaryFolder(parent);
+   }
+
+   @Before
+   public void setUp() {
+      syncGroup = new SyncGroup(rounds::add);
+      factory = new NIOSequentialFileFactory(temporaryFolder.getRoot(), 1).setSyncGroup(syncGroup);
+      factory.start();
+   }
+
+   @After
+   public void tearDown() {
+      factory.stop();
+   }
+
+   private SequentialFile openFile(String name) throws Exception {
+      final SequentialFile file = new NIOSequentialFile(factory, temporaryFolder.getRoot(), name, 1, null) {
+         @Override
+         public void sync() throws IOException {
+            synced.add(getFileName());
+            super.sync();
+         }
+      };
+      file.open();
+      return file;
+   }
+
+   private static void write(SequentialFile file, IOCallback callback) throws Exception {
+      final ByteBuffer buffer = ByteBuffer.allocate(16);
+      file.writeDirect(buffer, true, callback);
+   }
+
+   private static IOCallback counting(AtomicInteger done) {
+      return new IOCallback() {
+         @Override
+         public void done() {
+            done.incrementAndGet();
+         }
+
+         @Override
+         public void onError(int errorCode, String errorMessage) {
+         }
+      };
+   }
+
+   @Test
+   public void testSyncsGatheredInOneRound() throws Exception {
+      final SequentialFile bindings = openFile("bindings.amq");
+      final SequentialFile messages = openFile("messages.amq");
+      final AtomicInteger done = new AtomicInteger();
+
+      write(messages, counting(done));
+      write(messages, counting(done));
+      write(bindings, counting(done));
+      write(messages, counting(done));
+
+      Assert.assertEquals(0, done.get());
+      Assert.assertTrue(synced.isEmpty());
+      Assert.assertEquals(1, rounds.size());
+
+      rounds.remove(0).run();
+
+      Assert.assertEquals(4, done.get());
+      Assert.assertEquals(4, syncGroup.getRequests());
+      Assert.assertEquals(2, syncGroup.getSyncs());
+      // each file synced at the position of its last request
+      Assert.assertEquals(Arrays.asList("bindings.amq", "messages.amq"), synced);
+      Assert.assertTrue(rounds.isEmpty());
+
+      bindings.close();
+      messages.close();
+   }
+
+   @Test
+   public void testRequestsWhileSyncingGoToNextRound() throws Exception {
+      final SequentialFile messages = openFile("messages.amq");
+      final AtomicInteger done = new AtomicInteger();
+      final AtomicInteger doneNextRound = new AtomicInteger();
+
+      write(messages, new IOCallback() {
+         @Override
+         public void done() {
+            done.incrementAndGet();
+            try {
+               write(messages, counting(doneNextRound));
+            } catch (Exception e) {
+               throw new IllegalStateException(e);
+            }
+         }
+
+         @Override
+         public void onError(int errorCode, String errorMessage) {
+         }
+      });
+
+      rounds.remove(0).run();
+      Assert.assertEquals(1, done.get());
+      Assert.assertEquals(0, doneNextRound.get());
+      Assert.assertEquals(1, rounds.size());
+
+      rounds.remove(0).run();
+      Assert.assertEquals(1, doneNextRound.get());
+      Assert.assertEquals(2, syncGroup.getSyncs());
+
+      messages.close();
+   }
+
+   @Test
+   public void testCloseSyncsPendingRequests() throws Exception {
+      final SequentialFile messages = openFile("messages.amq");
+      final AtomicInteger done = new AtomicInteger();
+
+      write(messages, counting(done));
+      messages.close(false, false);
+
+      Assert.assertEquals(1, done.get());
+      Assert.assertEquals(1, syncGroup.getSyncs());
+
+      // the round finds nothing left to sync
+      rounds.remove(0).run();
+      Assert.assertEquals(1, done.get());
+      Assert.assertEquals(Arrays.asList("messages.amq"), synced);
+   }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.journal.impl;
+
+import java.util.Random;
+
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.utils.collections.ConcurrentLongHashSet;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks {@link OffHeapJournalRecordIndex} accounts the records on the journal files exactly as
+ * {@link JournalRecordMap} does.
+ */
+public class OffHeapJournalRecordIndexTest {
+
+   private static final int FILES = 8;
+
+   private static JournalFile[] createFiles() {
+      final JournalFile[] files = new JournalFile[FILES];
+      for (int i = 0; i < FILES; i++) {
+         files[i] = new JournalFileImpl(Mockito.mock(SequentialFile.class), i, JournalImpl.FORMAT_VERSION);
+      }
+      return files;
+   }
+
+   private static void assertSameCounters(JournalFile[] expected, JournalFile[] actual) {
+      for (int i = 0; i < FILES; i++) {
+         assertEquals("posCount of file " + i, expected[i].getPosCount(), actual[i].getPosCount());
+         assertEquals("liveSize of file " + i, expected[i].getLiveSize(), actual[i].getLiveSize());
+         assertEquals("replaceableCount of file " + i, expected[i].getReplaceableCount(), actual[i].getReplaceableCount());
+         assertEquals("addRecord of file " + i, expected[i].getAddRecord(), actual[i].getAddRecord());
+         for (int j = 0; j < FILES; j++) {
+            assertEquals("negCount of file " + i + " on " + j, expected[i].getNegCount(expected[j]), actual[i].getNegCount(actual[j]));
+         }
+      }
+   }
+
+   @Test
+   public void testSameAccountingAsRecordMap() {
+      final JournalFile[] expectedFiles = createFiles();
+      final JournalFile[] actualFiles = createFiles();
+      final JournalRecordMap expected = new JournalRecordMap();
+      // a small initial capacity to go through several rehashes
+      final OffHeapJournalRecordIndex actual = new OffHeapJournalRecordIndex(16);
+      try {
+         final Random random = new Random(42);
+         for (int i = 0; i < 100_000; i++) {
+            final long id = random.nextInt(5_000);
+            final int file = random.nextInt(FILES);
+            final int size = random.nextInt(100);
+            switch (random.nextInt(4)) {
+               case 0:
+                  if (!expected.contains(id)) {
+                     expected.add(id, expectedFiles[file], size);
+                     actual.add(id, actualFiles[file], size);
+                  }
+                  break;
+               case 1:
+               case 2:
+                  // updates mostly on the same file, as the journal does while filling its current file
+                  final int updateFile = random.nextInt(4) == 0 ? file : (int) (id % FILES);
+                  final boolean replaceable = random.nextBoolean();
+                  assertEquals(expected.update(id, expectedFiles[updateFile], size, replaceable),
+                               actual.update(id, actualFiles[updateFile], size, replaceable));
+                  break;
+               default:
+                  assertEquals(expected.delete(id, expectedFiles[file]), actual.delete(id, actualFiles[file]));
+            }
+            assertEquals(expected.size(), actual.size());
+         }
+         assertSameCounters(expectedFiles, actualFiles);
+
+         final ConcurrentLongHashSet expectedKeys = expected.keysLongHashSet();
+         final ConcurrentLongHashSet actualKeys = actual.keysLongHashSet();
+         assertEquals(expectedKeys.size(), actualKeys.size());
+         expectedKeys.forEach(id -> assertTrue(actual.contains(id)));
+
+         // deleting everything left must account the same negatives
+         expectedKeys.forEach(id -> {
+            expected.delete(id, expectedFiles[0]);
+            actual.delete(id, actualFiles[0]);
+         });
+         assertEquals(0, actual.size());
+         assertSameCounters(expectedFiles, actualFiles);
+      } finally {
+         actual.close();
+      }
+   }
+
+   @Test
+   public void testIncrementalRehash() {
+      final JournalFile[] files = createFiles();
+      final OffHeapJournalRecordIndex index = new OffHeapJournalRecordIndex(16);
+      try {
+         long maxMemorySize = 0;
+         for (long id = 0; id < 100_000; id++) {
+            index.add(id, files[0], 10);
+            // the records already added are found wherever the migration of the table is at
+            assertTrue(index.contains(id / 2));
+            assertTrue(index.update(id / 3, files[1], 1, false));
+            maxMemorySize = Math.max(maxMemorySize, index.getMemorySize());
+         }
+         assertEquals(100_000, index.size());
+         // 100_000 records need 262_144 slots of 32 bytes: the old table was still there while the records were moved
+         final long tableSize = 262_144 * 32;
+         assertTrue(maxMemorySize > tableSize);
+         // a full scan ends the migration and frees the old table
+         assertEquals(100_000, index.keysLongHashSet().size());
+         assertEquals(tableSize, index.getMemorySize());
+         for (long id = 0; id < 100_000; id++) {
+            assertTrue(index.delete(id, files[2]));
+         }
+         assertEquals(0, index.size());
+         assertEquals(0, files[0].getLiveSize());
+         assertEquals(0, files[1].getLiveSize());
+      } finally {
+         index.close();
+      }
+   }
+
+   @Test
+   public void testMoveAbsentTo() {
+      final JournalFile[] files = createFiles();
+      final OffHeapJournalRecordIndex source = new OffHeapJournalRecordIndex();
+      final OffHeapJournalRecordIndex target = new OffHeapJournalRecordIndex();
+      try {
+         source.add(1, files[0], 10);
+         source.update(1, files[1], 5, false);
+         source.update(1, files[2], 5, false);
+         source.add(2, files[0], 10);
+         source.update(2, files[1], 5, false);
+         source.add(3, files[0], 10);
+         target.add(3, files[3], 20);
+
+         source.moveAbsentTo(target);
+         source.close();
+
+         assertEquals(3, target.size());
+         assertTrue(target.delete(1, files[4]));
+         assertTrue(target.delete(2, files[4]));
+         assertTrue(target.delete(3, files[4]));
+         assertEquals(0, target.size());
+         assertEquals(2, files[4].getNegCount(files[0]));
+         assertEquals(2, files[4].getNegCount(files[1]));
+         assertEquals(1, files[4].getNegCount(files[2]));
+         assertEquals(1, files[4].getNegCount(files[3]));
+         // the add of 3 on files[0] wasn't moved: it is still live
+         assertEquals(10, files[0].getLiveSize());
+         assertEquals(0, files[1].getLiveSize());
+         assertEquals(0, files[3].getLiveSize());
+      } finally {
+         source.close();
+         target.close();
+      }
+   }
+
+   @Test
+   public void testClosed() {
+      final OffHeapJournalRecordIndex index = new OffHeapJournalRecordIndex();
+      index.close();
+      assertEquals(0, index.getMemorySize());
+      try {
+         index.contains(1);
+         fail("a closed index can't be used");
+      } catch (IllegalStateException expected) {
+      }
+      // closing twice is allowed
+      index.close();
+      assertFalse(index.toString().isEmpty());
+   }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+
+/**
+ * A condition a message must satisfy for a selector to match it: a property has to be equal to one of a set of
+ * String or integral values.
+ * <p>
+ * It is extracted from {@code property = literal} and {@code property IN (...)} terms, either alone, as one of
+ * the terms of an AND, or on the same property in every term of an OR. It is only a necessary condition, the
+ * selector still has to be evaluated on the messages satisfying it.
+ */
+public final class EqualityPredicate {
+
+   private final SimpleString property;
+
+   private final Set<Object> values;
+
+   private EqualityPredicate(SimpleString property, Set<Object> values) {
+      this.property = property;
+      this.values = values;
+   }
+
+   public SimpleString getProperty() {
+      return property;
+   }
+
+   /**
+    * @return the String and Long values the property may take, see {@link #key(Object)}
+    */
+   public Set<Object> getValues() {
+      return values;
+   }
+
+   /**
+    * Normalizes a property value the same way the values of the predicate are normalized: Strings are kept as
+    * they are and integral numbers are widened to Long, so values that compare equal in a selector have equal
+    * keys.
+    *
+    * @return the key of the value, or null if the value has a type that can't be looked up in the predicate
+    * values, e.g. a floating point number which may still be equal to an integral literal
+    */
+   public static Object key(Object value) {
+      if (value == null) {
+         return null;
+      }
+      final Class<?> clazz = value.getClass();
+      if (clazz == String.class || clazz == Long.class) {
+         return value;
+      }
+      if (clazz == Integer.class || clazz == Short.class || clazz == Byte.class) {
+         return ((Number) value).longValue();
+      }
+      return null;
+   }
+
+   /**
+    * @return the predicate implied by the expression or null if the expression doesn't imply one
+    */
+   public static EqualityPredicate of(BooleanExpression expression) {
+      if (expression instanceof SelectorCompiler.CompiledExpression) {
+         return of(((SelectorCompiler.CompiledExpression) expression).original);
+      }
+      if (expression instanceof ComparisonExpression) {
+         return ofComparison((ComparisonExpression) expression);
+      }
+      if (expression instanceof UnaryExpression.InExpression) {
+         final UnaryExpression.InExpression in = (UnaryExpression.InExpression) expression;
+         if (in.not || !(in.getRight() instanceof PropertyExpression)) {
+            return null;
+         }
+         return new EqualityPredicate(property(in.getRight()), Collections.unmodifiableSet(new HashSet<>(in.inList)));
+      }
+      if (expression instanceof LogicExpression) {
+         final LogicExpression logic = (LogicExpression) expression;
+         if ("AND".equals(logic.getExpressionSymbol())) {
+            for (BooleanExpression child : logic.expressions) {
+               final EqualityPredicate predicate = of(child);
+               if (predicate != null) {
+                  return predicate;
+               }
+            }
+            return null;
+         }
+         if ("OR".equals(logic.getExpressionSymbol())) {
+            SimpleString property = null;
+            final Set<Object> values = new HashSet<>();
+            for (BooleanExpression child : logic.expressions) {
+               final EqualityPredicate predicate = of(child);
+               if (predicate == null || (property != null && !property.equals(predicate.property))) {
+                  return null;
+               }
+               property = predicate.property;
+               values.addAll(predicate.values);
+            }
+            return new EqualityPredicate(property, Collections.unmodifiableSet(values));
+         }
+      }
+      return null;
+   }
+
+   private static EqualityPredicate ofComparison(ComparisonExpression comparison) {
+      if (!"=".equals(comparison.getExpressionSymbol()) || comparison.convertStringExpressions) {
+         return null;
+      }
+      if (!(comparison.getLeft() instanceof PropertyExpression) || !(comparison.getRight() instanceof ConstantExpression)) {
+         return null;
+      }
+      final Object value = ((ConstantExpression) comparison.getRight()).getValue();
+      if (!(value instanceof String || value instanceof Integer || value instanceof Long)) {
+         return null;
+      }
+      return new EqualityPredicate(property(comparison.getLeft()), Collections.singleton(key(value)));
+   }
+
+   private static SimpleString property(Expression expression) {
+      return SimpleString.toSimpleString(((PropertyExpression) expression).getName());
+   }
+
+   @Override
+   public String toString() {
+      return "EqualityPredicate [property=" + property + ", values=" + values + "]";
+   }
+}
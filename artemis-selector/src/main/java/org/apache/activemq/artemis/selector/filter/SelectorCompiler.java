@@ -0,0 +1,382 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+/**
+ * Turns a parsed selector into a tree of specialized evaluators.
+ * <p>
+ * The parsed tree is interpreted generically: every comparison goes through
+ * {@link ComparisonExpression#compare(Comparable, Comparable)} which promotes the operands by boxing them
+ * again, and AND/OR iterate over a list. The compiled tree replaces the most common shapes with nodes that
+ * do the work on primitives:
+ * <ul>
+ *    <li>{@code expr <op> numeric-literal} for =, &lt;&gt;, &gt;, &gt;=, &lt; and &lt;=</li>
+ *    <li>{@code expr = 'string-literal'}</li>
+ *    <li>AND and OR over any expression, NOT over the comparisons above</li>
+ * </ul>
+ * Anything else, or any value of an unexpected type at runtime, is handed back to the original node so the
+ * result of {@link BooleanExpression#matches(Filterable)} is always the same as the interpreted one.
+ */
+public final class SelectorCompiler {
+
+   private SelectorCompiler() {
+   }
+
+   public static BooleanExpression compile(BooleanExpression expression) {
+      if (expression instanceof ComparisonExpression) {
+         return compileComparison((ComparisonExpression) expression);
+      }
+      if (expression instanceof LogicExpression) {
+         return compileLogic((LogicExpression) expression);
+      }
+      if (expression instanceof UnaryExpression.BooleanUnaryExpression) {
+         UnaryExpression.BooleanUnaryExpression unary = (UnaryExpression.BooleanUnaryExpression) expression;
+         if ("NOT".equals(unary.getExpressionSymbol()) && unary.getRight() instanceof ComparisonExpression) {
+            final BooleanExpression operand = compile((BooleanExpression) unary.getRight());
+            if (operand instanceof CompiledComparison) {
+               return new NotExpression(unary, (CompiledComparison) operand);
+            }
+         }
+      }
+      return expression;
+   }
+
+   /**
+    * XPath evaluators keep per instance state and must not be evaluated concurrently, any other expression
+    * can be shared between filters.
+    */
+   public static boolean isThreadSafe(Expression expression) {
+      if (expression instanceof XPathExpression) {
+         return false;
+      }
+      if (expression instanceof CompiledExpression) {
+         return isThreadSafe(((CompiledExpression) expression).original);
+      }
+      if (expression instanceof LogicExpression) {
+         for (BooleanExpression child : ((LogicExpression) expression).expressions) {
+            if (!isThreadSafe(child)) {
+               return false;
+            }
+         }
+         return true;
+      }
+      if (expression instanceof BinaryExpression) {
+         BinaryExpression binary = (BinaryExpression) expression;
+         return isThreadSafe(binary.getLeft()) && isThreadSafe(binary.getRight());
+      }
+      if (expression instanceof UnaryExpression) {
+         return isThreadSafe(((UnaryExpression) expression).getRight());
+      }
+      return true;
+   }
+
+   private static BooleanExpression compileComparison(ComparisonExpression comparison) {
+      if (!(comparison.getRight() instanceof ConstantExpression) || comparison.getLeft() instanceof ConstantExpression) {
+         return comparison;
+      }
+      final Object constant = ((ConstantExpression) comparison.getRight()).getValue();
+      final int operator = operator(comparison.getExpressionSymbol());
+      if (operator < 0) {
+         return comparison;
+      }
+      if (constant instanceof Integer || constant instanceof Long) {
+         return new IntegralComparison(comparison, operator, ((Number) constant).longValue());
+      }
+      if (constant instanceof Double) {
+         return new DoubleComparison(comparison, operator, (Double) constant);
+      }
+      if (constant instanceof String && operator == EQ) {
+         return new StringEquality(comparison, (String) constant);
+      }
+      return comparison;
+   }
+
+   private static BooleanExpression compileLogic(LogicExpression logic) {
+      final BooleanExpression[] children = new BooleanExpression[logic.expressions.size()];
+      for (int i = 0; i < children.length; i++) {
+         children[i] = compile(logic.expressions.get(i));
+      }
+      switch (logic.getExpressionSymbol()) {
+         case "AND":
+            return new AndExpression(logic, children);
+         case "OR":
+            return new OrExpression(logic, children);
+         default:
+            return logic;
+      }
+   }
+
+   private static final int EQ = 0;
+   private static final int GT = 1;
+   private static final int GE = 2;
+   private static final int LT = 3;
+   private static final int LE = 4;
+
+   private static int operator(String symbol) {
+      switch (symbol) {
+         case "=":
+            return EQ;
+         case ">":
+            return GT;
+         case ">=":
+            return GE;
+         case "<":
+            return LT;
+         case "<=":
+            return LE;
+         default:
+            return -1;
+      }
+   }
+
+   /**
+    * Base class of the compiled nodes, {@code original} is the interpreted node this one replaces.
+    */
+   abstract static class CompiledExpression implements BooleanExpression {
+
+      final BooleanExpression original;
+
+      CompiledExpression(BooleanExpression original) {
+         this.original = original;
+      }
+
+      @Override
+      public Object evaluate(Filterable message) throws FilterException {
+         return original.evaluate(message);
+      }
+
+      @Override
+      public String toString() {
+         return original.toString();
+      }
+
+      @Override
+      public int hashCode() {
+         return original.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (o == null || getClass() != o.getClass()) {
+            return false;
+         }
+         return original.equals(((CompiledExpression) o).original);
+      }
+   }
+
+   /**
+    * {@code expr <op> literal}, unknown when {@code expr} evaluates to null.
+    */
+   abstract static class CompiledComparison extends CompiledExpression {
+
+      final Expression left;
+      final int operator;
+
+      CompiledComparison(ComparisonExpression original, int operator) {
+         super(original);
+         this.left = original.getLeft();
+         this.operator = operator;
+      }
+
+      /**
+       * @return the result of the comparison for a non null value, or null if the value has to be compared by
+       * the original expression
+       */
+      abstract Boolean compare(Object lv);
+
+      @Override
+      public boolean matches(Filterable message) throws FilterException {
+         final Object lv = left.evaluate(message);
+         if (lv == null) {
+            return false;
+         }
+         final Boolean result = compare(lv);
+         if (result != null) {
+            return result;
+         }
+         return original.matches(message);
+      }
+
+      final Boolean test(int answer) {
+         final boolean result;
+         switch (operator) {
+            case EQ:
+               result = answer == 0;
+               break;
+            case GT:
+               result = answer > 0;
+               break;
+            case GE:
+               result = answer >= 0;
+               break;
+            case LT:
+               result = answer < 0;
+               break;
+            default:
+               result = answer <= 0;
+         }
+         return result ? Boolean.TRUE : Boolean.FALSE;
+      }
+   }
+
+   /**
+    * The literal is an Integer or a Long. Follows the promotion rules of
+    * {@link ComparisonExpression#compare(Comparable, Comparable)}: integral values are compared as longs, floats
+    * as floats and doubles as doubles.
+    */
+   static final class IntegralComparison extends CompiledComparison {
+
+      private final long value;
+      private final float floatValue;
+      private final double doubleValue;
+
+      IntegralComparison(ComparisonExpression original, int operator, long value) {
+         super(original, operator);
+         this.value = value;
+         this.floatValue = value;
+         this.doubleValue = value;
+      }
+
+      @Override
+      Boolean compare(Object lv) {
+         final Class<?> lc = lv.getClass();
+         if (lc == Integer.class || lc == Long.class || lc == Short.class || lc == Byte.class) {
+            return test(Long.compare(((Number) lv).longValue(), value));
+         }
+         if (lc == Float.class) {
+            return test(Float.compare((Float) lv, floatValue));
+         }
+         if (lc == Double.class) {
+            return test(Double.compare((Double) lv, doubleValue));
+         }
+         return null;
+      }
+   }
+
+   /**
+    * The literal is a Double, every numeric value is compared as a double.
+    */
+   static final class DoubleComparison extends CompiledComparison {
+
+      private final double value;
+
+      DoubleComparison(ComparisonExpression original, int operator, double value) {
+         super(original, operator);
+         this.value = value;
+      }
+
+      @Override
+      Boolean compare(Object lv) {
+         final Class<?> lc = lv.getClass();
+         if (lc == Integer.class || lc == Long.class || lc == Double.class || lc == Float.class || lc == Short.class || lc == Byte.class) {
+            return test(Double.compare(((Number) lv).doubleValue(), value));
+         }
+         return null;
+      }
+   }
+
+   /**
+    * {@code expr = 'literal'}, a String value can only match by equality.
+    */
+   static final class StringEquality extends CompiledComparison {
+
+      private final String value;
+
+      StringEquality(ComparisonExpression original, String value) {
+         super(original, EQ);
+         this.value = value;
+      }
+
+      @Override
+      Boolean compare(Object lv) {
+         if (lv.getClass() == String.class) {
+            return value.equals(lv) ? Boolean.TRUE : Boolean.FALSE;
+         }
+         return null;
+      }
+   }
+
+   static final class AndExpression extends CompiledExpression {
+
+      private final BooleanExpression[] expressions;
+
+      AndExpression(LogicExpression original, BooleanExpression[] expressions) {
+         super(original);
+         this.expressions = expressions;
+      }
+
+      @Override
+      public boolean matches(Filterable message) throws FilterException {
+         for (BooleanExpression expression : expressions) {
+            if (!expression.matches(message)) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
+
+   static final class OrExpression extends CompiledExpression {
+
+      private final BooleanExpression[] expressions;
+
+      OrExpression(LogicExpression original, BooleanExpression[] expressions) {
+         super(original);
+         this.expressions = expressions;
+      }
+
+      @Override
+      public boolean matches(Filterable message) throws FilterException {
+         for (BooleanExpression expression : expressions) {
+            if (expression.matches(message)) {
+               return true;
+            }
+         }
+         return false;
+      }
+   }
+
+   /**
+    * NOT has to tell an unknown operand apart from a false one, which the compiled comparisons can do because
+    * they are unknown exactly when their left side is null.
+    */
+   static final class NotExpression extends CompiledExpression {
+
+      private final CompiledComparison operand;
+
+      NotExpression(BooleanExpression original, CompiledComparison operand) {
+         super(original);
+         this.operand = operand;
+      }
+
+      @Override
+      public boolean matches(Filterable message) throws FilterException {
+         final Object lv = operand.left.evaluate(message);
+         if (lv == null) {
+            return false;
+         }
+         final Boolean result = operand.compare(lv);
+         if (result != null) {
+            return !result;
+         }
+         return original.matches(message);
+      }
+   }
+}
@@ -21,6 +21,7 @@ import java.io.StringReader;
 import org.apache.activemq.artemis.selector.filter.BooleanExpression;
 import org.apache.activemq.artemis.selector.filter.ComparisonExpression;
 import org.apache.activemq.artemis.selector.filter.FilterException;
+import org.apache.activemq.artemis.selector.filter.SelectorCompiler;
 import org.apache.activemq.artemis.selector.hyphenated.HyphenatedParser;
 import org.apache.activemq.artemis.selector.strict.StrictParser;
 
@@ -31,6 +32,31 @@ public class SelectorParser {
    private static final String NO_CONVERT_STRING_EXPRESSIONS_PREFIX = "no_convert_string_expressions:";
    private static final String NO_HYPHENATED_PROPS_PREFIX = "no_hyphenated_props:";
 
+   private static final LRUCache<String, BooleanExpression> COMPILED_CACHE = new LRUCache<>(1000);
+
+   /**
+    * Parses the selector and compiles it with {@link SelectorCompiler}.
+    * <p>
+    * Compiled expressions are immutable so they are cached by selector string and shared by all the filters
+    * using the same selector, unless they contain an XPath expression which can't be evaluated concurrently.
+    */
+   public static BooleanExpression parseCompiled(String sql) throws FilterException {
+      BooleanExpression compiled;
+      synchronized (COMPILED_CACHE) {
+         compiled = COMPILED_CACHE.get(sql);
+      }
+      if (compiled != null) {
+         return compiled;
+      }
+      compiled = SelectorCompiler.compile(parse(sql));
+      if (SelectorCompiler.isThreadSafe(compiled)) {
+         synchronized (COMPILED_CACHE) {
+            COMPILED_CACHE.put(sql, compiled);
+         }
+      }
+      return compiled;
+   }
+
    public static BooleanExpression parse(String sql) throws FilterException {
       String actual = sql;
       boolean convertStringExpressions = false;
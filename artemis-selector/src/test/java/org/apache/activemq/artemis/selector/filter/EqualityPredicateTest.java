@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EqualityPredicateTest {
+
+   @Test
+   public void testExtract() throws Exception {
+      assertPredicate("region = 'EU'", "region", "EU");
+      assertPredicate("tier = 3", "tier", 3L);
+      assertPredicate("tier = 5000000000", "tier", 5000000000L);
+      assertPredicate("region IN ('EU', 'US')", "region", "EU", "US");
+      assertPredicate("region = 'EU' AND tier = 3", "region", "EU");
+      assertPredicate("price > 10 AND tier = 3", "tier", 3L);
+      assertPredicate("tier = 1 OR tier = 2 OR tier IN ('3')", "tier", 1L, 2L, "3");
+
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("tier > 3")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("tier = 3.0")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("tier <> 3")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("region NOT IN ('EU')")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("tier = 1 OR region = 'EU'")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("tier = 1 OR price > 3")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("tier IS NULL")));
+      Assert.assertNull(EqualityPredicate.of(SelectorParser.parse("convert_string_expressions:tier = 3")));
+   }
+
+   @Test
+   public void testKey() {
+      Assert.assertEquals(3L, EqualityPredicate.key((byte) 3));
+      Assert.assertEquals(3L, EqualityPredicate.key((short) 3));
+      Assert.assertEquals(3L, EqualityPredicate.key(3));
+      Assert.assertEquals(3L, EqualityPredicate.key(3L));
+      Assert.assertEquals("3", EqualityPredicate.key("3"));
+      Assert.assertNull(EqualityPredicate.key(3.0f));
+      Assert.assertNull(EqualityPredicate.key(3.0d));
+      Assert.assertNull(EqualityPredicate.key(Boolean.TRUE));
+   }
+
+   private static void assertPredicate(String selector, String property, Object... values) throws Exception {
+      for (BooleanExpression expression : new BooleanExpression[] {SelectorParser.parse(selector), SelectorParser.parseCompiled(selector)}) {
+         EqualityPredicate predicate = EqualityPredicate.of(expression);
+         Assert.assertNotNull(selector, predicate);
+         Assert.assertEquals(selector, SimpleString.toSimpleString(property), predicate.getProperty());
+         Assert.assertEquals(selector, new HashSet<>(Arrays.asList(values)), predicate.getValues());
+      }
+   }
+}
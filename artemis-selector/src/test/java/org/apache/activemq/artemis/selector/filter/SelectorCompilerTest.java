@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.selector.filter;
+
+import org.apache.activemq.artemis.selector.MockMessage;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SelectorCompilerTest {
+
+   private static final String[] SELECTORS = {
+      "x = 5", "x <> 5", "x > 5", "x >= 5", "x < 5", "x <= 5",
+      "x = 5000000000", "x > 5000000000", "x < -5000000000",
+      "x = 5.0", "x <> 5.0", "x > 4.5", "x >= 5.0", "x < 5.5", "x <= 4.5",
+      "x = 'five'", "x <> 'five'", "x = '5'",
+      "x BETWEEN 1 AND 10", "x NOT BETWEEN 1 AND 10",
+      "x > 1 AND x < 10 AND y = 'a'", "x < 1 OR x > 10 OR y = 'a'",
+      "NOT (x = 5 AND y = 'a')", "NOT (x > 5 OR y = 'a')",
+      "x IS NULL", "x IS NOT NULL", "x + 1 > 5", "5 < x", "x IN ('5', 'five')",
+      "convert_string_expressions:x = 5", "convert_string_expressions:x > 4.5",
+      "convert_string_expressions:x <> 5"};
+
+   private static final Object[] VALUES = {
+      null, (byte) 5, (short) 5, 4, 5, 6, 5L, 5000000000L, -5000000000L, 5.0f, 4.5f, 5.0d, 5.5d, Float.NaN,
+      Double.NaN, -0.0d, "5", "five", "a", Boolean.TRUE};
+
+   @Test
+   public void testCompiledMatchesInterpreted() throws Exception {
+      for (String selector : SELECTORS) {
+         BooleanExpression interpreted = SelectorParser.parse(selector);
+         BooleanExpression compiled = SelectorCompiler.compile(SelectorParser.parse(selector));
+         for (Object x : VALUES) {
+            for (Object y : new Object[] {null, "a", "b"}) {
+               MockMessage message = new MockMessage();
+               message.setObjectProperty("x", x);
+               message.setObjectProperty("y", y);
+               Assert.assertEquals(selector + " with x=" + x + ", y=" + y, interpreted.matches(message), compiled.matches(message));
+               Assert.assertEquals(selector + " with x=" + x + ", y=" + y, interpreted.evaluate(message), compiled.evaluate(message));
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testComparisonsAreCompiled() throws Exception {
+      Assert.assertTrue(SelectorCompiler.compile(SelectorParser.parse("x > 5")) instanceof SelectorCompiler.IntegralComparison);
+      Assert.assertTrue(SelectorCompiler.compile(SelectorParser.parse("x <= 5.5")) instanceof SelectorCompiler.DoubleComparison);
+      Assert.assertTrue(SelectorCompiler.compile(SelectorParser.parse("x = 'a'")) instanceof SelectorCompiler.StringEquality);
+      Assert.assertTrue(SelectorCompiler.compile(SelectorParser.parse("x <> 5")) instanceof SelectorCompiler.NotExpression);
+      Assert.assertTrue(SelectorCompiler.compile(SelectorParser.parse("x = 1 AND y = 2")) instanceof SelectorCompiler.AndExpression);
+      Assert.assertTrue(SelectorCompiler.compile(SelectorParser.parse("x = 1 OR y = 2")) instanceof SelectorCompiler.OrExpression);
+   }
+
+   @Test
+   public void testCompiledSelectorsAreCached() throws Exception {
+      Assert.assertSame(SelectorParser.parseCompiled("x > 5 AND y = 'a'"), SelectorParser.parseCompiled("x > 5 AND y = 'a'"));
+      Assert.assertNotSame(SelectorParser.parseCompiled("XPATH 'root/a'"), SelectorParser.parseCompiled("XPATH 'root/a'"));
+   }
+}
@@ -781,6 +781,16 @@ public interface Configuration {
     */
    Configuration setJournalPoolFiles(int poolSize);
 
+   /**
+    * Number of journal files read and decoded concurrently when the message journal is loaded. Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_LOAD_THREADS}.
+    */
+   int getJournalLoadThreads();
+
+   /**
+    * Number of journal files read and decoded concurrently when the message journal is loaded. Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_LOAD_THREADS}.
+    */
+   Configuration setJournalLoadThreads(int loadThreads);
+
    /**
     * Returns the percentage of live data before compacting the journal. <br>
     * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_PERCENTAGE}.
@@ -802,6 +812,99 @@ public interface Configuration {
     */
    Configuration setJournalCompactPercentage(int percentage);
 
+   /**
+    * Returns whether the message journal is compacted when the broker stops, so the next start only reads live records. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_ON_STOP}.
+    */
+   boolean isJournalCompactOnStop();
+
+   /**
+    * Sets whether the message journal is compacted when the broker stops.
+    */
+   Configuration setJournalCompactOnStop(boolean compactOnStop);
+
+   /**
+    * Returns how often, in milliseconds, the message journal checks whether its data files can be reclaimed or
+    * compacted, besides when it moves to a new file. {@code -1} disables the periodic check. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_CHECK_PERIOD}.
+    */
+   long getJournalCompactCheckPeriod();
+
+   /**
+    * Sets how often, in milliseconds, the message journal checks whether its data files can be reclaimed or compacted.
+    */
+   Configuration setJournalCompactCheckPeriod(long period);
+
+   /**
+    * Returns how many bytes per second compacting may read from the journal files, -1 meaning no limit. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPACT_MAX_READ_RATE}.
+    */
+   long getJournalCompactMaxReadRate();
+
+   /**
+    * Sets how many bytes per second compacting may read from the journal files.
+    */
+   Configuration setJournalCompactMaxReadRate(long maxReadRate);
+
+   /**
+    * Returns whether the message journal keeps the index of its live records in direct memory instead of the heap. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_OFF_HEAP_RECORD_INDEX}.
+    */
+   boolean isJournalOffHeapRecordIndex();
+
+   /**
+    * Sets whether the message journal keeps the index of its live records in direct memory instead of the heap.
+    */
+   Configuration setJournalOffHeapRecordIndex(boolean offHeapRecordIndex);
+
+   /**
+    * Returns the minimal encoded size of a durable message from which it is deflated on the message journal, -1
+    * meaning messages are never deflated. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_COMPRESSION_MIN_SIZE}.
+    */
+   int getJournalCompressionMinSize();
+
+   /**
+    * Sets the minimal encoded size of a durable message from which it is deflated on the message journal.
+    */
+   Configuration setJournalCompressionMinSize(int minSize);
+
+   /**
+    * Returns whether the journal buffer adjusts its flush timeout to the measured latency of the device syncs,
+    * within four times the configured journal buffer timeout. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_BUFFER_TIMEOUT_ADAPTIVE}.
+    */
+   boolean isJournalBufferTimeoutAdaptive();
+
+   /**
+    * Sets whether the journal buffer adjusts its flush timeout to the measured latency of the device syncs.
+    */
+   Configuration setJournalBufferTimeoutAdaptive(boolean adaptive);
+
+   /**
+    * Returns whether the syncs requested on the bindings and message journals are gathered, per device, into group
+    * commits that sync each journal file once for all the records waiting on it. Only for the NIO journals. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_GROUP_COMMIT}.
+    */
+   boolean isJournalGroupCommit();
+
+   /**
+    * Sets whether the syncs requested on the bindings and message journals are gathered, per device, into group commits.
+    */
+   Configuration setJournalGroupCommit(boolean groupCommit);
+
+   /**
+    * Returns how many journal, paging and large message files are sent at once to a replica synchronizing its data
+    * with this server. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_REPLICATION_SYNC_STREAMS}.
+    */
+   int getReplicationSyncStreams();
+
+   /**
+    * Sets how many journal, paging and large message files are sent at once to a replica synchronizing its data.
+    */
+   Configuration setReplicationSyncStreams(int replicationSyncStreams);
+
    /**
     * Returns the number of journal files to pre-create. <br>
     * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_JOURNAL_MIN_FILES}.
@@ -1270,6 +1373,30 @@ public interface Configuration {
 
    long getGlobalMaxMessages();
 
+   /**
+    * Returns up to how many bytes of decoded pages in memory, used or not, across all addresses, the pages no longer in
+    * use are kept so they don't need to be read again from their files. -1 means released pages aren't kept. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_GLOBAL_PAGE_CACHE_MAX_SIZE}.
+    */
+   long getGlobalPageCacheMaxSize();
+
+   /**
+    * Sets up to how many bytes of decoded pages in memory, across all addresses, the pages no longer in use are kept.
+    */
+   Configuration setGlobalPageCacheMaxSize(long globalPageCacheMaxSize);
+
+   /**
+    * Returns whether the page files no longer being written are read through a memory mapping, instead of being copied
+    * into a read buffer first. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_PAGING_MAPPED_READS}.
+    */
+   boolean isPagingMappedReads();
+
+   /**
+    * Sets whether the page files no longer being written are read through a memory mapping.
+    */
+   Configuration setPagingMappedReads(boolean pagingMappedReads);
+
    int getMaxDiskUsage();
 
    Configuration setMaxDiskUsage(int maxDiskUsage);
@@ -35,6 +35,12 @@ public class ReplicationPrimaryPolicyConfiguration implements HAPolicyConfigurat
 
    private int maxSavedReplicatedJournalsSize = ActiveMQDefaultConfiguration.getDefaultMaxSavedReplicatedJournalsSize();
 
+   private boolean asyncReplication = ActiveMQDefaultConfiguration.isDefaultAsyncReplication();
+
+   private long maxReplicationLagSize = ActiveMQDefaultConfiguration.getDefaultMaxReplicationLagSize();
+
+   private long maxReplicationLagTime = ActiveMQDefaultConfiguration.getDefaultMaxReplicationLagTime();
+
    public static ReplicationPrimaryPolicyConfiguration withDefault() {
       return new ReplicationPrimaryPolicyConfiguration();
    }
@@ -122,4 +128,31 @@ public class ReplicationPrimaryPolicyConfiguration implements HAPolicyConfigurat
       this.maxSavedReplicatedJournalsSize = maxSavedReplicatedJournalsSize;
       return this;
    }
+
+   public boolean isAsyncReplication() {
+      return asyncReplication;
+   }
+
+   public ReplicationPrimaryPolicyConfiguration setAsyncReplication(boolean asyncReplication) {
+      this.asyncReplication = asyncReplication;
+      return this;
+   }
+
+   public long getMaxReplicationLagSize() {
+      return maxReplicationLagSize;
+   }
+
+   public ReplicationPrimaryPolicyConfiguration setMaxReplicationLagSize(long maxReplicationLagSize) {
+      this.maxReplicationLagSize = maxReplicationLagSize;
+      return this;
+   }
+
+   public long getMaxReplicationLagTime() {
+      return maxReplicationLagTime;
+   }
+
+   public ReplicationPrimaryPolicyConfiguration setMaxReplicationLagTime(long maxReplicationLagTime) {
+      this.maxReplicationLagTime = maxReplicationLagTime;
+      return this;
+   }
 }
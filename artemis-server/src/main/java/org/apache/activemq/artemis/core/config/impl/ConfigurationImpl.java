@@ -264,12 +264,30 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    protected int journalCompactPercentage = ActiveMQDefaultConfiguration.getDefaultJournalCompactPercentage();
 
+   protected boolean journalCompactOnStop = ActiveMQDefaultConfiguration.isDefaultJournalCompactOnStop();
+
+   protected long journalCompactCheckPeriod = ActiveMQDefaultConfiguration.getDefaultJournalCompactCheckPeriod();
+
+   protected long journalCompactMaxReadRate = ActiveMQDefaultConfiguration.getDefaultJournalCompactMaxReadRate();
+
+   protected boolean journalOffHeapRecordIndex = ActiveMQDefaultConfiguration.isDefaultJournalOffHeapRecordIndex();
+
+   protected int journalCompressionMinSize = ActiveMQDefaultConfiguration.getDefaultJournalCompressionMinSize();
+
+   protected boolean journalBufferTimeoutAdaptive = ActiveMQDefaultConfiguration.isDefaultJournalBufferTimeoutAdaptive();
+
+   protected boolean journalGroupCommit = ActiveMQDefaultConfiguration.isDefaultJournalGroupCommit();
+
+   protected int replicationSyncStreams = ActiveMQDefaultConfiguration.getDefaultReplicationSyncStreams();
+
    protected int journalFileOpenTimeout = ActiveMQDefaultConfiguration.getDefaultJournalFileOpenTimeout();
 
    protected int journalFileSize = ActiveMQDefaultConfiguration.getDefaultJournalFileSize();
 
    protected int journalPoolFiles = ActiveMQDefaultConfiguration.getDefaultJournalPoolFiles();
 
+   protected int journalLoadThreads = ActiveMQDefaultConfiguration.getDefaultJournalLoadThreads();
+
    protected int journalMinFiles = ActiveMQDefaultConfiguration.getDefaultJournalMinFiles();
 
    protected int journalMaxAtticFilesFiles = ActiveMQDefaultConfiguration.getDefaultJournalMaxAtticFiles();
@@ -377,6 +395,10 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    private Long globalMaxMessages;
 
+   private long globalPageCacheMaxSize = ActiveMQDefaultConfiguration.getDefaultGlobalPageCacheMaxSize();
+
+   private boolean pagingMappedReads = ActiveMQDefaultConfiguration.isDefaultPagingMappedReads();
+
    private boolean amqpUseCoreSubscriptionNaming = ActiveMQDefaultConfiguration.getDefaultAmqpUseCoreSubscriptionNaming();
 
    private int maxDiskUsage = ActiveMQDefaultConfiguration.getDefaultMaxDiskUsage();
@@ -970,6 +992,28 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return globalMaxMessages;
    }
 
+   @Override
+   public long getGlobalPageCacheMaxSize() {
+      return globalPageCacheMaxSize;
+   }
+
+   @Override
+   public ConfigurationImpl setGlobalPageCacheMaxSize(long globalPageCacheMaxSize) {
+      this.globalPageCacheMaxSize = globalPageCacheMaxSize;
+      return this;
+   }
+
+   @Override
+   public boolean isPagingMappedReads() {
+      return pagingMappedReads;
+   }
+
+   @Override
+   public ConfigurationImpl setPagingMappedReads(boolean pagingMappedReads) {
+      this.pagingMappedReads = pagingMappedReads;
+      return this;
+   }
+
    @Override
    public ConfigurationImpl setPersistenceEnabled(final boolean enable) {
       persistenceEnabled = enable;
@@ -1580,6 +1624,17 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   @Override
+   public int getJournalLoadThreads() {
+      return journalLoadThreads;
+   }
+
+   @Override
+   public Configuration setJournalLoadThreads(int loadThreads) {
+      this.journalLoadThreads = loadThreads;
+      return this;
+   }
+
    @Override
    public int getJournalMinFiles() {
       return journalMinFiles;
@@ -1905,6 +1960,94 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   @Override
+   public boolean isJournalCompactOnStop() {
+      return journalCompactOnStop;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalCompactOnStop(final boolean compactOnStop) {
+      journalCompactOnStop = compactOnStop;
+      return this;
+   }
+
+   @Override
+   public long getJournalCompactCheckPeriod() {
+      return journalCompactCheckPeriod;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalCompactCheckPeriod(final long period) {
+      journalCompactCheckPeriod = period;
+      return this;
+   }
+
+   @Override
+   public long getJournalCompactMaxReadRate() {
+      return journalCompactMaxReadRate;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalCompactMaxReadRate(final long maxReadRate) {
+      journalCompactMaxReadRate = maxReadRate;
+      return this;
+   }
+
+   @Override
+   public boolean isJournalOffHeapRecordIndex() {
+      return journalOffHeapRecordIndex;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalOffHeapRecordIndex(final boolean offHeapRecordIndex) {
+      journalOffHeapRecordIndex = offHeapRecordIndex;
+      return this;
+   }
+
+   @Override
+   public int getJournalCompressionMinSize() {
+      return journalCompressionMinSize;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalCompressionMinSize(final int minSize) {
+      journalCompressionMinSize = minSize;
+      return this;
+   }
+
+   @Override
+   public boolean isJournalBufferTimeoutAdaptive() {
+      return journalBufferTimeoutAdaptive;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalBufferTimeoutAdaptive(final boolean adaptive) {
+      journalBufferTimeoutAdaptive = adaptive;
+      return this;
+   }
+
+   @Override
+   public boolean isJournalGroupCommit() {
+      return journalGroupCommit;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalGroupCommit(final boolean groupCommit) {
+      journalGroupCommit = groupCommit;
+      return this;
+   }
+
+   @Override
+   public int getReplicationSyncStreams() {
+      return replicationSyncStreams;
+   }
+
+   @Override
+   public ConfigurationImpl setReplicationSyncStreams(final int replicationSyncStreams) {
+      this.replicationSyncStreams = replicationSyncStreams;
+      return this;
+   }
+
    @Override
    public long getServerDumpInterval() {
       return serverDumpInterval;
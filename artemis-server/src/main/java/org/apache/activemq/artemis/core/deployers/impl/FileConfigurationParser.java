@@ -331,6 +331,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
    private static final String GLOBAL_MAX_MESSAGES = "global-max-messages";
 
+   private static final String GLOBAL_PAGE_CACHE_MAX_SIZE = "global-page-cache-max-size";
+
    public static final String MAX_DISK_USAGE = "max-disk-usage";
 
    public static final String MIN_DISK_FREE = "min-disk-free";
@@ -353,6 +355,12 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
    private static final String ID_CACHE_SIZE = "id-cache-size";
 
+   private static final String PAGE_OFFSET_INDEX = "page-offset-index";
+
+   private static final String PAGE_READ_AHEAD = "page-read-ahead";
+
+   private static final String PAGE_COMPRESSION = "page-compression";
+
    private boolean validateAIO = false;
 
    private boolean printPageMaxSizeUsed = false;
@@ -480,6 +488,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setGlobalMaxMessages(globalMaxMessages);
 
+      config.setGlobalPageCacheMaxSize(getTextBytesAsLongBytes(e, GLOBAL_PAGE_CACHE_MAX_SIZE, config.getGlobalPageCacheMaxSize(), Validators.MINUS_ONE_OR_GT_ZERO));
+
       config.setMinDiskFree(getTextBytesAsLongBytes(e, MIN_DISK_FREE, config.getMinDiskFree(), Validators.MINUS_ONE_OR_GT_ZERO));
 
       config.setMaxDiskUsage(getInteger(e, MAX_DISK_USAGE, config.getMaxDiskUsage(), Validators.PERCENTAGE_OR_MINUS_ONE));
@@ -705,6 +715,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setPagingDirectory(getString(e, "paging-directory", config.getPagingDirectory(), Validators.NOT_NULL_OR_EMPTY));
 
+      config.setPagingMappedReads(getBoolean(e, "paging-mapped-reads", config.isPagingMappedReads()));
+
       config.setCreateJournalDir(getBoolean(e, "create-journal-dir", config.isCreateJournalDir()));
 
       String s = getString(e, "journal-type", config.getJournalType().toString(), Validators.JOURNAL_TYPE);
@@ -738,6 +750,10 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       int journalBufferTimeout = getInteger(e, "journal-buffer-timeout", config.getJournalType() == JournalType.ASYNCIO ? ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_AIO : ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, Validators.GE_ZERO);
 
+      config.setJournalBufferTimeoutAdaptive(getBoolean(e, "journal-buffer-timeout-adaptive", config.isJournalBufferTimeoutAdaptive()));
+
+      config.setJournalGroupCommit(getBoolean(e, "journal-group-commit", config.isJournalGroupCommit()));
+
       int journalBufferSize = getTextBytesAsIntBytes(e, "journal-buffer-size", config.getJournalType() == JournalType.ASYNCIO ? ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_AIO : ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, Validators.POSITIVE_INT);
 
       int journalMaxIO = getInteger(e, "journal-max-io", config.getJournalType() == JournalType.ASYNCIO ? ActiveMQDefaultConfiguration.getDefaultJournalMaxIoAio() : ActiveMQDefaultConfiguration.getDefaultJournalMaxIoNio(), Validators.GT_ZERO);
@@ -756,14 +772,28 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setJournalFileOpenTimeout(getInteger(e, "journal-file-open-timeout", ActiveMQDefaultConfiguration.getDefaultJournalFileOpenTimeout(), Validators.GT_ZERO));
 
+      config.setReplicationSyncStreams(getInteger(e, "replication-sync-streams", config.getReplicationSyncStreams(), Validators.GT_ZERO));
+
       config.setJournalMinFiles(getInteger(e, "journal-min-files", config.getJournalMinFiles(), Validators.GT_ZERO));
 
       config.setJournalPoolFiles(getInteger(e, "journal-pool-files", config.getJournalPoolFiles(), Validators.MINUS_ONE_OR_GT_ZERO));
 
+      config.setJournalLoadThreads(getInteger(e, "journal-load-threads", config.getJournalLoadThreads(), Validators.GT_ZERO));
+
       config.setJournalCompactMinFiles(getInteger(e, "journal-compact-min-files", config.getJournalCompactMinFiles(), Validators.GE_ZERO));
 
       config.setJournalCompactPercentage(getInteger(e, "journal-compact-percentage", config.getJournalCompactPercentage(), Validators.PERCENTAGE));
 
+      config.setJournalCompactOnStop(getBoolean(e, "journal-compact-on-stop", config.isJournalCompactOnStop()));
+
+      config.setJournalCompactCheckPeriod(getLong(e, "journal-compact-check-period", config.getJournalCompactCheckPeriod(), Validators.MINUS_ONE_OR_GT_ZERO));
+
+      config.setJournalCompactMaxReadRate(getTextBytesAsLongBytes(e, "journal-compact-max-read-rate", config.getJournalCompactMaxReadRate(), Validators.MINUS_ONE_OR_GT_ZERO));
+
+      config.setJournalOffHeapRecordIndex(getBoolean(e, "journal-off-heap-record-index", config.isJournalOffHeapRecordIndex()));
+
+      config.setJournalCompressionMinSize(getTextBytesAsIntBytes(e, "journal-compression-min-size", config.getJournalCompressionMinSize(), Validators.MINUS_ONE_OR_GE_ZERO));
+
       config.setLogJournalWriteRate(getBoolean(e, "log-journal-write-rate", ActiveMQDefaultConfiguration.isDefaultJournalLogWriteRate()));
 
       config.setJournalLockAcquisitionTimeout(getLong(e, "journal-lock-acquisition-timeout", config.getJournalLockAcquisitionTimeout(), Validators.MINUS_ONE_OR_GT_ZERO));
@@ -1483,6 +1513,12 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
             int idCacheSize = XMLUtil.parseInt(child);
             Validators.GE_ZERO.validate(ID_CACHE_SIZE, idCacheSize);
             addressSettings.setIDCacheSize(XMLUtil.parseInt(child));
+         } else if (PAGE_OFFSET_INDEX.equalsIgnoreCase(name)) {
+            addressSettings.setPageOffsetIndex(XMLUtil.parseBoolean(child));
+         } else if (PAGE_READ_AHEAD.equalsIgnoreCase(name)) {
+            addressSettings.setPageReadAhead(XMLUtil.parseBoolean(child));
+         } else if (PAGE_COMPRESSION.equalsIgnoreCase(name)) {
+            addressSettings.setPageCompression(XMLUtil.parseBoolean(child));
          }
       }
       return setting;
@@ -1850,6 +1886,12 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       configuration.setMaxSavedReplicatedJournalsSize(getInteger(policyNode, "max-saved-replicated-journals-size", configuration.getMaxSavedReplicatedJournalsSize(), Validators.MINUS_ONE_OR_GE_ZERO));
 
+      configuration.setAsyncReplication(getBoolean(policyNode, "async-replication", configuration.isAsyncReplication()));
+
+      configuration.setMaxReplicationLagSize(getTextBytesAsLongBytes(policyNode, "max-replication-lag-size", configuration.getMaxReplicationLagSize(), Validators.MINUS_ONE_OR_GE_ZERO));
+
+      configuration.setMaxReplicationLagTime(getLong(policyNode, "max-replication-lag-time", configuration.getMaxReplicationLagTime(), Validators.MINUS_ONE_OR_GE_ZERO));
+
       return configuration;
    }
 
@@ -27,6 +27,7 @@ import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.federation.address.FederatedAddress;
 import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.EqualityPredicate;
 import org.apache.activemq.artemis.selector.filter.FilterException;
 import org.apache.activemq.artemis.selector.filter.Filterable;
 import org.apache.activemq.artemis.selector.impl.SelectorParser;
@@ -63,6 +64,7 @@ public class FilterImpl implements Filter {
 
    private final BooleanExpression booleanExpression;
 
+   private final EqualityPredicate equalityPredicate;
 
    /**
     * @return null if <code>filterStr</code> is null or an empty String and a valid filter else
@@ -83,7 +85,7 @@ public class FilterImpl implements Filter {
 
       BooleanExpression booleanExpression;
       try {
-         booleanExpression = SelectorParser.parse(filterStr.toString());
+         booleanExpression = SelectorParser.parseCompiled(filterStr.toString());
       } catch (Throwable e) {
          ActiveMQServerLogger.LOGGER.invalidFilter(filterStr);
          logger.debug("Invalid filter", e);
@@ -95,6 +97,14 @@ public class FilterImpl implements Filter {
    private FilterImpl(final SimpleString str, final BooleanExpression expression) {
       sfilterString = str;
       this.booleanExpression = expression;
+      this.equalityPredicate = EqualityPredicate.of(expression);
+   }
+
+   /**
+    * @return the message as it is seen by the filters
+    */
+   public static Filterable toFilterable(final Message message) {
+      return new FilterableServerMessage(message);
    }
 
    // Filter implementation ---------------------------------------------------------------------
@@ -104,6 +114,13 @@ public class FilterImpl implements Filter {
       return sfilterString;
    }
 
+   /**
+    * @return a condition every message matching this filter satisfies, or null if the filter doesn't have one
+    */
+   public EqualityPredicate getEqualityPredicate() {
+      return equalityPredicate;
+   }
+
    @Override
    public boolean match(final Message message) {
       return match(new FilterableServerMessage(message));
@@ -22,6 +22,7 @@ import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.impl.GlobalPageCache;
 import org.apache.activemq.artemis.core.server.ActiveMQComponent;
 import org.apache.activemq.artemis.core.server.files.FileStoreMonitor;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepositoryChangeListener;
@@ -177,4 +178,11 @@ public interface PagingManager extends ActiveMQComponent, HierarchicalRepository
    default void forEachTransaction(BiConsumer<Long, PageTransactionInfo> transactionConsumer) {
    }
 
+   /**
+    * @return the cache of released pages shared by every paging store, or {@code null} if released pages aren't kept
+    */
+   default GlobalPageCache getGlobalPageCache() {
+      return null;
+   }
+
 }
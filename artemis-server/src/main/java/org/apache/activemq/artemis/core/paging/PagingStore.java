@@ -131,6 +131,48 @@ public interface PagingStore extends ActiveMQComponent, RefCountMessageListener
 
    Page newPageObject(long page) throws Exception;
 
+   /**
+    * Whether single messages can be read from the page files of this store without reading the whole page, through
+    * {@link Page#readMessage(int)}.
+    */
+   default boolean isPageOffsetIndex() {
+      return false;
+   }
+
+   /**
+    * Whether the cursors of this store read the next pages ahead of the page they are on.
+    */
+   default boolean isPageReadAhead() {
+      return false;
+   }
+
+   /**
+    * Opens a complete page to read its messages one at a time with {@link Page#readMessage(int)}. The cursors seeking
+    * the same page share it, so its file is open once however many cursors read it.
+    *
+    * @return the page, to be released with {@link #releaseSeekPage(Page)}, or {@code null} if it can't be sought or
+    * too many pages are sought already: the page is to be read through {@link #usePage(long)} then
+    */
+   default Page seekPage(long page) throws Exception {
+      return null;
+   }
+
+   /**
+    * Releases a page used through {@link #seekPage(long)}, closing it once no cursor seeks it anymore.
+    */
+   default void releaseSeekPage(Page page) {
+   }
+
+   /**
+    * Same as {@link #usePage(long)}, but reading the page from its file doesn't hold back other threads using the
+    * pages of this store.
+    *
+    * @return the page, already in use, or {@code null} if it can't be read
+    */
+   default Page readPage(long page) {
+      return usePage(page);
+   }
+
    boolean checkPageFileExists(long page) throws Exception;
 
    PagingManager getPagingManager();
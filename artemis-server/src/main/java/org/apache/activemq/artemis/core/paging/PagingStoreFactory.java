@@ -61,6 +61,14 @@ public interface PagingStoreFactory {
       return null;
    }
 
+   /**
+    * Whether the page files that aren't being written are read through a memory mapping instead of through the
+    * {@link SequentialFileFactory} of their store.
+    */
+   default boolean isMappedPageReads() {
+      return false;
+   }
+
 
 
 }
@@ -17,7 +17,7 @@
 
 package org.apache.activemq.artemis.core.paging.cursor;
 
-import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 // this is to expose PageSubscriptionImpl::PageCursorInfo
 public interface ConsumedPage {
@@ -28,6 +28,9 @@ public interface ConsumedPage {
 
    boolean isAck(int messageNumber);
 
-   void forEachAck(BiConsumer<Integer, PagePosition> ackConsumer);
+   /**
+    * Gives the number of every message acknowledged on this page.
+    */
+   void forEachAck(IntConsumer ackConsumer);
 
 }
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.paging.cursor;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
@@ -69,4 +70,11 @@ public interface PageCursorProvider {
 
    boolean isRebuildDone();
 
+   /**
+    * @return the executor the cursors read the next pages ahead on, or {@code null} if they can't read ahead
+    */
+   default Executor getReadAheadExecutor() {
+      return null;
+   }
+
 }
@@ -17,14 +17,12 @@
 
 package org.apache.activemq.artemis.core.paging.cursor.impl;
 
-import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.collection.LongObjectHashMap;
 import org.apache.activemq.artemis.core.paging.PageTransactionInfo;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.paging.PagingManager;
 import org.apache.activemq.artemis.core.paging.PagingStore;
 import org.apache.activemq.artemis.core.paging.cursor.ConsumedPage;
-import org.apache.activemq.artemis.core.paging.cursor.PagePosition;
 import org.apache.activemq.artemis.core.paging.cursor.PageSubscription;
 import org.apache.activemq.artemis.core.paging.cursor.PageSubscriptionCounter;
 import org.apache.activemq.artemis.core.paging.impl.Page;
@@ -37,10 +35,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 /** this class will copy current data from the Subscriptions, count messages while the server is already active
  * performing other activity */
@@ -122,14 +121,14 @@ public class PageCounterRebuildManager implements Runnable {
                } else {
                   // We only copy the acks if the page is not done
                   // as if the page is done, we just move over
-                  consumedPage.forEachAck((messageNR, pagePosition) -> {
+                  consumedPage.forEachAck(messageNR -> {
                      if (logger.isTraceEnabled()) {
                         logger.trace("Marking messageNR {} as acked on pageID={} copy", messageNR, consumedPage.getPageId());
                      }
                      if (copiedConsumedPage.acks == null) {
-                        copiedConsumedPage.acks = new IntObjectHashMap<>();
+                        copiedConsumedPage.acks = new BitSet();
                      }
-                     copiedConsumedPage.acks.put(messageNR, Boolean.TRUE);
+                     copiedConsumedPage.acks.set(messageNR);
                   });
                }
             });
@@ -349,7 +348,7 @@ public class PageCounterRebuildManager implements Runnable {
 
    private static class CopiedConsumedPage implements ConsumedPage {
       boolean done;
-      IntObjectHashMap<Boolean> acks;
+      BitSet acks;
 
       @Override
       public long getPageId() {
@@ -357,7 +356,7 @@ public class PageCounterRebuildManager implements Runnable {
       }
 
       @Override
-      public void forEachAck(BiConsumer<Integer, PagePosition> ackConsumer) {
+      public void forEachAck(IntConsumer ackConsumer) {
          throw new RuntimeException("method not implemented");
       }
 
@@ -372,7 +371,7 @@ public class PageCounterRebuildManager implements Runnable {
             return true;
          }
          if (acks != null) {
-            return acks.get(messageNumber) != null;
+            return messageNumber >= 0 && acks.get(messageNumber);
          }
          return false;
       }
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.core.paging.cursor.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -78,10 +79,24 @@ public class PageCursorProviderImpl implements PageCursorProvider {
    //storageManager.beforePageRead will be attempted in a loop, printing at intervals a warn message
    private static final long PAGE_READ_PERMISSION_TIMEOUT_NS = TimeUnit.SECONDS.toNanos(10);
 
+   private final Executor readAheadExecutor;
+
    public PageCursorProviderImpl(final PagingStore pagingStore,
                                  final StorageManager storageManager) {
+      this(pagingStore, storageManager, null);
+   }
+
+   public PageCursorProviderImpl(final PagingStore pagingStore,
+                                 final StorageManager storageManager,
+                                 final Executor readAheadExecutor) {
       this.pagingStore = pagingStore;
       this.storageManager = storageManager;
+      this.readAheadExecutor = readAheadExecutor;
+   }
+
+   @Override
+   public Executor getReadAheadExecutor() {
+      return readAheadExecutor;
    }
 
    @Override
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.cursor.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.util.collection.LongObjectHashMap;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the pages ahead of a cursor on another executor, so the cursor doesn't wait for the page I/O when it moves to
+ * the next page. The pages read ahead are kept in use until the cursor moves to them.
+ * <p>
+ * How many pages are read ahead depends on how fast the cursor moves through the pages, up to {@link #MAX_PAGES} and
+ * up to the prefetch-page-bytes and prefetch-page-messages of the address.
+ */
+final class PageReadAhead {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   static final int MAX_PAGES = 8;
+
+   // the pages the cursor is expected to move through in this time are read ahead
+   private static final long HORIZON_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+   private final PagingStore pageStore;
+
+   private final Executor executor;
+
+   // pages read ahead, in use until the cursor moves to them
+   private final LongObjectHashMap<Page> pages = new LongObjectHashMap<>();
+
+   private long currentPageId = -1;
+
+   private long movedAt;
+
+   private long nanosPerPage;
+
+   private boolean closed;
+
+   PageReadAhead(PagingStore pageStore, Executor executor) {
+      this.pageStore = pageStore;
+      this.executor = executor;
+   }
+
+   /**
+    * The cursor moved to {@code pageId}, after it started using it.
+    */
+   void moveTo(long pageId) {
+      final int depth;
+      synchronized (this) {
+         if (closed) {
+            return;
+         }
+         final long now = System.nanoTime();
+         if (currentPageId >= 0 && pageId == currentPageId + 1) {
+            final long elapsed = Math.max(1, now - movedAt);
+            // smooths the time the cursor takes on each page
+            nanosPerPage = nanosPerPage == 0 ? elapsed : (nanosPerPage + elapsed) / 2;
+         }
+         currentPageId = pageId;
+         movedAt = now;
+         depth = depth();
+         releaseUpTo(pageId);
+      }
+      try {
+         executor.execute(() -> readAhead(pageId, depth));
+      } catch (RejectedExecutionException e) {
+         logger.debug("Could not read ahead of page {} on {}", pageId, pageStore.getAddress(), e);
+      }
+   }
+
+   /**
+    * @return how many pages should be read ahead of the cursor
+    */
+   synchronized int depth() {
+      if (nanosPerPage <= 0) {
+         return 1;
+      }
+      return (int) Math.max(1, Math.min(MAX_PAGES, HORIZON_NANOS / nanosPerPage));
+   }
+
+   synchronized int size() {
+      return pages.size();
+   }
+
+   synchronized boolean isReadAhead(long pageId) {
+      return pages.containsKey(pageId);
+   }
+
+   private void readAhead(long fromPageId, int depth) {
+      final int maxBytes = pageStore.getPrefetchPageBytes();
+      final int maxMessages = pageStore.getPrefetchPageMessages();
+      // the page being written is always in memory
+      final long lastPageId = Math.min(fromPageId + depth, pageStore.getCurrentWritingPage() - 1);
+      long bytes = 0;
+      long messages = 0;
+      try {
+         for (long pageId = fromPageId + 1; pageId <= lastPageId; pageId++) {
+            Page page;
+            synchronized (this) {
+               if (closed || currentPageId != fromPageId) {
+                  // the cursor moved on, and its next read ahead takes over
+                  return;
+               }
+               page = pages.get(pageId);
+            }
+            if (page == null) {
+               if (!pageStore.checkPageFileExists(pageId)) {
+                  continue;
+               }
+               page = pageStore.readPage(pageId);
+               if (page == null) {
+                  continue;
+               }
+               synchronized (this) {
+                  if (closed || currentPageId != fromPageId || pages.containsKey(pageId)) {
+                     page.usageDown();
+                     return;
+                  }
+                  pages.put(pageId, page);
+               }
+               if (logger.isTraceEnabled()) {
+                  logger.trace("Read page {} ahead of page {} on {}", pageId, fromPageId, pageStore.getAddress());
+               }
+            }
+            bytes += page.getSize();
+            messages += page.getNumberOfMessages();
+            if (maxBytes > 0 && bytes >= maxBytes || maxMessages > 0 && messages >= maxMessages) {
+               return;
+            }
+         }
+      } catch (Throwable e) {
+         // the cursor reads the page itself when it gets to it
+         logger.warn("Error reading ahead of page {} on {}", fromPageId, pageStore.getAddress(), e);
+      }
+   }
+
+   private void releaseUpTo(long pageId) {
+      if (pages.isEmpty()) {
+         return;
+      }
+      final List<Long> released = new ArrayList<>();
+      for (long readPageId : pages.keySet()) {
+         if (readPageId <= pageId) {
+            released.add(readPageId);
+         }
+      }
+      for (Long readPageId : released) {
+         pages.remove(readPageId).usageDown();
+      }
+   }
+
+   /**
+    * Stops reading ahead, releasing the pages read ahead.
+    */
+   synchronized void close() {
+      closed = true;
+      pages.values().forEach(Page::usageDown);
+      pages.clear();
+   }
+}
@@ -17,6 +17,8 @@
 package org.apache.activemq.artemis.core.paging.cursor.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -25,15 +27,15 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.function.ToIntFunction;
 
-import io.netty.util.collection.IntObjectHashMap;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.core.filter.Filter;
@@ -69,7 +71,7 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-   private static final Object DUMMY = new Object();
+   private static final long[] EMPTY_RECORDS = new long[0];
 
    private static final PagedReference RETRY_MARK = new PagedReferenceImpl(null, null);
 
@@ -494,19 +496,16 @@ public final class PageSubscriptionImpl implements PageSubscription {
             }
 
             // it will delete the page ack records
-            for (PagePosition pos : infoPG.acks.values()) {
-               if (pos.getRecordID() >= 0) {
-                  store.deleteCursorAcknowledgeTransactional(tx.getID(), pos.getRecordID());
-                  if (!persist) {
-                     // only need to set it once
-                     tx.setContainsPersistent();
-                     persist = true;
-                  }
+            for (long recordID : infoPG.getAckRecords()) {
+               store.deleteCursorAcknowledgeTransactional(tx.getID(), recordID);
+               if (!persist) {
+                  // only need to set it once
+                  tx.setContainsPersistent();
+                  persist = true;
                }
             }
 
-            infoPG.acks.clear();
-            infoPG.removedReferences.clear();
+            infoPG.clearAcks();
          }
 
          tx.addOperation(new TransactionOperationAbstract() {
@@ -699,10 +698,13 @@ public final class PageSubscriptionImpl implements PageSubscription {
    @Override
    public PagedMessage queryMessage(PagePosition pos) {
       try {
-         Page page = pageStore.usePage(pos.getPageNr());
+         final boolean seek = pageStore.isPageOffsetIndex();
+
+         Page page = pageStore.usePage(pos.getPageNr(), !seek);
 
          if (page == null) {
-            return null;
+            // seek the message on the page file, without reading and caching the whole page
+            return seek ? pageStore.newPageObject(pos.getPageNr()).readMessage(pos.getMessageNr()) : null;
          }
 
          try {
@@ -805,11 +807,9 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
          synchronized (consumedPages) {
             for (PageCursorInfo cursor : consumedPages.values()) {
-               for (PagePosition info : cursor.acks.values()) {
-                  if (info.getRecordID() >= 0) {
-                     isPersistent = true;
-                     store.deleteCursorAcknowledgeTransactional(tx, info.getRecordID());
-                  }
+               for (long recordID : cursor.getAckRecords()) {
+                  isPersistent = true;
+                  store.deleteCursorAcknowledgeTransactional(tx, recordID);
                }
                PagePosition completeInfo = cursor.getCompleteInfo();
                if (completeInfo != null && completeInfo.getRecordID() >= 0) {
@@ -908,16 +908,14 @@ public final class PageSubscriptionImpl implements PageSubscription {
             }
             info.setCompleteInfo(null);
          }
-         for (PagePosition deleteInfo : info.acks.values()) {
-            if (deleteInfo.getRecordID() >= 0) {
-               try {
-                  store.deleteCursorAcknowledge(deleteInfo.getRecordID());
-               } catch (Exception e) {
-                  ActiveMQServerLogger.LOGGER.errorDeletingPageCompleteRecord(e);
-               }
+         for (long recordID : info.getAckRecords()) {
+            try {
+               store.deleteCursorAcknowledge(recordID);
+            } catch (Exception e) {
+               ActiveMQServerLogger.LOGGER.errorDeletingPageCompleteRecord(e);
             }
          }
-         info.acks.clear();
+         info.clearAcks();
       }
       deletedPage.usageExhaust();
    }
@@ -1061,10 +1059,18 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
       private final long pageId;
 
-      private IntObjectHashMap<PagePosition> acks = new IntObjectHashMap<>();
+      // one bit per acknowledged message, so a page costs the same for every subscription whatever its acks
+      private final BitSet acks = new BitSet();
+
+      // the ids of the ack records to delete once the page is complete, as the positions acked aren't kept
+      private long[] ackRecords = EMPTY_RECORDS;
+
+      private int ackRecordsSize;
 
-      // This will take DUMMY elements. This is used like a HashSet of Int
-      private IntObjectHashMap<Object> removedReferences = new IntObjectHashMap<>();
+      // whether a position before the first message was acked, e.g. to mark an empty page as consumed
+      private boolean bookmarked;
+
+      private final BitSet removedReferences = new BitSet();
 
       // There's a pending TX to add elements on this page
       // also can be used to prevent the page from being deleted too soon.
@@ -1086,12 +1092,29 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
       @Override
       public synchronized boolean isAck(int messageNumber) {
-         return completePage != null || acks.get(messageNumber) != null;
+         return completePage != null || messageNumber >= 0 && acks.get(messageNumber);
       }
 
       @Override
-      public void forEachAck(BiConsumer<Integer, PagePosition> ackConsumer) {
-         acks.forEach(ackConsumer);
+      public synchronized void forEachAck(IntConsumer ackConsumer) {
+         for (int messageNr = acks.nextSetBit(0); messageNr >= 0; messageNr = acks.nextSetBit(messageNr + 1)) {
+            ackConsumer.accept(messageNr);
+         }
+      }
+
+      /**
+       * @return the ids of the ack records stored for this page
+       */
+      synchronized long[] getAckRecords() {
+         return Arrays.copyOf(ackRecords, ackRecordsSize);
+      }
+
+      synchronized void clearAcks() {
+         acks.clear();
+         removedReferences.clear();
+         bookmarked = false;
+         ackRecords = EMPTY_RECORDS;
+         ackRecordsSize = 0;
       }
 
       @Override
@@ -1185,14 +1208,16 @@ public final class PageSubscriptionImpl implements PageSubscription {
       }
 
       public synchronized boolean isRemoved(final int messageNr) {
-         return removedReferences.get(messageNr) != null;
+         return messageNr >= 0 && removedReferences.get(messageNr);
       }
 
       public synchronized void remove(final int messageNr) {
          if (logger.isTraceEnabled()) {
             logger.trace("PageCursor Removing messageNr {} on page {}", messageNr, pageId);
          }
-         removedReferences.put(messageNr, DUMMY);
+         if (messageNr >= 0) {
+            removedReferences.set(messageNr);
+         }
       }
 
       public void addACK(final PagePosition posACK) {
@@ -1223,8 +1248,24 @@ public final class PageSubscriptionImpl implements PageSubscription {
       }
 
       synchronized boolean internalAddACK(final PagePosition position) {
-         removedReferences.put(position.getMessageNr(), DUMMY);
-         return acks.put(position.getMessageNr(), position) == null;
+         final int messageNr = position.getMessageNr();
+         final boolean added;
+         if (messageNr < 0) {
+            added = !bookmarked;
+            bookmarked = true;
+         } else {
+            removedReferences.set(messageNr);
+            added = !acks.get(messageNr);
+            acks.set(messageNr);
+         }
+         final long recordID = position.getRecordID();
+         if (recordID >= 0) {
+            if (ackRecordsSize == ackRecords.length) {
+               ackRecords = Arrays.copyOf(ackRecords, Math.max(8, ackRecordsSize * 2));
+            }
+            ackRecords[ackRecordsSize++] = recordID;
+         }
+         return added;
       }
 
       /**
@@ -1309,37 +1350,125 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
    private class CursorIterator implements PageIterator {
 
+      private long currentPageId = -1;
       private Page currentPage;
       private LinkedListIterator<PagedMessage> currentPageIterator;
+      // a complete page that isn't cached is read a message at a time through its offset index, instead of reading
+      // and caching the whole page, skipping the acked messages without reading them
+      private Page seekPage;
+      private int seekPageMessages;
+      private int seekMessageNumber;
+      private PageReadAhead readAhead;
 
       private void initPage(long page) {
          if (logger.isDebugEnabled()) {
             logger.debug("initPage {}", page);
          }
          try {
-            if (currentPage != null) {
+            releasePage();
+            currentPageId = page;
+            if (openToSeek(page)) {
                if (logger.isTraceEnabled()) {
-                  logger.trace("usage down {} on subscription {}", currentPage.getPageId(), cursorId);
+                  logger.trace("CursorIterator: seeking page {} which contains {}", page, seekPageMessages);
                }
-               currentPage.usageDown();
-            }
-            if (currentPageIterator != null) {
+            } else {
+               currentPage = pageStore.usePage(page);
                if (logger.isTraceEnabled()) {
-                  logger.trace("closing pageIterator on {}", cursorId);
+                  logger.trace("CursorIterator: getting page {} which will contain {}", page, currentPage.getNumberOfMessages());
                }
-               currentPageIterator.close();
+               currentPageIterator = currentPage.iterator();
+            }
+            readAhead(page);
+         } catch (Exception e) {
+            store.criticalError(e);
+            throw new IllegalStateException(e.getMessage(), e);
+         }
+      }
+
+      private boolean openToSeek(long pageNr) throws Exception {
+         if (!pageStore.isPageOffsetIndex() || pageNr >= pageStore.getCurrentWritingPage()) {
+            return false;
+         }
+         // the page was already read by another subscription
+         final Page cachedPage = pageStore.usePage(pageNr, false);
+         if (cachedPage != null) {
+            cachedPage.usageDown();
+            return false;
+         }
+         // the cursors seeking the same page share its file
+         final Page page = pageStore.seekPage(pageNr);
+         if (page == null) {
+            return false;
+         }
+         seekPage = page;
+         seekPageMessages = page.openToSeek();
+         seekMessageNumber = 0;
+         return true;
+      }
+
+      private void releasePage() throws Exception {
+         if (currentPage != null) {
+            if (logger.isTraceEnabled()) {
+               logger.trace("usage down {} on subscription {}", currentPage.getPageId(), cursorId);
             }
-            currentPage = pageStore.usePage(page);
+            currentPage.usageDown();
+            currentPage = null;
+         }
+         if (currentPageIterator != null) {
             if (logger.isTraceEnabled()) {
-               logger.trace("CursorIterator: getting page {} which will contain {}", page, currentPage.getNumberOfMessages());
+               logger.trace("closing pageIterator on {}", cursorId);
+            }
+            currentPageIterator.close();
+            currentPageIterator = null;
+         }
+         if (seekPage != null) {
+            pageStore.releaseSeekPage(seekPage);
+            seekPage = null;
+         }
+      }
+
+      /**
+       * @return the next message of the page being sought that isn't acked or removed, {@code null} at the end of the
+       * page
+       */
+      private PagedMessage seekNext() {
+         final PageCursorInfo info = locatePageInfo(currentPageId);
+         try {
+            while (seekMessageNumber < seekPageMessages) {
+               final int messageNumber = seekMessageNumber++;
+               if (info != null && (info.isAck(messageNumber) || !browsing && info.isRemoved(messageNumber))) {
+                  continue;
+               }
+               final PagedMessage message = seekPage.readMessage(messageNumber);
+               if (message != null) {
+                  return message;
+               }
             }
-            currentPageIterator = currentPage.iterator();
+            return null;
          } catch (Exception e) {
             store.criticalError(e);
             throw new IllegalStateException(e.getMessage(), e);
          }
       }
 
+      private void readAhead(long page) {
+         if (!pageStore.isPageReadAhead()) {
+            if (readAhead != null) {
+               readAhead.close();
+               readAhead = null;
+            }
+            return;
+         }
+         if (readAhead == null) {
+            final Executor executor = cursorProvider.getReadAheadExecutor();
+            if (executor == null) {
+               return;
+            }
+            readAhead = new PageReadAhead(pageStore, executor);
+         }
+         readAhead.moveTo(page);
+      }
+
       private PagedReference currentDelivery = null;
 
       private volatile PagedReference lastDelivery = null;
@@ -1384,7 +1513,7 @@ public final class PageSubscriptionImpl implements PageSubscription {
                return currentDelivery;
             }
 
-            if (currentPage == null) {
+            if (currentPageId < 0) {
                logger.trace("CursorIterator::next initializing first page as {}", pageStore.getFirstPage());
                initPage(pageStore.getFirstPage());
             }
@@ -1504,15 +1633,20 @@ public final class PageSubscriptionImpl implements PageSubscription {
 
       private PagedReference internalGetNext() {
          for (;;) {
-            assert currentPageIterator != null : "currentPageIterator is null";
-            PagedMessage message = currentPageIterator.hasNext() ? currentPageIterator.next() : null;
+            final PagedMessage message;
+            if (seekPage != null) {
+               message = seekNext();
+            } else {
+               assert currentPageIterator != null : "currentPageIterator is null";
+               message = currentPageIterator.hasNext() ? currentPageIterator.next() : null;
+            }
             logger.trace("CursorIterator::internalGetNext:: new reference {}", message);
             if (message != null) {
                return cursorProvider.newReference(message, PageSubscriptionImpl.this);
             }
 
             if (logger.isTraceEnabled()) {
-               logger.trace("Current page {}", currentPage != null ? currentPage.getPageId() : null);
+               logger.trace("Current page {}", currentPageId);
             }
             long nextPage = getNextPage();
             if (logger.isTraceEnabled()) {
@@ -1530,7 +1664,7 @@ public final class PageSubscriptionImpl implements PageSubscription {
       }
 
       private long getNextPage() {
-         long page = currentPage.getPageId() + 1;
+         long page = currentPageId + 1;
 
          while (page <= pageStore.getCurrentWritingPage()) {
             PageCursorInfo info = locatePageInfo(page);
@@ -1598,6 +1732,17 @@ public final class PageSubscriptionImpl implements PageSubscription {
             toClose.usageDown();
          }
          currentPage = null;
+         Page toReleaseSeek = seekPage;
+         if (toReleaseSeek != null) {
+            pageStore.releaseSeekPage(toReleaseSeek);
+         }
+         seekPage = null;
+         currentPageId = -1;
+         PageReadAhead toStop = readAhead;
+         if (toStop != null) {
+            toStop.close();
+         }
+         readAhead = null;
       }
    }
 
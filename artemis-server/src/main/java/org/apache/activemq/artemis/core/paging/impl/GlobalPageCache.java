@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Accounts for the pages in memory of every paging store of the broker, and keeps them after they aren't used anymore
+ * while all of them fit in a number of bytes, so a page used again doesn't need to be read again from its file. The
+ * least recently released page is evicted first.
+ * <p>
+ * Pages that are being used are never evicted, but they count towards the maximum size. The size of a page is the
+ * estimated size of its decoded messages, see {@link Page#getMemoryEstimate()}.
+ */
+public class GlobalPageCache {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   static final class Entry {
+
+      private final Page page;
+
+      private final PageCache owner;
+
+      private long size;
+
+      private Entry(Page page, PageCache owner) {
+         this.page = page;
+         this.owner = owner;
+      }
+
+      // pages are equal by their number, but the cache holds the pages of every store
+      @Override
+      public boolean equals(Object o) {
+         if (this == o)
+            return true;
+         if (!(o instanceof Entry))
+            return false;
+         final Entry entry = (Entry) o;
+         return owner == entry.owner && page.getPageId() == entry.page.getPageId();
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * System.identityHashCode(owner) + Long.hashCode(page.getPageId());
+      }
+   }
+
+   private final long maxSize;
+
+   // every page in memory, used or released
+   private final HashMap<Entry, Entry> livePages = new HashMap<>();
+
+   // released pages, least recently released first
+   private final LinkedHashMap<Entry, Entry> releasedPages = new LinkedHashMap<>();
+
+   private long size;
+
+   private final LongAdder hits = new LongAdder();
+
+   private final LongAdder misses = new LongAdder();
+
+   private final LongAdder evictions = new LongAdder();
+
+   public GlobalPageCache(long maxSize) {
+      this.maxSize = maxSize;
+   }
+
+   public long getMaxSize() {
+      return maxSize;
+   }
+
+   /**
+    * @return the size in bytes of the pages in memory, used or released
+    */
+   public synchronized long getSize() {
+      return size;
+   }
+
+   /**
+    * @return the number of released pages being kept
+    */
+   public synchronized int getPageCount() {
+      return releasedPages.size();
+   }
+
+   /**
+    * @return how many times a page was found in memory instead of being read from its file
+    */
+   public long getHits() {
+      return hits.sum();
+   }
+
+   /**
+    * @return how many times a page was read from its file
+    */
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   /**
+    * @return how many released pages were evicted to keep the cache within its maximum size
+    */
+   public long getEvictions() {
+      return evictions.sum();
+   }
+
+   void miss() {
+      misses.increment();
+   }
+
+   private static long sizeOf(Page page) {
+      return Math.max(1, page.getMemoryEstimate());
+   }
+
+   /**
+    * Accounts for a page, or measures it again if it is already accounted for, as the page being written grows.
+    */
+   private Entry track(Page page, PageCache owner) {
+      final Entry key = new Entry(page, owner);
+      Entry entry = livePages.get(key);
+      if (entry == null) {
+         entry = key;
+         livePages.put(entry, entry);
+      } else {
+         size -= entry.size;
+      }
+      entry.size = sizeOf(page);
+      size += entry.size;
+      return entry;
+   }
+
+   private void untrack(Entry key) {
+      final Entry entry = livePages.remove(key);
+      if (entry != null) {
+         size -= entry.size;
+      }
+      releasedPages.remove(key);
+   }
+
+   /**
+    * A page was loaded in memory.
+    */
+   synchronized void add(Page page, PageCache owner) {
+      track(page, owner);
+   }
+
+   /**
+    * A page in memory is being used again, so it can't be evicted anymore.
+    */
+   synchronized void hit(Page page, PageCache owner) {
+      hits.increment();
+      // it could have been chosen for eviction before its owner removed it
+      releasedPages.remove(track(page, owner));
+   }
+
+   synchronized boolean isRetained(Page page, PageCache owner) {
+      return releasedPages.containsKey(new Entry(page, owner));
+   }
+
+   /**
+    * Keeps a page that isn't used anymore, evicting the least recently released pages while the pages in memory
+    * don't fit in the maximum size.
+    *
+    * @return the pages to be evicted from their owners through {@link #evict(List)}, or {@code null} if the page
+    * can't be kept
+    */
+   synchronized List<Entry> retain(Page page, PageCache owner) {
+      final Entry entry = track(page, owner);
+      if (entry.size > maxSize) {
+         untrack(entry);
+         return null;
+      }
+      releasedPages.remove(entry);
+      releasedPages.put(entry, entry);
+      List<Entry> victims = null;
+      final Iterator<Entry> iterator = releasedPages.values().iterator();
+      while (size > maxSize && iterator.hasNext()) {
+         final Entry victim = iterator.next();
+         iterator.remove();
+         livePages.remove(victim);
+         size -= victim.size;
+         evictions.increment();
+         if (victims == null) {
+            victims = new ArrayList<>();
+         }
+         victims.add(victim);
+         if (logger.isDebugEnabled()) {
+            logger.debug("Evicting page {} of {} from the page cache, size={}, maxSize={}", victim.page.getPageId(), victim.owner, size, maxSize);
+         }
+      }
+      return victims == null ? Collections.emptyList() : victims;
+   }
+
+   /**
+    * Removes the evicted pages from the stores keeping them. It has to be called without holding the lock of any
+    * {@link PageCache}, as each store is locked in turn.
+    */
+   void evict(List<Entry> victims) {
+      for (Entry victim : victims) {
+         victim.owner.evict(victim.page);
+      }
+   }
+
+   synchronized void remove(Page page, PageCache owner) {
+      untrack(new Entry(page, owner));
+   }
+
+   synchronized void removeAll(PageCache owner) {
+      final Iterator<Entry> iterator = livePages.values().iterator();
+      while (iterator.hasNext()) {
+         final Entry entry = iterator.next();
+         if (entry.owner == owner) {
+            iterator.remove();
+            releasedPages.remove(entry);
+            size -= entry.size;
+         }
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "GlobalPageCache{maxSize=" + maxSize + ", size=" + getSize() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+   }
+}
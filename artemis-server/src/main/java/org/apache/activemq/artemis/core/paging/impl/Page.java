@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.paging.impl;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -46,6 +47,8 @@ public final class Page  {
 
    private final int seqInt = factory.incrementAndGet();
 
+   private volatile boolean deleted;
+
    private final ReferenceCounterUtil referenceCounter = new ReferenceCounterUtil();
 
    public void usageExhaust() {
@@ -60,6 +63,14 @@ public final class Page  {
       return referenceCounter.decrement();
    }
 
+   public int getUsage() {
+      return referenceCounter.getCount();
+   }
+
+   public boolean isDeleted() {
+      return deleted;
+   }
+
    /** to be called when the page is supposed to be released */
    public void releaseTask(Consumer<Page> releaseTask) {
       referenceCounter.setTask(() -> releaseTask.accept(this));
@@ -79,12 +90,22 @@ public final class Page  {
 
    private volatile long size;
 
+   private volatile long memoryEstimate;
+
    private final StorageManager storageManager;
 
    private final SimpleString storeName;
 
    private ByteBuffer readFileBuffer;
 
+   private boolean offsetIndexEnabled;
+
+   private boolean mappedReads;
+
+   private volatile boolean compressionEnabled;
+
+   private volatile PageOffsetIndex offsetIndex;
+
    public Page(final SimpleString storeName,
                final StorageManager storageManager,
                final SequentialFileFactory factory,
@@ -101,6 +122,45 @@ public final class Page  {
       return pageId;
    }
 
+   /**
+    * When enabled the page keeps the position of each of its messages, so {@link #readMessage(int)} can read a single
+    * message without reading the whole page, and it writes them next to the page file once it is complete.
+    */
+   public Page setOffsetIndexEnabled(boolean offsetIndexEnabled) {
+      this.offsetIndexEnabled = offsetIndexEnabled;
+      return this;
+   }
+
+   public boolean isOffsetIndexEnabled() {
+      return offsetIndexEnabled;
+   }
+
+   /**
+    * When enabled a page that isn't open is read through a memory mapping of its file, see
+    * {@link PageReadWriter#readFromMappedFile}.
+    */
+   public Page setMappedReads(boolean mappedReads) {
+      this.mappedReads = mappedReads;
+      return this;
+   }
+
+   public boolean isMappedReads() {
+      return mappedReads;
+   }
+
+   /**
+    * When enabled the messages written to the page are deflated, if that makes them smaller. Compressed messages are
+    * read back whether it is enabled or not.
+    */
+   public Page setCompressionEnabled(boolean compressionEnabled) {
+      this.compressionEnabled = compressionEnabled;
+      return this;
+   }
+
+   public boolean isCompressionEnabled() {
+      return compressionEnabled;
+   }
+
    public LinkedListIterator<PagedMessage> iterator() throws Exception {
       LinkedList<PagedMessage> messages = getMessages();
       return messages.iterator();
@@ -113,9 +173,16 @@ public final class Page  {
             if (!file.exists()) {
                return EmptyList.getEmptyList();
             }
+            if (mappedReads) {
+               // a page that isn't open isn't being written
+               messages = read(storageManager, false, true);
+               memoryEstimate = estimateMemory(messages);
+               return messages;
+            }
             file.open();
          }
          messages = read(storageManager);
+         memoryEstimate = estimateMemory(messages);
          if (!wasOpen) {
             file.close();
          }
@@ -131,6 +198,7 @@ public final class Page  {
       message.setMessageNumber(messages.size());
       message.setPageNumber(this.pageId);
       messages.addTail(message);
+      memoryEstimate += message.getMessage().getMemoryEstimate();
    }
 
    public synchronized LinkedList<PagedMessage> read() throws Exception {
@@ -150,6 +218,10 @@ public final class Page  {
          throw ActiveMQMessageBundle.BUNDLE.invalidPageIO();
       }
 
+      return read(storage, onlyLargeMessages, false);
+   }
+
+   private LinkedList<PagedMessage> read(StorageManager storage, boolean onlyLargeMessages, boolean mapped) throws Exception {
       if (logger.isTraceEnabled()) {
          logger.trace("reading page {} on address = {} onlyLargeMessages = {}", pageId, storeName, onlyLargeMessages, new Exception("trace"));
       } else if (logger.isDebugEnabled()) {
@@ -160,11 +232,119 @@ public final class Page  {
 
       final LinkedList<PagedMessage> messages = new LinkedListImpl<>();
 
-      numberOfMessages = PageReadWriter.readFromSequentialFile(storage, storeName, fileFactory, file, this.pageId, messages::addTail, onlyLargeMessages ? PageReadWriter.ONLY_LARGE : PageReadWriter.NO_SKIP, this::markFileAsSuspect, this::setSize);
+      final PageOffsetIndex readIndex = offsetIndexEnabled ? new PageOffsetIndex() : null;
+
+      final PageReadWriter.PageRecordFilter skipRecord = onlyLargeMessages ? PageReadWriter.ONLY_LARGE : PageReadWriter.NO_SKIP;
+
+      final PageReadWriter.MessagePositionCallback positionCallback = readIndex == null ? null : (messageNumber, position) -> readIndex.add(position);
+
+      if (mapped) {
+         numberOfMessages = PageReadWriter.readFromMappedFile(storage, storeName, file.getJavaFile(), this.pageId, messages::addTail, skipRecord, this::markFileAsSuspect, this::setSize, positionCallback);
+      } else {
+         numberOfMessages = PageReadWriter.readFromSequentialFile(storage, storeName, fileFactory, file, this.pageId, messages::addTail, skipRecord, this::markFileAsSuspect, this::setSize, positionCallback);
+      }
+
+      if (readIndex != null) {
+         offsetIndex = readIndex;
+      }
 
       return messages;
    }
 
+   /**
+    * Reads a single message of the page: from the messages of the page if they are already read, or else from its
+    * position on the page file if the offset index is enabled. Without the offset index, or when there is no offset
+    * index for the page yet, the whole page is read, but its messages aren't kept.
+    *
+    * @return the message, or {@code null} if the page doesn't have such message
+    */
+   public synchronized PagedMessage readMessage(int messageNumber) throws Exception {
+      final LinkedList<PagedMessage> cachedMessages = this.messages;
+      if (cachedMessages != null) {
+         return messageNumber < cachedMessages.size() ? cachedMessages.get(messageNumber) : null;
+      }
+
+      final boolean wasOpen = isOpen();
+      if (!wasOpen) {
+         if (!open(false)) {
+            return null;
+         }
+      }
+      try {
+         final PageOffsetIndex index = loadOffsetIndex();
+         if (index == null) {
+            final LinkedList<PagedMessage> pageMessages = read(storageManager);
+            if (!wasOpen) {
+               // if the page is still being written the index is ignored later as the page file size won't match
+               writeOffsetIndex();
+            }
+            return messageNumber < pageMessages.size() ? pageMessages.get(messageNumber) : null;
+         }
+         if (messageNumber >= index.size()) {
+            return null;
+         }
+         final int position = index.get(messageNumber);
+         final long end = messageNumber + 1 < index.size() ? index.get(messageNumber + 1) : file.size();
+         return PageReadWriter.readMessageAt(storageManager, storeName, fileFactory, file, pageId, messageNumber, position, (int) (end - position));
+      } finally {
+         if (!wasOpen) {
+            close(false);
+         }
+      }
+   }
+
+   /**
+    * Opens a complete page to read its messages one at a time with {@link #readMessage(int)}, each read seeking the
+    * message on the page file through the offset index. Opening a page that is open already only counts its messages.
+    *
+    * @return the number of messages of the page, or -1 if it doesn't have a valid offset index, it is left closed then
+    */
+   public synchronized int openToSeek() throws Exception {
+      if (!offsetIndexEnabled || !open(false)) {
+         return -1;
+      }
+      final PageOffsetIndex index = loadOffsetIndex();
+      if (index == null) {
+         close(false);
+         return -1;
+      }
+      return index.size();
+   }
+
+   private File offsetIndexFile() {
+      final File pageFile = file.getJavaFile();
+      return pageFile == null ? null : PageOffsetIndex.indexFileOf(pageFile);
+   }
+
+   private PageOffsetIndex loadOffsetIndex() throws Exception {
+      if (!offsetIndexEnabled) {
+         return null;
+      }
+      PageOffsetIndex index = offsetIndex;
+      if (index == null) {
+         final File indexFile = offsetIndexFile();
+         if (indexFile != null) {
+            index = PageOffsetIndex.read(indexFile, file.size());
+            offsetIndex = index;
+         }
+      }
+      return index;
+   }
+
+   private void writeOffsetIndex() {
+      final PageOffsetIndex index = offsetIndex;
+      final File indexFile = offsetIndexFile();
+      if (index == null || indexFile == null || index.size() != numberOfMessages) {
+         return;
+      }
+      try {
+         index.write(indexFile, size);
+      } catch (Exception e) {
+         // it is just an optimization, the next reader will index the page again
+         logger.debug("Could not write the offset index of page {} on address {}", pageId, storeName, e);
+      }
+   }
+
    public String debugMessages() throws Exception {
       StringBuffer buffer = new StringBuffer();
       LinkedListIterator<PagedMessage> iter = getMessages().iterator();
@@ -188,7 +368,18 @@ public final class Page  {
          throw ActiveMQMessageBundle.BUNDLE.cannotWriteToClosedFile(file);
       }
       addMessage(message);
-      this.size += PageReadWriter.writeMessage(message, fileFactory, file);
+      if (offsetIndexEnabled) {
+         PageOffsetIndex index = offsetIndex;
+         if (index == null) {
+            // the page is new or it was open without reading its messages
+            index = numberOfMessages == 0 ? new PageOffsetIndex() : null;
+            offsetIndex = index;
+         }
+         if (index != null) {
+            index.add((int) size);
+         }
+      }
+      this.size += PageReadWriter.writeMessage(message, fileFactory, file, compressionEnabled);
       numberOfMessages++;
    }
 
@@ -233,9 +424,15 @@ public final class Page  {
          storageManager.pageClosed(storeName, pageId);
       }
       file.close(waitSync, waitSync);
+      if (sendEvent && offsetIndexEnabled) {
+         // the page is complete
+         writeOffsetIndex();
+      }
    }
 
    public boolean delete(final LinkedList<PagedMessage> messages) throws Exception {
+      deleted = true;
+
       if (storageManager != null) {
          storageManager.pageDeleted(storeName, pageId);
       }
@@ -268,6 +465,10 @@ public final class Page  {
                } else {
                   file.delete();
                }
+               final File indexFile = offsetIndexFile();
+               if (indexFile != null && indexFile.exists() && !indexFile.delete()) {
+                  logger.debug("Could not remove {}", indexFile);
+               }
                referenceCounter.exhaust();
             } catch (Exception e) {
                ActiveMQServerLogger.LOGGER.pageDeleteError(e);
@@ -293,6 +494,10 @@ public final class Page  {
       }
 
       try {
+         final PageOffsetIndex index = loadOffsetIndex();
+         if (index != null) {
+            return index.size();
+         }
          int numberOfMessages = PageReadWriter.readFromSequentialFile(this.storageManager,
                                                                       this.storeName,
                                                                       this.fileFactory,
@@ -321,6 +526,24 @@ public final class Page  {
       return size;
    }
 
+   /**
+    * @return the estimated size in memory of the decoded messages of the page, which is larger than the size of its
+    * file, above all when the messages are compressed, or 0 if its messages aren't in memory
+    */
+   public long getMemoryEstimate() {
+      return memoryEstimate;
+   }
+
+   private static long estimateMemory(LinkedList<PagedMessage> messages) {
+      long estimate = 0;
+      try (LinkedListIterator<PagedMessage> iter = messages.iterator()) {
+         while (iter.hasNext()) {
+            estimate += iter.next().getMessage().getMemoryEstimate();
+         }
+      }
+      return estimate;
+   }
+
    private void setSize(long size) {
       this.size = size;
    }
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.core.paging.impl;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 import io.netty.util.collection.LongObjectHashMap;
@@ -25,7 +26,8 @@ import org.slf4j.LoggerFactory;
 import java.lang.invoke.MethodHandles;
 
 /**
- * This is a simple cache where we keep Page objects only while they are being used. */
+ * This is a simple cache where we keep Page objects only while they are being used, or while the {@link GlobalPageCache}
+ * keeps them after they aren't used anymore. */
 public class PageCache {
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -38,6 +40,37 @@ public class PageCache {
 
    private final LongObjectHashMap<Page> usedPages = new LongObjectHashMap<>();
 
+   private volatile GlobalPageCache globalCache;
+
+   public PageCache setGlobalCache(GlobalPageCache globalCache) {
+      this.globalCache = globalCache;
+      return this;
+   }
+
+   public GlobalPageCache getGlobalCache() {
+      return globalCache;
+   }
+
+   /**
+    * A page in memory is being used again.
+    */
+   public void hit(Page page) {
+      final GlobalPageCache globalCache = this.globalCache;
+      if (globalCache != null) {
+         globalCache.hit(page, this);
+      }
+   }
+
+   /**
+    * A page had to be read from its file.
+    */
+   public void miss() {
+      final GlobalPageCache globalCache = this.globalCache;
+      if (globalCache != null) {
+         globalCache.miss();
+      }
+   }
+
    public synchronized Page get(long pageID) {
       return usedPages.get(pageID);
    }
@@ -54,12 +87,42 @@ public class PageCache {
       if (logger.isDebugEnabled()) {
          logger.debug("+++ Injecting page {} on UsedPages for destination {}", page.getPageId(), owner.getAddress());
       }
-      page.releaseTask(this::removePage);
+      page.releaseTask(this::releasePage);
       usedPages.put(page.getPageId(), page);
+      final GlobalPageCache globalCache = this.globalCache;
+      if (globalCache != null) {
+         globalCache.add(page, this);
+      }
    }
 
 
+   private void releasePage(Page page) {
+      final GlobalPageCache globalCache = this.globalCache;
+      if (globalCache != null && !page.isDeleted()) {
+         final List<GlobalPageCache.Entry> victims;
+         synchronized (this) {
+            if (page.getUsage() > 0) {
+               // it was used again in the meantime
+               return;
+            }
+            victims = usedPages.get(page.getPageId()) == page ? globalCache.retain(page, this) : null;
+         }
+         if (victims != null) {
+            if (logger.isDebugEnabled()) {
+               logger.debug("=== Keeping released page {} on UsedPages for destination {}", page.getPageId(), owner.getAddress());
+            }
+            globalCache.evict(victims);
+            return;
+         }
+      }
+      removePage(page);
+   }
+
    public synchronized void removePage(Page page) {
+      final GlobalPageCache globalCache = this.globalCache;
+      if (globalCache != null) {
+         globalCache.remove(page, this);
+      }
       if (usedPages.remove(page.getPageId()) != null) {
          if (logger.isDebugEnabled()) {
             logger.debug("--- Releasing page {} on UsedPages for destination {}", page.getPageId(), owner.getAddress());
@@ -67,5 +130,34 @@ public class PageCache {
       }
    }
 
+   /**
+    * Removes a page evicted by the {@link GlobalPageCache}, unless it was used or released again in the meantime.
+    */
+   synchronized void evict(Page page) {
+      final GlobalPageCache globalCache = this.globalCache;
+      if (page.getUsage() > 0 || usedPages.get(page.getPageId()) != page || globalCache != null && globalCache.isRetained(page, this)) {
+         return;
+      }
+      usedPages.remove(page.getPageId());
+      if (logger.isDebugEnabled()) {
+         logger.debug("--- Evicting page {} from UsedPages for destination {}", page.getPageId(), owner.getAddress());
+      }
+   }
+
+   /**
+    * Stops accounting for the pages of this store on the {@link GlobalPageCache}.
+    */
+   public synchronized void releaseRetained() {
+      final GlobalPageCache globalCache = this.globalCache;
+      if (globalCache != null) {
+         globalCache.removeAll(this);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "PageCache(" + owner.getAddress() + ")";
+   }
+
 
 }
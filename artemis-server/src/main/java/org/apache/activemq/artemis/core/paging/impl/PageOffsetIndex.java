@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
+import org.apache.activemq.artemis.core.server.files.SidecarFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The position on the page file of each message of a page, by message number, so a single message can be read without
+ * reading the whole page.
+ * <p>
+ * The index of a completed page can be kept in a sidecar file named after the page file plus {@link #SUFFIX}. The
+ * sidecar holds the size of the page file it indexes, so an index of a page that kept growing after it was written is
+ * ignored.
+ */
+public final class PageOffsetIndex {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   public static final String SUFFIX = ".index";
+
+   private static final int MAGIC = 0x50494458;
+
+   private static final int VERSION = 1;
+
+   private int[] positions;
+
+   private int size;
+
+   public PageOffsetIndex() {
+      this(16);
+   }
+
+   public PageOffsetIndex(int capacity) {
+      positions = new int[Math.max(1, capacity)];
+   }
+
+   /**
+    * Adds the position of the next message of the page.
+    */
+   public void add(int position) {
+      if (size == positions.length) {
+         positions = Arrays.copyOf(positions, size * 2);
+      }
+      positions[size++] = position;
+   }
+
+   /**
+    * @return the position of the message on the page file
+    */
+   public int get(int messageNumber) {
+      if (messageNumber < 0 || messageNumber >= size) {
+         throw new IndexOutOfBoundsException("messageNumber=" + messageNumber + ", size=" + size);
+      }
+      return positions[messageNumber];
+   }
+
+   /**
+    * @return the number of messages on the index
+    */
+   public int size() {
+      return size;
+   }
+
+   public static File indexFileOf(File pageFile) {
+      return new File(pageFile.getPath() + SUFFIX);
+   }
+
+   /**
+    * Writes the index of a page file of {@code pageFileSize} bytes.
+    */
+   public void write(File indexFile, long pageFileSize) throws IOException {
+      SidecarFile.write(indexFile, MAGIC, VERSION, pageFileSize, out -> {
+         out.writeInt(size);
+         for (int i = 0; i < size; i++) {
+            out.writeInt(positions[i]);
+         }
+      });
+   }
+
+   /**
+    * @return the index, or {@code null} if there is no valid index for a page file of {@code pageFileSize} bytes
+    */
+   public static PageOffsetIndex read(File indexFile, long pageFileSize) {
+      return SidecarFile.read(indexFile, MAGIC, VERSION, pageFileSize, in -> {
+         final int size = in.readInt();
+         if (size < 0) {
+            logger.debug("{} has an invalid number of messages {}", indexFile, size);
+            return null;
+         }
+         final PageOffsetIndex index = new PageOffsetIndex(size);
+         for (int i = 0; i < size; i++) {
+            index.add(in.readInt());
+         }
+         return index;
+      });
+   }
+
+   @Override
+   public String toString() {
+      return "PageOffsetIndex{size=" + size + "}";
+   }
+}
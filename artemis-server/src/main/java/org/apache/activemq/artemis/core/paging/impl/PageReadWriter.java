@@ -16,11 +16,19 @@
  */
 package org.apache.activemq.artemis.core.paging.impl;
 
+import java.io.File;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 import java.util.function.Consumer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.util.internal.PlatformDependent;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.buffers.impl.ChannelBufferWrapper;
@@ -33,6 +41,7 @@ import org.apache.activemq.artemis.core.persistence.impl.journal.OperationContex
 import org.apache.activemq.artemis.core.server.LargeServerMessage;
 import org.apache.activemq.artemis.utils.DataConstants;
 import org.apache.activemq.artemis.utils.Env;
+import org.apache.activemq.artemis.utils.pools.CompressorPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.lang.invoke.MethodHandles;
@@ -48,6 +57,17 @@ public class PageReadWriter {
 
    private static final byte END_BYTE = (byte) '}';
 
+   // a record whose message is deflated, preceded by its encoded size
+   private static final byte COMPRESSED_START_BYTE = (byte) '(';
+
+   // smaller messages are not worth deflating
+   private static final int MIN_COMPRESSED_SIZE = 256;
+
+   // deflaters and inflaters hold native memory until they are ended, see releaseCompressors()
+   private static final CompressorPool<Deflater> DEFLATERS = CompressorPool.deflaters(Runtime.getRuntime().availableProcessors(), Deflater.BEST_SPEED);
+
+   private static final CompressorPool<Inflater> INFLATERS = CompressorPool.inflaters(Runtime.getRuntime().availableProcessors());
+
    //sizeOf(START_BYTE) + sizeOf(MESSAGE LENGTH) + sizeOf(END_BYTE)
    private static final int HEADER_AND_TRAILER_SIZE = DataConstants.SIZE_INT + 2;
    private static final int MINIMUM_MSG_PERSISTENT_SIZE = HEADER_AND_TRAILER_SIZE;
@@ -66,14 +86,40 @@ public class PageReadWriter {
       void readComple(int size);
    }
 
+   public interface MessagePositionCallback {
+      void onMessage(int messageNumber, int position);
+   }
+
    public static final PageRecordFilter ONLY_LARGE = (buffer) -> !PagedMessageImpl.isLargeMessage(buffer);
 
    public static final PageRecordFilter NO_SKIP = (buffer) -> false;
 
    public static final PageRecordFilter SKIP_ALL = (buffer) -> true;
 
+   /**
+    * Ends the idle deflaters and inflaters of the compressed page records, releasing their native memory.
+    */
+   public static void releaseCompressors() {
+      DEFLATERS.clear();
+      INFLATERS.clear();
+   }
+
    public static int writeMessage(PagedMessage message, SequentialFileFactory fileFactory, SequentialFile file) throws Exception {
+      return writeMessage(message, fileFactory, file, false);
+   }
+
+   /**
+    * @param compress whether the message is deflated, when it is large enough and deflating makes it smaller
+    * @return the number of bytes written to the file
+    */
+   public static int writeMessage(PagedMessage message, SequentialFileFactory fileFactory, SequentialFile file, boolean compress) throws Exception {
       final int messageEncodedSize = message.getEncodeSize();
+      if (compress && messageEncodedSize >= MIN_COMPRESSED_SIZE) {
+         final ByteBuffer compressed = compressMessage(message, messageEncodedSize, fileFactory);
+         if (compressed != null) {
+            return write(compressed, fileFactory, file);
+         }
+      }
       final int bufferSize = messageEncodedSize + SIZE_RECORD;
       final ByteBuffer buffer = fileFactory.newBuffer(bufferSize);
       ChannelBufferWrapper activeMQBuffer = new ChannelBufferWrapper(Unpooled.wrappedBuffer(buffer));
@@ -85,6 +131,11 @@ public class PageReadWriter {
       assert (activeMQBuffer.readableBytes() == bufferSize) : "messageEncodedSize is different from expected";
       //buffer limit and position are the same
       assert (buffer.remaining() == bufferSize) : "buffer position or limit are changed";
+      return write(buffer, fileFactory, file);
+   }
+
+   private static int write(ByteBuffer buffer, SequentialFileFactory fileFactory, SequentialFile file) throws Exception {
+      final int bufferSize = buffer.remaining();
       if (fileFactory.supportsIndividualContext()) {
          OperationContext context = OperationContextImpl.getContext();
          if (context != null) {
@@ -97,6 +148,89 @@ public class PageReadWriter {
       return bufferSize;
    }
 
+   /**
+    * The record is {@link #COMPRESSED_START_BYTE}, the size of what follows up to {@link #END_BYTE}, the size of the
+    * encoded message, the deflated message and {@link #END_BYTE}.
+    *
+    * @return the record, or {@code null} if deflating doesn't make the message smaller
+    */
+   private static ByteBuffer compressMessage(PagedMessage message, int messageEncodedSize, SequentialFileFactory fileFactory) {
+      final byte[] encoded = new byte[messageEncodedSize];
+      final ChannelBufferWrapper encodedBuffer = new ChannelBufferWrapper(Unpooled.wrappedBuffer(encoded));
+      encodedBuffer.clear();
+      message.encode(encodedBuffer);
+      assert encodedBuffer.readableBytes() == messageEncodedSize : "messageEncodedSize is different from expected";
+
+      // not worth it unless the record is smaller than the uncompressed one
+      final int maxDeflatedSize = messageEncodedSize - DataConstants.SIZE_INT - 1;
+      final ByteBuffer buffer = fileFactory.newBuffer(SIZE_RECORD + DataConstants.SIZE_INT + maxDeflatedSize);
+      final Deflater deflater = DEFLATERS.borrow();
+      try {
+         deflater.setInput(encoded);
+         deflater.finish();
+         buffer.put(COMPRESSED_START_BYTE);
+         // the size is known once deflated
+         buffer.putInt(0);
+         buffer.putInt(messageEncodedSize);
+         final int deflatedStart = buffer.position();
+         buffer.limit(deflatedStart + maxDeflatedSize);
+         while (!deflater.finished() && buffer.hasRemaining()) {
+            deflater.deflate(buffer);
+         }
+         if (!deflater.finished()) {
+            fileFactory.releaseBuffer(buffer);
+            return null;
+         }
+         final int deflatedSize = buffer.position() - deflatedStart;
+         buffer.putInt(1, DataConstants.SIZE_INT + deflatedSize);
+         buffer.limit(buffer.position() + 1);
+         buffer.put(END_BYTE);
+         buffer.flip();
+         return buffer;
+      } finally {
+         DEFLATERS.release(deflater);
+      }
+   }
+
+   /**
+    * @param position where the content of a compressed record starts, i.e. the size of the encoded message
+    * @return the encoded message, or {@code null} if it can't be inflated
+    */
+   private static ChannelBufferWrapper decompressMessage(ByteBuffer buffer, int position, int encodedSize) {
+      if (encodedSize < DataConstants.SIZE_INT) {
+         return null;
+      }
+      final ByteBuffer input = buffer.duplicate();
+      input.limit(position + encodedSize);
+      input.position(position);
+      final int messageEncodedSize = input.getInt();
+      if (messageEncodedSize < 0) {
+         return null;
+      }
+      final byte[] encoded = new byte[messageEncodedSize];
+      final Inflater inflater = INFLATERS.borrow();
+      try {
+         inflater.setInput(input);
+         int inflated = 0;
+         while (inflated < messageEncodedSize) {
+            final int read = inflater.inflate(encoded, inflated, messageEncodedSize - inflated);
+            if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+               break;
+            }
+            inflated += read;
+         }
+         if (inflated != messageEncodedSize) {
+            return null;
+         }
+      } catch (DataFormatException e) {
+         logger.debug("Invalid compressed page record at position {}", position, e);
+         return null;
+      } finally {
+         INFLATERS.release(inflater);
+      }
+      return new ChannelBufferWrapper(Unpooled.wrappedBuffer(encoded));
+   }
+
 
 
    private static ChannelBufferWrapper wrapWhole(ByteBuffer fileBuffer) {
@@ -127,8 +261,81 @@ public class PageReadWriter {
                                              PageRecordFilter skipRecord,
                                              SuspectFileCallback suspectFileCallback,
                                              ReadCallback readCallback) throws Exception {
-      final int fileSize = (int) file.size();
-      file.position(0);
+      return readFromSequentialFile(storage, storeName, fileFactory, file, pageId, messages, skipRecord, suspectFileCallback, readCallback, null);
+   }
+
+   /**
+    * @param positionCallback if not {@code null} it is given the position of every valid message on the file, even
+    *                         the skipped ones
+    */
+   public static int readFromSequentialFile(StorageManager storage,
+                                             SimpleString storeName,
+                                             SequentialFileFactory fileFactory,
+                                             SequentialFile file,
+                                             long pageId,
+                                             Consumer<PagedMessage> messages,
+                                             PageRecordFilter skipRecord,
+                                             SuspectFileCallback suspectFileCallback,
+                                             ReadCallback readCallback,
+                                             MessagePositionCallback positionCallback) throws Exception {
+      return readMessages(storage, storeName, fileFactory, file, file.getFileName(), null, pageId, messages, skipRecord, suspectFileCallback, readCallback, positionCallback);
+   }
+
+   /**
+    * Same as {@link #readFromSequentialFile(StorageManager, SimpleString, SequentialFileFactory, SequentialFile, long,
+    * Consumer, PageRecordFilter, SuspectFileCallback, ReadCallback, MessagePositionCallback)}, but the messages are
+    * decoded straight from a read-only memory mapping of the file instead of being read into a buffer first. The file
+    * must not be written while it is read.
+    * <p>
+    * Decoded messages copy their own data, so nothing refers to the mapping once this returns.
+    */
+   public static int readFromMappedFile(StorageManager storage,
+                                        SimpleString storeName,
+                                        File file,
+                                        long pageId,
+                                        Consumer<PagedMessage> messages,
+                                        PageRecordFilter skipRecord,
+                                        SuspectFileCallback suspectFileCallback,
+                                        ReadCallback readCallback,
+                                        MessagePositionCallback positionCallback) throws Exception {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+         final long fileSize = channel.size();
+         if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Page file " + file + " is too large to be mapped: " + fileSize + " bytes");
+         }
+         final MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+         try {
+            return readMessages(storage, storeName, null, null, file.getName(), mapping, pageId, messages, skipRecord, suspectFileCallback, readCallback, positionCallback);
+         } finally {
+            //unmap in a deterministic way: do not rely on GC to do it
+            PlatformDependent.freeDirectBuffer(mapping);
+         }
+      }
+   }
+
+   /**
+    * @param mapping if not {@code null} the whole content of the file, and {@code fileFactory} and {@code file} aren't
+    *                used
+    */
+   private static int readMessages(StorageManager storage,
+                                   SimpleString storeName,
+                                   SequentialFileFactory fileFactory,
+                                   SequentialFile file,
+                                   String fileName,
+                                   ByteBuffer mapping,
+                                   long pageId,
+                                   Consumer<PagedMessage> messages,
+                                   PageRecordFilter skipRecord,
+                                   SuspectFileCallback suspectFileCallback,
+                                   ReadCallback readCallback,
+                                   MessagePositionCallback positionCallback) throws Exception {
+      final int fileSize;
+      if (mapping == null) {
+         fileSize = (int) file.size();
+         file.position(0);
+      } else {
+         fileSize = mapping.limit();
+      }
       int processedBytes = 0;
       ByteBuffer fileBuffer = null;
       ChannelBufferWrapper fileBufferWrapper;
@@ -139,36 +346,46 @@ public class PageReadWriter {
          int remainingBytes = fileSize - processedBytes;
 
          if (remainingBytes >= MINIMUM_MSG_PERSISTENT_SIZE) {
-            fileBuffer = fileFactory.newBuffer(Math.min(remainingBytes, MIN_CHUNK_SIZE));
-            //the wrapper is reused to avoid unnecessary allocations
-            fileBufferWrapper = wrapWhole(fileBuffer);
-            //no content is being added yet
-            fileBuffer.limit(0);
+            if (mapping == null) {
+               fileBuffer = fileFactory.newBuffer(Math.min(remainingBytes, MIN_CHUNK_SIZE));
+               //the wrapper is reused to avoid unnecessary allocations
+               fileBufferWrapper = wrapWhole(fileBuffer);
+               //no content is being added yet
+               fileBuffer.limit(0);
+            } else {
+               //the mapping already holds every byte checked to be there below
+               fileBuffer = mapping;
+               fileBufferWrapper = wrapWhole(fileBuffer);
+            }
 
             do {
 
-               final ByteBuffer oldFileBuffer = fileBuffer;
+               if (mapping == null) {
+                  final ByteBuffer oldFileBuffer = fileBuffer;
 
-               fileBuffer = readIntoFileBufferIfNecessary(fileFactory, file, fileBuffer, MINIMUM_MSG_PERSISTENT_SIZE, false);
+                  fileBuffer = readIntoFileBufferIfNecessary(fileFactory, file, fileBuffer, MINIMUM_MSG_PERSISTENT_SIZE, false);
 
-               //change wrapper if fileBuffer has changed
-               if (fileBuffer != oldFileBuffer) {
-                  fileBufferWrapper = wrapWhole(fileBuffer);
+                  //change wrapper if fileBuffer has changed
+                  if (fileBuffer != oldFileBuffer) {
+                     fileBufferWrapper = wrapWhole(fileBuffer);
+                  }
                }
 
                final byte startByte = fileBuffer.get();
-               if (startByte == START_BYTE) {
+               if (startByte == START_BYTE || startByte == COMPRESSED_START_BYTE) {
 
                   final int encodedSize = fileBuffer.getInt();
                   final int nextPosition = processedBytes + HEADER_AND_TRAILER_SIZE + encodedSize;
 
                   if (nextPosition <= fileSize) {
 
-                     final ByteBuffer currentFileBuffer = fileBuffer;
-                     fileBuffer = readIntoFileBufferIfNecessary(fileFactory, file, fileBuffer, encodedSize + 1, false);
-                     //change wrapper if fileBuffer has changed
-                     if (fileBuffer != currentFileBuffer) {
-                        fileBufferWrapper = wrapWhole(fileBuffer);
+                     if (mapping == null) {
+                        final ByteBuffer currentFileBuffer = fileBuffer;
+                        fileBuffer = readIntoFileBufferIfNecessary(fileFactory, file, fileBuffer, encodedSize + 1, false);
+                        //change wrapper if fileBuffer has changed
+                        if (fileBuffer != currentFileBuffer) {
+                           fileBufferWrapper = wrapWhole(fileBuffer);
+                        }
                      }
 
                      final int endPosition = fileBuffer.position() + encodedSize;
@@ -176,13 +393,29 @@ public class PageReadWriter {
                      //this check must be performed upfront decoding
                      if (fileBuffer.remaining() >= (encodedSize + 1) && fileBuffer.get(endPosition) == END_BYTE) {
 
-                        fileBufferWrapper.setIndex(fileBuffer.position(), endPosition);
+                        final ChannelBufferWrapper messageBuffer;
+                        if (startByte == START_BYTE) {
+                           fileBufferWrapper.setIndex(fileBuffer.position(), endPosition);
+                           messageBuffer = fileBufferWrapper;
+                        } else if (skipRecord == SKIP_ALL) {
+                           //no need to inflate what is skipped anyway
+                           messageBuffer = null;
+                        } else {
+                           messageBuffer = decompressMessage(fileBuffer, fileBuffer.position(), encodedSize);
+                           if (messageBuffer == null) {
+                              if (suspectFileCallback != null) {
+                                 suspectFileCallback.onSuspect(fileName, processedBytes, totalMessageCount + 1);
+                              }
+
+                              return totalMessageCount;
+                           }
+                        }
 
-                        final boolean skipMessage = skipRecord.skip(fileBufferWrapper);
+                        final boolean skipMessage = messageBuffer == null || skipRecord.skip(messageBuffer);
 
                         if (!skipMessage) {
-                           final PagedMessageImpl msg = new PagedMessageImpl(encodedSize, storage);
-                           msg.decode(fileBufferWrapper);
+                           final PagedMessageImpl msg = new PagedMessageImpl(startByte == START_BYTE ? encodedSize : messageBuffer.readableBytes(), storage);
+                           msg.decode(messageBuffer);
 
                            assert fileBuffer.get(endPosition) == END_BYTE : "decoding cannot change end byte";
 
@@ -201,6 +434,10 @@ public class PageReadWriter {
                            msg.setPageNumber(pageId).setMessageNumber(totalMessageCount);
                         }
 
+                        if (positionCallback != null) {
+                           positionCallback.onMessage(totalMessageCount, processedBytes);
+                        }
+
                         totalMessageCount++;
                         fileBuffer.position(endPosition + 1);
                         processedBytes = nextPosition;
@@ -208,7 +445,7 @@ public class PageReadWriter {
                      } else {
 
                         if (suspectFileCallback != null) {
-                           suspectFileCallback.onSuspect(file.getFileName(), processedBytes, totalMessageCount + 1);
+                           suspectFileCallback.onSuspect(fileName, processedBytes, totalMessageCount + 1);
                         }
 
                         return totalMessageCount;
@@ -217,7 +454,7 @@ public class PageReadWriter {
                   } else {
 
                      if (suspectFileCallback != null) {
-                        suspectFileCallback.onSuspect(file.getFileName(), processedBytes, totalMessageCount + 1);
+                        suspectFileCallback.onSuspect(fileName, processedBytes, totalMessageCount + 1);
                      }
 
                      return totalMessageCount;
@@ -225,7 +462,7 @@ public class PageReadWriter {
                } else {
 
                   if (suspectFileCallback != null) {
-                     suspectFileCallback.onSuspect(file.getFileName(), processedBytes, totalMessageCount + 1);
+                     suspectFileCallback.onSuspect(fileName, processedBytes, totalMessageCount + 1);
                   }
 
                   return totalMessageCount;
@@ -239,23 +476,82 @@ public class PageReadWriter {
 
          //ignore incomplete messages at the end of the file
          if (logger.isTraceEnabled()) {
-            logger.trace("{} has {} bytes of unknown data at position = {}", file.getFileName(), remainingBytes, processedBytes);
+            logger.trace("{} has {} bytes of unknown data at position = {}", fileName, remainingBytes, processedBytes);
          }
 
          return totalMessageCount;
       } finally {
-         if (fileBuffer != null) {
+         if (fileBuffer != null && mapping == null) {
             fileFactory.releaseBuffer(fileBuffer);
          }
          if (readCallback != null) {
             readCallback.readComple(processedBytes);
          }
-         if (file.position() != processedBytes) {
+         if (mapping == null && file.position() != processedBytes) {
             file.position(processedBytes);
          }
       }
    }
 
+   /**
+    * Reads the single message starting at {@code position}, as given by a {@link MessagePositionCallback} while reading
+    * the same file, with a single read of the {@code length} bytes up to the next message. The file has to be open.
+    *
+    * @param length the number of bytes from {@code position} to the next message, or to the end of the file
+    * @return the message, or {@code null} if there isn't a valid message at the position
+    */
+   public static PagedMessage readMessageAt(StorageManager storage,
+                                            SimpleString storeName,
+                                            SequentialFileFactory fileFactory,
+                                            SequentialFile file,
+                                            long pageId,
+                                            int messageNumber,
+                                            int position,
+                                            int length) throws Exception {
+      final long fileSize = file.size();
+      if (position < 0 || length < MINIMUM_MSG_PERSISTENT_SIZE || position + (long) length > fileSize) {
+         return null;
+      }
+      final ByteBuffer buffer = fileFactory.newBuffer(length);
+      try {
+         file.position(position);
+         buffer.limit(length);
+         file.read(buffer);
+         buffer.position(0);
+         final byte startByte = buffer.get();
+         if (startByte != START_BYTE && startByte != COMPRESSED_START_BYTE) {
+            return null;
+         }
+         final int encodedSize = buffer.getInt();
+         if (encodedSize < 0 || HEADER_AND_TRAILER_SIZE + (long) encodedSize > length) {
+            return null;
+         }
+         if (buffer.get(HEADER_SIZE + encodedSize) != END_BYTE) {
+            return null;
+         }
+         final ChannelBufferWrapper wrapper;
+         if (startByte == START_BYTE) {
+            wrapper = wrapWhole(buffer);
+            wrapper.setIndex(HEADER_SIZE, HEADER_SIZE + encodedSize);
+         } else {
+            wrapper = decompressMessage(buffer, HEADER_SIZE, encodedSize);
+            if (wrapper == null) {
+               return null;
+            }
+         }
+         final PagedMessageImpl msg = new PagedMessageImpl(wrapper.readableBytes(), storage);
+         msg.decode(wrapper);
+         msg.initMessage(storage);
+         msg.setPageNumber(pageId).setMessageNumber(messageNumber);
+         if (logger.isTraceEnabled()) {
+            logger.trace("Reading message {} at position {} on pageId={} for address={}", msg, position, pageId, storeName);
+         }
+         return msg;
+      } finally {
+         fileFactory.releaseBuffer(buffer);
+      }
+   }
+
    private static ByteBuffer readIntoFileBufferIfNecessary(SequentialFileFactory fileFactory, SequentialFile file, ByteBuffer fileBuffer, int requiredBytes, boolean direct) throws Exception {
 
       final int remaining = fileBuffer.remaining();
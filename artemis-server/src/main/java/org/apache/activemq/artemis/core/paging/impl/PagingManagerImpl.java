@@ -98,6 +98,8 @@ public final class PagingManagerImpl implements PagingManager {
 
    private final SizeAwareMetric globalSizeMetric;
 
+   private final GlobalPageCache globalPageCache;
+
    private long maxSize;
 
    private long maxMessages;
@@ -136,6 +138,19 @@ public final class PagingManagerImpl implements PagingManager {
                             final long maxMessages,
                             final SimpleString managementAddress,
                             final ActiveMQServer server) {
+      this(pagingSPI, addressSettingsRepository, maxSize, maxMessages, -1, managementAddress, server);
+   }
+
+   /**
+    * @param pageCacheMaxSize how many bytes of released pages are kept in memory, -1 to not keep them
+    */
+   public PagingManagerImpl(final PagingStoreFactory pagingSPI,
+                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                            final long maxSize,
+                            final long maxMessages,
+                            final long pageCacheMaxSize,
+                            final SimpleString managementAddress,
+                            final ActiveMQServer server) {
       pagingStoreFactory = pagingSPI;
       this.addressSettingsRepository = addressSettingsRepository;
       addressSettingsRepository.registerListener(this);
@@ -149,6 +164,12 @@ public final class PagingManagerImpl implements PagingManager {
       this.managerExecutor = pagingSPI.newExecutor();
       this.managementAddress = managementAddress;
       this.server = server;
+      this.globalPageCache = pageCacheMaxSize > 0 ? new GlobalPageCache(pageCacheMaxSize) : null;
+   }
+
+   @Override
+   public GlobalPageCache getGlobalPageCache() {
+      return globalPageCache;
    }
 
    SizeAwareMetric getSizeAwareMetric() {
@@ -547,6 +568,8 @@ public final class PagingManagerImpl implements PagingManager {
       } finally {
          unlock();
       }
+
+      PageReadWriter.releaseCompressors();
    }
 
    @Override
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.io.File;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+
+/**
+ * Pages are written as with {@link PagingStoreFactoryNIO}, but the complete page files are read through a memory
+ * mapping, so depaging doesn't copy each page into a read buffer before decoding its messages.
+ */
+public class PagingStoreFactoryMapped extends PagingStoreFactoryNIO {
+
+   public PagingStoreFactoryMapped(final StorageManager storageManager,
+                                   final File directory,
+                                   final long syncTimeout,
+                                   final ScheduledExecutorService scheduledExecutor,
+                                   final ExecutorFactory executorFactory,
+                                   final ExecutorFactory ioExecutorFactory,
+                                   final boolean syncNonTransactional,
+                                   final IOCriticalErrorListener critialErrorListener) {
+      super(storageManager, directory, syncTimeout, scheduledExecutor, executorFactory, ioExecutorFactory, syncNonTransactional, critialErrorListener);
+   }
+
+   @Override
+   public boolean isMappedPageReads() {
+      return true;
+   }
+}
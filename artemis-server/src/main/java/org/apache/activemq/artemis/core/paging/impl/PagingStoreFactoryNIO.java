@@ -147,7 +147,7 @@ public class PagingStoreFactoryNIO implements PagingStoreFactory {
                                                StorageManager storageManager,
                                                AddressSettings addressSettings,
                                                ArtemisExecutor executor) {
-      return new PageCursorProviderImpl(store, storageManager);
+      return new PageCursorProviderImpl(store, storageManager, newExecutor());
    }
 
    @Override
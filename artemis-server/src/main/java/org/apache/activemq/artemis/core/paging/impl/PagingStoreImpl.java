@@ -32,6 +32,7 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 
+import io.netty.util.collection.LongObjectHashMap;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.SequentialFile;
@@ -81,6 +82,17 @@ public class PagingStoreImpl implements PagingStore {
 
    private final PageCache usedPages = new PageCache(this);
 
+   /**
+    * Beyond this many pages sought at once the cursors read their pages through {@link #usedPages} instead, so many
+    * cursors far apart from each other don't hold as many page files open.
+    */
+   private static final int MAX_SEEK_PAGES = 16;
+
+   /**
+    * The pages open for the cursors to seek their messages, see {@link #seekPage(long)}.
+    */
+   private final LongObjectHashMap<Page> seekPages = new LongObjectHashMap<>();
+
    //it's being guarded by lock.writeLock().lock() and never read concurrently
    private long currentPageSize = 0;
 
@@ -108,6 +120,12 @@ public class PagingStoreImpl implements PagingStore {
 
    private volatile boolean pageFull;
 
+   private volatile boolean pageOffsetIndex;
+
+   private volatile boolean pageReadAhead;
+
+   private volatile boolean pageCompression;
+
    private Long pageLimitBytes;
 
    private Long estimatedMaxPages;
@@ -189,6 +207,8 @@ public class PagingStoreImpl implements PagingStore {
 
       this.pagingManager = pagingManager;
 
+      usedPages.setGlobalCache(pagingManager.getGlobalPageCache());
+
       this.fileFactory = fileFactory;
 
       this.storeFactory = storeFactory;
@@ -239,6 +259,17 @@ public class PagingStoreImpl implements PagingStore {
 
       maxMessages = addressSettings.getMaxSizeMessages();
 
+      pageOffsetIndex = addressSettings.isPageOffsetIndex();
+
+      pageReadAhead = addressSettings.isPageReadAhead();
+
+      pageCompression = addressSettings.isPageCompression();
+
+      final Page page = currentPage;
+      if (page != null) {
+         page.setCompressionEnabled(pageCompression);
+      }
+
       configureSizeMetric();
 
       // JDBC has a maximum page size of 100K by default.
@@ -563,6 +594,25 @@ public class PagingStoreImpl implements PagingStore {
          page.close(false);
          currentPage = null;
       }
+
+      usedPages.releaseRetained();
+
+      closeSeekPages();
+   }
+
+   private void closeSeekPages() {
+      final List<Page> pages;
+      synchronized (seekPages) {
+         pages = new ArrayList<>(seekPages.values());
+         seekPages.clear();
+      }
+      for (Page page : pages) {
+         try {
+            page.close(false);
+         } catch (Exception e) {
+            logger.debug("Error closing page {} on {}", page.getPageId(), address, e);
+         }
+      }
    }
 
    @Override
@@ -801,22 +851,124 @@ public class PagingStoreImpl implements PagingStore {
 
       Page page = new Page(storeName, storageManager, factory, file, pageNumber);
 
+      // JDBC pages have no folder to keep the offset index
+      page.setOffsetIndexEnabled(pageOffsetIndex && factory.getDirectory() != null);
+
+      page.setMappedReads(storeFactory.isMappedPageReads() && factory.getDirectory() != null);
+
+      page.setCompressionEnabled(pageCompression);
+
       return page;
    }
 
+   @Override
+   public boolean isPageOffsetIndex() {
+      return pageOffsetIndex;
+   }
+
+   @Override
+   public boolean isPageReadAhead() {
+      return pageReadAhead;
+   }
+
+   @Override
+   public Page seekPage(final long pageId) throws Exception {
+      if (!pageOffsetIndex) {
+         return null;
+      }
+      synchronized (seekPages) {
+         Page page = seekPages.get(pageId);
+         if (page == null) {
+            if (seekPages.size() >= MAX_SEEK_PAGES) {
+               return null;
+            }
+            page = newPageObject(pageId);
+            if (page.openToSeek() < 0) {
+               return null;
+            }
+            seekPages.put(pageId, page);
+         }
+         page.usageUp();
+         return page;
+      }
+   }
+
+   @Override
+   public void releaseSeekPage(final Page page) {
+      synchronized (seekPages) {
+         if (page.usageDown() > 0 || seekPages.get(page.getPageId()) != page) {
+            return;
+         }
+         seekPages.remove(page.getPageId());
+      }
+      try {
+         page.close(false);
+      } catch (Exception e) {
+         logger.debug("Error closing page {} on {}", page.getPageId(), address, e);
+      }
+   }
+
+   @Override
+   public Page readPage(final long pageId) {
+      try {
+         Page page = usePage(pageId, false);
+         if (page != null) {
+            return page;
+         }
+         page = newPageObject(pageId);
+         if (!page.getFile().exists()) {
+            return null;
+         }
+         // the page is read without holding usedPages, so the cursors using other pages don't wait for it
+         page.getMessages();
+         synchronized (usedPages) {
+            final Page loaded = usedPages.get(pageId);
+            if (loaded != null) {
+               // another thread read the page meanwhile
+               usedPages.hit(loaded);
+               loaded.usageUp();
+               return loaded;
+            }
+            usedPages.miss();
+            injectPage(page);
+            page.usageUp();
+            return page;
+         }
+      } catch (Exception e) {
+         logger.warn("Error reading page {} on {}", pageId, address, e);
+         return null;
+      }
+   }
+
    @Override
    public final Page usePage(final long pageId) {
       return usePage(pageId, true);
    }
 
+   /**
+    * Uses a page in memory that is about to be removed, without counting it as a hit on the page cache.
+    */
+   private Page usePageToRemove(final long pageId) {
+      synchronized (usedPages) {
+         final Page page = usedPages.get(pageId);
+         if (page != null) {
+            page.usageUp();
+         }
+         return page;
+      }
+   }
+
    @Override
    public Page usePage(final long pageId, final boolean create) {
       synchronized (usedPages) {
          try {
             Page page = usedPages.get(pageId);
-            if (create && page == null) {
+            if (page != null) {
+               usedPages.hit(page);
+            } else if (create) {
                page = newPageObject(pageId);
                if (page.getFile().exists()) {
+                  usedPages.miss();
                   page.getMessages();
                   injectPage(page);
                }
@@ -888,7 +1040,7 @@ public class PagingStoreImpl implements PagingStore {
                return null;
             }
 
-            Page page = usePage(pageId, false);
+            Page page = usePageToRemove(pageId);
 
             if (page == null) {
                page = newPageObject(pageId);
@@ -993,7 +1145,7 @@ public class PagingStoreImpl implements PagingStore {
                // first we look for the page on the used Pages cache
                // if non existing, we just create a new one outside of the cache
                // as we should not introduce any extras
-               Page usedPage = usePage(pageNR, false);
+               Page usedPage = usePageToRemove(pageNR);
                if (usedPage == null) {
                   returnPage = newPageObject(pageNR);
                } else {
@@ -1242,6 +1394,11 @@ public class PagingStoreImpl implements PagingStore {
 
          page.write(pagedMessage);
 
+         if (page.isCompressionEnabled()) {
+            // compressed messages take less than estimated, so the page is filled up to the page size on disk
+            currentPageSize = page.getSize();
+         }
+
          if (tx == null && syncNonTransactional && message.isDurable()) {
             addSyncPoint(storageManager.getContext());
          }
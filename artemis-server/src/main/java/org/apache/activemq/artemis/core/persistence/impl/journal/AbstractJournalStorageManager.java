@@ -84,6 +84,7 @@ import org.apache.activemq.artemis.core.persistence.config.PersistedSecuritySett
 import org.apache.activemq.artemis.core.persistence.config.PersistedUser;
 import org.apache.activemq.artemis.core.persistence.impl.PageCountPending;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.AddressStatusEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompressedMessageEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DeleteEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DeliveryCountUpdateEncoding;
@@ -210,6 +211,8 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
    private final boolean syncNonTransactional;
 
+   private final int compressionMinSize;
+
    protected boolean journalLoaded = false;
 
    protected final IOCriticalErrorListener ioCriticalErrorListener;
@@ -269,6 +272,7 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
       syncNonTransactional = config.isJournalSyncNonTransactional();
       syncTransactional = config.isJournalSyncTransactional();
+      compressionMinSize = config.getJournalCompressionMinSize();
 
       init(config, criticalErrorListener);
 
@@ -395,11 +399,27 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
          if (message.isLargeMessage() && message instanceof LargeServerMessageImpl) {
             messageJournal.appendAddRecord(message.getMessageID(), JournalRecordIds.ADD_LARGE_MESSAGE, LargeMessagePersister.getInstance(), message, false, getContext(false));
          } else {
-            messageJournal.appendAddRecord(message.getMessageID(), JournalRecordIds.ADD_MESSAGE_PROTOCOL, message.getPersister(), message, false, getContext(false));
+            CompressedMessageEncoding compressed = compressMessage(message);
+            if (compressed != null) {
+               messageJournal.appendAddRecord(message.getMessageID(), JournalRecordIds.ADD_MESSAGE_COMPRESSED, compressed, false, getContext(false));
+            } else {
+               messageJournal.appendAddRecord(message.getMessageID(), JournalRecordIds.ADD_MESSAGE_PROTOCOL, message.getPersister(), message, false, getContext(false));
+            }
          }
       }
    }
 
+   /**
+    * @return the message deflated for a {@link JournalRecordIds#ADD_MESSAGE_COMPRESSED} record, or {@code null} if it
+    * is stored as is
+    */
+   private CompressedMessageEncoding compressMessage(final Message message) {
+      if (compressionMinSize < 0 || message.isLargeMessage() || message.getPersister().getEncodeSize(message) < compressionMinSize) {
+         return null;
+      }
+      return CompressedMessageEncoding.compress(message);
+   }
+
    @Override
    public void storeReference(final long queueID, final long messageID, final boolean last) throws Exception {
       try (ArtemisCloseable lock = closeableReadLock()) {
@@ -516,7 +536,12 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
             // this is a core large message
             messageJournal.appendAddRecordTransactional(txID, message.getMessageID(), JournalRecordIds.ADD_LARGE_MESSAGE, LargeMessagePersister.getInstance(), message);
          } else {
-            messageJournal.appendAddRecordTransactional(txID, message.getMessageID(), JournalRecordIds.ADD_MESSAGE_PROTOCOL, message.getPersister(), message);
+            CompressedMessageEncoding compressed = compressMessage(message);
+            if (compressed != null) {
+               messageJournal.appendAddRecordTransactional(txID, message.getMessageID(), JournalRecordIds.ADD_MESSAGE_COMPRESSED, compressed);
+            } else {
+               messageJournal.appendAddRecordTransactional(txID, message.getMessageID(), JournalRecordIds.ADD_MESSAGE_PROTOCOL, message.getPersister(), message);
+            }
          }
 
       }
@@ -981,7 +1006,9 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       Map<Long, Message> messages = new HashMap<>();
       try (ArtemisCloseable lock = closeableReadLock()) {
          messageJournal.setRemoveExtraFilesOnLoad(true);
+         final long loadStart = System.nanoTime();
          JournalLoadInformation info = messageJournal.load(records, preparedTransactions, new LargeMessageTXFailureCallback(this));
+         final long readEnd = System.nanoTime();
 
          ArrayList<LargeServerMessage> largeMessages = new ArrayList<>();
 
@@ -1052,9 +1079,10 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
                      throw new IllegalStateException("This is using old journal data, export your data and import at the correct version");
                   }
 
+                  case JournalRecordIds.ADD_MESSAGE_COMPRESSED:
                   case JournalRecordIds.ADD_MESSAGE_PROTOCOL: {
 
-                     Message message = decodeMessage(pools, buff);
+                     Message message = decodeMessage(pools, recordType == JournalRecordIds.ADD_MESSAGE_COMPRESSED ? CompressedMessageEncoding.inflate(buff) : buff);
 
                      if (message.isLargeMessage() && storedLargeMessages != null) {
                         storedLargeMessages.remove(message.getMessageID());
@@ -1330,8 +1358,12 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
          // Release the memory as soon as not needed any longer
          records = null;
 
+         final long decodeEnd = System.nanoTime();
+
          journalLoader.handleAddMessage(queueMap);
 
+         final long rebuildEnd = System.nanoTime();
+
          loadPreparedTransactions(postOffice, pagingManager, resourceManager, queueInfos, preparedTransactions, this::failedToPrepareException, pageSubscriptions, pendingLargeMessages, storedLargeMessages, journalLoader);
 
          for (PageSubscription sub : pageSubscriptions.values()) {
@@ -1363,6 +1395,9 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
          checkInvalidPageTransactions(pagingManager, invalidPageTransactions);
 
+         final long loadEnd = System.nanoTime();
+         ActiveMQServerLogger.LOGGER.messageJournalLoaded(TimeUnit.NANOSECONDS.toMillis(loadEnd - loadStart), TimeUnit.NANOSECONDS.toMillis(readEnd - loadStart), totalSize, TimeUnit.NANOSECONDS.toMillis(decodeEnd - readEnd), TimeUnit.NANOSECONDS.toMillis(rebuildEnd - decodeEnd), TimeUnit.NANOSECONDS.toMillis(loadEnd - rebuildEnd));
+
          journalLoaded = true;
          return info;
       }
@@ -1796,6 +1831,8 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       journalLoaded = false;
 
       started = false;
+
+      CompressedMessageEncoding.releaseCompressors();
    }
 
    protected abstract void beforeStop() throws Exception;
@@ -1906,8 +1943,9 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
                break;
             }
+            case JournalRecordIds.ADD_MESSAGE_COMPRESSED:
             case JournalRecordIds.ADD_MESSAGE_PROTOCOL: {
-               Message message = decodeMessage(pools, buff);
+               Message message = decodeMessage(pools, recordType == JournalRecordIds.ADD_MESSAGE_COMPRESSED ? CompressedMessageEncoding.inflate(buff) : buff);
                if (storedLargeMessages != null && message.isLargeMessage() && storedLargeMessages.remove(record.id)) {
                   logger.debug("PreparedTX/AddMessgeProtocol load removing stored large message {}", record.id);
                }
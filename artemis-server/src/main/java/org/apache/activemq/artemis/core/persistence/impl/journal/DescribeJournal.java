@@ -48,6 +48,7 @@ import org.apache.activemq.artemis.core.paging.impl.PageTransactionInfoImpl;
 import org.apache.activemq.artemis.core.persistence.config.PersistedBridgeConfiguration;
 import org.apache.activemq.artemis.core.persistence.config.PersistedDivertConfiguration;
 import org.apache.activemq.artemis.core.persistence.impl.journal.BatchingIDGenerator.IDCounterEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompressedMessageEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DeliveryCountUpdateEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DuplicateIDEncoding;
@@ -83,6 +84,7 @@ import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalR
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_LARGE_MESSAGE;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_LARGE_MESSAGE_PENDING;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_MESSAGE;
+import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_MESSAGE_COMPRESSED;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_MESSAGE_PROTOCOL;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_REF;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.DIVERT_RECORD;
@@ -412,7 +414,7 @@ public final class DescribeJournal {
 
          Object o = newObjectEncoding(info);
          final byte userRecordType = info.getUserRecordType();
-         if (userRecordType == ADD_MESSAGE || userRecordType == ADD_MESSAGE_PROTOCOL) {
+         if (userRecordType == ADD_MESSAGE || userRecordType == ADD_MESSAGE_PROTOCOL || userRecordType == ADD_MESSAGE_COMPRESSED) {
             messageCount++;
          } else if (userRecordType == ADD_LARGE_MESSAGE) {
             largeMessageCount++;
@@ -479,7 +481,7 @@ public final class DescribeJournal {
             Object o = newObjectEncoding(info);
             out.println("- " + describeRecord(info, o, safe));
             final byte userRecordType = info.getUserRecordType();
-            if (userRecordType == ADD_MESSAGE || userRecordType == ADD_MESSAGE_PROTOCOL) {
+            if (userRecordType == ADD_MESSAGE || userRecordType == ADD_MESSAGE_PROTOCOL || userRecordType == ADD_MESSAGE_COMPRESSED) {
                preparedMessageCount++;
             } else if (userRecordType == ADD_LARGE_MESSAGE) {
                preparedLargeMessageCount++;
@@ -634,6 +636,10 @@ public final class DescribeJournal {
             Message message = MessagePersister.getInstance().decode(buffer, null, null, storageManager);
             return new MessageDescribe(message);
          }
+         case ADD_MESSAGE_COMPRESSED: {
+            Message message = MessagePersister.getInstance().decode(CompressedMessageEncoding.inflate(buffer), null, null, storageManager);
+            return new MessageDescribe(message);
+         }
          case ADD_REF: {
             final RefEncoding encoding = new RefEncoding();
             encoding.decode(buffer);
@@ -106,4 +106,7 @@ public final class JournalRecordIds {
    public static final byte CONNECTOR_RECORD = 51;
 
    public static final byte ADDRESS_SETTING_RECORD_JSON = 52;
+
+   // A message record deflated as a whole, see CompressedMessageEncoding
+   public static final byte ADD_MESSAGE_COMPRESSED = 53;
 }
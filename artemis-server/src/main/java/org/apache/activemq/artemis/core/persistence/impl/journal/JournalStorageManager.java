@@ -18,18 +18,24 @@
 package org.apache.activemq.artemis.core.persistence.impl.journal;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQException;
@@ -42,6 +48,7 @@ import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.SyncGroup;
 import org.apache.activemq.artemis.core.io.aio.AIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
@@ -54,6 +61,7 @@ import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.paging.PagingManager;
 import org.apache.activemq.artemis.core.paging.PagingStore;
 import org.apache.activemq.artemis.core.persistence.OperationContext;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompressedMessageEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.LargeMessagePersister;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.RefEncoding;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationLiveIsStoppingMessage;
@@ -64,9 +72,11 @@ import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.JournalType;
 import org.apache.activemq.artemis.core.server.LargeServerMessage;
 import org.apache.activemq.artemis.core.server.files.FileStoreMonitor;
+import org.apache.activemq.artemis.core.server.replay.RetentionFileIndex;
 import org.apache.activemq.artemis.journal.ActiveMQJournalBundle;
 import org.apache.activemq.artemis.utils.ArtemisCloseable;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.RunnableEx;
 import org.apache.activemq.artemis.utils.critical.CriticalAnalyzer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -91,6 +101,8 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
 
    protected ReplicationManager replicator;
 
+   private ScheduledFuture<?> compactCheckFuture;
+
    public JournalStorageManager(final Configuration config,
                                 final CriticalAnalyzer analyzer,
                                 final ExecutorFactory executorFactory,
@@ -170,6 +182,18 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
 
       journalFF.setDatasync(config.isJournalDatasync());
 
+      if (journalFF.getTimedBuffer() != null) {
+         journalFF.getTimedBuffer().setAdaptive(config.isJournalBufferTimeoutAdaptive());
+      }
+
+      if (config.isJournalGroupCommit() && config.isJournalDatasync() && ioExecutorFactory != null) {
+         final Map<Object, SyncGroup> syncGroups = new HashMap<>();
+         ((NIOSequentialFileFactory) bindingsFF).setSyncGroup(syncGroupOf(config.getBindingsLocation(), syncGroups));
+         if (journalFF instanceof NIOSequentialFileFactory) {
+            ((NIOSequentialFileFactory) journalFF).setSyncGroup(syncGroupOf(config.getJournalLocation(), syncGroups));
+         }
+      }
+
 
       int fileSize = fixJournalFileSize(config.getJournalFileSize(), journalFF.getAlignment());
       Journal localMessage = createMessageJournal(config, criticalErrorListener, fileSize);
@@ -185,6 +209,23 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       largeMessagesFactory = new NIOSequentialFileFactory(config.getLargeMessagesLocation(), false, criticalErrorListener, 1);
    }
 
+   /**
+    * @return the group of the device of {@code directory}, shared by the journals on the same device
+    */
+   private SyncGroup syncGroupOf(File directory, Map<Object, SyncGroup> syncGroups) {
+      Object device = directory.getAbsoluteFile();
+      try {
+         File existing = directory.getAbsoluteFile();
+         while (!existing.exists() && existing.getParentFile() != null) {
+            existing = existing.getParentFile();
+         }
+         device = Files.getFileStore(existing.toPath());
+      } catch (IOException e) {
+         logger.debug("Cannot find the device of {}, its syncs are gathered on their own", directory, e);
+      }
+      return syncGroups.computeIfAbsent(device, d -> new SyncGroup(ioExecutorFactory.getExecutor()));
+   }
+
    /**
     * We need to correct the file size if its not a multiple of the alignement
     * @param fileSize : the configured file size.
@@ -211,7 +252,25 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
    protected Journal createMessageJournal(Configuration config,
                                         IOCriticalErrorListener criticalErrorListener,
                                         int fileSize) {
-      return new JournalImpl(ioExecutorFactory, fileSize, config.getJournalMinFiles(), config.getJournalPoolFiles(), config.getJournalCompactMinFiles(), config.getJournalCompactPercentage(), config.getJournalFileOpenTimeout(), journalFF, ACTIVEMQ_DATA, "amq", journalFF.getMaxIO(), 0, criticalErrorListener, config.getJournalMaxAtticFiles());
+      return new JournalImpl(ioExecutorFactory, fileSize, config.getJournalMinFiles(), config.getJournalPoolFiles(), config.getJournalCompactMinFiles(), config.getJournalCompactPercentage(), config.getJournalFileOpenTimeout(), journalFF, ACTIVEMQ_DATA, "amq", journalFF.getMaxIO(), 0, criticalErrorListener, config.getJournalMaxAtticFiles()).setLoadThreads(config.getJournalLoadThreads()).setCompactMaxReadRate(config.getJournalCompactMaxReadRate()).setOffHeapRecordIndex(config.isJournalOffHeapRecordIndex()).setHistoryFileListener(this::indexRetentionFile);
+   }
+
+   /**
+    * Indexes the files copied to the retention folder as they come, so replays don't have to.
+    */
+   private void indexRetentionFile(File retentionFile) {
+      try {
+         ioExecutorFactory.getExecutor().execute(() -> {
+            try {
+               RetentionFileIndex.index(retentionFile, config.getJournalFileSize(), this);
+            } catch (Throwable e) {
+               ActiveMQServerLogger.LOGGER.errorIndexingRetentionFile(retentionFile.getName(), e);
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         // stopping, the first replay reading the file will index it
+         logger.debug("Not indexing {} as the broker is stopping", retentionFile);
+      }
    }
 
    // Life Cycle Handlers
@@ -249,8 +308,23 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
    }
 
+   @Override
+   public synchronized void start() throws Exception {
+      super.start();
+
+      // the journal only checks whether it needs compacting when it moves to a new file, so without this an idle
+      // journal keeps its dead records and a crash restart has to read all of them
+      final long compactCheckPeriod = config.getJournalCompactCheckPeriod();
+      if (compactCheckPeriod > 0 && scheduledExecutorService != null && compactCheckFuture == null) {
+         compactCheckFuture = scheduledExecutorService.scheduleWithFixedDelay(() -> messageJournal.scheduleCompactCheck(), compactCheckPeriod, compactCheckPeriod, TimeUnit.MILLISECONDS);
+      }
+   }
+
    @Override
    public void stop(boolean ioCriticalError, boolean sendFailover) throws Exception {
+      if (!ioCriticalError && config.isJournalCompactOnStop()) {
+         compactOnStop();
+      }
       try (ArtemisCloseable critical = measureCritical(CRITICAL_STOP)) {
          synchronized (this) {
             if (internalStop(ioCriticalError, sendFailover))
@@ -259,11 +333,34 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
    }
 
+   /**
+    * Compacting may take longer than the critical analyzer timeout on a large journal, so it is done before the
+    * critical stop. It blocks until done: the journal can't be stopped while it is being compacted.
+    */
+   private void compactOnStop() {
+      if (!started || !journalLoaded) {
+         return;
+      }
+      try {
+         final long start = System.nanoTime();
+         if (messageJournal.compactIfReclaimable(-1)) {
+            logger.debug("Compacted the message journal on stop in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+         }
+      } catch (Exception e) {
+         ActiveMQServerLogger.LOGGER.errorCompactingOnStop(e);
+      }
+   }
+
    private boolean internalStop(boolean ioCriticalError, boolean sendFailover) throws Exception {
       if (!started) {
          return true;
       }
 
+      if (compactCheckFuture != null) {
+         compactCheckFuture.cancel(false);
+         compactCheckFuture = null;
+      }
+
       if (!ioCriticalError) {
          performCachedLargeMessageDeletes();
          // Must call close to make sure last id is persisted
@@ -319,6 +416,7 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
             storageManagerLock.writeLock().unlock();
          }
       }
+      CompressedMessageEncoding.releaseCompressors();
       return false;
    }
 
@@ -559,19 +657,67 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
    }
 
    /**
-    * Send an entire journal file to a replicating backup server.
+    * Queues the sending of entire journal files to a replicating backup server.
     */
-   private void sendJournalFile(JournalFile[] journalFiles, JournalContent type) throws Exception {
+   private void sendJournalFile(Queue<RunnableEx> fileSyncs, JournalFile[] journalFiles, JournalContent type) {
       for (JournalFile jf : journalFiles) {
-         if (!started)
-            return;
+         fileSyncs.add(() -> getReplicatorInUse().syncJournalFile(jf, type));
+      }
+   }
 
-         ReplicationManager replicatorInUse = replicator;
-         if (replicatorInUse == null) {
-            throw ActiveMQMessageBundle.BUNDLE.replicatorIsNull();
-         }
+   private ReplicationManager getReplicatorInUse() throws ActiveMQException {
+      ReplicationManager replicatorInUse = replicator;
+      if (replicatorInUse == null) {
+         throw ActiveMQMessageBundle.BUNDLE.replicatorIsNull();
+      }
+      return replicatorInUse;
+   }
 
-         replicatorInUse.syncJournalFile(jf, type);
+   /**
+    * Sends the files queued for the initial synchronization of a backup, up to
+    * {@link Configuration#getReplicationSyncStreams()} at once: each stream takes the next file once done with the
+    * previous one, so a large file doesn't hold back the others.
+    * <p>
+    * The synchronization fails if it makes no progress for {@code initialReplicationSyncTimeout}: each chunk sent is
+    * bounded by that timeout already, but a synchronization can take far longer as a whole.
+    */
+   private void sendFilesToBackup(Queue<RunnableEx> fileSyncs, long initialReplicationSyncTimeout) throws Exception {
+      final int streams = Math.min(config.getReplicationSyncStreams(), fileSyncs.size());
+      if (streams <= 1) {
+         RunnableEx fileSync;
+         while (started && (fileSync = fileSyncs.poll()) != null) {
+            fileSync.run();
+         }
+         return;
+      }
+      final CountDownLatch done = new CountDownLatch(streams);
+      final AtomicReference<Exception> failure = new AtomicReference<>();
+      for (int i = 0; i < streams; i++) {
+         executorFactory.getExecutor().execute(() -> {
+            try {
+               RunnableEx fileSync;
+               while (started && failure.get() == null && (fileSync = fileSyncs.poll()) != null) {
+                  fileSync.run();
+               }
+            } catch (Exception e) {
+               failure.compareAndSet(null, e);
+            } finally {
+               done.countDown();
+            }
+         });
+      }
+      long progress = getReplicatorInUse().getSyncProgress();
+      while (!done.await(initialReplicationSyncTimeout, TimeUnit.MILLISECONDS)) {
+         final long currentProgress = getReplicatorInUse().getSyncProgress();
+         if (currentProgress == progress) {
+            // the streams stop at their next file, and a stuck one is released when the replication is stopped
+            failure.compareAndSet(null, ActiveMQMessageBundle.BUNDLE.replicationSynchronizationTimeout(initialReplicationSyncTimeout));
+            break;
+         }
+         progress = currentProgress;
+      }
+      if (failure.get() != null) {
+         throw failure.get();
       }
    }
 
@@ -666,10 +812,12 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
             pagingManager.unlock();
          }
 
-         sendJournalFile(messageFiles, JournalContent.MESSAGES);
-         sendJournalFile(bindingsFiles, JournalContent.BINDINGS);
-         sendLargeMessageFiles(pendingLargeMessages);
-         sendPagesToBackup(pageFilesToSync, pagingManager);
+         final Queue<RunnableEx> fileSyncs = new ConcurrentLinkedQueue<>();
+         sendJournalFile(fileSyncs, messageFiles, JournalContent.MESSAGES);
+         sendJournalFile(fileSyncs, bindingsFiles, JournalContent.BINDINGS);
+         sendLargeMessageFiles(fileSyncs, pendingLargeMessages);
+         sendPagesToBackup(fileSyncs, pageFilesToSync, pagingManager);
+         sendFilesToBackup(fileSyncs, initialReplicationSyncTimeout);
 
          storageManagerLock.writeLock().lock();
          try {
@@ -692,23 +840,19 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
    }
 
-   private void sendLargeMessageFiles(final Map<Long, Pair<String, Long>> pendingLargeMessages) throws Exception {
-      Iterator<Map.Entry<Long, Pair<String, Long>>> iter = pendingLargeMessages.entrySet().iterator();
-      while (started && iter.hasNext()) {
-         Map.Entry<Long, Pair<String, Long>> entry = iter.next();
+   private void sendLargeMessageFiles(final Queue<RunnableEx> fileSyncs,
+                                      final Map<Long, Pair<String, Long>> pendingLargeMessages) {
+      for (Map.Entry<Long, Pair<String, Long>> entry : pendingLargeMessages.entrySet()) {
          String fileName = entry.getValue().getA();
          final long id = entry.getKey();
          long size = entry.getValue().getB();
-         SequentialFile seqFile = largeMessagesFactory.createSequentialFile(fileName);
-         if (!seqFile.exists())
-            continue;
-
-         ReplicationManager replicatorInUse = replicator;
-         if (replicatorInUse == null) {
-            throw ActiveMQMessageBundle.BUNDLE.replicatorIsNull();
-         }
+         fileSyncs.add(() -> {
+            SequentialFile seqFile = largeMessagesFactory.createSequentialFile(fileName);
+            if (!seqFile.exists())
+               return;
 
-         replicatorInUse.syncLargeMessageFile(seqFile, size, id);
+            getReplicatorInUse().syncLargeMessageFile(seqFile, size, id);
+         });
       }
    }
 
@@ -779,19 +923,16 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
     * @param pageFilesToSync
     * @throws Exception
     */
-   private void sendPagesToBackup(Map<SimpleString, Collection<Integer>> pageFilesToSync,
-                                  PagingManager manager) throws Exception {
+   private void sendPagesToBackup(Queue<RunnableEx> fileSyncs,
+                                  Map<SimpleString, Collection<Integer>> pageFilesToSync,
+                                  PagingManager manager) {
       for (Map.Entry<SimpleString, Collection<Integer>> entry : pageFilesToSync.entrySet()) {
-         if (!started)
-            return;
-
-         ReplicationManager replicatorInUse = replicator;
-         if (replicatorInUse == null) {
-            throw ActiveMQMessageBundle.BUNDLE.replicatorIsNull();
+         for (Integer pageId : entry.getValue()) {
+            fileSyncs.add(() -> {
+               PagingStore store = manager.getPageStore(entry.getKey());
+               store.sendPages(getReplicatorInUse(), Collections.singletonList(pageId));
+            });
          }
-
-         PagingStore store = manager.getPageStore(entry.getKey());
-         store.sendPages(replicatorInUse, entry.getValue());
       }
    }
 
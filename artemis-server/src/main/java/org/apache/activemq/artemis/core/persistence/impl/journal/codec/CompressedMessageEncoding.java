@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.persistence.impl.journal.codec;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
+import org.apache.activemq.artemis.core.persistence.Persister;
+import org.apache.activemq.artemis.utils.DataConstants;
+import org.apache.activemq.artemis.utils.pools.CompressorPool;
+
+/**
+ * A message record deflated as a whole: the size of the message as encoded by its persister, followed by the
+ * deflated encoding. {@link #inflate(ActiveMQBuffer)} gives back the record the message persister reads.
+ */
+public class CompressedMessageEncoding implements EncodingSupport {
+
+   // deflaters and inflaters hold native memory until they are ended, see releaseCompressors()
+   private static final CompressorPool<Deflater> DEFLATERS = CompressorPool.deflaters(Runtime.getRuntime().availableProcessors(), Deflater.BEST_SPEED);
+
+   private static final CompressorPool<Inflater> INFLATERS = CompressorPool.inflaters(Runtime.getRuntime().availableProcessors());
+
+   private int messageEncodeSize;
+
+   private byte[] data;
+
+   private int dataLength;
+
+   public CompressedMessageEncoding() {
+   }
+
+   private CompressedMessageEncoding(int messageEncodeSize, byte[] data, int dataLength) {
+      this.messageEncodeSize = messageEncodeSize;
+      this.data = data;
+      this.dataLength = dataLength;
+   }
+
+   /**
+    * Ends the idle deflaters and inflaters of the compressed message records, releasing their native memory.
+    */
+   public static void releaseCompressors() {
+      DEFLATERS.clear();
+      INFLATERS.clear();
+   }
+
+   /**
+    * @return the deflated record of the message, or {@code null} if deflating doesn't make it smaller
+    */
+   public static CompressedMessageEncoding compress(Message message) {
+      final Persister<Message> persister = message.getPersister();
+      final int encodeSize = persister.getEncodeSize(message);
+      if (encodeSize <= DataConstants.SIZE_INT + 1) {
+         return null;
+      }
+      final byte[] encoded = new byte[encodeSize];
+      final ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(encoded);
+      buffer.writerIndex(0);
+      persister.encode(buffer, message);
+
+      // it is only worth it if the record gets smaller
+      final byte[] deflated = new byte[encodeSize - DataConstants.SIZE_INT - 1];
+      final Deflater deflater = DEFLATERS.borrow();
+      try {
+         deflater.setInput(encoded, 0, buffer.writerIndex());
+         deflater.finish();
+         final int length = deflater.deflate(deflated);
+         if (!deflater.finished()) {
+            return null;
+         }
+         return new CompressedMessageEncoding(buffer.writerIndex(), deflated, length);
+      } finally {
+         DEFLATERS.release(deflater);
+      }
+   }
+
+   /**
+    * @return the record of the message as written by its persister
+    */
+   public static ActiveMQBuffer inflate(ActiveMQBuffer buffer) {
+      final CompressedMessageEncoding encoding = new CompressedMessageEncoding();
+      encoding.decode(buffer);
+      return encoding.inflate();
+   }
+
+   public ActiveMQBuffer inflate() {
+      final byte[] encoded = new byte[messageEncodeSize];
+      final Inflater inflater = INFLATERS.borrow();
+      try {
+         inflater.setInput(data, 0, dataLength);
+         int inflated = 0;
+         while (inflated < messageEncodeSize) {
+            final int read = inflater.inflate(encoded, inflated, messageEncodeSize - inflated);
+            if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+               break;
+            }
+            inflated += read;
+         }
+         if (inflated != messageEncodeSize) {
+            throw new IllegalStateException("Compressed message record holds " + inflated + " bytes instead of " + messageEncodeSize);
+         }
+      } catch (DataFormatException e) {
+         throw new IllegalStateException("Invalid compressed message record", e);
+      } finally {
+         INFLATERS.release(inflater);
+      }
+      return ActiveMQBuffers.wrappedBuffer(encoded);
+   }
+
+   public int getMessageEncodeSize() {
+      return messageEncodeSize;
+   }
+
+   @Override
+   public void decode(final ActiveMQBuffer buffer) {
+      messageEncodeSize = buffer.readInt();
+      dataLength = buffer.readableBytes();
+      data = new byte[dataLength];
+      buffer.readBytes(data);
+   }
+
+   @Override
+   public void encode(final ActiveMQBuffer buffer) {
+      buffer.writeInt(messageEncodeSize);
+      buffer.writeBytes(data, 0, dataLength);
+   }
+
+   @Override
+   public int getEncodeSize() {
+      return DataConstants.SIZE_INT + dataLength;
+   }
+
+   @Override
+   public String toString() {
+      return "CompressedMessageEncoding [messageEncodeSize=" + messageEncodeSize + ", compressedSize=" + dataLength + "]";
+   }
+}
@@ -189,8 +189,13 @@ public interface PostOffice extends ActiveMQComponent {
 
    MessageReference reload(Message message, Queue queue, Transaction tx) throws Exception;
 
+   /**
+    * Routes a copy of {@code message} to another node of the cluster, within {@code tx} or a new transaction if it
+    * is {@code null}: the transaction of the returned context.
+    */
    Pair<RoutingContext, Message> redistribute(Message message,
-                                                    Queue originatingQueue) throws Exception;
+                                              Queue originatingQueue,
+                                              Transaction tx) throws Exception;
 
    void processRoute(Message message, RoutingContext context, boolean direct) throws Exception;
 
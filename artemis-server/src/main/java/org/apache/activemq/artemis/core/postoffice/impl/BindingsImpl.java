@@ -94,6 +94,11 @@ public final class BindingsImpl implements Bindings {
 
    private volatile boolean hasLocal;
 
+   /**
+    * Rebuilt lazily on routing once the version changed, see {@link SelectorIndex}.
+    */
+   private volatile SelectorIndex selectorIndex;
+
    public BindingsImpl(final SimpleString name, final GroupingHandler groupingHandler, StorageManager storageManager) {
       this.groupingHandler = groupingHandler;
       this.storageManager = storageManager;
@@ -205,7 +210,7 @@ public final class BindingsImpl implements Bindings {
 
    @Override
    public boolean allowRedistribute() {
-      return messageLoadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND) || messageLoadBalancingType.equals(MessageLoadBalancingType.OFF_WITH_REDISTRIBUTION);
+      return messageLoadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND) || messageLoadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND_WEIGHTED) || messageLoadBalancingType.equals(MessageLoadBalancingType.OFF_WITH_REDISTRIBUTION);
    }
 
    @Override
@@ -405,7 +410,7 @@ public final class BindingsImpl implements Bindings {
          logger.trace("Routing message {} on binding={} current context::{}", message, this, context);
       }
 
-      routingNameBindingMap.forEachBindings((bindings, nextPosition) -> {
+      final CopyOnWriteBindings.BindingsConsumer<Exception> routeToNextBinding = (bindings, nextPosition) -> {
          final Binding nextBinding = getNextBinding(message, bindings, nextPosition, getMessageLoadBalancingType(context));
          if (nextBinding != null && nextBinding.getFilter() == null && nextBinding.isLocal() && bindings.length == 1) {
             context.setReusable(true, currentVersion);
@@ -417,7 +422,25 @@ public final class BindingsImpl implements Bindings {
          if (nextBinding != null) {
             nextBinding.route(message, context);
          }
-      });
+      };
+
+      final SelectorIndex index = getSelectorIndex(currentVersion);
+      if (index.isIndexed()) {
+         // the routing names skipped by the index all have filters so the context can't be reused anyway
+         context.setReusable(false, currentVersion);
+         index.forEachCandidate(message, routeToNextBinding);
+      } else {
+         routingNameBindingMap.forEachBindings(routeToNextBinding);
+      }
+   }
+
+   private SelectorIndex getSelectorIndex(final int currentVersion) {
+      SelectorIndex index = selectorIndex;
+      if (index == null || index.getVersion() != currentVersion) {
+         index = SelectorIndex.build(routingNameBindingMap, currentVersion);
+         selectorIndex = index;
+      }
+      return index;
    }
 
    @Override
@@ -432,6 +455,9 @@ public final class BindingsImpl implements Bindings {
     * Say you have the same queue name bound into two servers. The routing will load balance between
     * these two servers. This will eventually send more messages to one server than the other
     * (depending if you are using multi-thread), and not lose messages.
+    * <p>
+    * With {@link MessageLoadBalancingType#ON_DEMAND_WEIGHTED} a binding is picked as many times in a row as it has
+    * consumers before moving to the next one, and a remote binding whose bridge is not keeping up is skipped.
     */
    private Binding getNextBinding(final Message message,
                                   final Binding[] bindings,
@@ -445,6 +471,8 @@ public final class BindingsImpl implements Bindings {
          nextPosition = 0;
       }
 
+      final boolean weighted = loadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND_WEIGHTED) && bindingsCount > 1;
+
       Binding nextBinding = null;
       int lastLowPriorityBinding = -1;
 
@@ -453,14 +481,23 @@ public final class BindingsImpl implements Bindings {
          if (matchBinding(message, binding, loadBalancingType)) {
             // bindings.length == 1 ==> only a local queue so we don't check for matching consumers (it's an
             // unnecessary overhead)
-            if (bindingsCount == 1 || (binding.isConnected() && (loadBalancingType.equals(MessageLoadBalancingType.STRICT) || binding.isHighAcceptPriority(message)))) {
+            if (bindingsCount == 1 || (binding.isConnected() && (loadBalancingType.equals(MessageLoadBalancingType.STRICT) || binding.isHighAcceptPriority(message) && !(weighted && isSaturated(binding))))) {
                nextBinding = binding;
+               if (weighted) {
+                  // the position is kept until the binding got its share of consecutive messages
+                  final int repeats = (i == 0 ? bindingIndex.getRepeats() : 0) + 1;
+                  if (repeats < weightOf(binding)) {
+                     bindingIndex.setRepeats(repeats);
+                     break;
+                  }
+                  bindingIndex.setRepeats(0);
+               }
                nextPosition = moveNextPosition(nextPosition, bindingsCount);
                break;
             }
             //https://issues.jboss.org/browse/HORNETQ-1254 When !routeWhenNoConsumers,
             // the localQueue should always have the priority over the secondary bindings
-            if (lastLowPriorityBinding == -1 || loadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND) && binding instanceof LocalQueueBinding) {
+            if (lastLowPriorityBinding == -1 || (loadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND) || loadBalancingType.equals(MessageLoadBalancingType.ON_DEMAND_WEIGHTED)) && binding instanceof LocalQueueBinding) {
                lastLowPriorityBinding = nextPosition;
             }
          }
@@ -471,6 +508,9 @@ public final class BindingsImpl implements Bindings {
          if (lastLowPriorityBinding != -1) {
             nextBinding = bindings[lastLowPriorityBinding];
             nextPosition = moveNextPosition(lastLowPriorityBinding, bindingsCount);
+            if (weighted) {
+               bindingIndex.setRepeats(0);
+            }
          }
       }
       if (nextBinding != null) {
@@ -479,6 +519,33 @@ public final class BindingsImpl implements Bindings {
       return nextBinding;
    }
 
+   /**
+    * @return the consumers of {@code binding}, counting at least one
+    */
+   private static int weightOf(final Binding binding) {
+      if (binding instanceof QueueBinding) {
+         return Math.max(1, ((QueueBinding) binding).consumerCount());
+      }
+      return 1;
+   }
+
+   /**
+    * A remote binding is saturated when the messages its store and forward queue holds for the bridge, but not sent
+    * yet, are more than the bridge can send without waiting for credits: the bridge isn't keeping up with them.
+    */
+   private static boolean isSaturated(final Binding binding) {
+      if (binding instanceof RemoteQueueBinding) {
+         final RemoteQueueBinding remoteBinding = (RemoteQueueBinding) binding;
+         final int producerWindowSize = remoteBinding.getProducerWindowSize();
+         if (producerWindowSize < 0) {
+            return false;
+         }
+         final Queue storeAndForwardQueue = remoteBinding.getQueue();
+         return storeAndForwardQueue.getPersistentSize() - storeAndForwardQueue.getDeliveringSize() > producerWindowSize;
+      }
+      return false;
+   }
+
    private static boolean matchBinding(final Message message,
                                        final Binding binding,
                                        final MessageLoadBalancingType loadBalancingType) {
@@ -46,6 +46,13 @@ final class CopyOnWriteBindings {
        * Cannot set a negative value.
        */
       void setIndex(int v);
+
+      /**
+       * Messages routed in a row to the binding at {@link #getIndex()}, returns {@code 0} if uninitialized.
+       */
+      int getRepeats();
+
+      void setRepeats(int repeats);
    }
 
    private static final class BindingsAndPosition extends AtomicReference<Binding[]> implements BindingIndex {
@@ -54,6 +61,8 @@ final class CopyOnWriteBindings {
 
       public volatile int nextPosition;
 
+      private volatile int repeats;
+
       BindingsAndPosition(Binding[] bindings) {
          super(bindings);
          NEXT_POSITION_UPDATER.lazySet(this, 0);
@@ -71,6 +80,16 @@ final class CopyOnWriteBindings {
          }
          NEXT_POSITION_UPDATER.lazySet(this, v);
       }
+
+      @Override
+      public int getRepeats() {
+         return repeats;
+      }
+
+      @Override
+      public void setRepeats(int repeats) {
+         this.repeats = repeats;
+      }
    }
 
    private final ConcurrentHashMap<SimpleString, BindingsAndPosition> map;
@@ -1390,14 +1390,15 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
     */
    @Override
    public Pair<RoutingContext, Message> redistribute(final Message message,
-                                                     final Queue originatingQueue) throws Exception {
+                                                     final Queue originatingQueue,
+                                                     final Transaction tx) throws Exception {
       Bindings bindings = addressManager.getBindingsForRoutingAddress(message.getAddressSimpleString());
 
       if (bindings != null && bindings.allowRedistribute()) {
          if (logger.isDebugEnabled()) {
             logger.debug("Redistributing message {}, originatingQueue={}, bindings={}", message, originatingQueue.getName(), bindings);
          }
-         RoutingContext context = new RoutingContextImpl(null);
+         RoutingContext context = new RoutingContextImpl(tx);
 
          // the redistributor will make a copy of the message if it can be redistributed
          Message redistributedMessage = bindings.redistribute(message, originatingQueue, context);
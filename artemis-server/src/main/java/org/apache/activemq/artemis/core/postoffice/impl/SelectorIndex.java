@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.postoffice.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.Pair;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
+import org.apache.activemq.artemis.core.postoffice.Binding;
+import org.apache.activemq.artemis.selector.filter.EqualityPredicate;
+import org.apache.activemq.artemis.selector.filter.Filterable;
+
+/**
+ * An index of the routing names of a {@link BindingsImpl} by the {@link EqualityPredicate} of their bindings'
+ * filters, e.g. the subscriptions of a topic using selectors like {@code region = 'EU' AND tier = 3}.
+ * <p>
+ * A routing name is indexed when every one of its bindings has a filter implying an equality predicate on the
+ * same property. Such a routing name can't get a message whose property value isn't one of the predicate values,
+ * so routing only has to evaluate the filters of the routing names found under the message's value instead of
+ * the filters of every routing name. Routing names that can't be indexed are always evaluated.
+ * <p>
+ * An index is immutable and built for a given version of the bindings.
+ */
+final class SelectorIndex {
+
+   /**
+    * Below this number of indexed routing names evaluating every filter is as cheap as looking up the index.
+    */
+   static final int MIN_INDEXED_ROUTING_NAMES = 16;
+
+   static final class IndexedBindings {
+
+      final Binding[] bindings;
+      final CopyOnWriteBindings.BindingIndex position;
+
+      IndexedBindings(Binding[] bindings, CopyOnWriteBindings.BindingIndex position) {
+         this.bindings = bindings;
+         this.position = position;
+      }
+   }
+
+   private static final IndexedBindings[] EMPTY = new IndexedBindings[0];
+
+   private final int version;
+
+   private final boolean indexed;
+
+   private final IndexedBindings[] unindexed;
+
+   private final SimpleString[] properties;
+
+   private final List<Map<Object, IndexedBindings[]>> byValue;
+
+   /**
+    * For each property all the routing names indexed on it, to be used when a message value has no key.
+    */
+   private final IndexedBindings[][] byProperty;
+
+   private SelectorIndex(int version,
+                         boolean indexed,
+                         IndexedBindings[] unindexed,
+                         SimpleString[] properties,
+                         List<Map<Object, IndexedBindings[]>> byValue,
+                         IndexedBindings[][] byProperty) {
+      this.version = version;
+      this.indexed = indexed;
+      this.unindexed = unindexed;
+      this.properties = properties;
+      this.byValue = byValue;
+      this.byProperty = byProperty;
+   }
+
+   int getVersion() {
+      return version;
+   }
+
+   /**
+    * @return false if there are too few indexed routing names for the index to be used
+    */
+   boolean isIndexed() {
+      return indexed;
+   }
+
+   static SelectorIndex build(CopyOnWriteBindings routingNameBindingMap, int version) {
+      final List<IndexedBindings> unindexed = new ArrayList<>();
+      final Map<SimpleString, Map<Object, List<IndexedBindings>>> byValue = new HashMap<>();
+      final Map<SimpleString, List<IndexedBindings>> byProperty = new HashMap<>();
+      final int[] indexedCount = new int[1];
+
+      routingNameBindingMap.forEachBindings((bindings, position) -> {
+         final IndexedBindings entry = new IndexedBindings(bindings, position);
+         final Pair<SimpleString, Set<Object>> predicate = predicate(bindings);
+         if (predicate == null) {
+            unindexed.add(entry);
+            return;
+         }
+         indexedCount[0]++;
+         byProperty.computeIfAbsent(predicate.getA(), property -> new ArrayList<>()).add(entry);
+         final Map<Object, List<IndexedBindings>> values = byValue.computeIfAbsent(predicate.getA(), property -> new HashMap<>());
+         for (Object value : predicate.getB()) {
+            values.computeIfAbsent(value, v -> new ArrayList<>()).add(entry);
+         }
+      });
+
+      final SimpleString[] properties = byProperty.keySet().toArray(new SimpleString[0]);
+      final List<Map<Object, IndexedBindings[]>> valuesByProperty = new ArrayList<>(properties.length);
+      final IndexedBindings[][] entriesByProperty = new IndexedBindings[properties.length][];
+      for (int i = 0; i < properties.length; i++) {
+         entriesByProperty[i] = byProperty.get(properties[i]).toArray(EMPTY);
+         final Map<Object, IndexedBindings[]> values = new HashMap<>();
+         byValue.get(properties[i]).forEach((value, entries) -> values.put(value, entries.toArray(EMPTY)));
+         valuesByProperty.add(values);
+      }
+      return new SelectorIndex(version, indexedCount[0] >= MIN_INDEXED_ROUTING_NAMES, unindexed.toArray(EMPTY), properties, valuesByProperty, entriesByProperty);
+   }
+
+   /**
+    * @return the property and the values allowed by the filters of all the bindings of a routing name, or null
+    * if some binding can take a message regardless of the value of a common property
+    */
+   private static Pair<SimpleString, Set<Object>> predicate(Binding[] bindings) {
+      SimpleString property = null;
+      Set<Object> values = null;
+      for (Binding binding : bindings) {
+         final Filter filter = binding.getFilter();
+         if (!(filter instanceof FilterImpl)) {
+            return null;
+         }
+         final EqualityPredicate predicate = ((FilterImpl) filter).getEqualityPredicate();
+         if (predicate == null) {
+            return null;
+         }
+         if (property == null) {
+            property = predicate.getProperty();
+            values = predicate.getValues();
+         } else if (property.equals(predicate.getProperty())) {
+            values = new HashSet<>(values);
+            values.addAll(predicate.getValues());
+         } else {
+            return null;
+         }
+      }
+      return new Pair<>(property, values);
+   }
+
+   /**
+    * Calls the consumer with every routing name that may route the message: the routing names that are not
+    * indexed and the indexed ones whose predicate the message satisfies.
+    */
+   <T extends Throwable> void forEachCandidate(Message message, CopyOnWriteBindings.BindingsConsumer<T> consumer) throws T {
+      for (IndexedBindings entry : unindexed) {
+         consumer.accept(entry.bindings, entry.position);
+      }
+      if (properties.length == 0) {
+         return;
+      }
+      final Filterable filterable = FilterImpl.toFilterable(message);
+      for (int i = 0; i < properties.length; i++) {
+         final Object value = filterable.getProperty(properties[i]);
+         if (value == null) {
+            // an equality can't match a missing property
+            continue;
+         }
+         final Object key = EqualityPredicate.key(value);
+         final IndexedBindings[] candidates = key == null ? byProperty[i] : byValue.get(i).get(key);
+         if (candidates != null) {
+            for (IndexedBindings entry : candidates) {
+               consumer.accept(entry.bindings, entry.position);
+            }
+         }
+      }
+   }
+}
@@ -38,6 +38,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.QuorumVote
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.RemoveProducerMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -52,6 +54,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.Replicatio
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationResponseMessageV2;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationStartSyncMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileStateMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileStateResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ScaleDownAnnounceMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.SessionAcknowledgeMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.SessionConsumerFlowCreditMessage;
@@ -75,6 +79,8 @@ import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.QUO
 import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REMOVE_PRODUCER;
 import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_APPEND;
 import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_APPEND_TX;
+import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_BATCH;
+import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_BATCH_RESPONSE;
 import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_COMMIT_ROLLBACK;
 import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_DELETE;
 import static org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl.REPLICATION_DELETE_TX;
@@ -160,6 +166,23 @@ public class ServerPacketDecoder extends ClientPacketDecoder {
 
    // separating for performance reasons
    private Packet slowPathDecode(ActiveMQBuffer in, byte packetType, CoreRemotingConnection connection) {
+      Packet packet = decode(packetType, connection);
+
+      packet.decode(in);
+
+      if (packet instanceof MessagePacketI) {
+         Message message = ((MessagePacketI)packet).getMessage();
+         if (message instanceof LargeServerMessage) {
+            assert storageManager != null;
+            ((LargeServerMessage) message).setStorageManager(storageManager);
+         }
+      }
+
+      return packet;
+   }
+
+   @Override
+   public Packet decode(byte packetType, CoreRemotingConnection connection) {
       Packet packet;
 
       switch (packetType) {
@@ -200,6 +223,14 @@ public class ServerPacketDecoder extends ClientPacketDecoder {
             packet = new ReplicationResponseMessageV2();
             break;
          }
+         case REPLICATION_BATCH: {
+            packet = new ReplicationBatchMessage(this, connection);
+            break;
+         }
+         case REPLICATION_BATCH_RESPONSE: {
+            packet = new ReplicationBatchResponseMessage();
+            break;
+         }
          case REPLICATION_PAGE_WRITE: {
             packet = new ReplicationPageWriteMessage(connection.isVersionUsingLongOnPageReplication());
             break;
@@ -236,6 +267,14 @@ public class ServerPacketDecoder extends ClientPacketDecoder {
             packet = new ReplicationSyncFileMessage();
             break;
          }
+         case PacketImpl.REPLICATION_SYNC_FILE_STATE: {
+            packet = new ReplicationSyncFileStateMessage();
+            break;
+         }
+         case PacketImpl.REPLICATION_SYNC_FILE_STATE_RESPONSE: {
+            packet = new ReplicationSyncFileStateResponseMessage();
+            break;
+         }
          case PacketImpl.REPLICATION_SCHEDULED_FAILOVER: {
             packet = new ReplicationLiveIsStoppingMessage();
             break;
@@ -289,16 +328,6 @@ public class ServerPacketDecoder extends ClientPacketDecoder {
          }
       }
 
-      packet.decode(in);
-
-      if (packet instanceof MessagePacketI) {
-         Message message = ((MessagePacketI)packet).getMessage();
-         if (message instanceof LargeServerMessage) {
-            assert storageManager != null;
-            ((LargeServerMessage) message).setStorageManager(storageManager);
-         }
-      }
-
       return packet;
    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.protocol.core.CoreRemotingConnection;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketDecoder;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.artemis.utils.DataConstants;
+
+/**
+ * Several replicated journal and paging operations in a single frame, applied by the backup in order and acknowledged
+ * with a single {@link ReplicationBatchResponseMessage}.
+ * <p>
+ * Each operation is encoded as its type, its size and the body it would have as a packet of its own.
+ */
+public final class ReplicationBatchMessage extends PacketImpl {
+
+   private static final int OPERATION_HEADER_SIZE = DataConstants.SIZE_BYTE + DataConstants.SIZE_INT;
+
+   private final PacketDecoder decoder;
+
+   private final CoreRemotingConnection connection;
+
+   private List<PacketImpl> packets;
+
+   public ReplicationBatchMessage(final List<PacketImpl> packets) {
+      super(REPLICATION_BATCH);
+      this.decoder = null;
+      this.connection = null;
+      this.packets = packets;
+   }
+
+   public ReplicationBatchMessage(final PacketDecoder decoder, final CoreRemotingConnection connection) {
+      super(REPLICATION_BATCH);
+      this.decoder = decoder;
+      this.connection = connection;
+   }
+
+   /**
+    * @return whether a packet of {@code type} can be sent within a batch
+    */
+   public static boolean isBatchable(final byte type) {
+      switch (type) {
+         case REPLICATION_APPEND:
+         case REPLICATION_APPEND_TX:
+         case REPLICATION_DELETE:
+         case REPLICATION_DELETE_TX:
+         case REPLICATION_PREPARE:
+         case REPLICATION_COMMIT_ROLLBACK:
+         case REPLICATION_PAGE_WRITE:
+         case REPLICATION_PAGE_EVENT:
+         case REPLICATION_LARGE_MESSAGE_BEGIN:
+         case REPLICATION_LARGE_MESSAGE_END:
+         case REPLICATION_LARGE_MESSAGE_WRITE:
+            return true;
+         default:
+            return false;
+      }
+   }
+
+   /**
+    * @return the size {@code packet} takes within a batch
+    */
+   public static int encodeSizeOf(final PacketImpl packet) {
+      return OPERATION_HEADER_SIZE + packet.expectedEncodeSize() - PACKET_HEADERS_SIZE;
+   }
+
+   public List<PacketImpl> getPackets() {
+      return packets;
+   }
+
+   @Override
+   public int expectedEncodeSize() {
+      int size = PACKET_HEADERS_SIZE +
+         DataConstants.SIZE_INT; // buffer.writeInt(packets.size());
+      for (PacketImpl packet : packets) {
+         size += encodeSizeOf(packet);
+      }
+      return size;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer, final CoreRemotingConnection coreRemotingConnection) {
+      buffer.writeInt(packets.size());
+      for (PacketImpl packet : packets) {
+         buffer.writeByte(packet.getType());
+         final int sizeIndex = buffer.writerIndex();
+         buffer.writeInt(0); // The size gets filled in once the operation is written
+         packet.encodeRest(buffer, coreRemotingConnection);
+         buffer.setInt(sizeIndex, buffer.writerIndex() - sizeIndex - DataConstants.SIZE_INT);
+      }
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer) {
+      final int count = buffer.readInt();
+      packets = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+         final byte type = buffer.readByte();
+         final int size = buffer.readInt();
+         final PacketImpl packet = (PacketImpl) decoder.decode(type, connection);
+         packet.decodeRest(buffer.readSlice(size));
+         packets.add(packet);
+      }
+   }
+
+   @Override
+   public void release() {
+      if (packets != null) {
+         for (PacketImpl packet : packets) {
+            packet.release();
+         }
+      }
+   }
+
+   @Override
+   protected String getPacketString() {
+      return super.getPacketString() + ", operations=" + (packets == null ? 0 : packets.size());
+   }
+}
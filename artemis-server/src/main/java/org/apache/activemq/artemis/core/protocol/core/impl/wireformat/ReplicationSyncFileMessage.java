@@ -16,11 +16,14 @@
  */
 package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
 
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Set;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.persistence.impl.journal.AbstractJournalStorageManager;
@@ -44,6 +47,11 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
    private long fileId;
    private int dataSize;
    private ByteBuf byteBuffer;
+   /**
+    * The file the data is sent from as a {@link FileRegion}, or {@code null} if it is copied into {@link #byteBuffer}.
+    */
+   private FileChannel dataFile;
+   private long dataPosition;
    private byte[] byteArray;
    private SimpleString pageStoreName;
    private FileType fileType;
@@ -58,6 +66,10 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
          this.code = (byte) code;
       }
 
+      public byte getCode() {
+         return code;
+      }
+
       /**
        * @param readByte
        * @return {@link FileType} corresponding to the byte code.
@@ -89,6 +101,28 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
       determineType();
    }
 
+   /**
+    * Sends {@code size} bytes of {@code file} from {@code position} in a {@link #getFileRegion() file region} written
+    * right after the packet, instead of copying them into it. The backup decodes the same packet either way.
+    * <p>
+    * The file is left open: it is up to the sender to close it once the region is written.
+    */
+   public ReplicationSyncFileMessage(AbstractJournalStorageManager.JournalContent content,
+                                     SimpleString storeName,
+                                     long id,
+                                     FileChannel file,
+                                     long position,
+                                     int size) {
+      this();
+      this.dataFile = file;
+      this.dataPosition = position;
+      this.pageStoreName = storeName;
+      this.dataSize = size;
+      this.fileId = id;
+      this.journalType = content;
+      determineType();
+   }
+
    private void determineType() {
       if (journalType != null) {
          fileType = FileType.JOURNAL;
@@ -124,7 +158,7 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
 
       size += DataConstants.SIZE_INT; // buffer.writeInt(dataSize);
 
-      if (dataSize > 0) {
+      if (dataSize > 0 && dataFile == null) {
          size += byteBuffer.writerIndex(); // buffer.writeBytes(byteBuffer, 0, byteBuffer.writerIndex());
       }
 
@@ -156,13 +190,44 @@ public final class ReplicationSyncFileMessage extends PacketImpl {
        * sending -1 will close the file in case of a journal, but not in case of a largeMessage
        * (which might receive appends)
        */
-      if (dataSize > 0) {
+      if (dataSize > 0 && dataFile == null) {
          buffer.writeBytes(byteBuffer, 0, byteBuffer.writerIndex());
       }
 
       release();
    }
 
+   @Override
+   protected void encodeSize(ActiveMQBuffer buffer) {
+      super.encodeSize(buffer);
+      if (hasFileRegion()) {
+         // the frame goes on with the file region
+         buffer.setInt(0, buffer.getInt(0) + dataSize);
+      }
+   }
+
+   /**
+    * @return whether the data is sent in a {@link #getFileRegion() file region} rather than within the packet
+    */
+   public boolean hasFileRegion() {
+      return dataSize > 0 && dataFile != null;
+   }
+
+   /**
+    * @return the data to write right after this packet, or {@code null} if it is within the packet
+    */
+   public FileRegion getFileRegion() {
+      if (!hasFileRegion()) {
+         return null;
+      }
+      return new DefaultFileRegion(dataFile, dataPosition, dataSize) {
+         @Override
+         protected void deallocate() {
+            // the file is shared by the regions of the sync and closed by the sender
+         }
+      };
+   }
+
    @Override
    public void release() {
       if (byteBuffer != null) {
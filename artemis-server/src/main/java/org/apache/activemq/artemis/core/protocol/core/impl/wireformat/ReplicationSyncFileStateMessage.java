@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.persistence.impl.journal.AbstractJournalStorageManager;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.artemis.utils.DataConstants;
+
+/**
+ * Asks the backup about its copy of a file from a previous synchronization, or has it reuse the first bytes of that
+ * copy, so a synchronization doesn't send again the files the backup already has.
+ * <p>
+ * A query is answered with a {@link ReplicationSyncFileStateResponseMessage}.
+ */
+public final class ReplicationSyncFileStateMessage extends PacketImpl {
+
+   public static final long QUERY = -1;
+
+   private long requestID;
+
+   private ReplicationSyncFileMessage.FileType fileType;
+
+   /**
+    * The JournalType or {@code null} if sync'ing pages or large-messages.
+    */
+   private AbstractJournalStorageManager.JournalContent journalType;
+
+   private SimpleString pageStoreName;
+
+   /**
+    * The journal file id, the page id or the large-message id.
+    */
+   private long fileId;
+
+   /**
+    * How many bytes of its copy the backup takes, or {@link #QUERY}.
+    */
+   private long reuseBytes;
+
+   public ReplicationSyncFileStateMessage() {
+      super(REPLICATION_SYNC_FILE_STATE);
+   }
+
+   public ReplicationSyncFileStateMessage(long requestID,
+                                          AbstractJournalStorageManager.JournalContent content,
+                                          SimpleString storeName,
+                                          long id,
+                                          long reuseBytes) {
+      this();
+      this.requestID = requestID;
+      this.journalType = content;
+      this.pageStoreName = storeName;
+      this.fileId = id;
+      this.reuseBytes = reuseBytes;
+      if (journalType != null) {
+         fileType = ReplicationSyncFileMessage.FileType.JOURNAL;
+      } else if (pageStoreName != null) {
+         fileType = ReplicationSyncFileMessage.FileType.PAGE;
+      } else {
+         fileType = ReplicationSyncFileMessage.FileType.LARGE_MESSAGE;
+      }
+   }
+
+   @Override
+   public int expectedEncodeSize() {
+      int size = PACKET_HEADERS_SIZE +
+         DataConstants.SIZE_LONG + // buffer.writeLong(requestID);
+         DataConstants.SIZE_LONG + // buffer.writeLong(fileId);
+         DataConstants.SIZE_LONG + // buffer.writeLong(reuseBytes);
+         DataConstants.SIZE_BYTE; // buffer.writeByte(fileType.code);
+      switch (fileType) {
+         case JOURNAL: {
+            size += DataConstants.SIZE_BYTE; // buffer.writeByte(journalType.typeByte);
+            break;
+         }
+         case PAGE: {
+            size += SimpleString.sizeofString(pageStoreName);
+            break;
+         }
+         case LARGE_MESSAGE:
+         default:
+            // no-op
+      }
+      return size;
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer) {
+      buffer.writeLong(requestID);
+      buffer.writeLong(fileId);
+      buffer.writeLong(reuseBytes);
+      buffer.writeByte(fileType.getCode());
+      switch (fileType) {
+         case JOURNAL: {
+            buffer.writeByte(journalType.typeByte);
+            break;
+         }
+         case PAGE: {
+            buffer.writeSimpleString(pageStoreName);
+            break;
+         }
+         case LARGE_MESSAGE:
+         default:
+            // no-op
+      }
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer) {
+      requestID = buffer.readLong();
+      fileId = buffer.readLong();
+      reuseBytes = buffer.readLong();
+      fileType = ReplicationSyncFileMessage.FileType.getFileType(buffer.readByte());
+      switch (fileType) {
+         case JOURNAL: {
+            journalType = AbstractJournalStorageManager.JournalContent.getType(buffer.readByte());
+            break;
+         }
+         case PAGE: {
+            pageStoreName = buffer.readSimpleString();
+            break;
+         }
+         case LARGE_MESSAGE:
+         default:
+            // no-op
+      }
+   }
+
+   public long getRequestID() {
+      return requestID;
+   }
+
+   public ReplicationSyncFileMessage.FileType getFileType() {
+      return fileType;
+   }
+
+   public AbstractJournalStorageManager.JournalContent getJournalContent() {
+      return journalType;
+   }
+
+   public SimpleString getPageStore() {
+      return pageStoreName;
+   }
+
+   public long getId() {
+      return fileId;
+   }
+
+   public boolean isQuery() {
+      return reuseBytes == QUERY;
+   }
+
+   public long getReuseBytes() {
+      return reuseBytes;
+   }
+
+   @Override
+   protected String getPacketString() {
+      return super.getPacketString() + ", requestID=" + requestID + ", fileType=" + fileType +
+         (journalType != null ? ", " + journalType : "") + ", id=" + fileId + ", reuseBytes=" + reuseBytes;
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.artemis.utils.DataConstants;
+
+/**
+ * Answers a {@link ReplicationSyncFileStateMessage} query with the size and digest of the backup's copy of the file.
+ */
+public final class ReplicationSyncFileStateResponseMessage extends ReplicationResponseMessage {
+
+   public static final long NO_FILE = -1;
+
+   private long requestID;
+
+   private long size;
+
+   private byte[] digest;
+
+   public ReplicationSyncFileStateResponseMessage() {
+      super(PacketImpl.REPLICATION_SYNC_FILE_STATE_RESPONSE);
+   }
+
+   public ReplicationSyncFileStateResponseMessage(final long requestID, final long size, final byte[] digest) {
+      this();
+      this.requestID = requestID;
+      this.size = size;
+      this.digest = digest;
+   }
+
+   public long getRequestID() {
+      return requestID;
+   }
+
+   /**
+    * @return the size of the backup's copy, or {@link #NO_FILE} if it has none
+    */
+   public long getSize() {
+      return size;
+   }
+
+   public byte[] getDigest() {
+      return digest;
+   }
+
+   @Override
+   public int expectedEncodeSize() {
+      return PACKET_HEADERS_SIZE +
+         DataConstants.SIZE_LONG + // buffer.writeLong(requestID);
+         DataConstants.SIZE_LONG + // buffer.writeLong(size);
+         DataConstants.SIZE_INT + // buffer.writeInt(digest.length);
+         (digest == null ? 0 : digest.length);
+   }
+
+   @Override
+   public void encodeRest(final ActiveMQBuffer buffer) {
+      super.encodeRest(buffer);
+      buffer.writeLong(requestID);
+      buffer.writeLong(size);
+      if (digest == null) {
+         buffer.writeInt(0);
+      } else {
+         buffer.writeInt(digest.length);
+         buffer.writeBytes(digest);
+      }
+   }
+
+   @Override
+   public void decodeRest(final ActiveMQBuffer buffer) {
+      super.decodeRest(buffer);
+      requestID = buffer.readLong();
+      size = buffer.readLong();
+      final int length = buffer.readInt();
+      if (length > 0) {
+         digest = new byte[length];
+         buffer.readBytes(digest);
+      }
+   }
+
+   @Override
+   protected String getPacketString() {
+      return super.getPacketString() + ", requestID=" + requestID + ", size=" + size;
+   }
+}
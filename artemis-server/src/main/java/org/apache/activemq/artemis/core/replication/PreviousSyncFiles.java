@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.replication;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryNIO;
+import org.apache.activemq.artemis.core.server.files.FileMoveManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The copies a backup has of the files of its previous synchronization with the live.
+ * <p>
+ * A backup moves its data away to a new {@code oldreplica.N} folder of each data directory before it synchronizes
+ * again, so the newest of these folders holds the files of the previous synchronization, whether it completed or the
+ * connection dropped in the middle of it. Journal and large-message files keep their names. Page files are in the
+ * folder of their paging store, which is named differently on each synchronization and found by its address.
+ */
+public final class PreviousSyncFiles {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private static final String DIGEST_ALGORITHM = "SHA-256";
+
+   private static final int READ_SIZE = 256 * 1024;
+
+   private PreviousSyncFiles() {
+   }
+
+   /**
+    * @param file a journal or large-message file being synchronized
+    * @return the copy of {@code file} from the previous synchronization, or {@code null} if there is none
+    */
+   public static File find(File file) {
+      final File folder = newestMovedFolder(file.getParentFile());
+      if (folder == null) {
+         return null;
+      }
+      final File previous = new File(folder, file.getName());
+      return previous.isFile() ? previous : null;
+   }
+
+   /**
+    * @param pageFile a page file being synchronized
+    * @param address  the address of the paging store of {@code pageFile}
+    * @return the copy of {@code pageFile} from the previous synchronization, or {@code null} if there is none
+    */
+   public static File findPage(File pageFile, SimpleString address) {
+      final File folder = newestMovedFolder(pageFile.getParentFile().getParentFile());
+      if (folder == null) {
+         return null;
+      }
+      final File[] storeFolders = folder.listFiles(File::isDirectory);
+      if (storeFolders == null) {
+         return null;
+      }
+      for (File storeFolder : storeFolders) {
+         if (address.toString().equals(readAddress(storeFolder))) {
+            final File previous = new File(storeFolder, pageFile.getName());
+            return previous.isFile() ? previous : null;
+         }
+      }
+      return null;
+   }
+
+   private static File newestMovedFolder(File directory) {
+      if (directory == null) {
+         return null;
+      }
+      final FileMoveManager moveManager = new FileMoveManager(directory);
+      if (moveManager.getNumberOfFolders() == 0) {
+         return null;
+      }
+      return moveManager.getFolder(moveManager.getMaxID());
+   }
+
+   private static String readAddress(File storeFolder) {
+      final File addressFile = new File(storeFolder, PagingStoreFactoryNIO.ADDRESS_FILE);
+      if (!addressFile.isFile()) {
+         return null;
+      }
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(addressFile)))) {
+         return reader.readLine();
+      } catch (IOException e) {
+         logger.debug("Could not read {}", addressFile, e);
+         return null;
+      }
+   }
+
+   /**
+    * @return the digest of the first {@code length} bytes of {@code file}
+    */
+   public static byte[] digest(File file, long length) throws IOException {
+      final MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+      try (FileInputStream fis = new FileInputStream(file);
+           FileChannel channel = fis.getChannel()) {
+         final ByteBuffer buffer = ByteBuffer.allocate(READ_SIZE);
+         long remaining = length;
+         while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(READ_SIZE, remaining));
+            final int read = channel.read(buffer);
+            if (read == -1) {
+               throw new IOException(file + " is shorter than " + length + " bytes");
+            }
+            buffer.flip();
+            digest.update(buffer);
+            remaining -= read;
+         }
+      }
+      return digest.digest();
+   }
+}
@@ -645,6 +645,16 @@ public class ReplicatedJournal implements Journal {
       localJournal.scheduleCompactAndBlock(timeout);
    }
 
+   @Override
+   public boolean compactIfReclaimable(int timeout) throws Exception {
+      return localJournal.compactIfReclaimable(timeout);
+   }
+
+   @Override
+   public void scheduleCompactCheck() {
+      localJournal.scheduleCompactCheck();
+   }
+
    @Override
    public void replicationSyncPreserveOldFiles() {
       throw new UnsupportedOperationException("should never get called");
@@ -17,6 +17,7 @@
 package org.apache.activemq.artemis.core.replication;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -31,6 +32,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.Interceptor;
@@ -61,6 +63,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ActiveMQEx
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.BackupReplicationStartFailedMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -76,6 +80,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.Replicatio
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationStartSyncMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationStartSyncMessage.SyncDataType;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileStateMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileStateResponseMessage;
 import org.apache.activemq.artemis.core.remoting.impl.netty.NettyConnection;
 import org.apache.activemq.artemis.core.replication.ReplicationManager.ADD_OPERATION_TYPE;
 import org.apache.activemq.artemis.core.server.ActiveMQComponent;
@@ -105,6 +111,8 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+   private static final int REUSE_CHUNK_SIZE = 256 * 1024;
+
    private final ActiveMQServerImpl server;
    private final boolean wantedFailBack;
    private final ReplicationEndpointEventListener eventListener;
@@ -143,6 +151,11 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
 
    private final ArrayDeque<Packet> pendingPackets;
 
+   /**
+    * The packets queued on the executor and not answered yet, see {@link #defer(Packet)}.
+    */
+   private final AtomicInteger deferredPackets = new AtomicInteger();
+
 
 
    public ReplicationEndpoint(final ActiveMQServerImpl server,
@@ -194,6 +207,52 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
    public void handlePacket(final Packet packet) {
       logger.trace("handlePacket::handling {}", packet);
 
+      if (deferredPackets.get() > 0 || packet.getType() == PacketImpl.REPLICATION_SYNC_FILE_STATE) {
+         defer(packet);
+         return;
+      }
+
+      final PacketImpl response = handle(packet);
+
+      if (response != null) {
+         logger.trace("Returning {}", response);
+
+         if (supportResponseBatching) {
+            pendingPackets.add(response);
+         } else {
+            channel.send(response);
+         }
+      } else {
+         logger.trace("Response is null, ignoring response");
+      }
+   }
+
+   /**
+    * Handles {@code packet} on the executor: a file state reads a whole file, which would hold back the connection
+    * and its pings on the handler thread. The packets following it are deferred too, until the executor is done with
+    * them, so they are still handled and answered in order, as the live expects.
+    */
+   private void defer(final Packet packet) {
+      // the responses of the packets handled before go first
+      endOfBatch();
+      deferredPackets.incrementAndGet();
+      executor.execute(() -> {
+         try {
+            final PacketImpl response = handle(packet);
+            if (response != null) {
+               logger.trace("Returning {}", response);
+               channel.send(response);
+            }
+         } finally {
+            deferredPackets.decrementAndGet();
+         }
+      });
+   }
+
+   /**
+    * @return the response to {@code packet}, or {@code null} if it has none
+    */
+   private PacketImpl handle(final Packet packet) {
       PacketImpl response = new ReplicationResponseMessage();
       final byte type = packet.getType();
 
@@ -201,40 +260,22 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
          if (!started) {
             logger.trace("handlePacket::ignoring {}", packet);
 
-            return;
+            return null;
          }
 
-         if (type == PacketImpl.REPLICATION_APPEND) {
-            handleAppendAddRecord((ReplicationAddMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_APPEND_TX) {
-            handleAppendAddTXRecord((ReplicationAddTXMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_DELETE) {
-            handleAppendDelete((ReplicationDeleteMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_DELETE_TX) {
-            handleAppendDeleteTX((ReplicationDeleteTXMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_PREPARE) {
-            handlePrepare((ReplicationPrepareMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_COMMIT_ROLLBACK) {
-            handleCommitRollback((ReplicationCommitMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_PAGE_WRITE) {
-            handlePageWrite((ReplicationPageWriteMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_PAGE_EVENT) {
-            handlePageEvent((ReplicationPageEventMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_BEGIN) {
-            handleLargeMessageBegin((ReplicationLargeMessageBeginMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_WRITE) {
-            handleLargeMessageWrite((ReplicationLargeMessageWriteMessage) packet);
-         } else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_END) {
-            handleLargeMessageEnd((ReplicationLargeMessageEndMessage) packet);
+         if (type == PacketImpl.REPLICATION_BATCH) {
+            response = handleBatch((ReplicationBatchMessage) packet);
          } else if (type == PacketImpl.REPLICATION_START_FINISH_SYNC) {
             response = handleStartReplicationSynchronization((ReplicationStartSyncMessage) packet);
          } else if (type == PacketImpl.REPLICATION_SYNC_FILE) {
             handleReplicationSynchronization((ReplicationSyncFileMessage) packet);
+         } else if (type == PacketImpl.REPLICATION_SYNC_FILE_STATE) {
+            response = handleSyncFileState((ReplicationSyncFileStateMessage) packet);
          } else if (type == PacketImpl.REPLICATION_SCHEDULED_FAILOVER) {
             handleLiveStopping((ReplicationLiveIsStoppingMessage) packet);
          } else if (type == PacketImpl.BACKUP_REGISTRATION_FAILED) {
             handleFatalError((BackupReplicationStartFailedMessage) packet);
-         } else {
+         } else if (!handleOperation(packet)) {
             ActiveMQServerLogger.LOGGER.invalidPacketForReplication(packet);
          }
       } catch (ActiveMQException e) {
@@ -247,17 +288,55 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
          response = new ActiveMQExceptionMessage(ActiveMQMessageBundle.BUNDLE.replicationUnhandledError(e));
       }
 
-      if (response != null) {
-         logger.trace("Returning {}", response);
+      return response;
+   }
 
-         if (supportResponseBatching) {
-            pendingPackets.add(response);
-         } else {
-            channel.send(response);
-         }
+   /**
+    * Applies a replicated journal or paging operation.
+    *
+    * @return whether {@code packet} is such an operation
+    */
+   private boolean handleOperation(final Packet packet) throws Exception {
+      final byte type = packet.getType();
+      if (type == PacketImpl.REPLICATION_APPEND) {
+         handleAppendAddRecord((ReplicationAddMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_APPEND_TX) {
+         handleAppendAddTXRecord((ReplicationAddTXMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_DELETE) {
+         handleAppendDelete((ReplicationDeleteMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_DELETE_TX) {
+         handleAppendDeleteTX((ReplicationDeleteTXMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_PREPARE) {
+         handlePrepare((ReplicationPrepareMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_COMMIT_ROLLBACK) {
+         handleCommitRollback((ReplicationCommitMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_PAGE_WRITE) {
+         handlePageWrite((ReplicationPageWriteMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_PAGE_EVENT) {
+         handlePageEvent((ReplicationPageEventMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_BEGIN) {
+         handleLargeMessageBegin((ReplicationLargeMessageBeginMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_WRITE) {
+         handleLargeMessageWrite((ReplicationLargeMessageWriteMessage) packet);
+      } else if (type == PacketImpl.REPLICATION_LARGE_MESSAGE_END) {
+         handleLargeMessageEnd((ReplicationLargeMessageEndMessage) packet);
       } else {
-         logger.trace("Response is null, ignoring response");
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Applies the operations of {@code batch} in order, all of them acknowledged by the response.
+    */
+   private ReplicationBatchResponseMessage handleBatch(final ReplicationBatchMessage batch) throws Exception {
+      final List<PacketImpl> packets = batch.getPackets();
+      for (PacketImpl packet : packets) {
+         if (!handleOperation(packet)) {
+            ActiveMQServerLogger.LOGGER.invalidPacketForReplication(packet);
+         }
       }
+      return new ReplicationBatchResponseMessage(packets.size());
    }
 
    @Override
@@ -481,10 +560,20 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
     * @throws Exception
     */
    private void handleReplicationSynchronization(ReplicationSyncFileMessage msg) throws Exception {
-      long id = msg.getId();
       byte[] data = msg.getData();
+      writeSyncData(msg.getFileType(), msg.getJournalContent(), msg.getPageStore(), msg.getId(), data == null ? null : ByteBuffer.wrap(data));
+   }
+
+   /**
+    * Appends {@code data} to a file being synchronized, or closes it if {@code data} is {@code null}.
+    */
+   private void writeSyncData(ReplicationSyncFileMessage.FileType fileType,
+                              JournalContent journalContent,
+                              SimpleString pageStore,
+                              long id,
+                              ByteBuffer data) throws Exception {
       SequentialFile channel1;
-      switch (msg.getFileType()) {
+      switch (fileType) {
          case LARGE_MESSAGE: {
             ReplicatedLargeMessage largeMessage = lookupLargeMessage(id, false, false);
             if (!(largeMessage instanceof LargeServerMessageInSync)) {
@@ -496,22 +585,22 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
             break;
          }
          case PAGE: {
-            Page page = getPage(msg.getPageStore(), (int) msg.getId());
+            Page page = getPage(pageStore, (int) id);
             channel1 = page.getFile();
             break;
          }
          case JOURNAL: {
-            JournalSyncFile journalSyncFile = filesReservedForSync.get(msg.getJournalContent()).get(id);
+            JournalSyncFile journalSyncFile = filesReservedForSync.get(journalContent).get(id);
             FileChannel channel2 = journalSyncFile.getChannel();
             if (data == null) {
                channel2.close();
                return;
             }
-            channel2.write(ByteBuffer.wrap(data));
+            channel2.write(data);
             return;
          }
          default:
-            throw ActiveMQMessageBundle.BUNDLE.replicationUnhandledFileType(msg.getFileType());
+            throw ActiveMQMessageBundle.BUNDLE.replicationUnhandledFileType(fileType);
       }
 
       if (data == null) {
@@ -525,7 +614,74 @@ public final class ReplicationEndpoint implements ChannelHandler, ActiveMQCompon
       if (!channel1.isOpen()) {
          channel1.open();
       }
-      channel1.writeDirect(ByteBuffer.wrap(data), false);
+      channel1.writeDirect(data, false);
+   }
+
+   /**
+    * Tells the live about the copy of a file this backup has from its previous synchronization, or takes the first
+    * bytes of that copy in place of the ones the live would send, reading them in chunks through
+    * {@link #writeSyncData} as if they had been received.
+    */
+   private ReplicationResponseMessage handleSyncFileState(ReplicationSyncFileStateMessage msg) throws Exception {
+      final File previous = findPreviousSyncFile(msg);
+      if (msg.isQuery()) {
+         if (previous == null) {
+            return new ReplicationSyncFileStateResponseMessage(msg.getRequestID(), ReplicationSyncFileStateResponseMessage.NO_FILE, null);
+         }
+         final long size = previous.length();
+         try {
+            return new ReplicationSyncFileStateResponseMessage(msg.getRequestID(), size, PreviousSyncFiles.digest(previous, size));
+         } catch (IOException e) {
+            logger.debug("Could not read {}, it will be synchronized again", previous, e);
+            return new ReplicationSyncFileStateResponseMessage(msg.getRequestID(), ReplicationSyncFileStateResponseMessage.NO_FILE, null);
+         }
+      }
+      if (previous == null) {
+         throw new IOException("There is no previous copy to reuse for " + msg);
+      }
+      logger.debug("Reusing {} bytes of {}", msg.getReuseBytes(), previous);
+      try (FileInputStream fis = new FileInputStream(previous);
+           FileChannel channel = fis.getChannel()) {
+         long remaining = msg.getReuseBytes();
+         while (remaining > 0) {
+            // the written buffers may be pooled by the file factory, so none is reused here
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(REUSE_CHUNK_SIZE, remaining));
+            while (buffer.hasRemaining()) {
+               if (channel.read(buffer) == -1) {
+                  throw new IOException(previous + " is shorter than " + msg.getReuseBytes() + " bytes");
+               }
+            }
+            buffer.flip();
+            remaining -= buffer.remaining();
+            writeSyncData(msg.getFileType(), msg.getJournalContent(), msg.getPageStore(), msg.getId(), buffer);
+         }
+      }
+      return new ReplicationResponseMessage();
+   }
+
+   /**
+    * @return the copy from the previous synchronization of the file being synchronized, or {@code null} if there is none
+    */
+   private File findPreviousSyncFile(ReplicationSyncFileStateMessage msg) throws Exception {
+      switch (msg.getFileType()) {
+         case LARGE_MESSAGE: {
+            ReplicatedLargeMessage largeMessage = lookupLargeMessage(msg.getId(), false, false);
+            if (!(largeMessage instanceof LargeServerMessageInSync)) {
+               return null;
+            }
+            return PreviousSyncFiles.find(((LargeServerMessageInSync) largeMessage).getSyncFile().getJavaFile());
+         }
+         case PAGE: {
+            Page page = getPage(msg.getPageStore(), (int) msg.getId());
+            return PreviousSyncFiles.findPage(page.getFile().getJavaFile(), msg.getPageStore());
+         }
+         case JOURNAL: {
+            JournalSyncFile journalSyncFile = filesReservedForSync.get(msg.getJournalContent()).get(msg.getId());
+            return journalSyncFile == null ? null : PreviousSyncFiles.find(journalSyncFile.file);
+         }
+         default:
+            throw ActiveMQMessageBundle.BUNDLE.replicationUnhandledFileType(msg.getFileType());
+      }
    }
 
    /**
@@ -16,22 +16,32 @@
  */
 package org.apache.activemq.artemis.core.replication;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.EventLoop;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.util.internal.PlatformDependent;
@@ -42,6 +52,7 @@ import org.apache.activemq.artemis.api.core.ActiveMQReplicationTimeooutException
 import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.client.SessionFailureListener;
+import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.journal.EncodingSupport;
@@ -60,6 +71,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.ChannelImpl.CHANNEL_I
 import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationAddTXMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationCommitMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationDeleteTXMessage;
@@ -74,6 +87,8 @@ import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.Replicatio
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationResponseMessageV2;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationStartSyncMessage;
 import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileStateMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationSyncFileStateResponseMessage;
 import org.apache.activemq.artemis.core.remoting.impl.netty.NettyConnection;
 import org.apache.activemq.artemis.core.server.ActiveMQComponent;
 import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
@@ -102,6 +117,9 @@ public final class ReplicationManager implements ActiveMQComponent {
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+   // bounds the frames of batched packets, so a batch doesn't hold back the responses for too long
+   private static final int MAX_BATCH_SIZE = 64 * 1024;
+
    public enum ADD_OPERATION_TYPE {
       UPDATE {
          @Override
@@ -161,6 +179,100 @@ public final class ReplicationManager implements ActiveMQComponent {
 
    private final ReusableLatch synchronizationIsFinishedAcknowledgement = new ReusableLatch(0);
 
+   /**
+    * Counts the chunks of the synchronization flushed to the backup and its answers about its copies of the files, to
+    * tell a slow synchronization from a stuck one.
+    */
+   private final AtomicLong syncProgress = new AtomicLong();
+
+   private final AtomicLong syncFileStateRequests = new AtomicLong();
+
+   private final ConcurrentMap<Long, CompletableFuture<ReplicationSyncFileStateResponseMessage>> pendingSyncFileStates = new ConcurrentHashMap<>();
+
+   private final boolean asyncReplication;
+
+   private final long maxReplicationLagSize;
+
+   private final long maxReplicationLagNanos;
+
+   private final AtomicLong replicationLagSize = new AtomicLong();
+
+   /**
+    * The operations replicated asynchronously the backup has yet to acknowledge, oldest first, whether they are still
+    * queued to be sent or already waiting for the backup's response.
+    */
+   private final Queue<AsyncReplicationToken> asyncReplicationTokens = new ConcurrentLinkedQueue<>();
+
+   /**
+    * The token of an operation replicated asynchronously: it tracks how far the backup lags behind and completes the
+    * context of the operation only if it had to wait for the backup.
+    */
+   private final class AsyncReplicationToken implements OperationContext {
+
+      final long size;
+      final long createdAt;
+      final OperationContext context;
+
+      AsyncReplicationToken(long size, OperationContext context) {
+         this.size = size;
+         this.createdAt = System.nanoTime();
+         this.context = context;
+      }
+
+      @Override
+      public void replicationDone() {
+         replicationLagSize.addAndGet(-size);
+         // the acknowledged token is the oldest but for the ones queued concurrently with it
+         asyncReplicationTokens.remove(this);
+         if (context != null) {
+            context.replicationDone();
+         }
+      }
+
+      @Override
+      public void replicationLineUp() {
+      }
+
+      @Override
+      public void executeOnCompletion(IOCallback runnable, boolean storeOnly) {
+         runnable.done();
+      }
+
+      @Override
+      public void executeOnCompletion(IOCallback runnable) {
+         runnable.done();
+      }
+
+      @Override
+      public void pageSyncLineUp() {
+      }
+
+      @Override
+      public void pageSyncDone() {
+      }
+
+      @Override
+      public void storeLineUp() {
+      }
+
+      @Override
+      public void done() {
+      }
+
+      @Override
+      public void onError(int errorCode, String errorMessage) {
+      }
+
+      @Override
+      public void waitCompletion() {
+      }
+
+      @Override
+      public boolean waitCompletion(long timeout) {
+         return true;
+      }
+   }
+
    private static final class ReplicatePacketRequest {
 
       final Packet packet;
@@ -195,7 +307,28 @@ public final class ReplicationManager implements ActiveMQComponent {
                              final long timeout,
                              final long initialReplicationSyncTimeout,
                              final ExecutorFactory ioExecutorFactory) {
+      this(server, remotingConnection, timeout, initialReplicationSyncTimeout, ioExecutorFactory, false, -1, -1);
+   }
+
+   /**
+    * @param asyncReplication       whether the journal and paging operations complete without waiting for the backup
+    * @param maxReplicationLagSize  the bytes of operations the backup can lag behind before they wait for it again,
+    *                               -1 for no bound
+    * @param maxReplicationLagTime  the milliseconds the backup can lag behind before the operations wait for it again,
+    *                               -1 for no bound
+    */
+   public ReplicationManager(ActiveMQServer server,
+                             CoreRemotingConnection remotingConnection,
+                             final long timeout,
+                             final long initialReplicationSyncTimeout,
+                             final ExecutorFactory ioExecutorFactory,
+                             final boolean asyncReplication,
+                             final long maxReplicationLagSize,
+                             final long maxReplicationLagTime) {
       this.server = server;
+      this.asyncReplication = asyncReplication;
+      this.maxReplicationLagSize = maxReplicationLagSize;
+      this.maxReplicationLagNanos = maxReplicationLagTime >= 0 ? TimeUnit.MILLISECONDS.toNanos(maxReplicationLagTime) : -1;
       this.ioExecutorFactory = ioExecutorFactory;
       this.initialReplicationSyncTimeout = initialReplicationSyncTimeout;
       this.replicatingChannel = remotingConnection.getChannel(CHANNEL_ID.REPLICATION.id, -1);
@@ -405,6 +538,9 @@ public final class ReplicationManager implements ActiveMQComponent {
 
       enabled = false;
 
+      // no answer is coming for a synchronization waiting on the backup
+      pendingSyncFileStates.values().forEach(request -> request.cancel(false));
+
       if (clearTokens) {
          clearReplicationTokens();
       }
@@ -469,9 +605,14 @@ public final class ReplicationManager implements ActiveMQComponent {
          return null;
       }
 
-      final OperationContext repliToken = OperationContextImpl.getContext(ioExecutorFactory);
-      if (lineUp) {
-         repliToken.replicationLineUp();
+      final OperationContext repliToken;
+      if (lineUp && asyncReplication && ReplicationBatchMessage.isBatchable(packet.getType())) {
+         repliToken = asyncReplicationToken(packet);
+      } else {
+         repliToken = OperationContextImpl.getContext(ioExecutorFactory);
+         if (lineUp) {
+            repliToken.replicationLineUp();
+         }
       }
       final ReplicatePacketRequest request = new ReplicatePacketRequest(packet, repliToken, done);
       replicatePacketRequests.add(request);
@@ -486,6 +627,59 @@ public final class ReplicationManager implements ActiveMQComponent {
       return repliToken;
    }
 
+   /**
+    * The operation completes without waiting for the backup, unless the backup lags behind more than allowed: then it
+    * waits for the backup to acknowledge it, along with all the operations before it.
+    */
+   private OperationContext asyncReplicationToken(Packet packet) {
+      final OperationContext context;
+      if (isReplicationLagExceeded()) {
+         context = OperationContextImpl.getContext(ioExecutorFactory);
+         context.replicationLineUp();
+      } else {
+         context = null;
+      }
+      final int size = packet.expectedEncodeSize();
+      replicationLagSize.addAndGet(size);
+      final AsyncReplicationToken token = new AsyncReplicationToken(size, context);
+      asyncReplicationTokens.add(token);
+      return token;
+   }
+
+   private boolean isReplicationLagExceeded() {
+      if (maxReplicationLagSize >= 0 && replicationLagSize.get() > maxReplicationLagSize) {
+         return true;
+      }
+      return maxReplicationLagNanos >= 0 && getReplicationLagNanos() > maxReplicationLagNanos;
+   }
+
+   private long getReplicationLagNanos() {
+      // the oldest operation not acknowledged yet tells how far behind the backup is, even if it isn't sent yet
+      final AsyncReplicationToken oldest = asyncReplicationTokens.peek();
+      if (oldest == null) {
+         return 0;
+      }
+      return Math.max(0, System.nanoTime() - oldest.createdAt);
+   }
+
+   public boolean isAsyncReplication() {
+      return asyncReplication;
+   }
+
+   /**
+    * @return the bytes of the operations replicated asynchronously that the backup has yet to acknowledge
+    */
+   public long getReplicationLagSize() {
+      return replicationLagSize.get();
+   }
+
+   /**
+    * @return the milliseconds the oldest operation replicated asynchronously has been waiting for the backup
+    */
+   public long getReplicationLagTime() {
+      return TimeUnit.NANOSECONDS.toMillis(getReplicationLagNanos());
+   }
+
    private void releaseReplicatedPackets(Queue<ReplicatePacketRequest> requests) {
       assert checkEventLoop();
       ReplicatePacketRequest req;
@@ -544,6 +738,7 @@ public final class ReplicationManager implements ActiveMQComponent {
       }
       isFlushing = true;
       final CoreRemotingConnection connection = replicatingChannel.getConnection();
+      final boolean batching = replicatingChannel.supports(PacketImpl.REPLICATION_BATCH);
       try {
          while (connection.blockUntilWritable(0)) {
             checkSlowReplication = false;
@@ -557,10 +752,17 @@ public final class ReplicationManager implements ActiveMQComponent {
             pendingTokens.add(request.context);
             final Packet pack = request.packet;
             final ReusableLatch done = request.done;
-            if (done != null) {
+            final boolean sendsFileRegion = pack instanceof ReplicationSyncFileMessage && ((ReplicationSyncFileMessage) pack).hasFileRegion();
+            if (done != null && !sendsFileRegion) {
                done.countDown();
             }
-            replicatingChannel.send(pack, false);
+            if (batching && isBatchable(request)) {
+               replicatingChannel.send(batchFrom(pack), false);
+            } else if (sendsFileRegion) {
+               sendFileRegion((ReplicationSyncFileMessage) pack, done);
+            } else {
+               replicatingChannel.send(pack, false);
+            }
          }
          replicatingChannel.flushConnection();
          assert !awaitingResume;
@@ -594,6 +796,41 @@ public final class ReplicationManager implements ActiveMQComponent {
       }
    }
 
+   private static boolean isBatchable(ReplicatePacketRequest request) {
+      // the requests of the initial sync wait for their packet to be sent
+      return request.done == null && ReplicationBatchMessage.isBatchable(request.packet.getType());
+   }
+
+   /**
+    * Gathers with {@code first} the batchable packets queued right after it, as long as the batch fits in
+    * {@link #MAX_BATCH_SIZE}: they have been queued while the stream was busy, so no packet waits for a batch to fill.
+    *
+    * @return {@code first} alone if no packet could be gathered with it
+    */
+   private Packet batchFrom(Packet first) {
+      assert checkEventLoop();
+      ReplicatePacketRequest next = replicatePacketRequests.peek();
+      if (next == null || !isBatchable(next)) {
+         return first;
+      }
+      final List<PacketImpl> packets = new ArrayList<>();
+      packets.add((PacketImpl) first);
+      int size = ReplicationBatchMessage.encodeSizeOf((PacketImpl) first);
+      while (next != null && isBatchable(next)) {
+         final PacketImpl packet = (PacketImpl) next.packet;
+         size += ReplicationBatchMessage.encodeSizeOf(packet);
+         if (size > MAX_BATCH_SIZE) {
+            break;
+         }
+         // this is the only consumer of the queue: the request polled is the one peeked
+         replicatePacketRequests.poll();
+         pendingTokens.add(next.context);
+         packets.add(packet);
+         next = replicatePacketRequests.peek();
+      }
+      return packets.size() == 1 ? first : new ReplicationBatchMessage(packets);
+   }
+
    private boolean checkEventLoop() {
       if (!(replicationStream instanceof SingleThreadEventLoop)) {
          return true;
@@ -618,6 +855,12 @@ public final class ReplicationManager implements ActiveMQComponent {
       ctx.replicationDone();
    }
 
+   private void replicated(int count) {
+      for (int i = 0; i < count; i++) {
+         replicated();
+      }
+   }
+
 
    private final class ReplicatedSessionFailureListener implements SessionFailureListener {
 
@@ -659,6 +902,16 @@ public final class ReplicationManager implements ActiveMQComponent {
                   synchronizationIsFinishedAcknowledgement.countDown();
                }
             }
+         } else if (packet.getType() == PacketImpl.REPLICATION_BATCH_RESPONSE) {
+            replicated(((ReplicationBatchResponseMessage) packet).getCount());
+         } else if (packet.getType() == PacketImpl.REPLICATION_SYNC_FILE_STATE_RESPONSE) {
+            replicated();
+            syncProgress.incrementAndGet();
+            final ReplicationSyncFileStateResponseMessage state = (ReplicationSyncFileStateResponseMessage) packet;
+            final CompletableFuture<ReplicationSyncFileStateResponseMessage> request = pendingSyncFileStates.remove(state.getRequestID());
+            if (request != null) {
+               request.complete(state);
+            }
          }
       }
 
@@ -713,6 +966,19 @@ public final class ReplicationManager implements ActiveMQComponent {
          sendLargeFile(null, queueName, id, file, Long.MAX_VALUE);
    }
 
+   /**
+    * The region isn't accounted by the writability of the connection: {@code done} is counted down once it is written,
+    * so the synchronization doesn't queue more of the file than the flow control allows.
+    */
+   private void sendFileRegion(ReplicationSyncFileMessage packet, ReusableLatch done) {
+      if (replicatingChannel.send(packet, false)) {
+         final ChannelFutureListener written = done == null ? null : future -> done.countDown();
+         replicatingChannel.getConnection().getTransportConnection().write(packet.getFileRegion(), false, written);
+      } else if (done != null) {
+         done.countDown();
+      }
+   }
+
    /**
     * Sends large files in reasonably sized chunks to the backup during replication synchronization.
     *
@@ -730,6 +996,13 @@ public final class ReplicationManager implements ActiveMQComponent {
                               long maxBytesToSend) throws Exception {
       if (!enabled)
          return;
+      final long position = reuseOnBackup(content, pageStore, id, file, maxBytesToSend);
+      maxBytesToSend -= position;
+      final CoreRemotingConnection connection = remotingConnection;
+      if (connection != null && connection.getTransportConnection().isFileRegionSupported()) {
+         sendFileRegions(content, pageStore, id, file, position, maxBytesToSend);
+         return;
+      }
       if (!file.isOpen()) {
          file.open();
       }
@@ -743,6 +1016,7 @@ public final class ReplicationManager implements ActiveMQComponent {
       try {
          try (FileInputStream fis = new FileInputStream(file.getJavaFile());
               FileChannel channel = fis.getChannel()) {
+            channel.position(position);
 
             // We cannot afford having a single buffer here for this entire loop
             // because sendReplicatePacket will encode the packet as a NettyBuffer
@@ -786,10 +1060,134 @@ public final class ReplicationManager implements ActiveMQComponent {
       }
    }
 
+   /**
+    * Like {@link #sendLargeFile} but the chunks are sent straight from the file to the socket, without copying them
+    * through the heap, in larger chunks as they cost no buffers.
+    */
+   private void sendFileRegions(AbstractJournalStorageManager.JournalContent content,
+                                SimpleString pageStore,
+                                final long id,
+                                SequentialFile file,
+                                long position,
+                                long maxBytesToSend) throws Exception {
+      final int size = 256 * 1024;
+
+      int flowControlSize = 10;
+
+      int packetsSent = 0;
+      final ReusableLatch flushed = new ReusableLatch(1);
+
+      try (FileInputStream fis = new FileInputStream(file.getJavaFile());
+           FileChannel channel = fis.getChannel()) {
+         final long fileSize = channel.size();
+         while (true) {
+            final int toSend = (int) Math.min(size, Math.min(maxBytesToSend, fileSize - position));
+            maxBytesToSend -= toSend;
+            if (logger.isDebugEnabled()) {
+               logger.debug("sending {} bytes on file {}", toSend, file.getFileName());
+            }
+            // sending 0 bytes will close the file at the backup
+            final boolean lastPacket = toSend == 0 || maxBytesToSend == 0;
+            // the channel can't be closed before the last region is written
+            final boolean lastRegion = toSend > 0 && (lastPacket || position + toSend == fileSize);
+            final boolean flowControlCheck = (packetsSent % flowControlSize == 0) || lastRegion || lastPacket;
+            final ReplicationSyncFileMessage packet = new ReplicationSyncFileMessage(content, pageStore, id, channel, position, toSend);
+            if (flowControlCheck) {
+               flushed.setCount(1);
+               sendReplicatePacket(packet, true, flushed);
+               awaitFlushOfReplicationStream(flushed);
+            } else {
+               sendReplicatePacket(packet, true);
+            }
+            packetsSent++;
+            position += toSend;
+
+            if (lastPacket)
+               break;
+         }
+      }
+   }
+
    private void awaitFlushOfReplicationStream(ReusableLatch flushed) throws Exception {
       if (!flushed.await(this.initialReplicationSyncTimeout, TimeUnit.MILLISECONDS)) {
          throw ActiveMQMessageBundle.BUNDLE.replicationSynchronizationTimeout(initialReplicationSyncTimeout);
       }
+      syncProgress.incrementAndGet();
+   }
+
+   /**
+    * @return a count that grows as long as the synchronization goes on
+    */
+   public long getSyncProgress() {
+      return syncProgress.get();
+   }
+
+   /**
+    * Has the backup take the first bytes of a file from its copy of the previous synchronization, when they are the
+    * same as the live's: a file synchronized completely before is skipped and a file the synchronization dropped in the
+    * middle of is resumed. The backup keeps the files of its previous synchronization in the newest
+    * {@code oldreplica.N} folder of each data directory, see {@link PreviousSyncFiles}.
+    *
+    * @param maxBytesToSend maximum number of bytes to send from the file
+    * @return the position of the file from which to send it
+    */
+   private long reuseOnBackup(AbstractJournalStorageManager.JournalContent content,
+                              SimpleString pageStore,
+                              long id,
+                              SequentialFile file,
+                              long maxBytesToSend) throws Exception {
+      if (!replicatingChannel.supports(PacketImpl.REPLICATION_SYNC_FILE_STATE)) {
+         return 0;
+      }
+      final long requestID = syncFileStateRequests.incrementAndGet();
+      final CompletableFuture<ReplicationSyncFileStateResponseMessage> request = new CompletableFuture<>();
+      pendingSyncFileStates.put(requestID, request);
+      final long length = Math.min(maxBytesToSend, file.getJavaFile().length());
+      final ReplicationSyncFileStateResponseMessage state;
+      final CompletableFuture<byte[]> digest;
+      try {
+         sendReplicatePacket(new ReplicationSyncFileStateMessage(requestID, content, pageStore, id, ReplicationSyncFileStateMessage.QUERY));
+         // most copies are complete: the file is digested while the backup digests its copy, instead of after
+         digest = digest(file.getJavaFile(), length);
+         state = request.get(initialReplicationSyncTimeout, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+         logger.debug("The backup didn't tell about its copy of {} in time, sending all of it", file.getFileName());
+         return 0;
+      } finally {
+         pendingSyncFileStates.remove(requestID);
+      }
+      final long size = state.getSize();
+      if (size <= 0 || size > length) {
+         return 0;
+      }
+      final byte[] liveDigest;
+      try {
+         liveDigest = size == length ? digest.get() : digest(file.getJavaFile(), size).get();
+      } catch (ExecutionException e) {
+         logger.debug("Could not read {}, sending all of it", file.getFileName(), e);
+         return 0;
+      }
+      if (!Arrays.equals(state.getDigest(), liveDigest)) {
+         return 0;
+      }
+      ActiveMQServerLogger.LOGGER.replicaSyncFileReused(size, length, file.getFileName());
+      sendReplicatePacket(new ReplicationSyncFileStateMessage(requestID, content, pageStore, id, size));
+      return size;
+   }
+
+   /**
+    * Digests the first {@code length} bytes of {@code file} on an IO executor.
+    */
+   private CompletableFuture<byte[]> digest(File file, long length) {
+      final CompletableFuture<byte[]> digest = new CompletableFuture<>();
+      ioExecutorFactory.getExecutor().execute(() -> {
+         try {
+            digest.complete(PreviousSyncFiles.digest(file, length));
+         } catch (Throwable t) {
+            digest.completeExceptionally(t);
+         }
+      });
+      return digest;
    }
 
    /**
@@ -334,6 +334,18 @@ public interface ActiveMQServerLogger {
    @LogMessage(id = 221086, value = "Cannot route {}", level = LogMessage.Level.INFO)
    void cannotRouteClientConnection(Connection connection);
 
+   @LogMessage(id = 221087, value = "Message journal loaded in {} ms: {} ms reading {} records, {} ms decoding them, {} ms rebuilding the queues, {} ms in post load", level = LogMessage.Level.INFO)
+   void messageJournalLoaded(long total, long reading, long records, long decoding, long rebuilding, long postLoad);
+
+   @LogMessage(id = 221088, value = "Replaying {}: {} of {} retention files read, {} records read and {} messages replayed, {} records/s", level = LogMessage.Level.INFO)
+   void replayProgress(String address, int filesRead, int files, long records, long messages, long recordsPerSecond);
+
+   @LogMessage(id = 221089, value = "Replay of {} done in {} ms: {} retention files read out of {}, {} records read and {} messages replayed, {} records/s", level = LogMessage.Level.INFO)
+   void replayDone(String address, long elapsed, int filesRead, int files, long records, long messages, long recordsPerSecond);
+
+   @LogMessage(id = 221090, value = "Replication: the replica has {} of the {} bytes of {} already from its previous synchronization.", level = LogMessage.Level.INFO)
+   void replicaSyncFileReused(long reusedBytes, long size, String fileName);
+
    @LogMessage(id = 222000, value = "ActiveMQServer is being finalized and has not been stopped. Please remember to stop the server before letting it go out of scope", level = LogMessage.Level.WARN)
    void serverFinalisedWIthoutBeingSTopped();
 
@@ -1224,6 +1236,12 @@ public interface ActiveMQServerLogger {
    @LogMessage(id = 222310, value = "Trying to add a producer with ID {} that already exists to session {} on Connection {}.", level = LogMessage.Level.WARN)
    void producerAlreadyExists(int id, String session, String remoteAddress);
 
+   @LogMessage(id = 222311, value = "Could not index the retention file {}, it will be indexed again on the next replay", level = LogMessage.Level.WARN)
+   void errorIndexingRetentionFile(String file, Throwable e);
+
+   @LogMessage(id = 222312, value = "Could not compact the message journal on stop, it will be loaded as it is on the next start", level = LogMessage.Level.WARN)
+   void errorCompactingOnStop(Throwable e);
+
    @LogMessage(id = 224000, value = "Failure in initialisation", level = LogMessage.Level.ERROR)
    void initializationError(Throwable e);
 
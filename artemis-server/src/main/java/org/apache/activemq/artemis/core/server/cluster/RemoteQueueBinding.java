@@ -35,4 +35,9 @@ public interface RemoteQueueBinding extends QueueBinding {
    long getRemoteQueueID();
 
    MessageLoadBalancingType getMessageLoadBalancingType();
+
+   /**
+    * @return the bytes the bridge to the remote queue can send before it waits for credits, -1 for no limit
+    */
+   int getProducerWindowSize();
 }
@@ -35,6 +35,9 @@ public class ReplicationPrimaryPolicy implements HAPolicy<ReplicationPrimaryActi
    private final DistributedPrimitiveManagerConfiguration distributedManagerConfiguration;
    private final boolean allowAutoFailBack;
    private final String coordinationId;
+   private final boolean asyncReplication;
+   private final long maxReplicationLagSize;
+   private final long maxReplicationLagTime;
 
    private ReplicationPrimaryPolicy(ReplicationPrimaryPolicyConfiguration configuration,
                                     ReplicationBackupPolicy backupPolicy,
@@ -45,6 +48,9 @@ public class ReplicationPrimaryPolicy implements HAPolicy<ReplicationPrimaryActi
       initialReplicationSyncTimeout = configuration.getInitialReplicationSyncTimeout();
       distributedManagerConfiguration = configuration.getDistributedManagerConfiguration();
       coordinationId = configuration.getCoordinationId();
+      asyncReplication = configuration.isAsyncReplication();
+      maxReplicationLagSize = configuration.getMaxReplicationLagSize();
+      maxReplicationLagTime = configuration.getMaxReplicationLagTime();
       this.allowAutoFailBack = allowAutoFailBack;
       this.backupPolicy = backupPolicy;
    }
@@ -55,6 +61,9 @@ public class ReplicationPrimaryPolicy implements HAPolicy<ReplicationPrimaryActi
       coordinationId = config.getCoordinationId();
       initialReplicationSyncTimeout = config.getInitialReplicationSyncTimeout();
       distributedManagerConfiguration = config.getDistributedManagerConfiguration();
+      asyncReplication = config.isAsyncReplication();
+      maxReplicationLagSize = config.getMaxReplicationLagSize();
+      maxReplicationLagTime = config.getMaxReplicationLagTime();
       this.allowAutoFailBack = false;
       backupPolicy = ReplicationBackupPolicy.failback(config.getRetryReplicationWait(), config.getMaxSavedReplicatedJournalsSize(), config.getClusterName(),
                                                       config.getGroupName(), this,
@@ -161,4 +170,16 @@ public class ReplicationPrimaryPolicy implements HAPolicy<ReplicationPrimaryActi
    public String getCoordinationId() {
       return coordinationId;
    }
+
+   public boolean isAsyncReplication() {
+      return asyncReplication;
+   }
+
+   public long getMaxReplicationLagSize() {
+      return maxReplicationLagSize;
+   }
+
+   public long getMaxReplicationLagTime() {
+      return maxReplicationLagTime;
+   }
 }
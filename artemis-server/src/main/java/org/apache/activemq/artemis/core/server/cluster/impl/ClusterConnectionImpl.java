@@ -1318,7 +1318,7 @@ public final class ClusterConnectionImpl implements ClusterConnection, AfterConn
             removeBinding(clusterName);
          }
 
-         RemoteQueueBinding binding = new RemoteQueueBindingImpl(server.getStorageManager().generateID(), queueAddress, clusterName, routingName, queueID, filterString, queue, bridge.getName(), distance + 1, messageLoadBalancingType);
+         RemoteQueueBinding binding = new RemoteQueueBindingImpl(server.getStorageManager().generateID(), queueAddress, clusterName, routingName, queueID, filterString, queue, bridge.getName(), distance + 1, messageLoadBalancingType, producerWindowSize);
 
          logger.trace("Adding binding {} into {}", clusterName, ClusterConnectionImpl.this);
 
@@ -17,5 +17,5 @@
 package org.apache.activemq.artemis.core.server.cluster.impl;
 
 public enum MessageLoadBalancingType {
-   OFF, STRICT, ON_DEMAND, OFF_WITH_REDISTRIBUTION, LOCAL_ONLY; // notice that LOCAL_ONLY is an internal use only option. When Mirror sends a message to a target mirror, messages should be routed locally only and to not any other cluster.
+   OFF, STRICT, ON_DEMAND, OFF_WITH_REDISTRIBUTION, ON_DEMAND_WEIGHTED, LOCAL_ONLY; // notice that LOCAL_ONLY is an internal use only option. When Mirror sends a message to a target mirror, messages should be routed locally only and to not any other cluster.
 }
@@ -24,6 +24,7 @@ import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.api.core.RefCountMessage;
 import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.postoffice.PostOffice;
 import org.apache.activemq.artemis.core.server.Consumer;
@@ -36,10 +37,19 @@ import org.apache.activemq.artemis.utils.ReusableLatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Moves the messages of a queue without consumers to the other nodes of the cluster.
+ * <p>
+ * The messages are moved in batches, each acknowledged in a single transaction committed once the batch is full or
+ * the queue is done delivering for the moment. No more messages are moved until the commit of the previous batch
+ * has completed.
+ */
 public class Redistributor implements Consumer {
 
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+   private static final int MAX_BATCH_SIZE = 100;
+
    private boolean active;
 
    private final StorageManager storageManager;
@@ -55,6 +65,12 @@ public class Redistributor implements Consumer {
    // So, instead of using a future we will use a plain ReusableLatch here
    private ReusableLatch pendingRuns = new ReusableLatch();
 
+   private Transaction batch;
+
+   private int batchSize;
+
+   private boolean committing;
+
    public Redistributor(final Queue queue,
                         final StorageManager storageManager,
                         final PostOffice postOffice) {
@@ -96,12 +112,18 @@ public class Redistributor implements Consumer {
       this.active = true;
    }
 
-   public synchronized void stop() throws Exception {
-      this.active = false;
+   public void stop() throws Exception {
+      synchronized (this) {
+         this.active = false;
+      }
+      commitBatch();
    }
 
-   public synchronized void close() {
-      active = false;
+   public void close() {
+      synchronized (this) {
+         active = false;
+      }
+      commitBatch();
    }
 
    @Override
@@ -111,22 +133,30 @@ public class Redistributor implements Consumer {
       } else if (reference.getMessage().getGroupID() != null) {
          //we shouldn't redistribute with message groups return NO_MATCH so other messages can be delivered
          return HandleStatus.NO_MATCH;
+      } else if (committing) {
+         // the delivery resumes once the previous batch is stored
+         return HandleStatus.BUSY;
       }
 
       if (logger.isDebugEnabled()) {
          logger.debug("Redistributing message {}, originatingQueue={}", reference.getMessage(), queue.getName());
       }
 
-      final Pair<RoutingContext, Message> routingInfo = postOffice.redistribute(reference.getMessage(), queue);
+      final Pair<RoutingContext, Message> routingInfo = postOffice.redistribute(reference.getMessage(), queue, batch);
 
       if (routingInfo == null) {
          logger.debug("postOffice.redistribute return null for message {}", reference);
+         // nowhere to move the messages for now: no point in waiting for more
+         commitBatch();
          return HandleStatus.BUSY;
       }
 
       RoutingContext context = routingInfo.getA();
       Message message = routingInfo.getB();
 
+      final boolean newBatch = batch == null;
+      batch = context.getTransaction();
+
       postOffice.processRoute(message, context, false);
 
       if (RefCountMessage.isRefTraceEnabled()) {
@@ -135,9 +165,57 @@ public class Redistributor implements Consumer {
 
       ackRedistribution(reference, context.getTransaction());
 
+      if (++batchSize >= MAX_BATCH_SIZE) {
+         commitBatch();
+      } else if (newBatch) {
+         // it runs after the queue is done delivering for now, unless the batch gets full before
+         queue.getExecutor().execute(this::commitBatch);
+      }
+
       return HandleStatus.HANDLED;
    }
 
+   private void commitBatch() {
+      final Transaction tx;
+      synchronized (this) {
+         tx = batch;
+         if (tx == null) {
+            return;
+         }
+         batch = null;
+         batchSize = 0;
+         committing = true;
+      }
+      try {
+         tx.commit();
+      } catch (Exception e) {
+         logger.warn("Failed to commit the redistribution transaction {} of queue {}, rolling it back", tx.getID(), queue.getName(), e);
+         try {
+            tx.rollback();
+         } catch (Exception rollbackException) {
+            logger.warn(rollbackException.getMessage(), rollbackException);
+         }
+      }
+      storageManager.afterCompleteOperations(new IOCallback() {
+         @Override
+         public void done() {
+            committed();
+         }
+
+         @Override
+         public void onError(int errorCode, String errorMessage) {
+            committed();
+         }
+      });
+   }
+
+   private void committed() {
+      synchronized (this) {
+         committing = false;
+      }
+      queue.deliverAsync();
+   }
+
    @Override
    public void proceedDeliver(MessageReference ref) {
       // no op
@@ -153,8 +231,6 @@ public class Redistributor implements Consumer {
       reference.handled();
 
       queue.acknowledge(tx, reference);
-
-      tx.commit();
    }
 
    /* (non-Javadoc)
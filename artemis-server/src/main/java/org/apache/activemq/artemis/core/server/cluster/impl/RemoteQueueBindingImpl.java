@@ -25,6 +25,7 @@ import java.util.Set;
 
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
 import org.apache.activemq.artemis.core.filter.Filter;
 import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
 import org.apache.activemq.artemis.core.postoffice.BindingType;
@@ -66,6 +67,8 @@ public class RemoteQueueBindingImpl implements RemoteQueueBinding {
 
    private final MessageLoadBalancingType messageLoadBalancingType;
 
+   private final int producerWindowSize;
+
    private boolean connected = true;
 
    public RemoteQueueBindingImpl(final long id,
@@ -78,6 +81,20 @@ public class RemoteQueueBindingImpl implements RemoteQueueBinding {
                                  final SimpleString bridgeName,
                                  final int distance,
                                  final MessageLoadBalancingType messageLoadBalancingType) throws Exception {
+      this(id, address, uniqueName, routingName, remoteQueueID, filterString, storeAndForwardQueue, bridgeName, distance, messageLoadBalancingType, ActiveMQClient.DEFAULT_PRODUCER_WINDOW_SIZE);
+   }
+
+   public RemoteQueueBindingImpl(final long id,
+                                 final SimpleString address,
+                                 final SimpleString uniqueName,
+                                 final SimpleString routingName,
+                                 final Long remoteQueueID,
+                                 final SimpleString filterString,
+                                 final Queue storeAndForwardQueue,
+                                 final SimpleString bridgeName,
+                                 final int distance,
+                                 final MessageLoadBalancingType messageLoadBalancingType,
+                                 final int producerWindowSize) throws Exception {
       this.id = id;
 
       this.address = address;
@@ -97,6 +114,8 @@ public class RemoteQueueBindingImpl implements RemoteQueueBinding {
       this.distance = distance;
 
       this.messageLoadBalancingType = messageLoadBalancingType;
+
+      this.producerWindowSize = producerWindowSize;
    }
 
    @Override
@@ -355,4 +374,9 @@ public class RemoteQueueBindingImpl implements RemoteQueueBinding {
    public MessageLoadBalancingType getMessageLoadBalancingType() {
       return messageLoadBalancingType;
    }
+
+   @Override
+   public int getProducerWindowSize() {
+      return producerWindowSize;
+   }
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.files;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file holding data derived from another file, such as an index, next to it.
+ * <p>
+ * It starts with a magic number, a version and the length of the file it was written for, so a sidecar of another
+ * format or of a file that changed since is ignored, and it is written through a temporary file so a partial sidecar
+ * is never seen.
+ */
+public final class SidecarFile {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   @FunctionalInterface
+   public interface Writer {
+
+      void write(DataOutputStream out) throws IOException;
+   }
+
+   @FunctionalInterface
+   public interface Reader<T> {
+
+      /**
+       * @return the content, or {@code null} if it isn't valid
+       */
+      T read(DataInputStream in) throws IOException;
+   }
+
+   private SidecarFile() {
+   }
+
+   public static void write(File sidecarFile, int magic, int version, long sourceLength, Writer writer) throws IOException {
+      final File tmpFile = File.createTempFile(sidecarFile.getName(), ".tmp", sidecarFile.getParentFile());
+      try {
+         try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeLong(sourceLength);
+            writer.write(out);
+         }
+         Files.move(tmpFile.toPath(), sidecarFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+         if (tmpFile.exists()) {
+            tmpFile.delete();
+         }
+      }
+   }
+
+   /**
+    * @return the content, or {@code null} if there is no valid sidecar of this format for a file of
+    * {@code sourceLength} bytes
+    */
+   public static <T> T read(File sidecarFile, int magic, int version, long sourceLength, Reader<T> reader) {
+      if (!sidecarFile.exists()) {
+         return null;
+      }
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecarFile)))) {
+         if (in.readInt() != magic || in.readInt() != version) {
+            logger.debug("{} isn't of the expected format", sidecarFile);
+            return null;
+         }
+         if (in.readLong() != sourceLength) {
+            logger.debug("{} was written for a different file length", sidecarFile);
+            return null;
+         }
+         return reader.read(in);
+      } catch (IOException e) {
+         logger.debug("Could not read {}", sidecarFile, e);
+         return null;
+      }
+   }
+}
@@ -18,6 +18,7 @@ package org.apache.activemq.artemis.core.server.impl;
 
 import java.util.Comparator;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Consumer;
 
 import org.apache.activemq.artemis.api.core.ActiveMQException;
@@ -62,12 +63,27 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
    private static final AtomicIntegerFieldUpdater<MessageReferenceImpl> DELIVERY_COUNT_UPDATER = AtomicIntegerFieldUpdater
       .newUpdater(MessageReferenceImpl.class, "deliveryCount");
 
+   private static final AtomicReferenceFieldUpdater<MessageReferenceImpl, DeliveryState> DELIVERY_STATE_UPDATER = AtomicReferenceFieldUpdater
+      .newUpdater(MessageReferenceImpl.class, DeliveryState.class, "deliveryState");
+
+   /**
+    * The state of a reference that has been scheduled, acked on routing or had its delivery count persisted: most
+    * references never are, so they don't pay for it. What every delivery sets stays on the reference, or each
+    * delivered reference would allocate one.
+    */
+   private static final class DeliveryState {
+
+      private volatile int persistedCount;
+
+      private volatile long scheduledDeliveryTime;
+
+      private boolean alreadyAcked;
+   }
+
    @SuppressWarnings("unused")
    private volatile int deliveryCount = 0;
 
-   private volatile int persistedCount;
-
-   private volatile long scheduledDeliveryTime;
+   private volatile DeliveryState deliveryState;
 
    private final Message message;
 
@@ -77,16 +93,14 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    private boolean hasConsumerID = false;
 
-   private boolean alreadyAcked;
-
    private boolean deliveredDirectly;
 
    private Consumer<? super MessageReference> onDelivery;
 
 
-   // This value has been computed by using https://github.com/openjdk/jol
+   // These values have been computed by using https://github.com/openjdk/jol
    // on HotSpot 64-bit VM COOPS, 8-byte alignment
-   private static final int memoryOffset = 72;
+   private static final int memoryOffset = 56;
 
 
    public MessageReferenceImpl() {
@@ -98,7 +112,7 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
    public MessageReferenceImpl(final MessageReferenceImpl other, final Queue queue) {
       DELIVERY_COUNT_UPDATER.set(this, other.getDeliveryCount());
 
-      scheduledDeliveryTime = other.scheduledDeliveryTime;
+      setScheduledDeliveryTime(other.getScheduledDeliveryTime());
 
       message = other.message;
 
@@ -114,6 +128,23 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    }
 
+   private DeliveryState deliveryState() {
+      final DeliveryState deliveryState = this.deliveryState;
+      if (deliveryState != null) {
+         return deliveryState;
+      }
+      // racing threads must share the same state or they would lose their changes
+      DELIVERY_STATE_UPDATER.compareAndSet(this, null, new DeliveryState());
+      return this.deliveryState;
+   }
+
+   /**
+    * For tests only
+    */
+   boolean hasDeliveryState() {
+      return deliveryState != null;
+   }
+
    // MessageReference implementation -------------------------------
 
    @Override
@@ -147,7 +178,8 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
     */
    @Override
    public int getPersistedCount() {
-      return persistedCount;
+      final DeliveryState deliveryState = this.deliveryState;
+      return deliveryState == null ? 0 : deliveryState.persistedCount;
    }
 
    /**
@@ -155,7 +187,10 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
     */
    @Override
    public void setPersistedCount(int persistedCount) {
-      this.persistedCount = persistedCount;
+      if (persistedCount == 0 && deliveryState == null) {
+         return;
+      }
+      deliveryState().persistedCount = persistedCount;
    }
 
    @Override
@@ -163,6 +198,11 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
       return new MessageReferenceImpl(this, queue);
    }
 
+   /**
+    * The estimate has to be the same when the reference is added to its address and when it is removed, whether it
+    * got a {@link DeliveryState} meanwhile or not, so it leaves out the state only the few scheduled or redelivered
+    * references get.
+    */
    public static int getMemoryEstimate() {
       return MessageReferenceImpl.memoryOffset;
    }
@@ -176,7 +216,7 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
    @Override
    public void setDeliveryCount(final int deliveryCount) {
       DELIVERY_COUNT_UPDATER.set(this, deliveryCount);
-      this.persistedCount = deliveryCount;
+      setPersistedCount(deliveryCount);
    }
 
    @Override
@@ -191,12 +231,16 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    @Override
    public long getScheduledDeliveryTime() {
-      return scheduledDeliveryTime;
+      final DeliveryState deliveryState = this.deliveryState;
+      return deliveryState == null ? 0 : deliveryState.scheduledDeliveryTime;
    }
 
    @Override
    public void setScheduledDeliveryTime(final long scheduledDeliveryTime) {
-      this.scheduledDeliveryTime = scheduledDeliveryTime;
+      if (scheduledDeliveryTime == 0 && deliveryState == null) {
+         return;
+      }
+      deliveryState().scheduledDeliveryTime = scheduledDeliveryTime;
    }
 
    @Override
@@ -236,12 +280,13 @@ public class MessageReferenceImpl extends AbstractProtocolReference implements M
 
    @Override
    public void setAlreadyAcked() {
-      alreadyAcked = true;
+      deliveryState().alreadyAcked = true;
    }
 
    @Override
    public boolean isAlreadyAcked() {
-      return alreadyAcked;
+      final DeliveryState deliveryState = this.deliveryState;
+      return deliveryState != null && deliveryState.alreadyAcked;
    }
 
    @Override
@@ -226,7 +226,7 @@ public class ReplicationPrimaryActivation extends LiveActivation implements Dist
          final ReplicationFailureListener listener = new ReplicationFailureListener();
          remotingConnection.addCloseListener(listener);
          remotingConnection.addFailureListener(listener);
-         final ReplicationManager replicationManager = new ReplicationManager(activeMQServer, remotingConnection, clusterConnection.getCallTimeout(), policy.getInitialReplicationSyncTimeout(), activeMQServer.getIOExecutorFactory());
+         final ReplicationManager replicationManager = new ReplicationManager(activeMQServer, remotingConnection, clusterConnection.getCallTimeout(), policy.getInitialReplicationSyncTimeout(), activeMQServer.getIOExecutorFactory(), policy.isAsyncReplication(), policy.getMaxReplicationLagSize(), policy.getMaxReplicationLagTime());
          this.replicationManager = replicationManager;
          replicationManager.start();
          final Thread replicatingThread = new Thread(() -> replicate(replicationManager, clusterConnection, isFailBackRequest, backupTransport));
@@ -57,6 +57,11 @@ import org.apache.activemq.artemis.api.core.management.QueueControl;
 import org.apache.activemq.artemis.api.core.management.ResourceNames;
 import org.apache.activemq.artemis.core.config.ClusterConnectionConfiguration;
 import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.HAPolicyConfiguration;
+import org.apache.activemq.artemis.core.config.ha.ReplicationPrimaryPolicyConfiguration;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.SyncGroup;
+import org.apache.activemq.artemis.core.io.buffer.TimedBuffer;
 import org.apache.activemq.artemis.core.management.impl.AcceptorControlImpl;
 import org.apache.activemq.artemis.core.management.impl.ActiveMQServerControlImpl;
 import org.apache.activemq.artemis.core.management.impl.AddressControlImpl;
@@ -74,9 +79,11 @@ import org.apache.activemq.artemis.core.messagecounter.MessageCounter;
 import org.apache.activemq.artemis.core.messagecounter.MessageCounterManager;
 import org.apache.activemq.artemis.core.messagecounter.impl.MessageCounterManagerImpl;
 import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.paging.impl.GlobalPageCache;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.postoffice.PostOffice;
 import org.apache.activemq.artemis.core.remoting.server.RemotingService;
+import org.apache.activemq.artemis.core.replication.ReplicationManager;
 import org.apache.activemq.artemis.core.security.Role;
 import org.apache.activemq.artemis.core.security.SecurityStore;
 import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
@@ -232,6 +239,37 @@ public class ManagementServiceImpl implements ManagementService {
             builder.build(BrokerMetricNames.ADDRESS_MEMORY_USAGE, messagingServer, metrics -> Double.valueOf(messagingServerControl.getAddressMemoryUsage()), ActiveMQServerControl.ADDRESS_MEMORY_USAGE_DESCRIPTION);
             builder.build(BrokerMetricNames.ADDRESS_MEMORY_USAGE_PERCENTAGE, messagingServer, metrics -> Double.valueOf(messagingServerControl.getAddressMemoryUsagePercentage()), ActiveMQServerControl.ADDRESS_MEMORY_USAGE_PERCENTAGE_DESCRIPTION);
             builder.build(BrokerMetricNames.DISK_STORE_USAGE, messagingServer, metrics -> Double.valueOf(messagingServer.getDiskStoreUsage()), ActiveMQServerControl.DISK_STORE_USAGE_DESCRIPTION);
+            final GlobalPageCache pageCache = pagingManager != null ? pagingManager.getGlobalPageCache() : null;
+            if (pageCache != null) {
+               builder.build(BrokerMetricNames.PAGE_CACHE_HITS, pageCache, metrics -> Double.valueOf(pageCache.getHits()), "number of times a page was found in memory instead of being read from its file");
+               builder.build(BrokerMetricNames.PAGE_CACHE_MISSES, pageCache, metrics -> Double.valueOf(pageCache.getMisses()), "number of times a page was read from its file");
+               builder.build(BrokerMetricNames.PAGE_CACHE_EVICTIONS, pageCache, metrics -> Double.valueOf(pageCache.getEvictions()), "number of released pages evicted from memory to keep the page cache within global-page-cache-max-size");
+               builder.build(BrokerMetricNames.PAGE_CACHE_SIZE, pageCache, metrics -> Double.valueOf(pageCache.getSize()), "estimated size in bytes of the decoded pages in memory, used or released");
+            }
+            final SequentialFileFactory journalFactory = storageManager != null ? storageManager.getJournalSequentialFileFactory() : null;
+            final TimedBuffer timedBuffer = journalFactory != null ? journalFactory.getTimedBuffer() : null;
+            if (timedBuffer != null) {
+               builder.build(BrokerMetricNames.JOURNAL_FLUSHES, timedBuffer, metrics -> Double.valueOf(timedBuffer.getFlushes()), "number of times the journal buffer was flushed");
+               builder.build(BrokerMetricNames.JOURNAL_FLUSHED_RECORDS, timedBuffer, metrics -> Double.valueOf(timedBuffer.getRecordsFlushed()), "number of journal records flushed, which divided by the flushes is the average batch size");
+               builder.build(BrokerMetricNames.JOURNAL_SYNC_LATENCY, timedBuffer, metrics -> Double.valueOf(timedBuffer.getSyncLatency()), "moving average of the nanoseconds a synced journal flush takes to complete");
+               builder.build(BrokerMetricNames.JOURNAL_BUFFER_TIMEOUT, timedBuffer, metrics -> Double.valueOf(timedBuffer.getFlushTimeout()), "nanoseconds the journal buffer waits for more records after a flush");
+            }
+            final SyncGroup syncGroup = journalFactory != null ? journalFactory.getSyncGroup() : null;
+            if (syncGroup != null) {
+               builder.build(BrokerMetricNames.JOURNAL_SYNC_REQUESTS, syncGroup, metrics -> Double.valueOf(syncGroup.getRequests()), "number of syncs requested on the journal files of the device of the message journal");
+               builder.build(BrokerMetricNames.JOURNAL_SYNCS, syncGroup, metrics -> Double.valueOf(syncGroup.getSyncs()), "number of syncs of the journal files of the device of the message journal, each for all the requests gathered meanwhile");
+            }
+            final HAPolicyConfiguration haPolicy = messagingServer.getConfiguration().getHAPolicyConfiguration();
+            if (haPolicy instanceof ReplicationPrimaryPolicyConfiguration && ((ReplicationPrimaryPolicyConfiguration) haPolicy).isAsyncReplication()) {
+               builder.build(BrokerMetricNames.REPLICATION_LAG_SIZE, messagingServer, metrics -> {
+                  final ReplicationManager replicationManager = messagingServer.getReplicationManager();
+                  return Double.valueOf(replicationManager != null ? replicationManager.getReplicationLagSize() : 0);
+               }, "bytes of the asynchronously replicated operations the backup has yet to acknowledge");
+               builder.build(BrokerMetricNames.REPLICATION_LAG_TIME, messagingServer, metrics -> {
+                  final ReplicationManager replicationManager = messagingServer.getReplicationManager();
+                  return Double.valueOf(replicationManager != null ? replicationManager.getReplicationLagTime() : 0);
+               }, "milliseconds the oldest asynchronously replicated operation has been waiting for the backup");
+            }
          });
       }
    }
@@ -23,4 +23,16 @@ public class BrokerMetricNames {
    public static final String ADDRESS_MEMORY_USAGE = "address.memory.usage";
    public static final String ADDRESS_MEMORY_USAGE_PERCENTAGE = "address.memory.usage.percentage";
    public static final String DISK_STORE_USAGE = "disk.store.usage";
+   public static final String PAGE_CACHE_HITS = "page.cache.hits";
+   public static final String PAGE_CACHE_MISSES = "page.cache.misses";
+   public static final String PAGE_CACHE_EVICTIONS = "page.cache.evictions";
+   public static final String PAGE_CACHE_SIZE = "page.cache.size";
+   public static final String JOURNAL_FLUSHES = "journal.flushes";
+   public static final String JOURNAL_FLUSHED_RECORDS = "journal.flushed.records";
+   public static final String JOURNAL_SYNC_LATENCY = "journal.sync.latency";
+   public static final String JOURNAL_BUFFER_TIMEOUT = "journal.buffer.timeout";
+   public static final String JOURNAL_SYNC_REQUESTS = "journal.sync.requests";
+   public static final String JOURNAL_SYNCS = "journal.syncs";
+   public static final String REPLICATION_LAG_SIZE = "replication.lag.size";
+   public static final String REPLICATION_LAG_TIME = "replication.lag.time";
 }
@@ -18,15 +18,17 @@ package org.apache.activemq.artemis.core.server.replay;
 
 import java.io.File;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
-import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.core.filter.Filter;
 import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
@@ -36,15 +38,11 @@ import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.journal.impl.JournalFile;
 import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
-import org.apache.activemq.artemis.core.journal.impl.JournalReaderCallback;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
-import org.apache.activemq.artemis.core.persistence.impl.journal.LargeServerMessageImpl;
-import org.apache.activemq.artemis.core.persistence.impl.journal.codec.LargeMessagePersister;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
-import org.apache.activemq.artemis.core.server.LargeServerMessage;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.RoutingContext;
 import org.apache.activemq.artemis.core.server.impl.RoutingContextImpl;
-import org.apache.activemq.artemis.spi.core.protocol.MessagePersister;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.lang.invoke.MethodHandles;
@@ -56,19 +54,30 @@ public class ReplayManager {
    }
    private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+   // how many retention files may be indexed, and chunks of records decoded, ahead of the ones being routed
+   private static final int MAX_READ_AHEAD = 4;
+
+   // how many records of a retention file are decoded and filtered at once
+   private static final int READ_CHUNK_RECORDS = 1000;
+
+   private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
    private final ActiveMQServer server;
    private JournalImpl journal;
    private final File retentionFolder;
 
    private final SimpleDateFormat dateFormat = newRetentionSimpleDateFormat();
 
-   private final AtomicBoolean running = new AtomicBoolean(false);
-
    public ReplayManager(ActiveMQServer server) {
       this.server = server;
       this.retentionFolder = server.getConfiguration().getJournalRetentionLocation();
    }
 
+   public static JournalImpl newRetentionJournal(SequentialFileFactory fileFactory, int fileSize, int minFiles, int poolFiles) {
+      // Will use only default values. The load function should adapt to anything different
+      return new JournalImpl(fileSize, minFiles, poolFiles, 0, 0, fileFactory, "activemq-data", "amq", 1);
+   }
+
    public void replay(Date start, Date end, String sourceAddress, String targetAddressParameter, String filterStr) throws Exception {
       logger.debug("Replay start::sourceAddress={}", sourceAddress);
 
@@ -99,14 +108,11 @@ public class ReplayManager {
 
       SequentialFileFactory messagesFF = new NIOSequentialFileFactory(retentionFolder, null, 1);
 
-      // Will use only default values. The load function should adapt to anything different
-      JournalImpl messagesJournal = new JournalImpl(server.getConfiguration().getJournalFileSize(), server.getConfiguration().getJournalMinFiles(), server.getConfiguration().getJournalPoolFiles(), 0, 0, messagesFF, "activemq-data", "amq", 1);
+      JournalImpl messagesJournal = newRetentionJournal(messagesFF, server.getConfiguration().getJournalFileSize(), server.getConfiguration().getJournalMinFiles(), server.getConfiguration().getJournalPoolFiles());
 
       List<JournalFile> files = messagesJournal.orderFiles();
 
-      RoutingContext context = new RoutingContextImpl(null);
-
-      HashMap<Long, LinkedHashSet<JournalFile>> largeMessageLocations = new HashMap<>();
+      List<JournalFile> selectedFiles = new ArrayList<>(files.size());
 
       for (JournalFile file : files) {
          if (start != null || end != null) {
@@ -129,121 +135,215 @@ public class ReplayManager {
                continue;
             }
          }
-         logger.debug("Reading retention file {}", file);
-         JournalImpl.readJournalFile(messagesFF, file, new JournalReaderCallback() {
-            @Override
-            public void onReadEventRecord(RecordInfo info) throws Exception {
-               switch (info.getUserRecordType()) {
-                  case JournalRecordIds.ADD_MESSAGE_BODY:
-                     LinkedHashSet<JournalFile> files = largeMessageLocations.get(info.id);
-                     if (files == null) {
-                        files = new LinkedHashSet<>();
-                        largeMessageLocations.put(info.id, files);
-                     }
-                     files.add(file);
-                     break;
-
-                  default:
-                     onReadAddRecord(info);
-               }
-            }
+         selectedFiles.add(file);
+      }
 
-            @Override
-            public void onReadAddRecord(RecordInfo info) throws Exception {
-               if (info.getUserRecordType() == JournalRecordIds.ADD_LARGE_MESSAGE) {
-                  ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(info.data);
-                  LargeServerMessage message = new LargeServerMessageImpl(server.getStorageManager());
-                  LargeMessagePersister.getInstance().decode(buffer, message, null);
-                  route(filter, context, messagesFF, message.toMessage(), sourceAddress, targetAddress, largeMessageLocations);
-               } else if (info.getUserRecordType() == JournalRecordIds.ADD_MESSAGE_PROTOCOL) {
-                  ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(info.data);
-                  Message message = MessagePersister.getInstance().decode(buffer, null, null, server.getStorageManager());
-                  route(filter, context, messagesFF, message, sourceAddress, targetAddress, largeMessageLocations);
-               }
+      RoutingContext context = new RoutingContextImpl(null);
 
+      // the files are indexed in parallel a few files ahead of the routing, and the records of the source address are
+      // decoded and filtered in parallel a few chunks ahead of the routing, so just these chunks are held in memory
+      // while the messages are routed by this thread in the order of the files
+      final int readAhead = Math.max(1, Math.min(MAX_READ_AHEAD, Runtime.getRuntime().availableProcessors()));
+      final ArrayDeque<FutureTask<RetentionFileIndex>> pendingIndexes = new ArrayDeque<>(readAhead + 1);
+      final ArrayDeque<FutureTask<List<Message>>> pendingChunks = new ArrayDeque<>(readAhead);
+      // the body records of the large messages on the files indexed so far
+      final Map<Long, List<LargeMessageBody>> largeMessageBodies = new HashMap<>();
+      final long startNanos = System.nanoTime();
+      long lastProgressNanos = startNanos;
+      long records = 0;
+      long messages = 0;
+      int nextFile = 0;
+
+      try {
+         for (int i = 0; i < selectedFiles.size(); i++) {
+            while (nextFile < selectedFiles.size() && nextFile <= i + readAhead) {
+               final JournalFile file = selectedFiles.get(nextFile++);
+               pendingIndexes.add(execute(() -> RetentionFileIndex.load(messagesFF, file, server.getStorageManager())));
             }
 
-            @Override
-            public void onReadUpdateRecord(RecordInfo info) throws Exception {
-               onReadAddRecord(info);
-            }
+            final JournalFile file = selectedFiles.get(i);
+            final RetentionFileIndex index = get(pendingIndexes.poll());
+            index.forEachLargeMessageBody((messageID, bodyPositions) -> largeMessageBodies.computeIfAbsent(messageID, id -> new ArrayList<>(1)).add(new LargeMessageBody(file, bodyPositions)));
 
-            @Override
-            public void onReadAddRecordTX(long transactionID, RecordInfo info) throws Exception {
-               onReadAddRecord(info);
+            final RetentionFileIndex.AddressRecords addressRecords = index.getAddress(sourceAddress);
+            if (addressRecords == null) {
+               logger.debug("Retention file {} has no messages for {}", file, sourceAddress);
+               continue;
+            }
+            if (logger.isDebugEnabled()) {
+               logger.debug("Retention file {} has {} messages for {}, with timestamps from {} to {}", file, addressRecords.getPositions().size(),
+                            sourceAddress, new Date(addressRecords.getMinTimestamp()), new Date(addressRecords.getMaxTimestamp()));
+            }
+            if (!addressRecords.mayHaveMessagesBetween(start, end)) {
+               logger.debug("Retention file {} being skipped on its message timestamps", file);
+               continue;
             }
 
-            @Override
-            public void onReadUpdateRecordTX(long transactionID, RecordInfo info) throws Exception {
-               onReadUpdateRecord(info);
+            final RetentionFileIndex.Positions positions = addressRecords.getPositions();
+            for (int from = 0; from < positions.size(); from += READ_CHUNK_RECORDS) {
+               if (pendingChunks.size() == readAhead) {
+                  messages += route(context, get(pendingChunks.poll()), sourceAddress, targetAddress, largeMessageBodies);
+               }
+               final int chunkFrom = from;
+               final int chunkTo = Math.min(positions.size(), from + READ_CHUNK_RECORDS);
+               pendingChunks.add(execute(() -> readRecords(file, positions, chunkFrom, chunkTo, filter, sourceAddress)));
             }
+            records += positions.size();
 
-         }, null, false, null);
+            final long now = System.nanoTime();
+            if (now - lastProgressNanos >= PROGRESS_INTERVAL_NANOS) {
+               lastProgressNanos = now;
+               ActiveMQServerLogger.LOGGER.replayProgress(sourceAddress, i + 1, selectedFiles.size(), records, messages, perSecond(records, now - startNanos));
+            }
+         }
+         while (!pendingChunks.isEmpty()) {
+            messages += route(context, get(pendingChunks.poll()), sourceAddress, targetAddress, largeMessageBodies);
+         }
+      } finally {
+         for (FutureTask<RetentionFileIndex> pending : pendingIndexes) {
+            pending.cancel(false);
+         }
+         for (FutureTask<List<Message>> pending : pendingChunks) {
+            pending.cancel(false);
+         }
       }
 
+      final long elapsed = System.nanoTime() - startNanos;
+      ActiveMQServerLogger.LOGGER.replayDone(sourceAddress, TimeUnit.NANOSECONDS.toMillis(elapsed), selectedFiles.size(), files.size(), records, messages, perSecond(records, elapsed));
+
       logger.debug("Replay done::sourceAddress={}", sourceAddress);
    }
 
-   private boolean messageMatch(Filter filter, Message message, String sourceAddress, String targetAddress) {
-      if (message.getAddress() != null && message.getAddress().equals(sourceAddress)) {
-         if (filter != null) {
-            if (!filter.match(message)) {
-               return false;
-            }
+   private static long perSecond(long count, long elapsedNanos) {
+      return elapsedNanos <= 0 ? count : count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+   }
+
+   private <T> FutureTask<T> execute(Callable<T> callable) {
+      final FutureTask<T> task = new FutureTask<>(callable);
+      server.getIOExecutorFactory().getExecutor().execute(task);
+      return task;
+   }
+
+   private static <T> T get(FutureTask<T> task) throws Exception {
+      try {
+         return task.get();
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof Exception) {
+            throw (Exception) e.getCause();
          }
-         if (targetAddress != null && !targetAddress.equals(sourceAddress)) {
-            message.setAddress(targetAddress);
-            message.reencode();
+         throw e;
+      }
+   }
+
+   /**
+    * The body records of a large message on a retention file.
+    */
+   private static final class LargeMessageBody {
+
+      final JournalFile file;
+      final RetentionFileIndex.Positions positions;
+
+      LargeMessageBody(JournalFile file, RetentionFileIndex.Positions positions) {
+         this.file = file;
+         this.positions = positions;
+      }
+   }
+
+   /**
+    * @return the messages of the records from {@code from} to {@code to} on the file, already filtered
+    */
+   private List<Message> readRecords(JournalFile file,
+                                     RetentionFileIndex.Positions positions,
+                                     int from,
+                                     int to,
+                                     Filter filter,
+                                     String sourceAddress) throws Exception {
+      final List<Message> messages = new ArrayList<>(to - from);
+      final SequentialFile sequentialFile = file.getFile().cloneFile();
+      sequentialFile.open(1, false);
+      try {
+         for (int i = from; i < to; i++) {
+            final RecordInfo info = JournalImpl.readRecordAt(sequentialFile, file.getJournalVersion(), positions.get(i));
+            if (info == null) {
+               logger.debug("Invalid record at {} on {}, ignoring it", positions.get(i), file);
+               continue;
+            }
+            final Message message = RetentionFileIndex.decode(info, server.getStorageManager());
+            if (messageMatch(filter, message, sourceAddress)) {
+               messages.add(message);
+            }
          }
-         return true;
+      } finally {
+         sequentialFile.close();
+      }
+      return messages;
+   }
+
+   private static boolean messageMatch(Filter filter, Message message, String sourceAddress) {
+      if (message != null && message.getAddress() != null && message.getAddress().equals(sourceAddress)) {
+         return filter == null || filter.match(message);
       } else {
          return false;
       }
    }
 
+   private int route(RoutingContext context,
+                     List<Message> messages,
+                     String sourceAddress,
+                     String targetAddress,
+                     Map<Long, List<LargeMessageBody>> largeMessageBodies) throws Exception {
+      for (Message message : messages) {
+         route(context, message, sourceAddress, targetAddress, largeMessageBodies);
+      }
+      return messages.size();
+   }
 
-   private void route(Filter filter, RoutingContext context, SequentialFileFactory messagesFF, Message message, String sourceAddress, String targetAddress, HashMap<Long, LinkedHashSet<JournalFile>> filesMap) throws Exception {
-      if (messageMatch(filter, message, sourceAddress, targetAddress)) {
-         final long originalMessageID = message.getMessageID();
-         message.setMessageID(server.getStorageManager().generateID());
-         if (message.isLargeMessage()) {
-            readLargeMessageBody(messagesFF, message, filesMap, originalMessageID);
-         }
-         if (targetAddress != null && !sourceAddress.equals(targetAddress)) {
-            message.setAddress(targetAddress);
-            message.reencode();
-         }
-         server.getPostOffice().route(message, context, false, false, null);
-         context.clear();
-      } else {
-         if (message.isLargeMessage()) {
-            filesMap.remove(message.getMessageID());
-         }
+   private void route(RoutingContext context,
+                      Message message,
+                      String sourceAddress,
+                      String targetAddress,
+                      Map<Long, List<LargeMessageBody>> largeMessageBodies) throws Exception {
+      final long originalMessageID = message.getMessageID();
+      message.setMessageID(server.getStorageManager().generateID());
+      if (message.isLargeMessage()) {
+         readLargeMessageBody(message, largeMessageBodies.get(originalMessageID), originalMessageID);
       }
+      if (targetAddress != null && !sourceAddress.equals(targetAddress)) {
+         message.setAddress(targetAddress);
+         message.reencode();
+      }
+      server.getPostOffice().route(message, context, false, false, null);
+      context.clear();
    }
 
-   private void readLargeMessageBody(SequentialFileFactory messagesFF,
-                          Message message,
-                          HashMap<Long, LinkedHashSet<JournalFile>> filesMap,
-                          long originalMessageID) throws Exception {
+   private void readLargeMessageBody(Message message,
+                                     List<LargeMessageBody> bodies,
+                                     long originalMessageID) throws Exception {
       long newMessageID = message.getMessageID();
       SequentialFile largeMessageFile = server.getStorageManager().createFileForLargeMessage(newMessageID, true);
       largeMessageFile.open();
 
-      LinkedHashSet<JournalFile> files = filesMap.get(originalMessageID);
-      if (files != null) {
-         for (JournalFile file : files) {
-            JournalImpl.readJournalFile(messagesFF, file, new JournalReaderCallback() {
-               @Override
-               public void onReadEventRecord(RecordInfo info) throws Exception {
-                  if (info.userRecordType == JournalRecordIds.ADD_MESSAGE_BODY && info.id == originalMessageID) {
+      try {
+         if (bodies == null) {
+            return;
+         }
+         for (LargeMessageBody body : bodies) {
+            final SequentialFile file = body.file.getFile().cloneFile();
+            file.open(1, false);
+            try {
+               for (int i = 0; i < body.positions.size(); i++) {
+                  final RecordInfo info = JournalImpl.readRecordAt(file, body.file.getJournalVersion(), body.positions.get(i));
+                  if (info != null && info.userRecordType == JournalRecordIds.ADD_MESSAGE_BODY && info.id == originalMessageID) {
                      server.getStorageManager().addBytesToLargeMessage(largeMessageFile, newMessageID, info.data);
                   }
                }
-            });
+            } finally {
+               file.close();
+            }
          }
+      } finally {
+         largeMessageFile.close();
       }
-      largeMessageFile.close();
    }
 
 }
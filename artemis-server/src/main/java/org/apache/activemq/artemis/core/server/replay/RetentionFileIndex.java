@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.impl.JournalFile;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalReaderCallback;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.persistence.impl.journal.LargeServerMessageImpl;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompressedMessageEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.LargeMessagePersister;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.LargeServerMessage;
+import org.apache.activemq.artemis.core.server.files.SidecarFile;
+import org.apache.activemq.artemis.spi.core.protocol.MessagePersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The positions of the messages of each address on a retention file, and of the large message bodies it holds, so a
+ * replay reads just the records of the address it replays instead of the whole file.
+ * <p>
+ * The index of a retention file is kept in a sidecar file named after it, see {@link #indexFileOf(File)}. It is written
+ * once the retention file is copied, or by the first replay reading a retention file without one.
+ */
+public final class RetentionFileIndex {
+
+   private static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+   private static final int MAGIC = 0x52494458;
+
+   // 2 added whether an address has messages without a timestamp
+   private static final int VERSION = 2;
+
+   /**
+    * Record positions on the retention file, in file order.
+    */
+   public static final class Positions {
+
+      private int[] positions = new int[8];
+      private int size;
+
+      void add(int position) {
+         if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+         }
+         positions[size++] = position;
+      }
+
+      public int size() {
+         return size;
+      }
+
+      public int get(int index) {
+         return positions[index];
+      }
+
+      private void write(DataOutputStream out) throws IOException {
+         out.writeInt(size);
+         for (int i = 0; i < size; i++) {
+            out.writeInt(positions[i]);
+         }
+      }
+
+      private static Positions read(DataInputStream in) throws IOException {
+         final int size = in.readInt();
+         if (size < 0) {
+            throw new IOException("Invalid number of positions " + size);
+         }
+         final Positions positions = new Positions();
+         positions.positions = new int[Math.max(1, size)];
+         for (int i = 0; i < size; i++) {
+            positions.positions[i] = in.readInt();
+         }
+         positions.size = size;
+         return positions;
+      }
+   }
+
+   /**
+    * The messages of one address on the retention file.
+    */
+   public static final class AddressRecords {
+
+      private final Positions positions;
+      private long minTimestamp = Long.MAX_VALUE;
+      private long maxTimestamp = Long.MIN_VALUE;
+      private boolean untimestamped;
+
+      private AddressRecords(Positions positions) {
+         this.positions = positions;
+      }
+
+      private void add(int position, long timestamp) {
+         positions.add(position);
+         if (timestamp != 0) {
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+         } else {
+            untimestamped = true;
+         }
+      }
+
+      /**
+       * @return {@code false} if all the messages were sent before {@code start} or after {@code end}, either being
+       * {@code null} for no limit
+       */
+      public boolean mayHaveMessagesBetween(Date start, Date end) {
+         if (untimestamped) {
+            return true;
+         }
+         if (start != null && maxTimestamp < start.getTime()) {
+            return false;
+         }
+         return end == null || minTimestamp <= end.getTime();
+      }
+
+      public Positions getPositions() {
+         return positions;
+      }
+
+      /**
+       * @return the oldest timestamp of the messages, {@link Long#MAX_VALUE} if none of them has a timestamp
+       */
+      public long getMinTimestamp() {
+         return minTimestamp;
+      }
+
+      /**
+       * @return the newest timestamp of the messages, {@link Long#MIN_VALUE} if none of them has a timestamp
+       */
+      public long getMaxTimestamp() {
+         return maxTimestamp;
+      }
+   }
+
+   private final long fileLength;
+
+   private final Map<String, AddressRecords> addresses = new HashMap<>();
+
+   private final Map<Long, Positions> largeMessageBodies = new HashMap<>();
+
+   private RetentionFileIndex(long fileLength) {
+      this.fileLength = fileLength;
+   }
+
+   public static File indexFileOf(File retentionFile) {
+      return new File(retentionFile.getPath() + JournalImpl.HISTORY_INDEX_SUFFIX);
+   }
+
+   /**
+    * @return the messages of the address on the file, or {@code null} if there are none
+    */
+   public AddressRecords getAddress(String address) {
+      return addresses.get(address);
+   }
+
+   /**
+    * @return the positions of the body records of the large message on the file, or {@code null} if there are none
+    */
+   public Positions getLargeMessageBody(long messageID) {
+      return largeMessageBodies.get(messageID);
+   }
+
+   /**
+    * Calls {@code action} with the ID and the positions of the body records of each large message on the file.
+    */
+   public void forEachLargeMessageBody(BiConsumer<Long, Positions> action) {
+      largeMessageBodies.forEach(action);
+   }
+
+   public long getFileLength() {
+      return fileLength;
+   }
+
+   /**
+    * Reads the index of the retention file, building and writing it if it doesn't have a valid one yet.
+    */
+   public static RetentionFileIndex load(SequentialFileFactory fileFactory,
+                                         JournalFile file,
+                                         StorageManager storageManager) throws Exception {
+      final File retentionFile = file.getFile().getJavaFile();
+      final File indexFile = indexFileOf(retentionFile);
+      RetentionFileIndex index = read(indexFile, retentionFile.length());
+      if (index == null) {
+         index = build(fileFactory, file, storageManager);
+         try {
+            index.write(indexFile);
+         } catch (IOException e) {
+            ActiveMQServerLogger.LOGGER.errorIndexingRetentionFile(retentionFile.getName(), e);
+         }
+      }
+      return index;
+   }
+
+   /**
+    * Indexes a retention file that was just copied, unless it already has a valid index.
+    */
+   public static void index(File retentionFile,
+                            int journalFileSize,
+                            StorageManager storageManager) throws Exception {
+      final File indexFile = indexFileOf(retentionFile);
+      if (read(indexFile, retentionFile.length()) != null) {
+         return;
+      }
+      final SequentialFileFactory fileFactory = new NIOSequentialFileFactory(retentionFile.getParentFile(), null, 1);
+      final JournalImpl retentionJournal = ReplayManager.newRetentionJournal(fileFactory, journalFileSize, 2, 0);
+      final SequentialFile sequentialFile = fileFactory.createSequentialFile(retentionFile.getName());
+      final JournalFile file;
+      sequentialFile.open();
+      try {
+         file = retentionJournal.readFileHeader(sequentialFile);
+      } finally {
+         sequentialFile.close();
+      }
+      build(fileFactory, file, storageManager).write(indexFile);
+   }
+
+   /**
+    * Reads the whole retention file, decoding its messages to find their addresses.
+    */
+   public static RetentionFileIndex build(SequentialFileFactory fileFactory,
+                                          JournalFile file,
+                                          StorageManager storageManager) throws Exception {
+      final long start = System.nanoTime();
+      final RetentionFileIndex index = new RetentionFileIndex(file.getFile().getJavaFile().length());
+
+      JournalImpl.readJournalFile(fileFactory, file, new JournalReaderCallback() {
+
+         private int position;
+
+         @Override
+         public void onReadRecordPosition(int position) {
+            this.position = position;
+         }
+
+         @Override
+         public void onReadEventRecord(RecordInfo info) throws Exception {
+            if (info.getUserRecordType() == JournalRecordIds.ADD_MESSAGE_BODY) {
+               index.largeMessageBodies.computeIfAbsent(info.id, id -> new Positions()).add(position);
+            } else {
+               onReadAddRecord(info);
+            }
+         }
+
+         @Override
+         public void onReadAddRecord(RecordInfo info) throws Exception {
+            final Message message = decode(info, storageManager);
+            if (message != null && message.getAddress() != null) {
+               index.addresses.computeIfAbsent(message.getAddress(), address -> new AddressRecords(new Positions())).add(position, message.getTimestamp());
+            }
+         }
+
+         @Override
+         public void onReadUpdateRecord(RecordInfo info) throws Exception {
+            onReadAddRecord(info);
+         }
+
+         @Override
+         public void onReadAddRecordTX(long transactionID, RecordInfo info) throws Exception {
+            onReadAddRecord(info);
+         }
+
+         @Override
+         public void onReadUpdateRecordTX(long transactionID, RecordInfo info) throws Exception {
+            onReadAddRecord(info);
+         }
+      }, null, false, null);
+
+      if (logger.isDebugEnabled()) {
+         logger.debug("Indexed {} in {} ms: {} addresses and {} large messages", file.getFile().getFileName(),
+                      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), index.addresses.size(), index.largeMessageBodies.size());
+      }
+      return index;
+   }
+
+   /**
+    * @return the message on a message record, or {@code null} if the record doesn't hold a message
+    */
+   static Message decode(RecordInfo info, StorageManager storageManager) throws Exception {
+      if (info.getUserRecordType() == JournalRecordIds.ADD_LARGE_MESSAGE) {
+         ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(info.data);
+         LargeServerMessage message = new LargeServerMessageImpl(storageManager);
+         LargeMessagePersister.getInstance().decode(buffer, message, null);
+         return message.toMessage();
+      } else if (info.getUserRecordType() == JournalRecordIds.ADD_MESSAGE_PROTOCOL) {
+         ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(info.data);
+         return MessagePersister.getInstance().decode(buffer, null, null, storageManager);
+      } else if (info.getUserRecordType() == JournalRecordIds.ADD_MESSAGE_COMPRESSED) {
+         ActiveMQBuffer buffer = CompressedMessageEncoding.inflate(ActiveMQBuffers.wrappedBuffer(info.data));
+         return MessagePersister.getInstance().decode(buffer, null, null, storageManager);
+      } else {
+         return null;
+      }
+   }
+
+   public void write(File indexFile) throws IOException {
+      SidecarFile.write(indexFile, MAGIC, VERSION, fileLength, this::write);
+   }
+
+   private void write(DataOutputStream out) throws IOException {
+      out.writeInt(addresses.size());
+      for (Map.Entry<String, AddressRecords> entry : addresses.entrySet()) {
+         out.writeUTF(entry.getKey());
+         out.writeLong(entry.getValue().minTimestamp);
+         out.writeLong(entry.getValue().maxTimestamp);
+         out.writeBoolean(entry.getValue().untimestamped);
+         entry.getValue().positions.write(out);
+      }
+      out.writeInt(largeMessageBodies.size());
+      for (Map.Entry<Long, Positions> entry : largeMessageBodies.entrySet()) {
+         out.writeLong(entry.getKey());
+         entry.getValue().write(out);
+      }
+   }
+
+   /**
+    * @return the index, or {@code null} if there is no valid index for a retention file of this length
+    */
+   public static RetentionFileIndex read(File indexFile, long fileLength) {
+      return SidecarFile.read(indexFile, MAGIC, VERSION, fileLength, in -> read(in, fileLength));
+   }
+
+   private static RetentionFileIndex read(DataInputStream in, long fileLength) throws IOException {
+      final RetentionFileIndex index = new RetentionFileIndex(fileLength);
+      final int addresses = in.readInt();
+      for (int i = 0; i < addresses; i++) {
+         final String address = in.readUTF();
+         final long minTimestamp = in.readLong();
+         final long maxTimestamp = in.readLong();
+         final boolean untimestamped = in.readBoolean();
+         final AddressRecords records = new AddressRecords(Positions.read(in));
+         records.minTimestamp = minTimestamp;
+         records.maxTimestamp = maxTimestamp;
+         records.untimestamped = untimestamped;
+         index.addresses.put(address, records);
+      }
+      final int largeMessages = in.readInt();
+      for (int i = 0; i < largeMessages; i++) {
+         final long messageID = in.readLong();
+         index.largeMessageBodies.put(messageID, Positions.read(in));
+      }
+      return index;
+   }
+}
@@ -314,6 +314,9 @@ public class HAPolicyConfigurationTest extends ActiveMQTestBase {
          assertEquals("purple", policy.getBackupGroupName());
          assertEquals("abcdefg", policy.getClusterName());
          assertFalse(policy.useQuorumManager());
+         assertTrue(policy.isAsyncReplication());
+         assertEquals(65536, policy.getMaxReplicationLagSize());
+         assertEquals(-1, policy.getMaxReplicationLagTime());
          // check failback companion backup policy
          ReplicationBackupPolicy failbackPolicy = policy.getBackupPolicy();
          assertNotNull(failbackPolicy);
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.cursor.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.cursor.PageCursorProvider;
+import org.apache.activemq.artemis.core.paging.cursor.PagePosition;
+import org.apache.activemq.artemis.core.paging.cursor.PageSubscriptionCounter;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class PageCursorInfoTest {
+
+   private static final long PAGE = 1;
+
+   private static final int NUMBER_OF_MESSAGES = 3;
+
+   /**
+    * Gives an id to every ack record and records the ones deleted.
+    */
+   private static class RecordingStorageManager extends NullStorageManager {
+
+      private final AtomicLong ids = new AtomicLong(100);
+
+      private final List<Long> deletedAckRecords = new ArrayList<>();
+
+      private final List<PagePosition> completedPages = new ArrayList<>();
+
+      @Override
+      public void storeCursorAcknowledge(long queueID, PagePosition position) {
+         position.setRecordID(ids.incrementAndGet());
+      }
+
+      @Override
+      public void storeCursorAcknowledgeTransactional(long txID, long queueID, PagePosition position) {
+         position.setRecordID(ids.incrementAndGet());
+      }
+
+      @Override
+      public void deleteCursorAcknowledgeTransactional(long txID, long ackID) throws Exception {
+         deletedAckRecords.add(ackID);
+      }
+
+      @Override
+      public void storePageCompleteTransactional(long txID, long queueID, PagePosition position) throws Exception {
+         completedPages.add(position);
+      }
+   }
+
+   private RecordingStorageManager storageManager;
+
+   private PagingStore pagingStore;
+
+   private PageSubscriptionImpl subscription;
+
+   @Before
+   public void setUp() throws Exception {
+      storageManager = new RecordingStorageManager();
+
+      // a complete page that isn't being written
+      Page page = Mockito.mock(Page.class);
+      Mockito.when(page.isOpen()).thenReturn(false);
+      Mockito.when(page.getNumberOfMessages()).thenReturn(NUMBER_OF_MESSAGES);
+
+      pagingStore = Mockito.mock(PagingStore.class);
+      Mockito.when(pagingStore.getAddress()).thenReturn(SimpleString.toSimpleString("test"));
+      Mockito.when(pagingStore.usePage(Mockito.eq(PAGE), Mockito.eq(false))).thenReturn(page);
+      Mockito.when(pagingStore.checkPageFileExists(PAGE)).thenReturn(true);
+
+      subscription = newSubscription();
+   }
+
+   private PageSubscriptionImpl newSubscription() {
+      PageSubscriptionImpl subscription = new PageSubscriptionImpl(Mockito.mock(PageCursorProvider.class), pagingStore, storageManager, null, 1, true, Mockito.mock(PageSubscriptionCounter.class));
+      subscription.setQueue(Mockito.mock(Queue.class));
+      return subscription;
+   }
+
+   private static List<Integer> acks(PageSubscriptionImpl.PageCursorInfo info) {
+      List<Integer> acks = new ArrayList<>();
+      info.forEachAck(acks::add);
+      return acks;
+   }
+
+   @Test
+   public void testAck() throws Exception {
+      subscription.confirmPosition(new PagePositionImpl(PAGE, 0));
+      subscription.confirmPosition(new PagePositionImpl(PAGE, 2));
+
+      PageSubscriptionImpl.PageCursorInfo info = subscription.locatePageInfo(PAGE);
+      Assert.assertTrue(info.isAck(0));
+      Assert.assertFalse(info.isAck(1));
+      Assert.assertTrue(info.isAck(2));
+      Assert.assertTrue(info.isRemoved(0));
+      Assert.assertFalse(info.isRemoved(1));
+      Assert.assertEquals(List.of(0, 2), acks(info));
+      Assert.assertEquals(2, info.getAckRecords().length);
+      Assert.assertFalse(info.isDone());
+
+      // an ack delivered twice doesn't count twice
+      subscription.confirmPosition(new PagePositionImpl(PAGE, 2));
+      Assert.assertFalse(info.isDone());
+
+      subscription.confirmPosition(new PagePositionImpl(PAGE, 1));
+      Assert.assertTrue(info.isDone());
+      Assert.assertTrue(subscription.isComplete(PAGE));
+      Assert.assertEquals(List.of(0, 1, 2), acks(info));
+   }
+
+   @Test
+   public void testRollback() throws Exception {
+      Transaction tx = new TransactionImpl(storageManager);
+      subscription.confirmPosition(tx, new PagePositionImpl(PAGE, 1));
+
+      // the message is removed from the cursor while its ack is pending, but it isn't acked
+      PageSubscriptionImpl.PageCursorInfo info = subscription.locatePageInfo(PAGE);
+      Assert.assertTrue(info.isRemoved(1));
+      Assert.assertFalse(info.isAck(1));
+
+      tx.rollback();
+      Assert.assertFalse(info.isAck(1));
+      Assert.assertTrue(acks(info).isEmpty());
+      Assert.assertEquals(0, info.getAckRecords().length);
+      Assert.assertFalse(info.isDone());
+
+      tx = new TransactionImpl(storageManager);
+      subscription.confirmPosition(tx, new PagePositionImpl(PAGE, 1));
+      tx.commit();
+      Assert.assertTrue(info.isAck(1));
+      Assert.assertEquals(List.of(1), acks(info));
+      Assert.assertEquals(1, info.getAckRecords().length);
+   }
+
+   @Test
+   public void testBookmark() throws Exception {
+      // a position before the first message only marks the page as consumed up to there
+      subscription.confirmPosition(new PagePositionImpl(PAGE, -1));
+
+      PageSubscriptionImpl.PageCursorInfo info = subscription.locatePageInfo(PAGE);
+      Assert.assertFalse(info.isAck(-1));
+      Assert.assertFalse(info.isAck(0));
+      Assert.assertFalse(info.isRemoved(-1));
+      Assert.assertTrue(acks(info).isEmpty());
+      // its record is still deleted once the page is complete
+      Assert.assertEquals(1, info.getAckRecords().length);
+
+      subscription.confirmPosition(new PagePositionImpl(PAGE, -1));
+      for (int i = 0; i < NUMBER_OF_MESSAGES - 1; i++) {
+         subscription.confirmPosition(new PagePositionImpl(PAGE, i));
+      }
+      // the bookmarks don't count as acked messages
+      Assert.assertFalse(info.isDone());
+      subscription.confirmPosition(new PagePositionImpl(PAGE, NUMBER_OF_MESSAGES - 1));
+      Assert.assertTrue(info.isDone());
+   }
+
+   @Test
+   public void testCompletionAfterRestart() throws Exception {
+      // the acks reloaded from the journal
+      List<Long> recordIDs = new ArrayList<>();
+      for (int i = NUMBER_OF_MESSAGES - 1; i >= 0; i--) {
+         PagePosition position = new PagePositionImpl(PAGE, i);
+         position.setRecordID(10 + i);
+         recordIDs.add(position.getRecordID());
+         subscription.reloadACK(position);
+      }
+      subscription.processReload();
+
+      PageSubscriptionImpl.PageCursorInfo info = subscription.locatePageInfo(PAGE);
+      Assert.assertTrue(info.isDone());
+      Assert.assertEquals(List.of(0, 1, 2), acks(info));
+      Assert.assertEquals(recordIDs.size(), info.getAckRecords().length);
+
+      // a page that was completed before the restart
+      PageSubscriptionImpl restarted = newSubscription();
+      Assert.assertTrue(restarted.reloadPageCompletion(new PagePositionImpl(PAGE, NUMBER_OF_MESSAGES)));
+      info = restarted.locatePageInfo(PAGE);
+      Assert.assertTrue(info.isDone());
+      Assert.assertTrue(restarted.isComplete(PAGE));
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+         Assert.assertTrue(info.isAck(i));
+      }
+      // no ack is kept for a complete page
+      Assert.assertTrue(acks(info).isEmpty());
+      Assert.assertEquals(0, info.getAckRecords().length);
+   }
+
+   @Test
+   public void testAckRecordsDeletedOnCleanup() throws Exception {
+      subscription.confirmPosition(new PagePositionImpl(PAGE, -1));
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+         subscription.confirmPosition(new PagePositionImpl(PAGE, i));
+      }
+      PageSubscriptionImpl.PageCursorInfo info = subscription.locatePageInfo(PAGE);
+      Assert.assertTrue(info.isDone());
+      final long[] ackRecords = info.getAckRecords();
+      Assert.assertEquals(NUMBER_OF_MESSAGES + 1, ackRecords.length);
+
+      subscription.cleanupEntries(false);
+
+      // the acks are replaced by a single record for the complete page
+      Assert.assertEquals(1, storageManager.completedPages.size());
+      Assert.assertEquals(PAGE, storageManager.completedPages.get(0).getPageNr());
+      Assert.assertEquals(ackRecords.length, storageManager.deletedAckRecords.size());
+      for (long recordID : ackRecords) {
+         Assert.assertTrue(storageManager.deletedAckRecords.contains(recordID));
+      }
+      Assert.assertEquals(0, info.getAckRecords().length);
+      Assert.assertTrue(acks(info).isEmpty());
+      Assert.assertFalse(info.isRemoved(0));
+      Assert.assertTrue(info.isAck(0));
+      Assert.assertTrue(info.isDone());
+
+      // the page isn't cleaned up twice
+      subscription.cleanupEntries(false);
+      Assert.assertEquals(1, storageManager.completedPages.size());
+      Assert.assertEquals(ackRecords.length, storageManager.deletedAckRecords.size());
+   }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.cursor.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class PageReadAheadTest {
+
+   private final Map<Long, Page> pages = new HashMap<>();
+
+   private PagingStore newPagingStore(long currentWritingPage) throws Exception {
+      PagingStore store = Mockito.mock(PagingStore.class);
+      Mockito.when(store.getAddress()).thenReturn(SimpleString.toSimpleString("test"));
+      Mockito.when(store.getCurrentWritingPage()).thenReturn(currentWritingPage);
+      Mockito.when(store.getPrefetchPageBytes()).thenReturn(-1);
+      Mockito.when(store.getPrefetchPageMessages()).thenReturn(-1);
+      Mockito.when(store.checkPageFileExists(Mockito.anyLong())).thenReturn(true);
+      Mockito.when(store.readPage(Mockito.anyLong())).thenAnswer(invocation -> {
+         long pageId = invocation.getArgument(0);
+         Page page = pages.computeIfAbsent(pageId, id -> new Page(SimpleString.toSimpleString("test"), null, Mockito.mock(SequentialFileFactory.class), Mockito.mock(SequentialFile.class), id));
+         page.usageUp();
+         return page;
+      });
+      return store;
+   }
+
+   @Test
+   public void testReadsNextPageUntilTheCursorGetsToIt() throws Exception {
+      PagingStore store = newPagingStore(10);
+      PageReadAhead readAhead = new PageReadAhead(store, Runnable::run);
+
+      readAhead.moveTo(1);
+      Assert.assertEquals(1, readAhead.depth());
+      Assert.assertTrue(readAhead.isReadAhead(2));
+      Assert.assertEquals(1, pages.get(2L).getUsage());
+
+      readAhead.moveTo(2);
+      Assert.assertFalse(readAhead.isReadAhead(2));
+      Assert.assertEquals(0, pages.get(2L).getUsage());
+      Assert.assertTrue(readAhead.size() > 0);
+
+      readAhead.close();
+      Assert.assertEquals(0, readAhead.size());
+      pages.values().forEach(page -> Assert.assertEquals(0, page.getUsage()));
+
+      // nothing is read ahead once closed
+      readAhead.moveTo(3);
+      Assert.assertEquals(0, readAhead.size());
+   }
+
+   @Test
+   public void testFastCursorReadsMorePagesUpToTheWritingPage() throws Exception {
+      PagingStore store = newPagingStore(6);
+      PageReadAhead readAhead = new PageReadAhead(store, Runnable::run);
+
+      // moving through pages in much less than a second reads ahead as much as possible
+      readAhead.moveTo(1);
+      readAhead.moveTo(2);
+      Assert.assertEquals(PageReadAhead.MAX_PAGES, readAhead.depth());
+
+      // the page being written is never read
+      Assert.assertTrue(readAhead.isReadAhead(5));
+      Assert.assertFalse(readAhead.isReadAhead(6));
+      Assert.assertEquals(3, readAhead.size());
+
+      readAhead.close();
+   }
+}
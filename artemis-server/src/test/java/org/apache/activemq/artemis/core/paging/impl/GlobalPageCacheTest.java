@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class GlobalPageCacheTest {
+
+   private static PageCache newPageCache(String address, GlobalPageCache globalCache) {
+      PagingStore store = Mockito.mock(PagingStore.class);
+      Mockito.when(store.getAddress()).thenReturn(SimpleString.toSimpleString(address));
+      return new PageCache(store).setGlobalCache(globalCache);
+   }
+
+   private static Page usedPage(PageCache pageCache, long pageId) throws Exception {
+      Page page = new Page(SimpleString.toSimpleString("test"), null, Mockito.mock(SequentialFileFactory.class), Mockito.mock(SequentialFile.class), pageId);
+      pageCache.injectPage(page);
+      page.usageUp();
+      return page;
+   }
+
+   @Test
+   public void testReleasedPagesAreKeptUpToMaxSize() throws Exception {
+      // each page without messages counts as 1 byte
+      GlobalPageCache globalCache = new GlobalPageCache(3);
+      PageCache cacheA = newPageCache("A", globalCache);
+      PageCache cacheB = newPageCache("B", globalCache);
+
+      Page pageA1 = usedPage(cacheA, 1);
+      Page pageB1 = usedPage(cacheB, 1);
+      Page pageA2 = usedPage(cacheA, 2);
+      Assert.assertEquals(3, globalCache.getSize());
+
+      pageA1.usageDown();
+      Assert.assertSame(pageA1, cacheA.get(1));
+      Assert.assertEquals(1, globalCache.getPageCount());
+
+      // a page with the same number on another store is a different page
+      pageB1.usageDown();
+      Assert.assertSame(pageB1, cacheB.get(1));
+      Assert.assertEquals(2, globalCache.getPageCount());
+      Assert.assertEquals(3, globalCache.getSize());
+
+      // the least recently released page is evicted once the pages in memory don't fit
+      Page pageA3 = usedPage(cacheA, 3);
+      Assert.assertEquals(4, globalCache.getSize());
+      pageA2.usageDown();
+      Assert.assertNull(cacheA.get(1));
+      Assert.assertSame(pageA2, cacheA.get(2));
+      Assert.assertSame(pageB1, cacheB.get(1));
+      Assert.assertEquals(1, globalCache.getEvictions());
+      Assert.assertEquals(3, globalCache.getSize());
+
+      // a page used again can't be evicted
+      cacheB.hit(pageB1);
+      pageB1.usageUp();
+      Assert.assertEquals(1, globalCache.getHits());
+      Assert.assertEquals(1, globalCache.getPageCount());
+      pageA3.usageDown();
+      Page pageA4 = usedPage(cacheA, 4);
+      pageA4.usageDown();
+      Assert.assertSame(pageB1, cacheB.get(1));
+      Assert.assertNull(cacheA.get(2));
+      Assert.assertEquals(2, globalCache.getEvictions());
+      Assert.assertEquals(3, globalCache.getSize());
+
+      cacheA.removePage(pageA3);
+      Assert.assertNull(cacheA.get(3));
+      Assert.assertEquals(2, globalCache.getSize());
+
+      cacheA.releaseRetained();
+      Assert.assertEquals(1, globalCache.getSize());
+      Assert.assertEquals(0, globalCache.getPageCount());
+
+      pageB1.usageDown();
+      cacheB.removePage(pageB1);
+      Assert.assertEquals(0, globalCache.getSize());
+   }
+
+   @Test
+   public void testUsedPagesCountTowardsMaxSize() throws Exception {
+      GlobalPageCache globalCache = new GlobalPageCache(2);
+      PageCache cache = newPageCache("A", globalCache);
+
+      Page page1 = usedPage(cache, 1);
+      usedPage(cache, 2);
+      usedPage(cache, 3);
+
+      // the other pages in memory already take the whole size
+      page1.usageDown();
+      Assert.assertNull(cache.get(1));
+      Assert.assertEquals(1, globalCache.getEvictions());
+      Assert.assertEquals(2, globalCache.getSize());
+   }
+
+   @Test
+   public void testPageLargerThanMaxSizeIsNotKept() throws Exception {
+      // smaller than any page
+      GlobalPageCache globalCache = new GlobalPageCache(0);
+      PageCache cache = newPageCache("A", globalCache);
+
+      Page page = usedPage(cache, 1);
+      page.usageDown();
+
+      Assert.assertNull(cache.get(1));
+      Assert.assertEquals(0, globalCache.getPageCount());
+      Assert.assertEquals(0, globalCache.getSize());
+   }
+}
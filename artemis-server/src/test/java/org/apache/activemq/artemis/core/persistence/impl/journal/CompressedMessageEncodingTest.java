@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.persistence.impl.journal;
+
+import java.util.Arrays;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompressedMessageEncoding;
+import org.apache.activemq.artemis.spi.core.protocol.MessagePersister;
+import org.apache.activemq.artemis.utils.RandomUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressedMessageEncodingTest extends Assert {
+
+   private static ICoreMessage newMessage(byte[] body) {
+      ICoreMessage message = new CoreMessage().initBuffer(body.length + 100);
+      message.setMessageID(RandomUtil.randomPositiveLong());
+      message.setAddress(SimpleString.toSimpleString("test"));
+      message.putStringProperty("prop", "value");
+      message.getBodyBuffer().writeBytes(body);
+      return message;
+   }
+
+   @Test
+   public void testEncodeDecode() {
+      final byte[] body = new byte[50 * 1024];
+      Arrays.fill(body, (byte) 'a');
+      final ICoreMessage message = newMessage(body);
+
+      CompressedMessageEncoding encoding = CompressedMessageEncoding.compress(message);
+      assertNotNull(encoding);
+      assertEquals(message.getPersister().getEncodeSize(message), encoding.getMessageEncodeSize());
+      assertTrue(encoding.getEncodeSize() < body.length / 10);
+
+      ActiveMQBuffer encodedBuffer = ActiveMQBuffers.fixedBuffer(encoding.getEncodeSize());
+      encoding.encode(encodedBuffer);
+
+      Message decoded = MessagePersister.getInstance().decode(CompressedMessageEncoding.inflate(encodedBuffer), null, null, null);
+      assertEquals(message.getMessageID(), decoded.getMessageID());
+      assertEquals(message.getAddressSimpleString(), decoded.getAddressSimpleString());
+      assertEquals("value", decoded.getStringProperty("prop"));
+      final ICoreMessage decodedCore = decoded.toCore();
+      assertEquals(body.length, decodedCore.getBodyBufferSize());
+      final byte[] decodedBody = new byte[body.length];
+      decodedCore.getReadOnlyBodyBuffer().readBytes(decodedBody);
+      assertArrayEquals(body, decodedBody);
+   }
+
+   @Test
+   public void testIncompressibleMessageIsNotCompressed() {
+      assertNull(CompressedMessageEncoding.compress(newMessage(RandomUtil.randomBytes(1024))));
+   }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.protocol.core.impl.wireformat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.core.protocol.ServerPacketDecoder;
+import org.apache.activemq.artemis.core.protocol.core.CoreRemotingConnection;
+import org.apache.activemq.artemis.core.protocol.core.Packet;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.artemis.utils.RandomUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ReplicationBatchMessageTest extends Assert {
+
+   private static Packet encodeDecode(PacketImpl packet) {
+      final CoreRemotingConnection connection = Mockito.mock(CoreRemotingConnection.class);
+      final ActiveMQBuffer buffer = packet.encode(null);
+      // no resizing of the transport buffer
+      assertTrue(buffer.writerIndex() <= packet.expectedEncodeSize());
+      // the size is read by the frame decoder
+      buffer.readInt();
+      return new ServerPacketDecoder(new NullStorageManager()).decode(buffer, connection);
+   }
+
+   @Test
+   public void testEncodeDecode() {
+      final byte[] body = RandomUtil.randomBytes(1024);
+      final ReplicationBatchMessage batch = new ReplicationBatchMessage(Arrays.asList(
+         new ReplicationDeleteMessage((byte) 1, 10),
+         new ReplicationLargeMessageWriteMessage(11, body),
+         new ReplicationCommitMessage((byte) 1, false, 12)));
+
+      final Packet decoded = encodeDecode(batch);
+      assertEquals(PacketImpl.REPLICATION_BATCH, decoded.getType());
+
+      final List<PacketImpl> packets = ((ReplicationBatchMessage) decoded).getPackets();
+      assertEquals(3, packets.size());
+
+      final ReplicationDeleteMessage delete = (ReplicationDeleteMessage) packets.get(0);
+      assertEquals(1, delete.getJournalID());
+      assertEquals(10, delete.getId());
+
+      final ReplicationLargeMessageWriteMessage write = (ReplicationLargeMessageWriteMessage) packets.get(1);
+      assertEquals(11, write.getMessageId());
+      assertArrayEquals(body, write.getBody());
+
+      final ReplicationCommitMessage commit = (ReplicationCommitMessage) packets.get(2);
+      assertEquals(1, commit.getJournalID());
+      assertFalse(commit.isRollback());
+      assertEquals(12, commit.getTxId());
+   }
+
+   @Test
+   public void testResponseEncodeDecode() {
+      final Packet decoded = encodeDecode(new ReplicationBatchResponseMessage(42));
+      assertEquals(PacketImpl.REPLICATION_BATCH_RESPONSE, decoded.getType());
+      assertEquals(42, ((ReplicationBatchResponseMessage) decoded).getCount());
+   }
+
+   @Test
+   public void testSyncPacketsAreNotBatchable() {
+      assertTrue(ReplicationBatchMessage.isBatchable(PacketImpl.REPLICATION_APPEND));
+      assertFalse(ReplicationBatchMessage.isBatchable(PacketImpl.REPLICATION_SYNC_FILE));
+      assertFalse(ReplicationBatchMessage.isBatchable(PacketImpl.REPLICATION_START_FINISH_SYNC));
+      assertFalse(ReplicationBatchMessage.isBatchable(PacketImpl.REPLICATION_BATCH));
+   }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.replication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryNIO;
+import org.apache.activemq.artemis.core.server.files.FileMoveManager;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PreviousSyncFilesTest {
+
+   @Rule
+   public TemporaryFolder temporaryFolder;
+
+   public PreviousSyncFilesTest() {
+      File parent = new File("./target/tmp");
+      parent.mkdirs();
+      temporaryFolder = new TemporaryFolder(parent);
+   }
+
+   private static File write(File file, byte[] content) throws Exception {
+      file.getParentFile().mkdirs();
+      try (FileOutputStream out = new FileOutputStream(file)) {
+         out.write(content);
+      }
+      return file;
+   }
+
+   @Test
+   public void testFind() throws Exception {
+      final File journal = temporaryFolder.newFolder("journal");
+      final File file = new File(journal, "activemq-data-3.amq");
+      Assert.assertNull("nothing was moved away", PreviousSyncFiles.find(file));
+
+      write(new File(journal, FileMoveManager.PREFIX + "1/" + file.getName()), new byte[] {1});
+      final File previous = write(new File(journal, FileMoveManager.PREFIX + "2/" + file.getName()), new byte[] {2});
+      // only the newest folder holds the previous synchronization
+      Assert.assertEquals(previous, PreviousSyncFiles.find(file));
+      Assert.assertNull(PreviousSyncFiles.find(new File(journal, "activemq-data-4.amq")));
+   }
+
+   @Test
+   public void testFindPage() throws Exception {
+      final File paging = temporaryFolder.newFolder("paging");
+      final File pageFile = new File(paging, "new-store/000000002.page");
+      final File previousFolder = new File(paging, FileMoveManager.PREFIX + "1");
+      write(new File(previousFolder, "other-store/" + PagingStoreFactoryNIO.ADDRESS_FILE), "other\n".getBytes(StandardCharsets.UTF_8));
+      write(new File(previousFolder, "other-store/" + pageFile.getName()), new byte[] {1});
+      Assert.assertNull(PreviousSyncFiles.findPage(pageFile, SimpleString.toSimpleString("address")));
+
+      // the store was in another folder
+      write(new File(previousFolder, "old-store/" + PagingStoreFactoryNIO.ADDRESS_FILE), "address\n".getBytes(StandardCharsets.UTF_8));
+      final File previous = write(new File(previousFolder, "old-store/" + pageFile.getName()), new byte[] {2});
+      Assert.assertEquals(previous, PreviousSyncFiles.findPage(pageFile, SimpleString.toSimpleString("address")));
+      Assert.assertNull(PreviousSyncFiles.findPage(new File(paging, "new-store/000000003.page"), SimpleString.toSimpleString("address")));
+   }
+
+   @Test
+   public void testDigest() throws Exception {
+      final byte[] content = new byte[600 * 1024];
+      for (int i = 0; i < content.length; i++) {
+         content[i] = (byte) i;
+      }
+      final File file = write(new File(temporaryFolder.getRoot(), "file"), content);
+
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      Assert.assertArrayEquals(digest.digest(content), PreviousSyncFiles.digest(file, content.length));
+      // a prefix of the file, across the chunks it is read in
+      final int prefix = 300 * 1024 + 7;
+      Assert.assertArrayEquals(digest.digest(Arrays.copyOf(content, prefix)), PreviousSyncFiles.digest(file, prefix));
+
+      try {
+         PreviousSyncFiles.digest(file, content.length + 1);
+         Assert.fail("the file is shorter");
+      } catch (IOException expected) {
+      }
+   }
+}
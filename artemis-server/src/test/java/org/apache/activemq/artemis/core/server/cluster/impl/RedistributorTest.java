@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.cluster.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.Pair;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.server.HandleStatus;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.impl.RoutingContextImpl;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class RedistributorTest {
+
+   private static final int MAX_BATCH_SIZE = 100;
+
+   private Queue queue;
+
+   private PostOffice postOffice;
+
+   /**
+    * The tasks run on the executor of the queue, once it is done delivering.
+    */
+   private final List<Runnable> queueTasks = new ArrayList<>();
+
+   /**
+    * The callbacks waiting for the commits to be stored.
+    */
+   private final List<IOCallback> pendingCommits = new ArrayList<>();
+
+   /**
+    * The transactions of the batches, in order.
+    */
+   private final List<Transaction> batches = new ArrayList<>();
+
+   private Redistributor redistributor;
+
+   @Before
+   public void setUp() throws Exception {
+      queue = Mockito.mock(Queue.class);
+      Mockito.when(queue.getExecutor()).thenReturn(queueTasks::add);
+
+      StorageManager storageManager = Mockito.mock(StorageManager.class);
+      Mockito.doAnswer(invocation -> pendingCommits.add(invocation.getArgument(0))).when(storageManager).afterCompleteOperations(Mockito.any(IOCallback.class));
+
+      // as the post office does, the message joins the transaction of the batch or starts a new one
+      postOffice = Mockito.mock(PostOffice.class);
+      Mockito.when(postOffice.redistribute(Mockito.any(), Mockito.eq(queue), Mockito.any())).thenAnswer(invocation -> {
+         Transaction tx = invocation.getArgument(2);
+         if (tx == null) {
+            tx = Mockito.mock(Transaction.class);
+            batches.add(tx);
+         }
+         return new Pair<>(new RoutingContextImpl(tx), invocation.getArgument(0));
+      });
+
+      redistributor = new Redistributor(queue, storageManager, postOffice);
+      redistributor.start();
+   }
+
+   private static MessageReference newReference() {
+      MessageReference reference = Mockito.mock(MessageReference.class);
+      Mockito.when(reference.getMessage()).thenReturn(Mockito.mock(Message.class));
+      return reference;
+   }
+
+   private void handle(int messages) throws Exception {
+      for (int i = 0; i < messages; i++) {
+         Assert.assertEquals(HandleStatus.HANDLED, redistributor.handle(newReference()));
+      }
+   }
+
+   private void storeCommits() {
+      final List<IOCallback> callbacks = new ArrayList<>(pendingCommits);
+      pendingCommits.clear();
+      callbacks.forEach(IOCallback::done);
+   }
+
+   private void runQueueTasks() {
+      final List<Runnable> tasks = new ArrayList<>(queueTasks);
+      queueTasks.clear();
+      tasks.forEach(Runnable::run);
+   }
+
+   @Test
+   public void testCommitWhenFull() throws Exception {
+      handle(MAX_BATCH_SIZE - 1);
+      Assert.assertEquals(1, batches.size());
+      final Transaction batch = batches.get(0);
+      Mockito.verify(batch, Mockito.never()).commit();
+      Mockito.verify(queue, Mockito.times(MAX_BATCH_SIZE - 1)).acknowledge(Mockito.eq(batch), Mockito.any(MessageReference.class));
+
+      handle(1);
+      Mockito.verify(batch).commit();
+
+      // no more messages are moved until the batch is stored
+      Assert.assertEquals(HandleStatus.BUSY, redistributor.handle(newReference()));
+      storeCommits();
+      Mockito.verify(queue).deliverAsync();
+      handle(1);
+      Assert.assertEquals(2, batches.size());
+
+      // the commit scheduled by the first batch has nothing left to commit
+      runQueueTasks();
+      Mockito.verify(batch).commit();
+      Mockito.verify(batches.get(1)).commit();
+   }
+
+   @Test
+   public void testCommitWhenIdle() throws Exception {
+      handle(3);
+      final Transaction batch = batches.get(0);
+      Mockito.verify(batch, Mockito.never()).commit();
+
+      // the queue is done delivering for now
+      runQueueTasks();
+      Mockito.verify(batch).commit();
+      storeCommits();
+
+      handle(2);
+      Assert.assertEquals(2, batches.size());
+      Mockito.verify(queue, Mockito.times(2)).acknowledge(Mockito.eq(batches.get(1)), Mockito.any(MessageReference.class));
+   }
+
+   @Test
+   public void testCommitWhenNoRoute() throws Exception {
+      handle(3);
+      Mockito.when(postOffice.redistribute(Mockito.any(), Mockito.eq(queue), Mockito.any())).thenReturn(null);
+
+      Assert.assertEquals(HandleStatus.BUSY, redistributor.handle(newReference()));
+      Mockito.verify(batches.get(0)).commit();
+   }
+
+   @Test
+   public void testCommitOnStop() throws Exception {
+      handle(3);
+      redistributor.stop();
+      Mockito.verify(batches.get(0)).commit();
+      Assert.assertEquals(HandleStatus.BUSY, redistributor.handle(newReference()));
+
+      // nothing is left to commit
+      redistributor.close();
+      runQueueTasks();
+      Mockito.verify(batches.get(0)).commit();
+   }
+
+   @Test
+   public void testCommitOnClose() throws Exception {
+      handle(3);
+      redistributor.close();
+      Mockito.verify(batches.get(0)).commit();
+   }
+
+   @Test
+   public void testRollbackWhenCommitFails() throws Exception {
+      handle(3);
+      final Transaction batch = batches.get(0);
+      Mockito.doThrow(new IllegalStateException("failed")).when(batch).commit();
+
+      runQueueTasks();
+      Mockito.verify(batch).commit();
+      Mockito.verify(batch).rollback();
+
+      // the messages of the batch go back to the queue, and the redistribution goes on once it is done
+      Assert.assertEquals(HandleStatus.BUSY, redistributor.handle(newReference()));
+      storeCommits();
+      handle(1);
+      Assert.assertEquals(2, batches.size());
+   }
+}
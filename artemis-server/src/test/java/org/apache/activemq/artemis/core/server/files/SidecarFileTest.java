@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SidecarFileTest {
+
+   private static final int MAGIC = 0x54455354;
+
+   @Rule
+   public TemporaryFolder temporaryFolder;
+
+   public SidecarFileTest() {
+      File parent = new File("./target/tmp");
+      parent.mkdirs();
+      temporaryFolder = new TemporaryFolder(parent);
+   }
+
+   @Test
+   public void testWriteAndRead() throws Exception {
+      final File sidecar = new File(temporaryFolder.getRoot(), "file.index");
+      SidecarFile.write(sidecar, MAGIC, 1, 100, out -> out.writeUTF("content"));
+
+      Assert.assertEquals("content", SidecarFile.read(sidecar, MAGIC, 1, 100, in -> in.readUTF()));
+      // the temporary file was moved
+      Assert.assertArrayEquals(new String[] {"file.index"}, temporaryFolder.getRoot().list());
+   }
+
+   @Test
+   public void testInvalid() throws Exception {
+      final File sidecar = new File(temporaryFolder.getRoot(), "file.index");
+      Assert.assertNull(SidecarFile.read(sidecar, MAGIC, 1, 100, in -> in.readUTF()));
+
+      SidecarFile.write(sidecar, MAGIC, 1, 100, out -> out.writeUTF("content"));
+      Assert.assertNull("another format", SidecarFile.read(sidecar, MAGIC + 1, 1, 100, in -> in.readUTF()));
+      Assert.assertNull("another version", SidecarFile.read(sidecar, MAGIC, 2, 100, in -> in.readUTF()));
+      Assert.assertNull("the file changed", SidecarFile.read(sidecar, MAGIC, 1, 101, in -> in.readUTF()));
+
+      try (FileOutputStream out = new FileOutputStream(sidecar)) {
+         out.write(new byte[] {1, 2, 3});
+      }
+      Assert.assertNull("truncated", SidecarFile.read(sidecar, MAGIC, 1, 100, in -> in.readUTF()));
+   }
+}
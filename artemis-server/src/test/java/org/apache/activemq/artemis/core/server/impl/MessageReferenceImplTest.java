@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageReferenceImplTest {
+
+   @Test
+   public void testUndeliveredDefaults() {
+      MessageReferenceImpl reference = new MessageReferenceImpl(new CoreMessage(1, 50), null);
+
+      // setting the defaults mustn't change anything
+      reference.setDeliveryCount(0);
+      reference.setPersistedCount(0);
+      reference.setScheduledDeliveryTime(0);
+      reference.setInDelivery(false);
+      reference.emptyConsumerID();
+      reference.onDelivery(null);
+      reference.run();
+
+      Assert.assertEquals(0, reference.getDeliveryCount());
+      Assert.assertEquals(0, reference.getPersistedCount());
+      Assert.assertEquals(0, reference.getScheduledDeliveryTime());
+      Assert.assertFalse(reference.isInDelivery());
+      Assert.assertFalse(reference.isAlreadyAcked());
+      Assert.assertFalse(reference.hasConsumerId());
+      try {
+         reference.getConsumerId();
+         Assert.fail("there is no consumerID");
+      } catch (IllegalStateException expected) {
+      }
+      Assert.assertFalse(reference.hasDeliveryState());
+   }
+
+   @Test
+   public void testDeliveryDoesNotAllocateState() {
+      MessageReferenceImpl reference = new MessageReferenceImpl(new CoreMessage(1, 50), null);
+
+      // what every delivery and cancel does
+      reference.setConsumerId(10);
+      reference.incrementDeliveryCount();
+      reference.setInDelivery(true);
+      reference.onDelivery(ref -> { });
+      reference.run();
+      reference.setInDelivery(false);
+      reference.emptyConsumerID();
+      reference.decrementDeliveryCount();
+
+      Assert.assertFalse(reference.hasDeliveryState());
+
+      reference.setScheduledDeliveryTime(1000);
+      Assert.assertTrue(reference.hasDeliveryState());
+      Assert.assertEquals(1000, reference.getScheduledDeliveryTime());
+   }
+
+   @Test
+   public void testDeliveryState() {
+      MessageReferenceImpl reference = new MessageReferenceImpl(new CoreMessage(1, 50), null);
+
+      reference.incrementDeliveryCount();
+      reference.incrementDeliveryCount();
+      reference.decrementDeliveryCount();
+      Assert.assertEquals(1, reference.getDeliveryCount());
+      Assert.assertEquals(0, reference.getPersistedCount());
+
+      reference.setDeliveryCount(3);
+      Assert.assertEquals(3, reference.getDeliveryCount());
+      Assert.assertEquals(3, reference.getPersistedCount());
+
+      reference.setConsumerId(10);
+      Assert.assertTrue(reference.hasConsumerId());
+      Assert.assertEquals(10, reference.getConsumerId());
+      reference.emptyConsumerID();
+      Assert.assertFalse(reference.hasConsumerId());
+
+      reference.setInDelivery(true);
+      Assert.assertTrue(reference.isInDelivery());
+      reference.setAlreadyAcked();
+      Assert.assertTrue(reference.isAlreadyAcked());
+
+      AtomicInteger delivered = new AtomicInteger();
+      reference.onDelivery(ref -> delivered.incrementAndGet());
+      reference.run();
+      reference.run();
+      Assert.assertEquals(1, delivered.get());
+   }
+
+   @Test
+   public void testCopy() {
+      MessageReferenceImpl reference = new MessageReferenceImpl(new CoreMessage(1, 50), null);
+      reference.setScheduledDeliveryTime(1000);
+      reference.setDeliveryCount(2);
+      reference.setConsumerId(10);
+      reference.setSequence(5);
+
+      MessageReferenceImpl copy = (MessageReferenceImpl) reference.copy(null);
+      Assert.assertSame(reference.getMessage(), copy.getMessage());
+      Assert.assertEquals(1000, copy.getScheduledDeliveryTime());
+      Assert.assertEquals(2, copy.getDeliveryCount());
+      Assert.assertEquals(5, copy.getSequence());
+      // as before, the consumer and the persisted count aren't copied
+      Assert.assertFalse(copy.hasConsumerId());
+      Assert.assertEquals(0, copy.getPersistedCount());
+   }
+}
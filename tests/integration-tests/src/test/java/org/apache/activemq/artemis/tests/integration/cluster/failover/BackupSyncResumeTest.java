@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.cluster.failover;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.core.client.impl.ClientSessionFactoryInternal;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryNIO;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.NodeManager;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.logs.AssertionLoggerHandler;
+import org.apache.activemq.artemis.tests.util.TransportConfigurationUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A backup synchronizing again takes the files it has from its previous synchronization instead of receiving them.
+ */
+public class BackupSyncResumeTest extends FailoverTestBase {
+
+   private static final int BACKUP_WAIT_TIME = 60;
+
+   private static final int NUMBER_OF_MESSAGES = 100;
+
+   private ClientSessionFactoryInternal sessionFactory;
+
+   private ClientSession session;
+
+   private ClientProducer producer;
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      startBackupServer = false;
+      super.setUp();
+      sessionFactory = createSessionFactoryAndWaitForTopology(getServerLocator().setBlockOnDurableSend(true).setReconnectAttempts(15).setRetryInterval(200), 1);
+      session = addClientSession(sessionFactory.createSession(true, true));
+      session.createQueue(new QueueConfiguration(ADDRESS));
+      producer = addClientProducer(session.createProducer(ADDRESS));
+   }
+
+   @Override
+   protected void createConfigs() throws Exception {
+      createReplicatedConfigs();
+      liveServer.getServer().getConfiguration().setReplicationSyncStreams(2);
+   }
+
+   @Override
+   protected ActiveMQServer createInVMFailoverServer(final boolean realFiles,
+                                                     final Configuration configuration,
+                                                     final NodeManager nodeManager,
+                                                     int id) {
+      Map<String, AddressSettings> conf = new HashMap<>();
+      AddressSettings as = new AddressSettings().setMaxSizeBytes(PAGE_MAX).setPageSizeBytes(PAGE_SIZE).setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE);
+      conf.put(ADDRESS.toString(), as);
+      return createInVMFailoverServer(realFiles, configuration, PAGE_SIZE, PAGE_MAX, conf, nodeManager, id);
+   }
+
+   @Override
+   protected TransportConfiguration getAcceptorTransportConfiguration(boolean live) {
+      return TransportConfigurationUtils.getInVMAcceptor(live);
+   }
+
+   @Override
+   protected TransportConfiguration getConnectorTransportConfiguration(boolean live) {
+      return TransportConfigurationUtils.getInVMConnector(live);
+   }
+
+   @Test
+   public void testResumeAfterReconnect() throws Exception {
+      final PagingStore store = liveServer.getServer().getPagingManager().getPageStore(ADDRESS);
+      sendMessages(session, producer, NUMBER_OF_MESSAGES);
+      Assert.assertTrue(store.isPaging());
+      store.forceAnotherPage();
+
+      backupServer.start();
+      waitForRemoteBackup(sessionFactory, BACKUP_WAIT_TIME, true, backupServer.getServer());
+
+      // the connection to the backup drops, and it is down while the live goes on
+      backupServer.stop();
+      sendMessages(session, producer, NUMBER_OF_MESSAGES);
+      store.forceAnotherPage();
+
+      final List<File> pageFiles = pageFiles(backupConfig.getPagingLocation());
+      Assert.assertTrue(pageFiles.size() > 2);
+      final File completePageFile = pageFiles.get(1);
+      final long completePageSize = completePageFile.length();
+      // a page the previous synchronization was in the middle of
+      final File pageFile = pageFiles.get(0);
+      final long pageSize = pageFile.length();
+      final long synchronizedSize = pageSize / 2;
+      try (RandomAccessFile file = new RandomAccessFile(pageFile, "rw")) {
+         file.setLength(synchronizedSize);
+      }
+
+      try (AssertionLoggerHandler loggerHandler = new AssertionLoggerHandler()) {
+         backupServer.start();
+         waitForRemoteBackup(sessionFactory, BACKUP_WAIT_TIME, true, backupServer.getServer());
+
+         Assert.assertTrue("the synchronized page is skipped", loggerHandler.findText("AMQ221090", "has " + completePageSize + " of the " + completePageSize + " bytes of " + completePageFile.getName()));
+         Assert.assertTrue("the page is resumed", loggerHandler.findText("AMQ221090", "has " + synchronizedSize + " of the " + pageSize + " bytes of " + pageFile.getName()));
+      }
+
+      crash(session);
+      Assert.assertTrue("backup initialized", backupServer.getServer().waitForActivation(5, TimeUnit.SECONDS));
+
+      // the backup has all the messages as they were sent
+      session.start();
+      try (ClientConsumer consumer = session.createConsumer(ADDRESS)) {
+         receiveMessages(consumer, 0, NUMBER_OF_MESSAGES, true);
+         receiveMessages(consumer, 0, NUMBER_OF_MESSAGES, true);
+         Assert.assertNull(consumer.receiveImmediate());
+      }
+   }
+
+   /**
+    * @return the page files of {@link #ADDRESS}, in order
+    */
+   private static List<File> pageFiles(File pagingDirectory) throws Exception {
+      final List<File> pageFiles = new ArrayList<>();
+      for (File storeFolder : pagingDirectory.listFiles(File::isDirectory)) {
+         final File addressFile = new File(storeFolder, PagingStoreFactoryNIO.ADDRESS_FILE);
+         if (addressFile.exists() && ADDRESS.toString().equals(Files.readAllLines(addressFile.toPath()).get(0))) {
+            pageFiles.addAll(Arrays.asList(storeFolder.listFiles((dir, name) -> name.endsWith(".page"))));
+         }
+      }
+      pageFiles.sort(Comparator.comparingLong(pageFile -> Long.parseLong(pageFile.getName().substring(0, pageFile.getName().indexOf('.')))));
+      return pageFiles;
+   }
+}
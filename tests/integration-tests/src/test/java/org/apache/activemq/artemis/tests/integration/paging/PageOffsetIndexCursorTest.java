@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.paging;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.impl.AddressInfo;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.CFUtil;
+import org.apache.activemq.artemis.tests.util.Wait;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The cursor reads the complete pages that aren't cached through their offset index.
+ */
+public class PageOffsetIndexCursorTest extends ActiveMQTestBase {
+
+   private static final String ADDRESS = "PageOffsetIndexCursorTest";
+
+   private static final int PAGE_MAX = 10 * 1024;
+
+   private static final int PAGE_SIZE = 5 * 1024;
+
+   private static final int NUMBER_OF_MESSAGES = 100;
+
+   ActiveMQServer server;
+
+   @Before
+   @Override
+   public void setUp() throws Exception {
+      super.setUp();
+
+      Configuration config = createDefaultConfig(0, true).setJournalSyncNonTransactional(false);
+      config.setMessageExpiryScanPeriod(-1);
+
+      server = createServer(true, config, PAGE_SIZE, PAGE_MAX);
+      server.getAddressSettingsRepository().clear();
+      AddressSettings defaultSetting = new AddressSettings().setPageSizeBytes(PAGE_SIZE).setMaxSizeBytes(PAGE_MAX).setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE).setAutoCreateAddresses(false).setAutoCreateQueues(false).setMaxReadPageBytes(-1).setMaxReadPageMessages(-1).setPageOffsetIndex(true);
+      server.getAddressSettingsRepository().addMatch("#", defaultSetting);
+      server.start();
+
+      server.addAddressInfo(new AddressInfo(ADDRESS).addRoutingType(RoutingType.ANYCAST));
+      server.createQueue(new QueueConfiguration(ADDRESS).setRoutingType(RoutingType.ANYCAST));
+   }
+
+   @Test
+   public void testIndividualAckAfterRestart() throws Exception {
+      ConnectionFactory factory = CFUtil.createConnectionFactory("CORE", "tcp://localhost:61616");
+
+      final String body = "*".repeat(1024);
+
+      Queue queue = server.locateQueue(ADDRESS);
+      sendPaged(factory, queue, body, NUMBER_OF_MESSAGES);
+      Assert.assertTrue(queue.getPagingStore().getNumberOfPages() > 2);
+
+      try (Connection connection = factory.createConnection()) {
+         Session session = connection.createSession(false, 101); // INDIVIDUAL-ACK
+         connection.start();
+         MessageConsumer consumer = session.createConsumer(session.createQueue(ADDRESS));
+         for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            TextMessage message = (TextMessage) consumer.receive(5000);
+            Assert.assertNotNull(message);
+            Assert.assertEquals(i, message.getIntProperty("i"));
+            if (i % 2 == 0) {
+               message.acknowledge();
+            }
+         }
+      }
+
+      // after the restart no page is cached, so the complete pages are sought
+      server.stop();
+      server.start();
+      queue = server.locateQueue(ADDRESS);
+      Wait.assertEquals(NUMBER_OF_MESSAGES / 2, queue::getMessageCount);
+
+      try (Connection connection = factory.createConnection()) {
+         Session session = connection.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+         connection.start();
+         MessageConsumer consumer = session.createConsumer(session.createQueue(ADDRESS));
+         TextMessage message = null;
+         for (int i = 1; i < NUMBER_OF_MESSAGES; i += 2) {
+            message = (TextMessage) consumer.receive(5000);
+            Assert.assertNotNull(message);
+            Assert.assertEquals(i, message.getIntProperty("i"));
+            Assert.assertEquals(body, message.getText());
+         }
+         message.acknowledge();
+         Assert.assertNull(consumer.receiveNoWait());
+      }
+
+      Wait.assertEquals(0L, queue::getMessageCount);
+   }
+
+   @Test
+   public void testSeekPagesShared() throws Exception {
+      ConnectionFactory factory = CFUtil.createConnectionFactory("CORE", "tcp://localhost:61616");
+
+      sendPaged(factory, server.locateQueue(ADDRESS), "*".repeat(1024), NUMBER_OF_MESSAGES * 2);
+
+      server.stop();
+      server.start();
+      final PagingStore store = server.locateQueue(ADDRESS).getPagingStore();
+      final long firstPage = store.getFirstPage();
+      Assert.assertTrue(store.getNumberOfPages() > 20);
+
+      // the cursors seeking the same page share it
+      final Page page = store.seekPage(firstPage);
+      Assert.assertNotNull(page);
+      Assert.assertSame(page, store.seekPage(firstPage));
+      store.releaseSeekPage(page);
+      Assert.assertTrue(page.isOpen());
+
+      // beyond the pages sought at once, the pages are read through the page cache
+      final List<Page> pages = new ArrayList<>();
+      pages.add(page);
+      Page next;
+      while ((next = store.seekPage(firstPage + pages.size())) != null) {
+         pages.add(next);
+      }
+      Assert.assertTrue(pages.size() < store.getNumberOfPages() - 1);
+      pages.forEach(store::releaseSeekPage);
+      Assert.assertNotNull(store.seekPage(firstPage + pages.size()));
+   }
+
+   private static void sendPaged(ConnectionFactory factory, Queue queue, String body, int messages) throws Exception {
+      queue.getPagingStore().startPaging();
+
+      try (Connection connection = factory.createConnection()) {
+         Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+         MessageProducer producer = session.createProducer(session.createQueue(ADDRESS));
+         for (int i = 0; i < messages; i++) {
+            TextMessage message = session.createTextMessage(body);
+            message.setIntProperty("i", i);
+            producer.send(message);
+         }
+         session.commit();
+      }
+   }
+}
@@ -16,14 +16,18 @@
  */
 package org.apache.activemq.artemis.tests.integration.replication;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
@@ -38,6 +42,7 @@ import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
 import org.apache.activemq.artemis.api.core.ActiveMQNotConnectedException;
 import org.apache.activemq.artemis.api.core.Interceptor;
+import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.api.core.QueueConfiguration;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.TransportConfiguration;
@@ -50,9 +55,11 @@ import org.apache.activemq.artemis.api.core.client.ServerLocator;
 import org.apache.activemq.artemis.core.config.ClusterConnectionConfiguration;
 import org.apache.activemq.artemis.core.config.Configuration;
 import org.apache.activemq.artemis.core.config.ha.DistributedPrimitiveManagerConfiguration;
+import org.apache.activemq.artemis.core.config.ha.ReplicationPrimaryPolicyConfiguration;
 import org.apache.activemq.artemis.core.config.ha.SharedStoreSlavePolicyConfiguration;
 import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.journal.EncodingSupport;
 import org.apache.activemq.artemis.core.journal.IOCompletion;
 import org.apache.activemq.artemis.core.journal.Journal;
@@ -75,6 +82,7 @@ import org.apache.activemq.artemis.core.persistence.Persister;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.LargeServerMessageImpl;
+import org.apache.activemq.artemis.core.persistence.impl.journal.LargeServerMessageInSync;
 import org.apache.activemq.artemis.core.persistence.impl.journal.OperationContextImpl;
 import org.apache.activemq.artemis.core.protocol.core.CoreRemotingConnection;
 import org.apache.activemq.artemis.core.protocol.core.Packet;
@@ -94,11 +102,14 @@ import org.apache.activemq.artemis.tests.util.ReplicatedBackupUtils;
 import org.apache.activemq.artemis.tests.util.TransportConfigurationUtils;
 import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.RandomUtil;
+import org.apache.activemq.artemis.utils.Wait;
 import org.apache.activemq.artemis.utils.actors.OrderedExecutorFactory;
 import org.apache.activemq.artemis.utils.collections.SparseArrayLinkedList;
 import org.apache.activemq.artemis.utils.critical.EmptyCriticalAnalyzer;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -352,6 +363,70 @@ public final class ReplicationTest extends ActiveMQTestBase {
       }
    }
 
+   @Test
+   public void testAsyncReplicationLagSize() throws Exception {
+      testAsyncReplicationLag(16 * 1024, -1);
+   }
+
+   @Test
+   public void testAsyncReplicationLagTime() throws Exception {
+      testAsyncReplicationLag(-1, 200);
+   }
+
+   private void testAsyncReplicationLag(long maxLagSize, long maxLagTime) throws Exception {
+      Assume.assumeTrue("only the primary policy replicates asynchronously", pluggableQuorum);
+      final int numberOfMessages = 20;
+      setupServer(false, true, (liveConfig, backupConfig) -> {
+         ((ReplicationPrimaryPolicyConfiguration) liveConfig.getHAPolicyConfiguration()).setAsyncReplication(true).setMaxReplicationLagSize(maxLagSize).setMaxReplicationLagTime(maxLagTime);
+      }, DelayingInterceptor.class.getName());
+
+      manager = liveServer.getReplicationManager();
+      waitForComponent(manager);
+      Assert.assertTrue(manager.isAsyncReplication());
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      final ClientSession session = addClientSession(sf.createSession());
+      session.createQueue(new QueueConfiguration(ADDRESS));
+      final ClientProducer producer = session.createProducer(ADDRESS);
+
+      final AtomicInteger sent = new AtomicInteger();
+      DelayingInterceptor.delay = new CountDownLatch(1);
+      try {
+         final Future<?> sending = executor.submit(() -> {
+            for (int i = 0; i < numberOfMessages; i++) {
+               ClientMessage message = session.createMessage(true);
+               message.getBodyBuffer().writeBytes(new byte[4 * 1024]);
+               producer.send(message);
+               sent.incrementAndGet();
+               Thread.sleep(50);
+            }
+            return null;
+         });
+
+         // the backup acknowledges nothing, yet the durable sends complete until it lags behind too much
+         if (maxLagSize >= 0) {
+            Wait.assertTrue(() -> manager.getReplicationLagSize() > maxLagSize);
+         } else {
+            Wait.assertTrue(() -> manager.getReplicationLagTime() > maxLagTime);
+         }
+         Thread.sleep(200);
+         final int throttledAt = sent.get();
+         Assert.assertTrue(throttledAt > 1);
+         Thread.sleep(500);
+         Assert.assertEquals(throttledAt, sent.get());
+         Assert.assertFalse(sending.isDone());
+
+         DelayingInterceptor.delay.countDown();
+         sending.get(30, TimeUnit.SECONDS);
+      } finally {
+         DelayingInterceptor.delay.countDown();
+         DelayingInterceptor.delay = null;
+      }
+      Assert.assertEquals(numberOfMessages, sent.get());
+      Wait.assertEquals(0L, manager::getReplicationLagSize);
+      Wait.assertEquals(0L, manager::getReplicationLagTime);
+   }
+
    @Test
    public void testExceptionSettingActionBefore() throws Exception {
       OperationContext ctx = OperationContextImpl.getContext(factory);
@@ -587,6 +662,47 @@ public final class ReplicationTest extends ActiveMQTestBase {
       Assert.assertFalse(message1.getAppendFile().isOpen());
    }
 
+   @Test
+   public void testSyncLargeMessageFilesOverNetty() throws Exception {
+      setupServer(true, true, null);
+
+      JournalStorageManager storage = getStorage();
+
+      manager = liveServer.getReplicationManager();
+      waitForComponent(manager);
+      // the files are sent as file regions over a plain socket
+      Assert.assertTrue(manager.getBackupTransportConnection().getTransportConnection().isFileRegionSupported());
+
+      final int regionSize = 256 * 1024;
+      // a file ending right at the end of a region, one that doesn't, and one only partly sent
+      final byte[][] contents = {RandomUtil.randomBytes(4 * regionSize), RandomUtil.randomBytes(2 * regionSize + 1000), RandomUtil.randomBytes(3 * regionSize + 100)};
+      final long[] sizes = {4 * regionSize, 2 * regionSize + 1000, 2 * regionSize + 50};
+
+      final File liveFolder = temporaryFolder.newFolder("live-large-messages");
+      final SequentialFileFactory liveFactory = new NIOSequentialFileFactory(liveFolder, 1);
+      final Map<Long, Pair<String, Long>> largeMessages = new HashMap<>();
+      for (int i = 0; i < contents.length; i++) {
+         final String fileName = (1000 + i) + ".msg";
+         Files.write(new File(liveFolder, fileName).toPath(), contents[i]);
+         largeMessages.put(1000L + i, new Pair<>(fileName, sizes[i]));
+      }
+
+      manager.sendLargeMessageIdListMessage(largeMessages);
+      for (int i = 0; i < contents.length; i++) {
+         manager.syncLargeMessageFile(liveFactory.createSequentialFile((1000 + i) + ".msg"), sizes[i], 1000 + i);
+      }
+
+      blockOnReplication(storage, manager);
+
+      for (int i = 0; i < contents.length; i++) {
+         LargeServerMessageInSync message = (LargeServerMessageInSync) getReplicationEndpoint(backupServer).getLargeMessages().get(1000L + i);
+         Assert.assertNotNull(message);
+         final File synced = message.getSyncFile().getJavaFile();
+         Wait.assertEquals(sizes[i], synced::length);
+         Assert.assertArrayEquals(Arrays.copyOf(contents[i], (int) sizes[i]), Files.readAllBytes(synced.toPath()));
+      }
+   }
+
    class FakeData implements EncodingSupport {
 
       @Override
@@ -667,6 +783,27 @@ public final class ReplicationTest extends ActiveMQTestBase {
 
    }
 
+   /**
+    * Holds the packets to the backup while {@link #delay} is set.
+    */
+   public static final class DelayingInterceptor implements Interceptor {
+
+      static volatile CountDownLatch delay;
+
+      @Override
+      public boolean intercept(final Packet packet, final RemotingConnection connection) throws ActiveMQException {
+         final CountDownLatch delay = DelayingInterceptor.delay;
+         if (delay != null) {
+            try {
+               delay.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         }
+         return true;
+      }
+   }
+
    static final class FakeJournal implements Journal {
 
       @Override
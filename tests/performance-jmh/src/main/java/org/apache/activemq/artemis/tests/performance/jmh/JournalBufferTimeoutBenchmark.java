@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.ArtemisConstants;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.Journal;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the static journal-buffer-timeout with the adaptive one on durable appends, each writer waiting for its
+ * record to be synced.
+ * <p>
+ * Run it with a few threads ({@code -t 1}) for the latency of a lightly loaded broker and with many ({@code -t 32})
+ * for the throughput of a loaded one.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 2)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JournalBufferTimeoutBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "JournalBufferTimeoutBenchmark";
+   private static final String FILE_PREFIX = "perf";
+   private static final String FILE_EXTENSION = "amq";
+   private static final byte RECORD_TYPE = 0;
+
+   @Param({"NIO", "MAPPED"})
+   private String type;
+   @Param({"false", "true"})
+   private boolean adaptive;
+   @Param({"1024"})
+   private int recordSize;
+   @Param({"10485760"})
+   private int fileSize;
+
+   private SequentialFileFactory factory;
+   private Journal journal;
+   private byte[] recordData;
+   private final AtomicLong recordId = new AtomicLong();
+
+   @Setup
+   public void init() throws Exception {
+      final File storeDir = new File(STORE_DIR);
+      FileUtil.deleteDirectory(storeDir);
+      switch (type) {
+         case "NIO":
+            factory = new NIOSequentialFileFactory(storeDir, true, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, 1, false);
+            break;
+         case "MAPPED":
+            factory = new MappedSequentialFileFactory(storeDir, fileSize, true, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, null);
+            break;
+         default:
+            throw new IllegalArgumentException("unknown factory " + type);
+      }
+      factory.getTimedBuffer().setAdaptive(adaptive);
+      factory.start();
+      factory.createDirs();
+      journal = new JournalImpl(fileSize, 4, 20, 0, 0, factory, FILE_PREFIX, FILE_EXTENSION, factory.getMaxIO());
+      journal.start();
+      journal.loadInternalOnly();
+      recordData = new byte[recordSize];
+      Arrays.fill(recordData, (byte) 1);
+   }
+
+   @Benchmark
+   public void appendAddRecord() throws Exception {
+      journal.appendAddRecord(recordId.getAndIncrement(), RECORD_TYPE, recordData, true);
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      journal.stop();
+      factory.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.ArtemisConstants;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Samples the latency of durable appends, the percentiles showing the pauses compacting causes to producers, while
+ * a background thread compacts the journal over and over, with or without limiting the compacting read rate.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 2)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class JournalCompactBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "JournalCompactBenchmark";
+   private static final String FILE_PREFIX = "perf";
+   private static final String FILE_EXTENSION = "amq";
+   private static final byte RECORD_TYPE = 0;
+   private static final int FILE_SIZE = 10 * 1024 * 1024;
+
+   @Param({"false", "true"})
+   private boolean compacting;
+   @Param({"-1", "104857600"})
+   private long compactMaxReadRate;
+   @Param({"200000"})
+   private int liveRecords;
+   @Param({"1024"})
+   private int recordSize;
+
+   private SequentialFileFactory factory;
+   private JournalImpl journal;
+   private byte[] recordData;
+   private final AtomicLong recordId = new AtomicLong();
+   private Thread compactor;
+   private volatile boolean stopped;
+
+   @Setup
+   public void init() throws Exception {
+      final File storeDir = new File(STORE_DIR);
+      FileUtil.deleteDirectory(storeDir);
+      factory = new NIOSequentialFileFactory(storeDir, true, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, 1, false);
+      factory.start();
+      factory.createDirs();
+      // automatic compacting disabled: the compactor thread below triggers it
+      journal = new JournalImpl(FILE_SIZE, 4, 20, 0, 0, factory, FILE_PREFIX, FILE_EXTENSION, factory.getMaxIO()).setCompactMaxReadRate(compactMaxReadRate);
+      journal.start();
+      journal.loadInternalOnly();
+      recordData = new byte[recordSize];
+      Arrays.fill(recordData, (byte) 1);
+      for (int i = 0; i < liveRecords; i++) {
+         journal.appendAddRecord(recordId.getAndIncrement(), RECORD_TYPE, recordData, false);
+      }
+      journal.flush();
+      if (compacting) {
+         compactor = new Thread(() -> {
+            while (!stopped) {
+               try {
+                  journal.scheduleCompactAndBlock(-1);
+               } catch (Exception e) {
+                  if (!stopped) {
+                     e.printStackTrace();
+                  }
+                  return;
+               }
+            }
+         }, "compactor");
+         compactor.start();
+      }
+   }
+
+   @Benchmark
+   public void appendAddDeleteRecord() throws Exception {
+      final long id = recordId.getAndIncrement();
+      journal.appendAddRecord(id, RECORD_TYPE, recordData, true);
+      journal.appendDeleteRecord(id, true);
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      stopped = true;
+      if (compactor != null) {
+         compactor.join();
+      }
+      journal.stop();
+      factory.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.ArtemisConstants;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the restart time of a journal where most records were deleted, e.g. a broker that consumed most of
+ * its messages, loaded as it was left or after having been compacted on stop, and read by one or several threads.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JournalLoadBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "JournalLoadBenchmark";
+   private static final String FILE_PREFIX = "perf";
+   private static final String FILE_EXTENSION = "amq";
+   private static final byte RECORD_TYPE = 0;
+   private static final int FILE_SIZE = 10 * 1024 * 1024;
+
+   @Param({"500000"})
+   private int records;
+   @Param({"1024"})
+   private int recordSize;
+   @Param({"10"})
+   private int liveRecordsPercentage;
+   @Param({"false", "true"})
+   private boolean compactOnStop;
+   @Param({"1", "4"})
+   private int loadThreads;
+
+   private SequentialFileFactory factory;
+
+   @Setup
+   public void init() throws Exception {
+      final File storeDir = new File(STORE_DIR);
+      FileUtil.deleteDirectory(storeDir);
+      factory = new NIOSequentialFileFactory(storeDir, true, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, 1, false);
+      factory.start();
+      factory.createDirs();
+      final JournalImpl journal = createJournal();
+      journal.start();
+      journal.loadInternalOnly();
+      final byte[] recordData = new byte[recordSize];
+      Arrays.fill(recordData, (byte) 1);
+      final int liveEvery = Math.max(1, 100 / liveRecordsPercentage);
+      for (long id = 0; id < records; id++) {
+         journal.appendAddRecord(id, RECORD_TYPE, recordData, false);
+         if (id % liveEvery != 0) {
+            journal.appendDeleteRecord(id, false);
+         }
+      }
+      journal.flush();
+      if (compactOnStop) {
+         // as the journals of a broker, which reclaim their files
+         journal.setAutoReclaim(true);
+         journal.compactIfReclaimable(-1);
+      }
+      journal.stop();
+   }
+
+   private JournalImpl createJournal() {
+      final JournalImpl journal = new JournalImpl(FILE_SIZE, 2, 2, 2, 0, factory, FILE_PREFIX, FILE_EXTENSION, factory.getMaxIO()).setLoadThreads(loadThreads);
+      // every iteration must load the same files
+      journal.setAutoReclaim(false);
+      return journal;
+   }
+
+   @Benchmark
+   public JournalLoadInformation load() throws Exception {
+      final JournalImpl journal = createJournal();
+      journal.start();
+      try {
+         return journal.loadInternalOnly();
+      } finally {
+         journal.stop();
+      }
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      factory.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.ArtemisConstants;
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.Journal;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompressedMessageEncoding;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures storing durable text messages on the message journal as they are or deflated, the way the storage manager
+ * does with journal-compression-min-size, each writer waiting for its record to be synced. The {@code recordBytes}
+ * counter reports the bytes appended to the journal.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class JournalMessageCompressionBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "JournalMessageCompressionBenchmark";
+   private static final String FILE_PREFIX = "perf";
+   private static final String FILE_EXTENSION = "amq";
+   private static final SimpleString ADDRESS = SimpleString.toSimpleString("benchmark");
+
+   @Param({"10240", "102400"})
+   private int messageSize;
+   @Param({"false", "true"})
+   private boolean compressed;
+   @Param({"10485760"})
+   private int fileSize;
+
+   private SequentialFileFactory factory;
+   private Journal journal;
+   private byte[] body;
+   private final AtomicLong messageId = new AtomicLong();
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class RecordBytes {
+
+      public long recordBytes;
+   }
+
+   @Setup
+   public void init() throws Exception {
+      final File storeDir = new File(STORE_DIR);
+      FileUtil.deleteDirectory(storeDir);
+      factory = new NIOSequentialFileFactory(storeDir, true, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, 1, false);
+      factory.start();
+      factory.createDirs();
+      journal = new JournalImpl(fileSize, 4, 20, 0, 0, factory, FILE_PREFIX, FILE_EXTENSION, factory.getMaxIO());
+      journal.start();
+      journal.loadInternalOnly();
+      // JSON-like text, as compressible as typical application payloads
+      final StringBuilder text = new StringBuilder(messageSize);
+      for (int i = 0; text.length() < messageSize; i++) {
+         text.append("{\"id\":").append(i).append(",\"type\":\"order\",\"status\":\"").append(i % 3 == 0 ? "NEW" : "FILLED").append("\"},");
+      }
+      body = text.substring(0, messageSize).getBytes(StandardCharsets.US_ASCII);
+   }
+
+   @Benchmark
+   public void storeMessage(RecordBytes counters) throws Exception {
+      final long id = messageId.incrementAndGet();
+      final ICoreMessage message = new CoreMessage().initBuffer(messageSize + 100);
+      message.setMessageID(id);
+      message.setAddress(ADDRESS);
+      message.getBodyBuffer().writeBytes(body);
+      final CompressedMessageEncoding encoding = compressed ? CompressedMessageEncoding.compress(message) : null;
+      if (encoding != null) {
+         journal.appendAddRecord(id, JournalRecordIds.ADD_MESSAGE_COMPRESSED, encoding, true);
+         counters.recordBytes += encoding.getEncodeSize();
+      } else {
+         journal.appendAddRecord(id, JournalRecordIds.ADD_MESSAGE_PROTOCOL, message.getPersister(), message, true);
+         counters.recordBytes += message.getPersister().getEncodeSize(message);
+      }
+      // as if consumed, so the journal files get reclaimed
+      journal.appendDeleteRecord(id, false);
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      journal.stop();
+      factory.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.impl.JournalFile;
+import org.apache.activemq.artemis.core.journal.impl.JournalFileImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalRecordIndex;
+import org.apache.activemq.artemis.core.journal.impl.JournalRecordMap;
+import org.apache.activemq.artemis.core.journal.impl.OffHeapJournalRecordIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the journal record indexes holding many live records while records are added, updated and deleted as a
+ * broker does with its messages. Run it with {@code -prof gc} to compare their allocation rate too.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JournalRecordIndexBenchmark {
+
+   private static final int FILES = 64;
+   private static final int RECORD_SIZE = 1024;
+
+   @Param({"heap", "off-heap"})
+   private String index;
+   @Param({"1000000", "10000000"})
+   private int liveRecords;
+   @Param({"1"})
+   private int updates;
+
+   private JournalRecordIndex records;
+   private JournalFile[] files;
+   private long nextId;
+   private long oldestId;
+   private long probe;
+
+   @Setup
+   public void init() {
+      // the files are never opened, they just hold the counters
+      final SequentialFileFactory factory = new NIOSequentialFileFactory(new File(System.getProperty("java.io.tmpdir")), 1);
+      files = new JournalFile[FILES];
+      for (int i = 0; i < FILES; i++) {
+         files[i] = new JournalFileImpl(factory.createSequentialFile("record-index-" + i + ".amq"), i, JournalImpl.FORMAT_VERSION);
+      }
+      switch (index) {
+         case "heap":
+            records = new JournalRecordMap();
+            break;
+         case "off-heap":
+            records = new OffHeapJournalRecordIndex();
+            break;
+         default:
+            throw new IllegalArgumentException("unknown index " + index);
+      }
+      for (int i = 0; i < liveRecords; i++) {
+         addRecord();
+      }
+   }
+
+   private JournalFile currentFile(long id) {
+      return files[(int) ((id / 10_000) % FILES)];
+   }
+
+   private void addRecord() {
+      final long id = nextId++;
+      final JournalFile file = currentFile(id);
+      records.add(id, file, RECORD_SIZE);
+      for (int i = 0; i < updates; i++) {
+         records.update(id, file, RECORD_SIZE, false);
+      }
+   }
+
+   /**
+    * Adds a record and deletes the oldest one, keeping the number of live records constant.
+    */
+   @Benchmark
+   public boolean addUpdateDelete() {
+      addRecord();
+      final long id = oldestId++;
+      return records.delete(id, currentFile(nextId));
+   }
+
+   @Benchmark
+   public boolean contains() {
+      return records.contains(oldestId + (probe++ % liveRecords));
+   }
+
+   @TearDown
+   public void stop() {
+      records.close();
+   }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.impl.JournalFile;
+import org.apache.activemq.artemis.core.journal.impl.JournalFileImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalRecordIndex;
+import org.apache.activemq.artemis.core.journal.impl.JournalRecordMap;
+import org.apache.activemq.artemis.core.journal.impl.OffHeapJournalRecordIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Samples the latency of adding records to a growing journal record index, the top percentiles showing the pauses
+ * growing the index causes to the journal, and prints the footprint of the index once it holds {@code records}
+ * records: the heap retained after a full GC plus the direct memory of the off-heap index.
+ */
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JournalRecordIndexGrowthBenchmark {
+
+   private static final int RECORD_SIZE = 1024;
+
+   @Param({"heap", "off-heap"})
+   private String index;
+   @Param({"10000000"})
+   private int records;
+
+   private JournalFile file;
+   private JournalRecordIndex recordIndex;
+   private long nextId;
+
+   @Setup
+   public void init() {
+      // the file is never opened, it just holds the counters
+      final SequentialFileFactory factory = new NIOSequentialFileFactory(new File(System.getProperty("java.io.tmpdir")), 1);
+      file = new JournalFileImpl(factory.createSequentialFile("record-index-growth.amq"), 0, JournalImpl.FORMAT_VERSION);
+      printFootprint();
+   }
+
+   private JournalRecordIndex createIndex() {
+      switch (index) {
+         case "heap":
+            return new JournalRecordMap();
+         case "off-heap":
+            return new OffHeapJournalRecordIndex();
+         default:
+            throw new IllegalArgumentException("unknown index " + index);
+      }
+   }
+
+   private static long usedHeap() {
+      final Runtime runtime = Runtime.getRuntime();
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+
+   private void printFootprint() {
+      final long heapBefore = usedHeap();
+      final JournalRecordIndex filled = createIndex();
+      try {
+         for (long id = 0; id < records; id++) {
+            filled.add(id, file, RECORD_SIZE);
+         }
+         final long heap = usedHeap() - heapBefore;
+         final long direct = filled instanceof OffHeapJournalRecordIndex ? ((OffHeapJournalRecordIndex) filled).getMemorySize() : 0;
+         System.out.printf("%n%s index footprint with %d records: %d heap bytes, %d direct bytes, %.1f bytes per record%n",
+                           index, records, heap, direct, (double) (heap + direct) / records);
+      } finally {
+         filled.close();
+      }
+   }
+
+   @Setup(Level.Iteration)
+   public void newIndex() {
+      recordIndex = createIndex();
+      nextId = 0;
+   }
+
+   /**
+    * Adds a record, starting over with an empty index once it holds {@code records} records.
+    */
+   @Benchmark
+   public void add() {
+      if (nextId == records) {
+         recordIndex.close();
+         recordIndex = createIndex();
+         nextId = 0;
+      }
+      recordIndex.add(nextId++, file, RECORD_SIZE);
+   }
+
+   @TearDown(Level.Iteration)
+   public void closeIndex() {
+      recordIndex.close();
+   }
+
+}
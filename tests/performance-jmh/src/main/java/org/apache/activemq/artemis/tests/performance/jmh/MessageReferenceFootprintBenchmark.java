@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.impl.MessageReferenceImpl;
+import org.apache.activemq.artemis.utils.collections.LinkedListImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the heap taken by the references of a deep queue: run it with {@code -prof gc}, the
+ * {@code gc.alloc.rate.norm} of each benchmark is the footprint of a queued reference in bytes, as the references are
+ * linked into the queue list without any further allocation.
+ */
+@State(Scope.Thread)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx2g"})
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageReferenceFootprintBenchmark {
+
+   @Param({"1000000"})
+   private int queueDepth;
+
+   private Message message;
+   private LinkedListImpl<MessageReferenceImpl> queue;
+   private long sequence;
+
+   @Setup
+   public void init() {
+      message = new CoreMessage(1, 1024);
+   }
+
+   @Setup(Level.Iteration)
+   public void newQueue() {
+      queue = new LinkedListImpl<>();
+   }
+
+   private MessageReferenceImpl enqueue(MessageReferenceImpl reference) {
+      reference.setSequence(sequence++);
+      queue.addTail(reference);
+      if (queue.size() > queueDepth) {
+         queue.poll();
+      }
+      return reference;
+   }
+
+   /**
+    * A reference waiting in the queue, as most references of a deep queue are.
+    */
+   @Benchmark
+   public MessageReferenceImpl queued() {
+      return enqueue(new MessageReferenceImpl(message, null));
+   }
+
+   /**
+    * A reference delivered once and cancelled back to the queue.
+    */
+   @Benchmark
+   public MessageReferenceImpl redelivered() {
+      final MessageReferenceImpl reference = new MessageReferenceImpl(message, null);
+      reference.incrementDeliveryCount();
+      reference.setConsumerId(1);
+      return enqueue(reference);
+   }
+
+   /**
+    * A reference with a scheduled delivery time, the rare case paying for the extra delivery state.
+    */
+   @Benchmark
+   public MessageReferenceImpl scheduled() {
+      final MessageReferenceImpl reference = new MessageReferenceImpl(message, null);
+      reference.setScheduledDeliveryTime(1);
+      return enqueue(reference);
+   }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.message.impl.CoreMessagePersister;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.core.paging.impl.PagedMessageImpl;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.spi.core.protocol.MessagePersister;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing and depaging a page of text messages, with and without page compression. The {@code pageBytes}
+ * counter of {@code write} reports the bytes written to the page files, which divided by the operations is the size of
+ * a page on disk.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageCompressionBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "PageCompressionBenchmark";
+   private static final SimpleString ADDRESS = SimpleString.toSimpleString("benchmark");
+   private static final int MESSAGES = 1000;
+
+   @Param({"1024", "10240"})
+   private int messageSize;
+   @Param({"false", "true"})
+   private boolean compressed;
+
+   private SequentialFileFactory factory;
+
+   private StorageManager storageManager;
+
+   private byte[] body;
+
+   private int pageId;
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class PageBytes {
+
+      public long pageBytes;
+   }
+
+   @Setup
+   public void init() throws Exception {
+      MessagePersister.registerPersister(CoreMessagePersister.getInstance());
+      final File storeDir = new File(STORE_DIR);
+      FileUtil.deleteDirectory(storeDir);
+      factory = new NIOSequentialFileFactory(storeDir, 1);
+      factory.start();
+      factory.createDirs();
+      storageManager = new NullStorageManager();
+      // JSON-like text, as compressible as typical application payloads
+      final StringBuilder text = new StringBuilder(messageSize);
+      for (int i = 0; text.length() < messageSize; i++) {
+         text.append("{\"id\":").append(i).append(",\"type\":\"order\",\"status\":\"").append(i % 3 == 0 ? "NEW" : "FILLED").append("\"},");
+      }
+      body = text.substring(0, messageSize).getBytes(StandardCharsets.US_ASCII);
+      writePage(newPage(0));
+   }
+
+   private Page newPage(int pageId) throws Exception {
+      return new Page(ADDRESS, storageManager, factory, factory.createSequentialFile(pageId + ".page"), pageId).setCompressionEnabled(compressed);
+   }
+
+   private int writePage(Page page) throws Exception {
+      page.open(true);
+      for (int i = 0; i < MESSAGES; i++) {
+         final ICoreMessage message = new CoreMessage().initBuffer(messageSize + 100);
+         message.setMessageID(i);
+         message.setAddress(ADDRESS);
+         message.getBodyBuffer().writeBytes(body);
+         page.writeDirect(new PagedMessageImpl(message, new long[]{1}));
+      }
+      final int size = page.getSize();
+      page.close(false);
+      return size;
+   }
+
+   @Benchmark
+   public int write(PageBytes counters) throws Exception {
+      final Page page = newPage(++pageId);
+      final int size = writePage(page);
+      counters.pageBytes += size;
+      page.delete(null);
+      return size;
+   }
+
+   @Benchmark
+   public int depage() throws Exception {
+      final int read = newPage(0).getMessages().size();
+      if (read != MESSAGES) {
+         throw new IllegalStateException("read " + read + " messages instead of " + MESSAGES);
+      }
+      return read;
+   }
+
+   @TearDown(Level.Trial)
+   public void stop() throws Exception {
+      factory.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ICoreMessage;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.message.impl.CoreMessagePersister;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.core.paging.impl.PagedMessageImpl;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.spi.core.protocol.MessagePersister;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures depaging a complete page file, read through the page store's NIO file or through a memory mapping of it.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PageReadBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "PageReadBenchmark";
+   private static final SimpleString ADDRESS = SimpleString.toSimpleString("benchmark");
+   private static final int PAGE_SIZE = 10 * 1024 * 1024;
+
+   @Param({"1024", "10240"})
+   private int messageSize;
+   @Param({"false", "true"})
+   private boolean mapped;
+
+   private SequentialFileFactory factory;
+
+   private StorageManager storageManager;
+
+   private int messages;
+
+   @Setup
+   public void init() throws Exception {
+      MessagePersister.registerPersister(CoreMessagePersister.getInstance());
+      final File storeDir = new File(STORE_DIR);
+      FileUtil.deleteDirectory(storeDir);
+      factory = new NIOSequentialFileFactory(storeDir, 1);
+      factory.start();
+      factory.createDirs();
+      storageManager = new NullStorageManager();
+      final Page page = newPage();
+      page.open(true);
+      final byte[] body = new byte[messageSize];
+      Arrays.fill(body, (byte) 1);
+      long messageID = 0;
+      while (page.getSize() < PAGE_SIZE) {
+         final ICoreMessage message = new CoreMessage().initBuffer(messageSize + 100);
+         message.setMessageID(messageID++);
+         message.setAddress(ADDRESS);
+         message.getBodyBuffer().writeBytes(body);
+         page.writeDirect(new PagedMessageImpl(message, new long[]{1}));
+      }
+      page.close(false);
+      messages = (int) messageID;
+   }
+
+   private Page newPage() throws Exception {
+      return new Page(ADDRESS, storageManager, factory, factory.createSequentialFile("1.page"), 1).setMappedReads(mapped);
+   }
+
+   @Benchmark
+   public int depage() throws Exception {
+      final int read = newPage().getMessages().size();
+      if (read != messages) {
+         throw new IllegalStateException("read " + read + " messages instead of " + messages);
+      }
+      return read;
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      factory.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
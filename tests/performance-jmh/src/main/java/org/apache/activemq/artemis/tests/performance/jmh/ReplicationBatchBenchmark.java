@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.core.protocol.ServerPacketDecoder;
+import org.apache.activemq.artemis.core.protocol.core.Packet;
+import org.apache.activemq.artemis.core.protocol.core.impl.PacketImpl;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationBatchResponseMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationLargeMessageWriteMessage;
+import org.apache.activemq.artemis.core.protocol.core.impl.wireformat.ReplicationResponseMessage;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures replicating the operations queued on the replication stream as a packet each or as a batch: encoding them
+ * on the live, decoding them on the backup and the responses going back. The {@code operations} counter reports the
+ * replicated throughput, {@code frames} and {@code frameBytes} what it took on the wire.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReplicationBatchBenchmark {
+
+   @Param({"1", "16", "64"})
+   private int queued;
+   @Param({"64", "1024"})
+   private int recordSize;
+
+   private ServerPacketDecoder decoder;
+   private byte[] record;
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Frames {
+
+      public long operations;
+      public long frames;
+      public long frameBytes;
+   }
+
+   @Setup
+   public void init() {
+      decoder = new ServerPacketDecoder(new NullStorageManager());
+      record = new byte[recordSize];
+   }
+
+   private Packet transfer(PacketImpl packet, Frames counters) {
+      final ActiveMQBuffer buffer = packet.encode(null);
+      counters.frames++;
+      counters.frameBytes += buffer.writerIndex();
+      // the size is read by the frame decoder
+      buffer.readInt();
+      return decoder.decode(buffer, null);
+   }
+
+   private List<PacketImpl> operations() {
+      final List<PacketImpl> packets = new ArrayList<>(queued);
+      for (int i = 0; i < queued; i++) {
+         packets.add(new ReplicationLargeMessageWriteMessage(i, record));
+      }
+      return packets;
+   }
+
+   @Benchmark
+   public void perOperation(Frames counters, Blackhole bh) {
+      for (PacketImpl packet : operations()) {
+         bh.consume(transfer(packet, counters));
+         bh.consume(transfer(new ReplicationResponseMessage(), counters));
+      }
+      counters.operations += queued;
+   }
+
+   @Benchmark
+   public void batched(Frames counters, Blackhole bh) {
+      if (queued == 1) {
+         // nothing to batch with: the replication manager sends it as it is
+         perOperation(counters, bh);
+         return;
+      }
+      bh.consume(transfer(new ReplicationBatchMessage(operations()), counters));
+      bh.consume(transfer(new ReplicationBatchResponseMessage(queued), counters));
+      counters.operations += queued;
+   }
+
+}
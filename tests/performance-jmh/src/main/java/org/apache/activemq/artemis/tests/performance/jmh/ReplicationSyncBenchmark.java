@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the initial replication synchronization of a journal file over a loopback socket, reading it in chunks
+ * copied through pooled buffers as it is done over TLS, or sending it as file regions. The {@code syncBytes} counter
+ * reports the synchronization rate.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReplicationSyncBenchmark {
+
+   // the header of a ReplicationSyncFileMessage, roughly
+   private static final int HEADER_SIZE = 32;
+   private static final int COPY_CHUNK_SIZE = 32 * 1024;
+   private static final int REGION_CHUNK_SIZE = 256 * 1024;
+   private static final int FLOW_CONTROL_SIZE = 10;
+
+   @Param({"false", "true"})
+   private boolean zeroCopy;
+   @Param({"64"})
+   private int fileSizeMiB;
+
+   private File file;
+   private EventLoopGroup group;
+   private Channel server;
+   private Channel client;
+
+   @AuxCounters(AuxCounters.Type.EVENTS)
+   @State(Scope.Thread)
+   public static class Synced {
+
+      public long syncBytes;
+   }
+
+   @Setup
+   public void init() throws Exception {
+      file = File.createTempFile("replication-sync", ".amq");
+      file.deleteOnExit();
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+         final byte[] data = new byte[1024 * 1024];
+         for (int i = 0; i < fileSizeMiB; i++) {
+            raf.write(data);
+         }
+      }
+      group = new NioEventLoopGroup(2);
+      server = new ServerBootstrap().group(group).channel(NioServerSocketChannel.class)
+         .childHandler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel ch) {
+               ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                  @Override
+                  public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                     ReferenceCountUtil.release(msg);
+                  }
+               });
+            }
+         }).bind("127.0.0.1", 0).sync().channel();
+      client = new Bootstrap().group(group).channel(NioSocketChannel.class)
+         .handler(new ChannelInboundHandlerAdapter())
+         .connect(server.localAddress()).sync().channel();
+   }
+
+   @TearDown
+   public void close() throws Exception {
+      client.close().sync();
+      server.close().sync();
+      group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+      file.delete();
+   }
+
+   private ByteBuf header(int dataSize) {
+      final ByteBuf header = client.alloc().directBuffer(HEADER_SIZE + dataSize);
+      header.writerIndex(HEADER_SIZE);
+      return header;
+   }
+
+   private void awaitWritable() throws InterruptedException {
+      while (!client.isWritable()) {
+         TimeUnit.MICROSECONDS.sleep(10);
+      }
+   }
+
+   private long copy(FileChannel channel) throws Exception {
+      ChannelFuture last = null;
+      long sent = 0;
+      while (true) {
+         final ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer(COPY_CHUNK_SIZE, COPY_CHUNK_SIZE);
+         final ByteBuffer byteBuffer = buffer.writerIndex(COPY_CHUNK_SIZE).readerIndex(0).nioBuffer();
+         final int bytesRead = channel.read(byteBuffer);
+         if (bytesRead <= 0) {
+            buffer.release();
+            break;
+         }
+         awaitWritable();
+         // the packet is encoded in a buffer of its own, as ChannelImpl does
+         final ByteBuf packet = header(bytesRead).writeBytes(buffer, 0, bytesRead);
+         buffer.release();
+         last = client.writeAndFlush(packet);
+         sent += bytesRead;
+      }
+      if (last != null) {
+         last.sync();
+      }
+      return sent;
+   }
+
+   private long sendFileRegions(FileChannel channel) throws Exception {
+      final long fileSize = channel.size();
+      ChannelFuture last = null;
+      long position = 0;
+      int chunks = 0;
+      while (position < fileSize) {
+         final int toSend = (int) Math.min(REGION_CHUNK_SIZE, fileSize - position);
+         // the regions don't count toward writability: bound the queued ones as the replication manager does
+         if (last != null && chunks % FLOW_CONTROL_SIZE == 0) {
+            last.sync();
+         }
+         chunks++;
+         client.write(header(0));
+         last = client.writeAndFlush(new DefaultFileRegion(channel, position, toSend) {
+            @Override
+            protected void deallocate() {
+            }
+         });
+         position += toSend;
+      }
+      if (last != null) {
+         last.sync();
+      }
+      return position;
+   }
+
+   @Benchmark
+   public long sync(Synced synced) throws Exception {
+      try (FileInputStream fis = new FileInputStream(file);
+           FileChannel channel = fis.getChannel()) {
+         final long sent = zeroCopy ? sendFileRegions(channel) : copy(channel);
+         synced.syncBytes += sent;
+         return sent;
+      }
+   }
+
+}
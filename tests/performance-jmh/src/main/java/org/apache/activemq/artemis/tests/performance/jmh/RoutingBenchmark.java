@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.QueueConfiguration;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ActiveMQClient;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.server.JournalType;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.utils.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the path every message takes on the broker: ServerSessionImpl.send, PostOfficeImpl.route,
+ * QueueImpl.addTail and ServerConsumerImpl.handle, on an in-VM broker.
+ * <p>
+ * For ANYCAST there is a single queue with {@code fanOut} consumers, for MULTICAST there are {@code fanOut}
+ * subscription queues with one consumer each. The messages are spread over ten tiers and when {@code filtered} is
+ * true each queue only accepts the messages of one tier, the others are rejected by its filter. Consumers
+ * pre-acknowledge so the queues never build up a backlog.
+ * <p>
+ * Run with {@code -prof gc} to get the allocation rate per routed message.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RoutingBenchmark {
+
+   private static final String STORE_DIR = System.getProperty("user.dir") + File.separator + "RoutingBenchmark";
+   private static final SimpleString ADDRESS = SimpleString.toSimpleString("benchmark");
+   private static final SimpleString TIER = SimpleString.toSimpleString("tier");
+   private static final int TIERS = 10;
+
+   @Param({"ANYCAST", "MULTICAST"})
+   private RoutingType routingType;
+   @Param({"1", "10", "100"})
+   private int fanOut;
+   @Param({"false", "true"})
+   private boolean filtered;
+   @Param({"false", "true"})
+   private boolean durable;
+   @Param({"NULL", "NIO"})
+   private String journal;
+   @Param({"1024"})
+   private int messageSize;
+
+   private ActiveMQServer server;
+   private ServerLocator locator;
+   private ClientSessionFactory factory;
+   private ClientSession producerSession;
+   private ClientProducer producer;
+   private final List<ClientSession> consumerSessions = new ArrayList<>();
+   private byte[] body;
+   private long sequence;
+
+   @Setup
+   public void init() throws Exception {
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+      final boolean persistent = "NIO".equals(journal);
+      Configuration configuration = new ConfigurationImpl()
+         .setPersistenceEnabled(persistent)
+         .setJournalType(JournalType.NIO)
+         .setJournalDirectory(STORE_DIR + File.separator + "journal")
+         .setBindingsDirectory(STORE_DIR + File.separator + "bindings")
+         .setPagingDirectory(STORE_DIR + File.separator + "paging")
+         .setLargeMessagesDirectory(STORE_DIR + File.separator + "large-messages")
+         .setSecurityEnabled(false)
+         .setJMXManagementEnabled(false)
+         .addAcceptorConfiguration("invm", "vm://0")
+         // block the producer instead of growing the heap whenever the consumers fall behind
+         .addAddressSetting("#", new AddressSettings()
+            .setMaxSizeBytes(10 * 1024 * 1024)
+            .setAddressFullMessagePolicy(AddressFullMessagePolicy.BLOCK));
+      server = ActiveMQServers.newActiveMQServer(configuration, persistent);
+      server.start();
+
+      locator = ActiveMQClient.createServerLocator("vm://0")
+         .setBlockOnDurableSend(false)
+         .setBlockOnNonDurableSend(false);
+      factory = locator.createSessionFactory();
+
+      if (routingType == RoutingType.ANYCAST) {
+         createQueue(ADDRESS, filtered ? "tier = 1" : null);
+         for (int i = 0; i < fanOut; i++) {
+            createConsumer(ADDRESS);
+         }
+      } else {
+         for (int i = 0; i < fanOut; i++) {
+            final SimpleString queueName = ADDRESS.concat("." + i);
+            createQueue(queueName, filtered ? "tier = " + (i % TIERS) : null);
+            createConsumer(queueName);
+         }
+      }
+
+      producerSession = factory.createSession();
+      producer = producerSession.createProducer(ADDRESS);
+      body = new byte[messageSize];
+      sequence = 0;
+   }
+
+   private void createQueue(SimpleString queueName, String filter) throws Exception {
+      server.createQueue(new QueueConfiguration(queueName)
+                            .setAddress(ADDRESS)
+                            .setRoutingType(routingType)
+                            .setFilterString(filter)
+                            .setDurable(durable));
+   }
+
+   private void createConsumer(SimpleString queueName) throws Exception {
+      ClientSession session = factory.createSession(false, true, true, true);
+      ClientConsumer consumer = session.createConsumer(queueName);
+      consumer.setMessageHandler(message -> {
+      });
+      session.start();
+      consumerSessions.add(session);
+   }
+
+   @Benchmark
+   public void route() throws Exception {
+      ClientMessage message = producerSession.createMessage(durable);
+      message.getBodyBuffer().writeBytes(body);
+      message.putIntProperty(TIER, (int) (sequence++ % TIERS));
+      message.setRoutingType(routingType);
+      producer.send(message);
+   }
+
+   @TearDown
+   public void stop() throws Exception {
+      for (ClientSession session : consumerSessions) {
+         session.close();
+      }
+      consumerSessions.clear();
+      producerSession.close();
+      factory.close();
+      locator.close();
+      server.stop();
+      FileUtil.deleteDirectory(new File(STORE_DIR));
+   }
+
+}
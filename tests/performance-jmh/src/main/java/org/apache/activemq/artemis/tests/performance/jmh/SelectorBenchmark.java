@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.selector.filter.BooleanExpression;
+import org.apache.activemq.artemis.selector.filter.FilterException;
+import org.apache.activemq.artemis.selector.filter.Filterable;
+import org.apache.activemq.artemis.selector.filter.SelectorCompiler;
+import org.apache.activemq.artemis.selector.impl.SelectorParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the interpreted selector tree returned by {@link SelectorParser#parse(String)} with the same tree
+ * compiled by {@link SelectorCompiler}, evaluated against messages with int, double and String properties.
+ */
+@State(Scope.Benchmark)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SelectorBenchmark {
+
+   private static final int MESSAGES = 1024;
+   private static final SimpleString TIER = SimpleString.toSimpleString("tier");
+   private static final SimpleString PRICE = SimpleString.toSimpleString("price");
+   private static final SimpleString REGION = SimpleString.toSimpleString("region");
+   private static final String[] REGIONS = {"eu", "us", "apac"};
+
+   @Param({"tier = 3", "tier <> 3", "tier >= 2 AND tier < 7", "price > 99.5 AND region = 'eu'", "tier = 1 OR tier = 3 OR tier = 5 OR tier = 7"})
+   private String selector;
+
+   private BooleanExpression interpreted;
+   private BooleanExpression compiled;
+   private Filterable[] messages;
+   private int next;
+
+   @Setup
+   public void init() throws Exception {
+      interpreted = SelectorParser.parse(selector);
+      compiled = SelectorCompiler.compile(SelectorParser.parse(selector));
+      messages = new Filterable[MESSAGES];
+      for (int i = 0; i < MESSAGES; i++) {
+         Map<SimpleString, Object> properties = new HashMap<>();
+         properties.put(TIER, i % 10);
+         properties.put(PRICE, i * 0.25);
+         properties.put(REGION, REGIONS[i % REGIONS.length]);
+         messages[i] = new PropertiesFilterable(properties);
+      }
+      next = 0;
+   }
+
+   private Filterable nextMessage() {
+      final Filterable message = messages[next];
+      next = (next + 1) & (MESSAGES - 1);
+      return message;
+   }
+
+   @Benchmark
+   public boolean interpreted() throws FilterException {
+      return interpreted.matches(nextMessage());
+   }
+
+   @Benchmark
+   public boolean compiled() throws FilterException {
+      return compiled.matches(nextMessage());
+   }
+
+   private static final class PropertiesFilterable implements Filterable {
+
+      private final Map<SimpleString, Object> properties;
+
+      private PropertiesFilterable(Map<SimpleString, Object> properties) {
+         this.properties = properties;
+      }
+
+      @Override
+      public <T> T getBodyAs(Class<T> type) {
+         return null;
+      }
+
+      @Override
+      public Object getProperty(SimpleString name) {
+         return properties.get(name);
+      }
+
+      @Override
+      public Object getLocalConnectionId() {
+         return null;
+      }
+   }
+}
@@ -239,7 +239,7 @@ public class JournalCleanupCompactStressTest extends ActiveMQTestBase {
 
       System.out.println("Deleting everything!");
 
-      journal.getRecords().forEach((id, record) -> {
+      journal.getRecords().keysLongHashSet().forEach(id -> {
          try {
             journal.appendDeleteRecord(id, false);
          } catch (Exception e) {
@@ -18,7 +18,9 @@ package org.apache.activemq.artemis.tests.unit.core.journal.impl;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -28,7 +30,10 @@ import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.journal.EncodingSupport;
 import org.apache.activemq.artemis.core.journal.RecordInfo;
 import org.apache.activemq.artemis.core.journal.TestableJournal;
+import org.apache.activemq.artemis.core.journal.impl.JournalFile;
 import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.journal.impl.JournalReaderCallback;
+import org.apache.activemq.artemis.core.journal.impl.OffHeapJournalRecordIndex;
 import org.apache.activemq.artemis.logs.AssertionLoggerHandler;
 import org.apache.activemq.artemis.tests.unit.core.journal.impl.fakes.SimpleEncoding;
 import org.apache.activemq.artemis.utils.RandomUtil;
@@ -3074,6 +3079,183 @@ public abstract class JournalImplTestUnit extends JournalImplTestBase {
       loadAndCheck();
    }
 
+   @Test
+   public void testLoadThreads() throws Exception {
+      setup(2, 512 + 4 * 1024, true);
+
+      createJournal();
+      startJournal();
+      load();
+
+      for (int i = 0; i < 20; i++) {
+         final long id = i * 10;
+         add(id, id + 1, id + 2);
+         update(id, id + 1);
+         addTx(1000 + i, id + 3, id + 4);
+         updateTx(1000 + i, id);
+         deleteTx(1000 + i, id + 2);
+         if (i % 5 == 0) {
+            rollback(1000 + i);
+         } else {
+            commit(1000 + i);
+         }
+         delete(id + 1);
+      }
+      addTx(2000, 500, 501);
+      prepare(2000, new SimpleEncoding(10, (byte) 0));
+
+      stopJournal(false);
+      createJournal();
+      ((JournalImpl) journal).setLoadThreads(4);
+      startJournal();
+      loadAndCheck();
+      Assert.assertTrue(journal.getDataFilesCount() > 4);
+   }
+
+   @Test
+   public void testCompactIfReclaimable() throws Exception {
+      setup(2, 512 + 4 * 1024, true);
+
+      journal = new JournalImpl(fileSize, minFiles, poolSize, 1, 0, fileFactory, filePrefix, fileExtension, maxAIO);
+      addActiveMQComponent(journal);
+      startJournal();
+      load();
+
+      add(1, 2, 3);
+      Assert.assertFalse(journal.compactIfReclaimable(-1));
+
+      for (long id = 10; id < 40; id++) {
+         add(id);
+         delete(id);
+      }
+      journal.setAutoReclaim(false);
+      Assert.assertFalse(journal.compactIfReclaimable(-1));
+      journal.setAutoReclaim(true);
+      Assert.assertTrue(journal.compactIfReclaimable(-1));
+      Assert.assertFalse(journal.compactIfReclaimable(-1));
+
+      stopJournal(false);
+      createJournal();
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testCompactIfReclaimableDisabled() throws Exception {
+      setup(2, 512 + 4 * 1024, true);
+
+      // no compact min files
+      createJournal();
+      journal.setAutoReclaim(true);
+      startJournal();
+      load();
+
+      for (long id = 10; id < 40; id++) {
+         add(id);
+         delete(id);
+      }
+      Assert.assertFalse(journal.compactIfReclaimable(-1));
+   }
+
+   @Test
+   public void testOffHeapRecordIndex() throws Exception {
+      setup(2, 512 + 4 * 1024, true);
+
+      createJournal();
+      ((JournalImpl) journal).setOffHeapRecordIndex(true);
+      startJournal();
+      load();
+      Assert.assertTrue(((JournalImpl) journal).getRecords() instanceof OffHeapJournalRecordIndex);
+
+      for (int i = 0; i < 20; i++) {
+         final long id = i * 10;
+         add(id, id + 1, id + 2);
+         update(id, id + 1);
+         journal.forceMoveNextFile();
+         update(id);
+         addTx(1000 + i, id + 3, id + 4);
+         deleteTx(1000 + i, id + 2);
+         commit(1000 + i);
+         delete(id + 1);
+      }
+      journal.testCompact();
+      Assert.assertTrue(((JournalImpl) journal).getRecords() instanceof OffHeapJournalRecordIndex);
+      Assert.assertEquals(60, ((JournalImpl) journal).getRecords().size());
+
+      stopJournal(false);
+      createJournal();
+      ((JournalImpl) journal).setOffHeapRecordIndex(true);
+      startJournal();
+      loadAndCheck();
+   }
+
+   @Test
+   public void testReadRecordAt() throws Exception {
+      setup(2, 10 * 1024, true);
+      createJournal();
+      startJournal();
+      load();
+
+      for (int i = 0; i < 10; i++) {
+         add(i);
+         update(i);
+         addTx(100 + i, 1000 + i);
+         commit(100 + i);
+      }
+
+      stopJournal();
+
+      fileFactory.start();
+
+      int records = 0;
+      for (JournalFile file : ((JournalImpl) journal).orderFiles()) {
+         final Map<Integer, RecordInfo> recordsRead = new LinkedHashMap<>();
+         JournalImpl.readJournalFile(fileFactory, file, new JournalReaderCallback() {
+            private int position;
+
+            @Override
+            public void onReadRecordPosition(int position) {
+               this.position = position;
+            }
+
+            @Override
+            public void onReadAddRecord(RecordInfo info) {
+               recordsRead.put(position, info);
+            }
+
+            @Override
+            public void onReadUpdateRecord(RecordInfo info) {
+               recordsRead.put(position, info);
+            }
+
+            @Override
+            public void onReadAddRecordTX(long transactionID, RecordInfo info) {
+               recordsRead.put(position, info);
+            }
+         });
+
+         file.getFile().open();
+         try {
+            for (Map.Entry<Integer, RecordInfo> entry : recordsRead.entrySet()) {
+               final RecordInfo info = JournalImpl.readRecordAt(file.getFile(), file.getJournalVersion(), entry.getKey());
+               Assert.assertNotNull(info);
+               Assert.assertEquals(entry.getValue().id, info.id);
+               Assert.assertEquals(entry.getValue().userRecordType, info.userRecordType);
+               Assert.assertEquals(entry.getValue().isUpdate, info.isUpdate);
+               Assert.assertArrayEquals(entry.getValue().data, info.data);
+            }
+            // the header isn't a record
+            Assert.assertNull(JournalImpl.readRecordAt(file.getFile(), file.getJournalVersion(), 0));
+         } finally {
+            file.getFile().close();
+         }
+         records += recordsRead.size();
+      }
+      Assert.assertEquals(30, records);
+
+      fileFactory.stop();
+   }
+
    @Test
    public void testReclaimAfterUpdate() throws Exception {
       setup(2, 60 * 1024, true);
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import io.netty.buffer.ByteBuf;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
@@ -527,4 +528,70 @@ public class TimedBufferTest extends ActiveMQTestBase {
       }
 
    }
+
+   @Test
+   public void testAdaptiveTimeoutFollowsSyncLatency() throws Exception {
+      final long syncMillis = 2;
+      class SlowSyncObserver implements TimedBufferObserver {
+
+         @Override
+         public void flushBuffer(final ByteBuf byteBuf, final boolean sync, final List<IOCallback> callbacks) {
+            if (sync) {
+               LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(syncMillis));
+            }
+            callbacks.forEach(IOCallback::done);
+         }
+
+         @Override
+         public int getRemainingBytes() {
+            return 1024 * 1024;
+         }
+      }
+
+      final int timeout = (int) TimeUnit.MILLISECONDS.toNanos(1);
+      TimedBuffer timedBuffer = new TimedBuffer(null, 1000, timeout, false).setAdaptive(true);
+      timedBuffer.start();
+      timedBuffer.setObserver(new SlowSyncObserver());
+      final ActiveMQBuffer buff = ActiveMQBuffers.wrappedBuffer(new byte[10]);
+
+      try {
+         // syncs requested much faster than the device completes them: wait about one sync to batch them
+         final ReusableLatch done = new ReusableLatch(200);
+         for (int i = 0; i < 200; i++) {
+            timedBuffer.checkSize(10);
+            timedBuffer.addBytes(buff, true, new DummyCallback() {
+               @Override
+               public void done() {
+                  done.countDown();
+               }
+            });
+         }
+         Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+         Assert.assertTrue(timedBuffer.getSyncLatency() >= TimeUnit.MILLISECONDS.toNanos(syncMillis));
+         Assert.assertTrue(timedBuffer.getFlushTimeout() > 0);
+         Assert.assertTrue(timedBuffer.getFlushTimeout() <= (long) timeout * 4);
+         Assert.assertEquals(200, timedBuffer.getRecordsFlushed());
+         Assert.assertTrue(timedBuffer.getFlushes() < 200);
+
+         // syncs requested much slower than the device completes them: flush right away
+         for (int i = 0; i < 10; i++) {
+            done.setCount(1);
+            timedBuffer.checkSize(10);
+            timedBuffer.addBytes(buff, true, new DummyCallback() {
+               @Override
+               public void done() {
+                  done.countDown();
+               }
+            });
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Thread.sleep(20);
+         }
+         Wait.assertEquals(0L, timedBuffer::getFlushTimeout, 2000);
+
+         timedBuffer.setAdaptive(false);
+         Assert.assertEquals(timeout, timedBuffer.getFlushTimeout());
+      } finally {
+         timedBuffer.stop();
+      }
+   }
 }
@@ -16,6 +16,7 @@
  */
 package org.apache.activemq.artemis.tests.unit.core.paging.impl;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
@@ -30,6 +31,8 @@ import org.apache.activemq.artemis.core.message.impl.CoreMessage;
 import org.apache.activemq.artemis.core.message.impl.CoreMessagePersister;
 import org.apache.activemq.artemis.core.paging.PagedMessage;
 import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.core.paging.impl.PageOffsetIndex;
+import org.apache.activemq.artemis.core.paging.impl.PageReadWriter;
 import org.apache.activemq.artemis.core.paging.impl.PagedMessageImpl;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
@@ -100,6 +103,187 @@ public class PageTest extends ActiveMQTestBase {
       testAdd(new NIOSequentialFileFactory(getTestDirfile(), 1), 1);
    }
 
+   @Test
+   public void testOpenToSeek() throws Exception {
+      recreateDirectory(getTestDir());
+      final StorageManager storageManager = new NullStorageManager();
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      final SimpleString simpleDestination = new SimpleString("Test");
+      final int numberOfElements = 20;
+
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      page.open(true);
+      addPageElements(storageManager, simpleDestination, page, numberOfElements, false, 1);
+      page.sync();
+      page.close(true, false);
+
+      file = factory.createSequentialFile("00010.page");
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertEquals(numberOfElements, page.openToSeek());
+      // the page stays open between the reads
+      Assert.assertTrue(file.isOpen());
+      for (int i = 0; i < numberOfElements; i += 3) {
+         Assert.assertEquals(1 + i, page.readMessage(i).getMessage().getMessageID());
+         Assert.assertTrue(file.isOpen());
+      }
+      page.close(false);
+
+      // without a valid index the page can't be sought
+      Assert.assertTrue(PageOffsetIndex.indexFileOf(file.getJavaFile()).delete());
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertEquals(-1, page.openToSeek());
+      Assert.assertFalse(file.isOpen());
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10);
+      Assert.assertEquals(-1, page.openToSeek());
+   }
+
+   @Test
+   public void testReadMessageWithOffsetIndex() throws Exception {
+      recreateDirectory(getTestDir());
+      final StorageManager storageManager = new NullStorageManager();
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      final SimpleString simpleDestination = new SimpleString("Test");
+      final int numberOfElements = 100;
+
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      page.open(true);
+      addPageElements(storageManager, simpleDestination, page, numberOfElements, false, 1);
+      page.sync();
+      page.close(true, false);
+
+      final File indexFile = PageOffsetIndex.indexFileOf(file.getJavaFile());
+      Assert.assertTrue(indexFile.exists());
+      Assert.assertEquals(1, factory.listFiles("page").size());
+
+      file = factory.createSequentialFile("00010.page");
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertEquals(numberOfElements, page.readNumberOfMessages());
+      for (int i = numberOfElements - 1; i >= 0; i -= 7) {
+         final PagedMessage pagedMessage = page.readMessage(i);
+         Assert.assertNotNull(pagedMessage);
+         Assert.assertEquals(10, pagedMessage.getPageNumber());
+         Assert.assertEquals(i, pagedMessage.getMessageNumber());
+         Assert.assertEquals(1 + i, pagedMessage.getMessage().getMessageID());
+         Assert.assertEquals(simpleDestination, pagedMessage.getMessage().getAddressSimpleString());
+      }
+      Assert.assertNull(page.readMessage(numberOfElements));
+      Assert.assertFalse(file.isOpen());
+
+      // a missing index is rebuilt
+      Assert.assertTrue(indexFile.delete());
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertEquals(numberOfElements, page.readMessage(numberOfElements - 1).getMessage().getMessageID());
+      Assert.assertTrue(indexFile.exists());
+
+      // an index of a different page size is ignored
+      final PageOffsetIndex staleIndex = new PageOffsetIndex();
+      staleIndex.add(0);
+      staleIndex.write(indexFile, file.size() + 1);
+      Assert.assertNull(PageOffsetIndex.read(indexFile, file.size()));
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertEquals(numberOfElements, page.readNumberOfMessages());
+
+      file.open();
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertTrue(page.delete(page.read(storageManager)));
+      Assert.assertFalse(indexFile.exists());
+   }
+
+   @Test
+   public void testCompressedMessages() throws Exception {
+      recreateDirectory(getTestDir());
+      final StorageManager storageManager = new NullStorageManager();
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      final SimpleString simpleDestination = new SimpleString("Test");
+      final int numberOfElements = 50;
+      final byte[] content = new byte[1024];
+      Arrays.fill(content, (byte) 'b');
+
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setCompressionEnabled(true).setOffsetIndexEnabled(true);
+      page.open(true);
+      long uncompressedSize = 0;
+      for (int i = 0; i < numberOfElements; i++) {
+         ICoreMessage msg = new CoreMessage().initBuffer(100);
+         msg.setMessageID(1 + i);
+         msg.setAddress(simpleDestination);
+         // small messages aren't compressed
+         msg.getBodyBuffer().writeBytes(content, 0, i % 2 == 0 ? content.length : 10);
+         PagedMessage pagedMessage = new PagedMessageImpl(msg, new long[0]);
+         uncompressedSize += pagedMessage.getEncodeSize() + PageReadWriter.SIZE_RECORD;
+         page.write(pagedMessage);
+      }
+      page.sync();
+      Assert.assertEquals(file.size(), page.getSize());
+      page.close(true, false);
+      Assert.assertTrue(file.size() < uncompressedSize / 2);
+
+      for (boolean mapped : new boolean[]{false, true}) {
+         file = factory.createSequentialFile("00010.page");
+         page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setMappedReads(mapped);
+         final LinkedList<PagedMessage> msgs = page.getMessages();
+         Assert.assertEquals(numberOfElements, msgs.size());
+         for (int i = 0; i < numberOfElements; i++) {
+            final ICoreMessage msg = msgs.get(i).getMessage().toCore();
+            Assert.assertEquals(1 + i, msg.getMessageID());
+            Assert.assertEquals(simpleDestination, msg.getAddressSimpleString());
+            Assert.assertEquals(i % 2 == 0 ? content.length : 10, msg.getBodyBufferSize());
+         }
+         // the decoded messages take much more memory than the compressed page file
+         Assert.assertTrue(page.getMemoryEstimate() > uncompressedSize / 2);
+         Assert.assertTrue(page.getMemoryEstimate() > page.getSize() * 2);
+      }
+
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setOffsetIndexEnabled(true);
+      Assert.assertEquals(numberOfElements, page.readNumberOfMessages());
+      Assert.assertEquals(numberOfElements - 1, page.readMessage(numberOfElements - 2).getMessage().getMessageID());
+   }
+
+   @Test
+   public void testReadWithMappedReads() throws Exception {
+      recreateDirectory(getTestDir());
+      final StorageManager storageManager = new NullStorageManager();
+      final NIOSequentialFileFactory factory = new NIOSequentialFileFactory(getTestDirfile(), 1);
+      final SimpleString simpleDestination = new SimpleString("Test");
+      final int numberOfElements = 100;
+
+      SequentialFile file = factory.createSequentialFile("00010.page");
+      Page page = new Page(new SimpleString("something"), storageManager, factory, file, 10);
+      page.open(true);
+      addPageElements(storageManager, simpleDestination, page, numberOfElements, false, 1);
+      page.sync();
+      final long pageSize = page.getSize();
+      page.close(false);
+
+      file = factory.createSequentialFile("00010.page");
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setMappedReads(true);
+      final LinkedList<PagedMessage> msgs = page.getMessages();
+      Assert.assertFalse(file.isOpen());
+      Assert.assertEquals(numberOfElements, msgs.size());
+      Assert.assertEquals(numberOfElements, page.getNumberOfMessages());
+      Assert.assertEquals(pageSize, page.getSize());
+      for (int i = 0; i < numberOfElements; i++) {
+         final PagedMessage pagedMessage = msgs.get(i);
+         Assert.assertEquals(10, pagedMessage.getPageNumber());
+         Assert.assertEquals(i, pagedMessage.getMessageNumber());
+         Assert.assertEquals(1 + i, pagedMessage.getMessage().getMessageID());
+         Assert.assertEquals(simpleDestination, pagedMessage.getMessage().getAddressSimpleString());
+      }
+
+      // an incomplete message at the end of the file is ignored
+      file.open();
+      file.position(file.size());
+      final ByteBuffer partial = factory.newBuffer(3);
+      partial.put((byte) '{');
+      partial.flip();
+      file.writeDirect(partial, true);
+      file.close();
+      page = new Page(new SimpleString("something"), storageManager, factory, file, 10).setMappedReads(true);
+      Assert.assertEquals(numberOfElements, page.getMessages().size());
+   }
+
    /**
     * Validate if everything we add is recovered
     */
@@ -28,6 +28,7 @@ import org.apache.activemq.artemis.api.core.ActiveMQException;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
 import org.apache.activemq.artemis.core.message.impl.CoreMessage;
 import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
 import org.apache.activemq.artemis.core.postoffice.Binding;
@@ -47,6 +48,7 @@ import org.apache.activemq.artemis.core.transaction.TransactionOperation;
 import org.apache.activemq.artemis.selector.filter.Filterable;
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 public class BindingsImplTest extends ActiveMQTestBase {
 
@@ -83,6 +85,71 @@ public class BindingsImplTest extends ActiveMQTestBase {
       assertEquals(0, fake.routedCount.get());
    }
 
+   @Test
+   public void testGetNextBindingWithLoadBalancingOnDemandWeighted() throws Exception {
+      final Bindings bind = new BindingsImpl(null, null, new NullStorageManager(1000));
+      bind.setMessageLoadBalancingType(MessageLoadBalancingType.ON_DEMAND_WEIGHTED);
+      final FakeRemoteBinding[] remotes = new FakeRemoteBinding[3];
+      for (int i = 0; i < remotes.length; i++) {
+         remotes[i] = new FakeRemoteBinding(new SimpleString("a"));
+         remotes[i].filter = null;
+         remotes[i].messageLoadBalancingType = MessageLoadBalancingType.ON_DEMAND_WEIGHTED;
+         remotes[i].consumers = i + 1;
+         bind.addBinding(remotes[i]);
+      }
+
+      // each node gets a share of the messages proportional to its consumers
+      for (int i = 0; i < 60; i++) {
+         bind.route(new CoreMessage(i, 100), new RoutingContextImpl(new FakeTransaction()));
+      }
+      assertEquals(10, remotes[0].routedCount.get());
+      assertEquals(20, remotes[1].routedCount.get());
+      assertEquals(30, remotes[2].routedCount.get());
+
+      // more than a producer window waiting for the bridge: the node is skipped
+      Mockito.when(remotes[1].queue.getPersistentSize()).thenReturn(remotes[1].producerWindowSize + 1L);
+      for (int i = 0; i < 40; i++) {
+         bind.route(new CoreMessage(i, 100), new RoutingContextImpl(new FakeTransaction()));
+      }
+      assertEquals(20, remotes[0].routedCount.get());
+      assertEquals(20, remotes[1].routedCount.get());
+      assertEquals(60, remotes[2].routedCount.get());
+
+      // the messages being sent by the bridge don't count
+      Mockito.when(remotes[1].queue.getDeliveringSize()).thenReturn(2L);
+      for (int i = 0; i < 6; i++) {
+         bind.route(new CoreMessage(i, 100), new RoutingContextImpl(new FakeTransaction()));
+      }
+      assertEquals(21, remotes[0].routedCount.get());
+      assertEquals(22, remotes[1].routedCount.get());
+      assertEquals(63, remotes[2].routedCount.get());
+   }
+
+   @Test
+   public void testRouteWithSelectorIndex() throws Exception {
+      final Bindings bind = new BindingsImpl(null, null, new NullStorageManager(1000));
+      final FakeBinding[] indexed = new FakeBinding[40];
+      for (int i = 0; i < indexed.length; i++) {
+         indexed[i] = new FakeBinding(new SimpleString("q" + i));
+         indexed[i].filter = FilterImpl.createFilter("tier = " + (i % 10) + " AND region = 'EU'");
+         bind.addBinding(indexed[i]);
+      }
+      final FakeBinding unindexed = new FakeBinding(new SimpleString("other"));
+      unindexed.filter = FilterImpl.createFilter("price > 5");
+      bind.addBinding(unindexed);
+
+      bind.route(new CoreMessage(0, 100).putIntProperty("tier", 3).putStringProperty("region", "EU").putIntProperty("price", 10), new RoutingContextImpl(new FakeTransaction()));
+      bind.route(new CoreMessage(1, 100).putLongProperty("tier", 3L).putStringProperty("region", "EU"), new RoutingContextImpl(new FakeTransaction()));
+      bind.route(new CoreMessage(2, 100).putDoubleProperty("tier", 3.0).putStringProperty("region", "EU"), new RoutingContextImpl(new FakeTransaction()));
+      bind.route(new CoreMessage(3, 100).putIntProperty("tier", 3).putStringProperty("region", "US"), new RoutingContextImpl(new FakeTransaction()));
+      bind.route(new CoreMessage(4, 100).putStringProperty("region", "EU").putIntProperty("price", 10), new RoutingContextImpl(new FakeTransaction()));
+
+      for (int i = 0; i < indexed.length; i++) {
+         assertEquals("q" + i, i % 10 == 3 ? 3 : 0, indexed[i].routedCount.get());
+      }
+      assertEquals(2, unindexed.routedCount.get());
+   }
+
    @Test
    public void testRemoveWhileRouting() throws Exception {
       // It would require many iterations before getting a failure
@@ -454,10 +521,18 @@ public class BindingsImplTest extends ActiveMQTestBase {
 
    private final class FakeRemoteBinding extends FakeBinding implements RemoteQueueBinding  {
       MessageLoadBalancingType messageLoadBalancingType;
+      int consumers;
+      int producerWindowSize = 1024;
+      final Queue queue = Mockito.mock(Queue.class);
       FakeRemoteBinding(SimpleString name) {
          super(name);
       }
 
+      @Override
+      public boolean isHighAcceptPriority(final Message message) {
+         return consumers > 0;
+      }
+
       @Override
       public boolean isLocal() {
          return false;
@@ -465,12 +540,12 @@ public class BindingsImplTest extends ActiveMQTestBase {
 
       @Override
       public int consumerCount() {
-         return 0;
+         return consumers;
       }
 
       @Override
       public Queue getQueue() {
-         return null;
+         return queue;
       }
 
       @Override
@@ -503,5 +578,10 @@ public class BindingsImplTest extends ActiveMQTestBase {
       public MessageLoadBalancingType getMessageLoadBalancingType() {
          return messageLoadBalancingType;
       }
+
+      @Override
+      public int getProducerWindowSize() {
+         return producerWindowSize;
+      }
    }
 }
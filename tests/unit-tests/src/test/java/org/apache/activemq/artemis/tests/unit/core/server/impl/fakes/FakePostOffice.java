@@ -251,7 +251,8 @@ public class FakePostOffice implements PostOffice {
 
    @Override
    public Pair<RoutingContext, Message> redistribute(final Message message,
-                                                     final Queue originatingQueue) throws Exception {
+                                                     final Queue originatingQueue,
+                                                     final Transaction tx) throws Exception {
       return null;
    }
 
@@ -43,5 +43,20 @@ public class MemorySizeTest extends Assert {
             return new MessageReferenceImpl();
          }
       }));
+
+      logger.info("Scheduled message reference size is {}", MemorySize.calculateSize(new MemorySize.ObjectFactory() {
+         @Override
+         public Object createObject() {
+            MessageReferenceImpl reference = new MessageReferenceImpl();
+            reference.setScheduledDeliveryTime(1);
+            return reference;
+         }
+      }));
+   }
+
+   @Test
+   public void testMessageReferenceMemoryEstimate() throws Exception {
+      // a reference is charged for its own fields only: the delivery state most references never get is left out
+      assertEquals(56, MessageReferenceImpl.getMemoryEstimate());
    }
 }